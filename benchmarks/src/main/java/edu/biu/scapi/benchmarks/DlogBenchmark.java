@@ -0,0 +1,130 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.benchmarks;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.FixedBasesTable;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Measures the exponentiations of the Dlog groups of all the providers. <p>
+ * Each group is given as "provider:algorithm", where the algorithm is written as for the {@link DlogGroupFactory}.
+ * The groups of the native providers need the SCAPI native libraries in the java.library.path.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DlogBenchmark {
+
+	@Param({"BC:DlogECF2m(K-233)", "BC:DlogECF2m(B-163)", 
+			"OpenSSL:DlogECF2m(K-233)", "OpenSSL:DlogECFp(P-256)", "OpenSSL:DlogZpSafePrime(1024)",
+			"Miracl:DlogECF2m(K-233)", "Miracl:DlogECFp(P-256)", 
+			"CryptoPP:DlogZpSafePrime(1024)"})
+	public String group;
+	
+	//The number of bases in the multi-exponentiation.
+	@Param({"8"})
+	public int numOfBases;
+	
+	private DlogGroup dlog;
+	private GroupElement base;
+	private BigInteger exponent;
+	private GroupElement[] bases;
+	private BigInteger[] exponents;
+	private FixedBasesTable table;
+	
+	@Setup
+	public void setup() throws Exception {
+		int index = group.indexOf(':');
+		dlog = DlogGroupFactory.getInstance().getObject(group.substring(index + 1), group.substring(0, index));
+		
+		SecureRandom random = new SecureRandom();
+		BigInteger q = dlog.getOrder();
+		base = dlog.createRandomElement();
+		exponent = new BigInteger(q.bitLength(), random).mod(q);
+		
+		bases = new GroupElement[numOfBases];
+		exponents = new BigInteger[numOfBases];
+		for (int i = 0; i < numOfBases; i++){
+			bases[i] = dlog.createRandomElement();
+			exponents[i] = new BigInteger(q.bitLength(), random).mod(q);
+		}
+		table = new FixedBasesTable(dlog, bases);
+	}
+	
+	@TearDown
+	public void tearDown(){
+		dlog.endExponentiateWithPreComputedValues(base);
+	}
+	
+	@Benchmark
+	public GroupElement exponentiate(){
+		return dlog.exponentiate(base, exponent);
+	}
+	
+	@Benchmark
+	public GroupElement exponentiateWithPreComputedValues(){
+		return dlog.exponentiateWithPreComputedValues(base, exponent);
+	}
+	
+	@Benchmark
+	public GroupElement simultaneousMultipleExponentiations(){
+		return dlog.simultaneousMultipleExponentiations(bases, exponents);
+	}
+	
+	@Benchmark
+	public GroupElement fixedBasesMultipleExponentiations(){
+		return table.exponentiate(exponents);
+	}
+	
+	@Benchmark
+	public GroupElement multiplyGroupElements(){
+		return dlog.multiplyGroupElements(base, bases[0]);
+	}
+}
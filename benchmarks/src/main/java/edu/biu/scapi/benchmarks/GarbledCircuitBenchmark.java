@@ -0,0 +1,134 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.benchmarks;
+
+import java.io.File;
+import java.security.SecureRandom;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.biu.scapi.circuits.circuit.BooleanCircuit;
+import edu.biu.scapi.circuits.encryption.AES128MultiKeyEncryption;
+import edu.biu.scapi.circuits.encryption.AESFixedKeyMultiKeyEncryption;
+import edu.biu.scapi.circuits.garbledCircuit.CircuitCreationValues;
+import edu.biu.scapi.circuits.garbledCircuit.FreeXORGarblingParameters;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuit;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledBooleanCircuitImp;
+import edu.biu.scapi.circuits.garbledCircuit.GarbledWire;
+import edu.biu.scapi.circuits.garbledCircuit.GarblingParameters;
+import edu.biu.scapi.circuits.garbledCircuit.StandardGarblingParameters;
+import edu.biu.scapi.exceptions.NotAllInputsSetException;
+import edu.biu.scapi.primitives.prf.jce.JceAES;
+
+/**
+ * Measures the garbling and the evaluation of the circuits in the assets of the Malicious Yao protocol. <p>
+ * The circuits directory is taken from the system property "scapi.circuits.dir". 
+ * By default, it is the assets directory of the repository, relative to the benchmarks directory.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GarbledCircuitBenchmark {
+
+	private static final String CIRCUITS_DIR = System.getProperty("scapi.circuits.dir", "../src/java/edu/biu/SCProtocols/MaliciousYao/assets/circuits");
+	
+	@Param({"AES", "ADD", "SHA1"})
+	public String circuit;
+	
+	@Param({"FreeXOR", "FreeXORRowReduction", "Standard"})
+	public String garbling;
+	
+	private GarbledBooleanCircuit garbledCircuit;
+	
+	@Setup
+	public void setup() throws Exception {
+		BooleanCircuit bc = new BooleanCircuit(new File(CIRCUITS_DIR, getCircuitFileName()));
+		
+		GarblingParameters params;
+		if (garbling.equals("FreeXOR")){
+			params = new FreeXORGarblingParameters(bc, new AESFixedKeyMultiKeyEncryption(new JceAES()), false);
+		} else if (garbling.equals("FreeXORRowReduction")){
+			params = new FreeXORGarblingParameters(bc, new AESFixedKeyMultiKeyEncryption(new JceAES()), true);
+		} else if (garbling.equals("Standard")){
+			params = new StandardGarblingParameters(bc, new AES128MultiKeyEncryption(new JceAES()), new SecureRandom(), false);
+		} else {
+			throw new IllegalArgumentException("unknown garbling type " + garbling);
+		}
+		garbledCircuit = new GarbledBooleanCircuitImp(params);
+		
+		//Garble the circuit and set random inputs of both parties, for the compute benchmark.
+		CircuitCreationValues values = garbledCircuit.garble();
+		SecureRandom random = new SecureRandom();
+		Map<Integer, Byte> ungarbledInput = new HashMap<Integer, Byte>();
+		for (int party = 1; party <= garbledCircuit.getNumberOfParties(); party++){
+			List<Integer> indices = garbledCircuit.getInputWireIndices(party);
+			for (int w : indices){
+				ungarbledInput.put(w, (byte) random.nextInt(2));
+			}
+		}
+		garbledCircuit.setGarbledInputFromUngarbledInput(ungarbledInput, values.getAllInputWireValues());
+	}
+	
+	private String getCircuitFileName(){
+		if (circuit.equals("AES")){
+			return "AES/NigelAes.txt";
+		} else if (circuit.equals("ADD")){
+			return "ADD/NigelAdd32.txt";
+		} else if (circuit.equals("SHA1")){
+			return "SHA1/NigelSHA1.txt";
+		}
+		throw new IllegalArgumentException("unknown circuit " + circuit);
+	}
+	
+	@Benchmark
+	public CircuitCreationValues garble(){
+		return garbledCircuit.garble();
+	}
+	
+	@Benchmark
+	public Map<Integer, GarbledWire> compute() throws NotAllInputsSetException {
+		return garbledCircuit.compute();
+	}
+}
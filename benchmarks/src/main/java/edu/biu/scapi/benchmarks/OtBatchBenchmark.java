@@ -0,0 +1,173 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.benchmarks;
+
+import java.security.SecureRandom;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionGeneralRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTExtensionGeneralSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTMaliciousKOSExtensionReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTMaliciousKOSExtensionSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTSemiHonestIKNPExtensionReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension.OTSemiHonestIKNPExtensionSender;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArrayReceiver;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArraySender;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.bc.BcDlogECF2m;
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+
+/**
+ * Measures a batch of oblivious transfers between two parties that run in the same JVM. <p>
+ * The benchmark thread plays the sender and the receiver runs in another thread. 
+ * The base OTs of the OT extensions are executed once, in the setup.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OtBatchBenchmark {
+
+	@Param({"SemiHonestDDH", "SemiHonestIKNP", "MaliciousKOS"})
+	public String ot;
+	
+	@Param({"1024"})
+	public int numOfOts;
+	
+	//The size of each transferred element, in bytes.
+	@Param({"16"})
+	public int elementSize;
+	
+	private TwoParties parties;
+	private OTBatchSender sender;
+	private OTBatchReceiver receiver;
+	private OTBatchSInput senderInput;
+	private OTBatchRInput receiverInput;
+	
+	@Setup
+	public void setup() throws Exception {
+		parties = new TwoParties();
+		final SecureRandom random = new SecureRandom();
+		final DlogGroup senderDlog = new BcDlogECF2m("K-233");
+		final DlogGroup receiverDlog = new BcDlogECF2m("K-233");
+		
+		//The receiver is created in its thread since the OT extensions execute the base OTs in the constructors.
+		Future<OTBatchReceiver> receiverTask = parties.startOther(new Callable<OTBatchReceiver>() {
+			public OTBatchReceiver call() throws Exception {
+				if (ot.equals("SemiHonestIKNP")){
+					return new OTSemiHonestIKNPExtensionReceiver(parties.getOtherChannel(), receiverDlog, new HKDF(new BcHMAC()), random);
+				} else if (ot.equals("MaliciousKOS")){
+					return new OTMaliciousKOSExtensionReceiver(parties.getOtherChannel(), receiverDlog, new HKDF(new BcHMAC()), random);
+				}
+				return new OTSemiHonestDDHBatchOnByteArrayReceiver(receiverDlog, new HKDF(new BcHMAC()), random);
+			}
+		});
+		if (ot.equals("SemiHonestIKNP")){
+			sender = new OTSemiHonestIKNPExtensionSender(parties.getChannel(), senderDlog, new HKDF(new BcHMAC()), random);
+		} else if (ot.equals("MaliciousKOS")){
+			sender = new OTMaliciousKOSExtensionSender(parties.getChannel(), senderDlog, new HKDF(new BcHMAC()), random);
+		} else if (ot.equals("SemiHonestDDH")){
+			sender = new OTSemiHonestDDHBatchOnByteArraySender(senderDlog, new HKDF(new BcHMAC()), random);
+		} else {
+			throw new IllegalArgumentException("unknown OT " + ot);
+		}
+		receiver = TwoParties.join(receiverTask);
+		
+		//Create random inputs.
+		byte[] x0 = new byte[numOfOts * elementSize];
+		byte[] x1 = new byte[numOfOts * elementSize];
+		byte[] sigma = new byte[numOfOts];
+		random.nextBytes(x0);
+		random.nextBytes(x1);
+		for (int i = 0; i < numOfOts; i++){
+			sigma[i] = (byte) random.nextInt(2);
+		}
+		
+		if (sender instanceof OTSemiHonestDDHBatchOnByteArraySender){
+			ArrayList<byte[]> x0Arr = new ArrayList<byte[]>();
+			ArrayList<byte[]> x1Arr = new ArrayList<byte[]>();
+			ArrayList<Byte> sigmaArr = new ArrayList<Byte>();
+			for (int i = 0; i < numOfOts; i++){
+				byte[] x0i = new byte[elementSize];
+				byte[] x1i = new byte[elementSize];
+				System.arraycopy(x0, i * elementSize, x0i, 0, elementSize);
+				System.arraycopy(x1, i * elementSize, x1i, 0, elementSize);
+				x0Arr.add(x0i);
+				x1Arr.add(x1i);
+				sigmaArr.add(sigma[i]);
+			}
+			senderInput = new OTBatchOnByteArraySInput(x0Arr, x1Arr);
+			receiverInput = new OTBatchRBasicInput(sigmaArr);
+		} else {
+			senderInput = new OTExtensionGeneralSInput(x0, x1, numOfOts);
+			receiverInput = new OTExtensionGeneralRInput(sigma, elementSize * 8);
+		}
+	}
+	
+	@TearDown
+	public void tearDown(){
+		parties.close();
+	}
+	
+	@Benchmark
+	public OTBatchROutput transfer() throws Exception {
+		Future<OTBatchROutput> receiverTask = parties.startOther(new Callable<OTBatchROutput>() {
+			public OTBatchROutput call() throws Exception {
+				return receiver.transfer(parties.getOtherChannel(), receiverInput);
+			}
+		});
+		sender.transfer(parties.getChannel(), senderInput);
+		return TwoParties.join(receiverTask);
+	}
+}
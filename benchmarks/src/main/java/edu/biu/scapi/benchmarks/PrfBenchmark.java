@@ -0,0 +1,96 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.benchmarks;
+
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+import javax.crypto.IllegalBlockSizeException;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.biu.scapi.primitives.prf.PrpFixed;
+import edu.biu.scapi.primitives.prf.PseudorandomFunction;
+import edu.biu.scapi.tools.Factories.PrfFactory;
+
+/**
+ * Measures the throughput of the pseudorandom functions of all the providers. <p>
+ * Each benchmark computes the function on a buffer of the given size: block ciphers encrypt the whole buffer block by block,
+ * and the other functions compute a single output on the buffer.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PrfBenchmark {
+
+	@Param({"BC:AES", "JCE:AES", "OpenSSL:AES", "BC:HMac(SHA-256)", "OpenSSL:HMac(SHA-256)"})
+	public String prf;
+	
+	//The number of bytes that each operation processes.
+	@Param({"64", "16384"})
+	public int size;
+	
+	private PseudorandomFunction function;
+	private byte[] in;
+	private byte[] out;
+	
+	@Setup
+	public void setup() throws Exception {
+		int index = prf.indexOf(':');
+		function = PrfFactory.getInstance().getObject(prf.substring(index + 1), prf.substring(0, index));
+		function.setKey(function.generateKey(128));
+		
+		in = new byte[size];
+		new SecureRandom().nextBytes(in);
+		out = new byte[Math.max(size, function.getBlockSize())];
+	}
+	
+	@Benchmark
+	public byte[] compute() throws IllegalBlockSizeException {
+		int blockSize = function.getBlockSize();
+		if (function instanceof PrpFixed){
+			((PrpFixed) function).computeBlocks(in, 0, out, 0, size / blockSize);
+		} else {
+			function.computeBlock(in, 0, size, out, 0);
+		}
+		return out;
+	}
+}
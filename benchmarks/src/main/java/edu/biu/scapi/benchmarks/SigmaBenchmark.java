@@ -0,0 +1,140 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.benchmarks;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProver;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifier;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHProverInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dh.SigmaDHVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogProverInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dlog.SigmaDlogVerifierComputation;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Measures a complete interactive execution of sigma protocols between two parties that run in the same JVM. <p>
+ * The benchmark thread plays the prover and the verifier runs in another thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SigmaBenchmark {
+
+	@Param({"Dlog", "DH"})
+	public String protocol;
+	
+	@Param({"BC:DlogECF2m(K-233)", "Miracl:DlogECF2m(K-233)", "OpenSSL:DlogECFp(P-256)"})
+	public String group;
+	
+	//The soundness parameter, in bits.
+	@Param({"80"})
+	public int t;
+	
+	private TwoParties parties;
+	private SigmaProver prover;
+	private SigmaVerifier verifier;
+	private SigmaProverInput proverInput;
+	private SigmaCommonInput commonInput;
+	
+	@Setup
+	public void setup() throws Exception {
+		parties = new TwoParties();
+		SecureRandom random = new SecureRandom();
+		int index = group.indexOf(':');
+		DlogGroup dlog = DlogGroupFactory.getInstance().getObject(group.substring(index + 1), group.substring(0, index));
+		BigInteger q = dlog.getOrder();
+		BigInteger w = new BigInteger(q.bitLength(), random).mod(q);
+		
+		if (protocol.equals("Dlog")){
+			GroupElement h = dlog.exponentiate(dlog.getGenerator(), w);
+			prover = new SigmaProver(parties.getChannel(), new SigmaDlogProverComputation(dlog, t, random));
+			verifier = new SigmaVerifier(parties.getOtherChannel(), new SigmaDlogVerifierComputation(dlog, t, random));
+			proverInput = new SigmaDlogProverInput(h, w);
+			commonInput = new SigmaDlogCommonInput(h);
+		} else if (protocol.equals("DH")){
+			GroupElement h = dlog.createRandomElement();
+			GroupElement u = dlog.exponentiate(dlog.getGenerator(), w);
+			GroupElement v = dlog.exponentiate(h, w);
+			prover = new SigmaProver(parties.getChannel(), new SigmaDHProverComputation(dlog, t, random));
+			verifier = new SigmaVerifier(parties.getOtherChannel(), new SigmaDHVerifierComputation(dlog, t, random));
+			proverInput = new SigmaDHProverInput(h, u, v, w);
+			commonInput = new SigmaDHCommonInput(h, u, v);
+		} else {
+			throw new IllegalArgumentException("unknown protocol " + protocol);
+		}
+	}
+	
+	@TearDown
+	public void tearDown(){
+		parties.close();
+	}
+	
+	@Benchmark
+	public boolean prove() throws Exception {
+		Future<Boolean> verifierTask = parties.startOther(new Callable<Boolean>() {
+			public Boolean call() throws Exception {
+				return verifier.verify(commonInput);
+			}
+		});
+		prover.prove(proverInput);
+		boolean verified = TwoParties.join(verifierTask);
+		if (!verified){
+			throw new IllegalStateException("the proof was not verified");
+		}
+		return verified;
+	}
+}
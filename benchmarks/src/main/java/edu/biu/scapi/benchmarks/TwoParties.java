@@ -0,0 +1,91 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.benchmarks;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.LocalChannel;
+
+/**
+ * Runs the two parties of a protocol in the same JVM. <p>
+ * The benchmark thread plays the measured party and the other party runs in a dedicated thread, 
+ * so that the measured time is the time of a complete execution of the protocol. 
+ * The parties are connected by {@link LocalChannel}s that serialize the messages, as the socket channels do.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class TwoParties {
+
+	private final Channel[] channels = LocalChannel.createPair(LocalChannel.Transfer.BY_BYTES);
+	private final ExecutorService otherParty = Executors.newSingleThreadExecutor();
+	
+	/**
+	 * @return the channel of the party that runs in the benchmark thread.
+	 */
+	Channel getChannel(){
+		return channels[0];
+	}
+	
+	/**
+	 * @return the channel of the party that runs in the other thread.
+	 */
+	Channel getOtherChannel(){
+		return channels[1];
+	}
+	
+	/**
+	 * Starts the given task in the thread of the other party.
+	 */
+	<T> Future<T> startOther(Callable<T> task){
+		return otherParty.submit(task);
+	}
+	
+	/**
+	 * Waits for a task that was started by {@link #startOther(Callable)} and returns its result.
+	 * @throws IllegalStateException if the task failed.
+	 */
+	static <T> T join(Future<T> task) throws InterruptedException {
+		try {
+			return task.get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException("the other party failed", e.getCause());
+		}
+	}
+	
+	/**
+	 * Closes the channels and stops the thread of the other party.
+	 */
+	void close(){
+		channels[0].close();
+		channels[1].close();
+		otherParty.shutdownNow();
+	}
+}
@@ -1,15 +1,20 @@
 package edu.biu.protocols.yao.common;
 
 /**
- * This class provides a tool to measure times.
+ * This class provides a tool to measure times.<p>
  * 
+ * Each measured action is also recorded as a phase of the {@link PhaseProfiler}, in case it is enabled.
+ * 
+ * @deprecated Use {@link PhaseProfiler}, which measures nested phases and exports the measurements.
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Asaf Cohen)
  *
  */
+@Deprecated
 public class LogTimer {
 	private long start;				// Used to hold the start time of some action.
 	private long end;				// Used to hold the end time of some action.
 	private String name;			// Holds the name of the measured action. 
+	private PhaseProfiler.Phase phase;	// The profiler phase of the measured action.
 	private final boolean verbose;	//Indicates whether or not print the times.
 	
 	/**
@@ -26,8 +31,8 @@ public class LogTimer {
 	 * @param verbose Indicates whether or not print the times.
 	 */
 	public LogTimer(String name, boolean verbose) {
-		this.reset(name);
 		this.verbose = verbose;
+		this.reset(name);
 	}
 
 	/**
@@ -36,6 +41,7 @@ public class LogTimer {
 	 */
 	public void reset(String name) {
 		this.name = name;
+		this.phase = PhaseProfiler.start(name);
 		this.start = System.nanoTime();
 		if (verbose) {
 			System.out.println("started " + name + "...");
@@ -47,9 +53,10 @@ public class LogTimer {
 	 */
 	public void stop() {
 		end = System.nanoTime();
-		long runtime = (end - start);
+		phase.stop();
+		long runtime = (end - start) / 1000000;
 		if (verbose) {
-			System.out.println(name + " took " + runtime + " miliseconds.");
+			System.out.println(name + " took " + runtime + " milliseconds.");
 			System.out.println("--------------------------------------------------------------------------------");
 		}
 	}
@@ -0,0 +1,390 @@
+package edu.biu.protocols.yao.common;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+
+import edu.biu.scapi.comm.ChannelMetrics;
+
+/**
+ * This class provides a structured profiler for the phases of the protocols.<p>
+ *
+ * A phase is opened by {@link #start(String)} and closed by {@link Phase#stop()}. Phases that are opened while another phase
+ * of the same thread is open become its children, so that the measured phases form a tree. Each phase is identified by its path,
+ * which is the names of the enclosing phases separated by "/". The measurements of all the executions of the same path are
+ * summed into one {@link PhaseRecord}.<p>
+ *
+ * For each phase the profiler measures the wall time, the cpu time of the running thread, the bytes allocated by the running
+ * thread (in case the JVM supports it, otherwise -1) and the bytes that passed through the channels that record to the metrics
+ * object given in {@link #setChannelMetrics(ChannelMetrics)} (see {@link edu.biu.scapi.comm.MeteredChannel}).<p>
+ *
+ * The profiler is disabled by default. In that case {@link #start(String)} returns a shared phase that does nothing,
+ * so the phases can be left in the protocols code.
+ *
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class PhaseProfiler {
+
+	private static volatile boolean enabled = false;			// Indicates whether or not to measure the phases.
+	private static volatile ChannelMetrics metrics = null;		// Used to measure the network bytes of each phase.
+
+	// The phase that is currently open in each thread.
+	private static final ThreadLocal<Phase> current = new ThreadLocal<Phase>();
+	// The records of all measured paths, in the order they were first stopped.
+	private static final LinkedHashMap<String, PhaseRecord> records = new LinkedHashMap<String, PhaseRecord>();
+
+	// The phase returned when the profiler is disabled.
+	private static final Phase DISABLED = new Phase();
+
+	private static final ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+	// Set when the profiler is first enabled, after turning on the thread accounting of the JVM.
+	private static volatile boolean cpuTimeSupported = false;
+	private static volatile boolean allocationSupported = false;
+	private static boolean accountingChecked = false;
+
+	private PhaseProfiler() {}
+
+	/**
+	 * Enables or disables the profiler. Phases that were started before the profiler was disabled are still recorded when stopped.<p>
+	 * The first time the profiler is enabled it turns on the cpu time and allocation accounting of the threads, in case the JVM supports
+	 * them and they are off. These settings affect the whole JVM and are left on when the profiler is disabled.
+	 * @param enable true to measure the phases; false otherwise.
+	 */
+	public static void setEnabled(boolean enable) {
+		if (enable) {
+			enableThreadAccounting();
+		}
+		enabled = enable;
+	}
+
+	/**
+	 * Turns on the cpu time and allocation accounting of the threads, if they are supported.
+	 */
+	private static synchronized void enableThreadAccounting() {
+		if (accountingChecked) {
+			return;
+		}
+		accountingChecked = true;
+
+		boolean cpu = false;
+		try {
+			cpu = threads.isCurrentThreadCpuTimeSupported();
+			if (cpu && !threads.isThreadCpuTimeEnabled()) {
+				threads.setThreadCpuTimeEnabled(true);
+			}
+		} catch (UnsupportedOperationException e) {
+			cpu = false;
+		}
+		cpuTimeSupported = cpu;
+
+		//The allocated bytes are available only in JVMs that provide the com.sun.management extension.
+		boolean allocation = false;
+		try {
+			if (threads instanceof com.sun.management.ThreadMXBean) {
+				com.sun.management.ThreadMXBean ext = (com.sun.management.ThreadMXBean) threads;
+				allocation = ext.isThreadAllocatedMemorySupported();
+				if (allocation && !ext.isThreadAllocatedMemoryEnabled()) {
+					ext.setThreadAllocatedMemoryEnabled(true);
+				}
+			}
+		} catch (Throwable e) {
+			allocation = false;
+		}
+		allocationSupported = allocation;
+	}
+
+	/**
+	 * @return true if the profiler measures the phases; false otherwise.
+	 */
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Sets the metrics object that is used to measure the network bytes of each phase.
+	 * Since the metrics can be shared by channels of different threads, the network bytes of a phase include all the traffic
+	 * recorded to the metrics while the phase was open.
+	 * @param channelMetrics The metrics of the protocol channels, or null in order to stop measuring the network bytes.
+	 */
+	public static void setChannelMetrics(ChannelMetrics channelMetrics) {
+		metrics = channelMetrics;
+	}
+
+	/**
+	 * Starts a new phase. In case another phase of this thread is open, the new phase is its child.
+	 * @param name The name of the phase.
+	 * @return The started phase. The caller should call {@link Phase#stop()} when the phase is done.
+	 */
+	public static Phase start(String name) {
+		if (!enabled) {
+			return DISABLED;
+		}
+		Preconditions.checkNotNull(name);
+
+		Phase parent = current.get();
+		Phase phase = new Phase(name, parent);
+		current.set(phase);
+		return phase;
+	}
+
+	/**
+	 * Removes all the records.
+	 */
+	public static void reset() {
+		synchronized (records) {
+			records.clear();
+		}
+	}
+
+	/**
+	 * @return Copies of the records of all measured paths, in the order they were first stopped.
+	 */
+	public static List<PhaseRecord> getRecords() {
+		List<PhaseRecord> list = new ArrayList<PhaseRecord>();
+		synchronized (records) {
+			for (PhaseRecord record : records.values()) {
+				list.add(new PhaseRecord(record));
+			}
+		}
+		return list;
+	}
+
+	/**
+	 * @return The records as a json array. Each record is an object with the fields path, count, wallNanos, cpuNanos,
+	 * allocatedBytes and networkBytes.
+	 */
+	public static String toJson() {
+		StringBuilder json = new StringBuilder("[");
+		List<PhaseRecord> list = getRecords();
+		for (int i = 0; i < list.size(); i++) {
+			PhaseRecord record = list.get(i);
+			if (i > 0) {
+				json.append(',');
+			}
+			json.append("\n  {\"path\": \"").append(escapeJson(record.getPath()))
+				.append("\", \"count\": ").append(record.getCount())
+				.append(", \"wallNanos\": ").append(record.getWallNanos())
+				.append(", \"cpuNanos\": ").append(record.getCpuNanos())
+				.append(", \"allocatedBytes\": ").append(record.getAllocatedBytes())
+				.append(", \"networkBytes\": ").append(record.getNetworkBytes())
+				.append('}');
+		}
+		return json.append(list.isEmpty() ? "]" : "\n]").toString();
+	}
+
+	/**
+	 * @return The records in csv format, with a header line.
+	 */
+	public static String toCsv() {
+		StringBuilder csv = new StringBuilder("path,count,wallNanos,cpuNanos,allocatedBytes,networkBytes\n");
+		for (PhaseRecord record : getRecords()) {
+			csv.append('"').append(record.getPath().replace("\"", "\"\"")).append('"')
+				.append(',').append(record.getCount())
+				.append(',').append(record.getWallNanos())
+				.append(',').append(record.getCpuNanos())
+				.append(',').append(record.getAllocatedBytes())
+				.append(',').append(record.getNetworkBytes())
+				.append('\n');
+		}
+		return csv.toString();
+	}
+
+	private static String escapeJson(String s) {
+		StringBuilder escaped = new StringBuilder(s.length());
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c == '"' || c == '\\') {
+				escaped.append('\\').append(c);
+			} else if (c < 0x20) {
+				escaped.append(String.format("\\u%04x", (int) c));
+			} else {
+				escaped.append(c);
+			}
+		}
+		return escaped.toString();
+	}
+
+	private static long cpuTime() {
+		return cpuTimeSupported ? threads.getCurrentThreadCpuTime() : -1;
+	}
+
+	private static long allocatedBytes() {
+		if (!allocationSupported) {
+			return -1;
+		}
+		return ((com.sun.management.ThreadMXBean) threads).getThreadAllocatedBytes(Thread.currentThread().getId());
+	}
+
+	private static long networkBytes(ChannelMetrics channelMetrics) {
+		return (channelMetrics == null) ? -1 : channelMetrics.getBytesSent() + channelMetrics.getBytesReceived();
+	}
+
+	private static void record(String path, long wall, long cpu, long allocated, long network) {
+		synchronized (records) {
+			PhaseRecord record = records.get(path);
+			if (record == null) {
+				record = new PhaseRecord(path);
+				records.put(path, record);
+			}
+			record.add(wall, cpu, allocated, network);
+		}
+	}
+
+	/**
+	 * An open phase. A phase should be stopped by the thread that started it.
+	 */
+	public static final class Phase {
+		private final String path;					// The names of this phase and its enclosing phases.
+		private final Phase parent;					// The enclosing phase, or null for a root phase.
+		private final ChannelMetrics channelMetrics;	// The metrics used to measure the network bytes.
+		private final long startWall;
+		private final long startCpu;
+		private final long startAllocated;
+		private final long startNetwork;
+		private boolean stopped;
+
+		/**
+		 * Creates the phase that is returned when the profiler is disabled.
+		 */
+		private Phase() {
+			this.path = null;
+			this.parent = null;
+			this.channelMetrics = null;
+			this.startWall = this.startCpu = this.startAllocated = this.startNetwork = 0;
+			this.stopped = true;
+		}
+
+		private Phase(String name, Phase parent) {
+			this.path = (parent == null) ? name : parent.path + "/" + name;
+			this.parent = parent;
+			this.channelMetrics = metrics;
+			this.startNetwork = networkBytes(channelMetrics);
+			this.startAllocated = allocatedBytes();
+			this.startCpu = cpuTime();
+			this.startWall = System.nanoTime();
+		}
+
+		/**
+		 * Stops the phase and records its measurements. <p>
+		 * Children of this phase that were not stopped (for example, because of an exception) are stopped first.
+		 * Stopping a phase more than once has no effect.
+		 */
+		public void stop() {
+			if (stopped) {
+				return;
+			}
+
+			//Stop the open children of this phase, if there are any.
+			Phase open = current.get();
+			while (open != null && open != this) {
+				if (open.isAncestor(this)) {
+					open.stop();
+					open = current.get();
+				} else {
+					break;
+				}
+			}
+
+			long wall = System.nanoTime() - startWall;
+			long cpu = (startCpu < 0) ? -1 : cpuTime() - startCpu;
+			long allocated = (startAllocated < 0) ? -1 : allocatedBytes() - startAllocated;
+			long network = (startNetwork < 0) ? -1 : networkBytes(channelMetrics) - startNetwork;
+			stopped = true;
+
+			if (current.get() == this) {
+				current.set(parent);
+			}
+			record(path, wall, cpu, allocated, network);
+		}
+
+		/**
+		 * @return The path of the phase, or null if the profiler was disabled when this phase was requested.
+		 */
+		public String getPath() {
+			return path;
+		}
+
+		private boolean isAncestor(Phase phase) {
+			for (Phase p = parent; p != null; p = p.parent) {
+				if (p == phase) {
+					return true;
+				}
+			}
+			return false;
+		}
+	}
+
+	/**
+	 * The summed measurements of all the executions of a phase path. <p>
+	 * A measure that is not available in the running environment is -1.
+	 */
+	public static final class PhaseRecord {
+		private final String path;
+		private long count;
+		private long wallNanos;
+		private long cpuNanos;
+		private long allocatedBytes;
+		private long networkBytes;
+
+		private PhaseRecord(String path) {
+			this.path = path;
+		}
+
+		private PhaseRecord(PhaseRecord other) {
+			this.path = other.path;
+			this.count = other.count;
+			this.wallNanos = other.wallNanos;
+			this.cpuNanos = other.cpuNanos;
+			this.allocatedBytes = other.allocatedBytes;
+			this.networkBytes = other.networkBytes;
+		}
+
+		private void add(long wall, long cpu, long allocated, long network) {
+			count++;
+			wallNanos += wall;
+			cpuNanos = sum(cpuNanos, cpu);
+			allocatedBytes = sum(allocatedBytes, allocated);
+			networkBytes = sum(networkBytes, network);
+		}
+
+		private long sum(long total, long value) {
+			//Once a measure was not available, the total is not available as well.
+			if (total < 0 || value < 0) {
+				return -1;
+			}
+			return total + value;
+		}
+
+		public String getPath() {
+			return path;
+		}
+
+		public long getCount() {
+			return count;
+		}
+
+		public long getWallNanos() {
+			return wallNanos;
+		}
+
+		public long getCpuNanos() {
+			return cpuNanos;
+		}
+
+		public long getAllocatedBytes() {
+			return allocatedBytes;
+		}
+
+		public long getNetworkBytes() {
+			return networkBytes;
+		}
+
+		public String toString() {
+			return path + ": " + count + " times, " + wallNanos / 1000000 + " ms wall, " + cpuNanos / 1000000 + " ms cpu, "
+					+ allocatedBytes + " bytes allocated, " + networkBytes + " network bytes";
+		}
+	}
+}
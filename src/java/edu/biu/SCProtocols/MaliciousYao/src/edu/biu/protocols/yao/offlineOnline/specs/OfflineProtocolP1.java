@@ -4,7 +4,7 @@ import java.io.IOException;
 
 import javax.crypto.SecretKey;
 
-import edu.biu.protocols.yao.common.LogTimer;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
 import edu.biu.protocols.yao.offlineOnline.primitives.Bundle;
 import edu.biu.protocols.yao.offlineOnline.primitives.BundleBuilder;
@@ -62,19 +62,19 @@ public class OfflineProtocolP1 {
 	 */
 	public void run() {
 		
-		//LogTimer timer = new LogTimer("Offline protocol");
+		PhaseProfiler.Phase total = PhaseProfiler.start("Offline protocol (P1)");
 		try {
 			// Pick master proof of cheating (true for all buckets!!!).
 			SecretKey proofOfCheating = primitives.getMultiKeyEncryptionScheme().generateKey();
 			
-			//timer.reset("receiving probe resistant matrices");
+			PhaseProfiler.Phase phase = PhaseProfiler.start("receiving probe resistant matrices");
 			// Receive matrices from p2.
 			mainMatrix = receiveProbeResistantMatrix();
 			crMatrix = receiveProbeResistantMatrix();
-			//timer.stop();
+			phase.stop();
 			
 			
-			//timer.reset("init bundle builders...");
+			phase = PhaseProfiler.start("init bundle builders...");
 			//Create bundle builders of the main circuit and for the cheating recovery circuit.
 			//In order to use threads, create bundle for each thread.
 			BundleBuilder[] mainBundleBuilder;
@@ -92,32 +92,34 @@ public class OfflineProtocolP1 {
 				mainBundleBuilder[i] = new BundleBuilder(mainExecution.getCircuit(i), mainMatrix, primitives, channels);
 				crBundleBuilder[i] = new CheatingRecoveryBundleBuilder(crExecution.getCircuit(i), crMatrix, primitives, channels, proofOfCheating);
 			}
-			//timer.stop();
+			phase.stop();
 
-			//timer.reset("runCutAndChooseProtocol(AES)");
+			phase = PhaseProfiler.start("runCutAndChooseProtocol(AES)");
 			//Run Cut and Choose protocol on the main circuit.
 			mainBuckets = runCutAndChooseProtocol(mainExecution, mainBundleBuilder); 
-			//timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runCutAndChooseProtocol(CR)");
+			phase = PhaseProfiler.start("runCutAndChooseProtocol(CR)");
 			//Run Cut and Choose protocol on the cheating recovery circuit.
 			crBuckets = runCutAndChooseProtocol(crExecution, crBundleBuilder); 
-		//	timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runObliviousTransferOnP2Keys(AES)");
+			phase = PhaseProfiler.start("runObliviousTransferOnP2Keys(AES)");
 			//Run OT on p2 keys of the main circuit.
 			runObliviousTransferOnP2Keys(mainExecution, mainMatrix, mainBuckets);
-		//	timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runObliviousTransferOnP2Keys(CR)");
+			phase = PhaseProfiler.start("runObliviousTransferOnP2Keys(CR)");
 			//Run OT on p2 keys of the cheating recovery circuit.
 			runObliviousTransferOnP2Keys(crExecution, crMatrix, crBuckets);
-		//	timer.stop();
+			phase.stop();
 			
 		} catch (CheatAttemptException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			total.stop();
 		}
 	}
 	
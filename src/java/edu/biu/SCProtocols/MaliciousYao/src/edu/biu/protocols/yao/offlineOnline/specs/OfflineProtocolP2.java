@@ -4,7 +4,7 @@ import java.io.IOException;
 import java.util.ArrayList;
 
 import edu.biu.protocols.yao.common.CircuitUtils;
-import edu.biu.protocols.yao.common.LogTimer;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
 import edu.biu.protocols.yao.offlineOnline.primitives.BundleBuilder;
 import edu.biu.protocols.yao.offlineOnline.primitives.CheatingRecoveryBundleBuilder;
@@ -62,47 +62,50 @@ public class OfflineProtocolP2 {
 	 * Runs the second party in the offline phase of the malicious Yao protocol.
 	 */
 	public void run() {
-		//LogTimer timer = new LogTimer("selecting and sending probe resistant matrices");
+		PhaseProfiler.Phase total = PhaseProfiler.start("Offline protocol (P2)");
 		try {
 			int crInputSizeY = primitives.getMultiKeyEncryptionScheme().getCipherSize()*8;
 			
+			PhaseProfiler.Phase phase = PhaseProfiler.start("selecting and sending probe resistant matrices");
 			// Selecting E and sending it to P1.
 			mainMatrix = selectAndSendProbeResistantMatrix(mainExecution);
 			// Selecting E' and sending it to P1 (derive the length of the new input from the MES key size - that is the size of proofOfCheating).
 			crMatrix = selectAndSendProbeResistantMatrix(crInputSizeY, crExecution.statisticalParameter()); 
-			//timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runCutAndChooseProtocol(AES)");
+			phase = PhaseProfiler.start("runCutAndChooseProtocol(AES)");
 			//Create the main bundleBuilder from the main circuit.
 			//Use the first circuit only because there is no use of thread in this party and therefore, only one circuit is needed.
 			BundleBuilder mainBundleBuilder = new BundleBuilder(mainExecution.getCircuit(0), mainMatrix, primitives, channels);
 			
 			//Run Cut and Choose protocol on the main circuit.
 			mainBuckets = runCutAndChooseProtocol(mainExecution, mainMatrix, mainBundleBuilder); 
-		//	timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runCutAndChooseProtocol(CR)");
+			phase = PhaseProfiler.start("runCutAndChooseProtocol(CR)");
 			//Create the cheating recovery bundleBuilder from the main circuit.
 			//Use the first circuit only because there is no use of thread in this party and therefore, only one circuit is needed.
 			BundleBuilder crBundleBuilder = new CheatingRecoveryBundleBuilder(crExecution.getCircuit(0), crMatrix, 
 					primitives, channels, primitives.getMultiKeyEncryptionScheme().generateKey());
 			//Run Cut and Choose protocol on the cheating recovery circuit.
 			crBuckets = runCutAndChooseProtocol(crExecution, crMatrix, crBundleBuilder, getSecretSharingLabels(crInputSizeY)); 
-		//	timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runObliviousTransferOnP2Keys(AES)");
+			phase = PhaseProfiler.start("runObliviousTransferOnP2Keys(AES)");
 			//Run OT on p2 keys of the main circuit.
 			runObliviousTransferOnP2Keys(mainExecution, mainMatrix, mainBuckets);
-		//	timer.stop();
+			phase.stop();
 			
-		//	timer.reset("runObliviousTransferOnP2Keys(CR)");
+			phase = PhaseProfiler.start("runObliviousTransferOnP2Keys(CR)");
 			//Run OT on p2 keys of the cheating recovery circuit.
 			runObliviousTransferOnP2Keys(crExecution, crMatrix, crBuckets);
-		//	timer.stop();
+			phase.stop();
 		} catch (IOException e) {
 			e.printStackTrace();
 		} catch (CheatAttemptException e) {
 			e.printStackTrace();
+		} finally {
+			total.stop();
 		}
 	}
 	
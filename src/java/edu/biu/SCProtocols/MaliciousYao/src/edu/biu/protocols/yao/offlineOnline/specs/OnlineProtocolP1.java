@@ -6,7 +6,7 @@ import java.util.ArrayList;
 import javax.crypto.SecretKey;
 
 import edu.biu.protocols.yao.common.KeyUtils;
-//import edu.biu.protocols.yao.common.LogTimer;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.offlineOnline.primitives.Bundle;
 import edu.biu.protocols.yao.offlineOnline.primitives.CommitmentBundle;
 import edu.biu.protocols.yao.offlineOnline.primitives.EvaluationPackage;
@@ -83,18 +83,21 @@ public class OnlineProtocolP1 implements Protocol {
 	 * basically, it computes the main circuit and than the cheating recovery circuit.
 	 */
 	public void run() {
-	//	LogTimer timer = new LogTimer("Evaluating Main circuit");
+		PhaseProfiler.Phase total = PhaseProfiler.start("Online protocol (P1)");
 		try {
+			PhaseProfiler.Phase phase = PhaseProfiler.start("Evaluating Main circuit");
 			//Compute the main circuits part.
 			evaluateMainCircuit();
-	//		timer.stop();
+			phase.stop();
 			
-		//	timer.reset("Evaluating CR circuit");
+			phase = PhaseProfiler.start("Evaluating CR circuit");
 			//Compute the cheating recovery circuits part.
 			evaluateCheatingRecoveryCircuit();
-		//	timer.stop();
+			phase.stop();
 		} catch (IOException e) {
 			e.printStackTrace();
+		} finally {
+			total.stop();
 		}
 	}
 	
@@ -112,50 +115,49 @@ public class OnlineProtocolP1 implements Protocol {
 	 */
 	private void evaluateMainCircuit() throws IOException {
 		
-		//The time measuring is commented out in order to save time. 
-		//The user always can print them in case he wants to see the protocol process.
+		//The phases are measured only when the PhaseProfiler is enabled, so they cost nothing otherwise.
 		
-//		LogTimer timer = new LogTimer("Receiving Y2");
+		PhaseProfiler.Phase phase = PhaseProfiler.start("Receiving Y2");
 		//Receive the input bits of p2 input wires.
 		CircuitInput y2 = receiveY2();
-	//	timer.stop();
+		phase.stop();
 		
 		//This package will hold all the necessary things that should be sent to the other party.
 		//This way, there will be one sending of a big message instead of many small messages. This saves time.
 		EvaluationPackage mainPackage = new EvaluationPackage();
 		
-	//	timer.reset("sendCommitmentMasks");
+		phase = PhaseProfiler.start("sendCommitmentMasks");
 		//Add to the evaluationPackage the commitment masks of every circuit in the bucket.
 		sendCommitmentMasks(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("decommitY2InputKeys");
+		phase = PhaseProfiler.start("decommitY2InputKeys");
 		//Add the decommitments of all Y2 inputs of every circuit in the bucket according to the given y2 input bits.
 		decommitY2InputKeys(mainBucket, mainPackage, y2);
-	//	timer.stop();
+		phase.stop();
 		
-	//timer.reset("sendPlacementMasks");
+		phase = PhaseProfiler.start("sendPlacementMasks");
 		//Add
 		sendPlacementMasks(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-		//timer.reset("sendXInputKeys");
+		phase = PhaseProfiler.start("sendXInputKeys");
 		//Add the decommitments of p1 inputs of every circuit in the bucket.
 		sendXInputKeys(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("selectAndEncryptProof");
+		phase = PhaseProfiler.start("selectAndEncryptProof");
 		try {
 			selectAndXorProof(mainBucket, mainPackage);
 		} catch (InvalidInputException e) {
 			throw new IllegalStateException(e);
 		}
-	//	timer.stop();
-	//	timer.reset("sendPackage");
+		phase.stop();
 		
+		phase = PhaseProfiler.start("sendPackage");
 		//Send the evaluation package (contains all the protocol messages) to p2.
 		channel.send(mainPackage);
-		//timer.stop();
+		phase.stop();
 	}
 	
 	/**
@@ -171,43 +173,42 @@ public class OnlineProtocolP1 implements Protocol {
 	 * @throws IOException
 	 */
 	private void evaluateCheatingRecoveryCircuit() throws IOException {
-	//	LogTimer timer = new LogTimer("Receiving D2");
+		PhaseProfiler.Phase phase = PhaseProfiler.start("Receiving D2");
 		CircuitInput d2 = receiveY2();
-	//	timer.stop();
+		phase.stop();
 		
 		//This package will hold all the necessary things that should be sent to the other party.
 		//This way, there will be one sending of a big message instead of many small messages. This saves time.
 		EvaluationPackage crPackage = new EvaluationPackage();
 		
-	//	timer.reset("sendCommitmentMasks");
+		phase = PhaseProfiler.start("sendCommitmentMasks");
 		//Add to the evaluationPackage the commitment masks of every circuit in the bucket.
 		sendCommitmentMasks(crBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-		//timer.reset("decommitD2InputKeys");
+		phase = PhaseProfiler.start("decommitD2InputKeys");
 		//Add the decommitments of all d2 inputs of every circuit in the bucket according to the given d2 input bits.
 		decommitD2InputKeys(crBucket, crPackage, d2);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("sendPlacementMasks");
+		phase = PhaseProfiler.start("sendPlacementMasks");
 		sendPlacementMasks(crBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("sendXInputKeys");
+		phase = PhaseProfiler.start("sendXInputKeys");
 		//Add the decommitments of p1 inputs of every circuit in the bucket.
 		sendXInputKeys(crBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("decommitOutputKeys");
+		phase = PhaseProfiler.start("decommitOutputKeys");
 		//Adds the decommitments of the output keys of every circuit in the bucket.
 		decommitOutputKeys(mainBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("sendPackage");
+		phase = PhaseProfiler.start("sendPackage");
 		//Send the evaluation package (contains all the protocol messages) to p2.
 		channel.send(crPackage);
-	
-	//	timer.stop();
+		phase.stop();
 	}
 	
 	/**
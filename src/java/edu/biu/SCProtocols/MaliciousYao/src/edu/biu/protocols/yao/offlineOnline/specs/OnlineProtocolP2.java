@@ -11,7 +11,7 @@ import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.protocols.yao.common.BinaryUtils;
 import edu.biu.protocols.yao.common.KeyUtils;
-//import edu.biu.protocols.yao.common.LogTimer;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.common.Preconditions;
 import edu.biu.protocols.yao.offlineOnline.primitives.CommitmentBundle;
 import edu.biu.protocols.yao.offlineOnline.primitives.EvaluationPackage;
@@ -170,21 +170,24 @@ public class OnlineProtocolP2 implements Protocol {
 	 * basically, it computes the main circuit and than the cheating recovery circuit.
 	 */
 	public void run() {
-		//LogTimer timer = new LogTimer("Evaluating Main circuit");
+		PhaseProfiler.Phase total = PhaseProfiler.start("Online protocol (P2)");
 		try {
+			PhaseProfiler.Phase phase = PhaseProfiler.start("Evaluating Main circuit");
 			//Compute the main circuits part.
 			evaluateMainCircuit();
-			//timer.stop();
+			phase.stop();
 			
-			//timer.reset("Evaluating CR circuit");
+			phase = PhaseProfiler.start("Evaluating CR circuit");
 			//Compute the cheating recovery circuits part.
 			evaluateCheatingRecoveryCircuit();
-			//timer.stop();
+			phase.stop();
 		} catch (CheatAttemptException e) {
 			e.printStackTrace();
 		} catch (IOException e) {
 			e.printStackTrace();
-		} 
+		} finally {
+			total.stop();
+		}
 	}
 	
 	/**
@@ -200,74 +203,71 @@ public class OnlineProtocolP2 implements Protocol {
 	 * @throws IOException
 	 */
 	private void evaluateMainCircuit() throws IOException  {
-	//	LogTimer timer = new LogTimer("selectAndSendY2");
+		PhaseProfiler.Phase phase = PhaseProfiler.start("selectAndSendY2");
 		byte[] y2 = selectAndSendY2(mainBucket, input);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receivePackage");
+		phase = PhaseProfiler.start("receivePackage");
 		EvaluationPackage mainPackage = receivePackage();
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveCommitmentMasks");
+		phase = PhaseProfiler.start("receiveCommitmentMasks");
 		receiveCommitmentMasks(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveAndVerifyY2InputKeys");
+		phase = PhaseProfiler.start("receiveAndVerifyY2InputKeys");
 		receiveAndVerifyY2InputKeys(mainBucket, mainPackage, mainMatrix, y2);
+		phase.stop();
 		
-	//	timer.stop();
-		
-	//	timer.reset("receivePlacementMasks");
+		phase = PhaseProfiler.start("receivePlacementMasks");
 		receivePlacementMasks(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveAndVerifyXInputKeys");
+		phase = PhaseProfiler.start("receiveAndVerifyXInputKeys");
 		receiveAndVerifyXInputKeys(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveEncryptedProof");
+		phase = PhaseProfiler.start("receiveEncryptedProof");
 		receiveEncryptedProof(mainBucket, mainPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("computeEvaluationCircuits");
+		phase = PhaseProfiler.start("computeEvaluationCircuits");
 		computeEvaluationCircuits(mainBucket);
-		
-	//timer.stop();
+		phase.stop();
 	}
 	
 	private void evaluateCheatingRecoveryCircuit() throws IOException {
-	//	LogTimer timer = new LogTimer("selectAndSendD2");
+		PhaseProfiler.Phase phase = PhaseProfiler.start("selectAndSendD2");
 		byte[] d2 = selectAndSendY2(crBucket, CircuitInput.fromSecretKey(proofOfCheating));
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receivePackage");
+		phase = PhaseProfiler.start("receivePackage");
 		EvaluationPackage crPackage = receivePackage();
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveCommitmentMasks");
+		phase = PhaseProfiler.start("receiveCommitmentMasks");
 		receiveCommitmentMasks(crBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveAndVerifyD2InputKeys");
+		phase = PhaseProfiler.start("receiveAndVerifyD2InputKeys");
 		receiveAndVerifyD2InputKeys(crBucket, crPackage, crMatrix, d2);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receivePlacementMasks");
+		phase = PhaseProfiler.start("receivePlacementMasks");
 		receivePlacementMasks(crBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveAndVerifyXInputKeys");
+		phase = PhaseProfiler.start("receiveAndVerifyXInputKeys");
 		receiveAndVerifyXInputKeys(crBucket, crPackage);
-	//	timer.stop();
+		phase.stop();
 		
-	//	timer.reset("receiveAndVerifyOutputKeys");
+		phase = PhaseProfiler.start("receiveAndVerifyOutputKeys");
 		receiveAndVerifyOutputKeys(mainBucket, crPackage);
-	//timer.stop();
+		phase.stop();
 		
-	//	timer.reset("computeCheatingRecoveryCircuit");
+		phase = PhaseProfiler.start("computeCheatingRecoveryCircuit");
 		computeCheatingRecoveryCircuit(crBucket);
-		
-	//	timer.stop();
+		phase.stop();
 	}
 	
 	/**
@@ -6,7 +6,7 @@ import java.util.Set;
 
 import edu.biu.protocols.CommitmentWithZkProofOfDifference.CmtWithDifferenceCommitter;
 import edu.biu.protocols.CommitmentWithZkProofOfDifference.DifferenceCommitmentCommitterBundle;
-import edu.biu.protocols.yao.common.LogTimer;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.common.Preconditions;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketMapping;
@@ -98,46 +98,44 @@ public class CutAndChooseProver {
 	 * @throws CheatAttemptException
 	 */
 	public void run() throws IOException, CheatAttemptException {
-		//LogTimer timer = new LogTimer("constructGarbledCircuitBundles");
+		PhaseProfiler.Phase phase = PhaseProfiler.start("constructGarbledCircuitBundles");
 		try {
 			//Prepare the garbled circuit, commitment and other parameters needed by the protocol.
 			constructGarbledCircuitBundles();
-		//	timer.stop();
+			phase.stop();
 			
 			//Send to the verifier all garbled circuits.
-			//timer.reset("sendGarbledCircuits");
 			//sendGarbledCircuits();
-			//timer.stop();
 			
 			//Receive the commitments of the circuits selection and mapping.
-		//	timer.reset("receiveCommitmentToCutAndChoose");
+			phase = PhaseProfiler.start("receiveCommitmentToCutAndChoose");
 			receiveCommitmentToCutAndChoose();
-		//	timer.stop();
+			phase.stop();
 			
 			//Generate and send to the verifier the commitments needed by the protocol (on keys, masks, seed, etc).
-		//	timer.reset("sendCommitments");
+			phase = PhaseProfiler.start("sendCommitments");
 			sendCommitments();
-		//	timer.stop();
+			phase.stop();
 			
 			//Receive from the verifier the decommitment of the circuit selection and mapping.
-		//	timer.reset("receiveCutAndChooseChallenge");
+			phase = PhaseProfiler.start("receiveCutAndChooseChallenge");
 			receiveCutAndChooseChallenge();
-		//	timer.stop();
+			phase.stop();
 			
 			//Prove the checked circuits by sending to the verifier the decommitments of the seeds, masks, keys of the checked circuits.
-		//	timer.reset("proveCheckCircuits");
+			phase = PhaseProfiler.start("proveCheckCircuits");
 			proveCheckCircuits();
-		//	timer.stop();
+			phase.stop();
 			
 			//Put all evaluated circuits in buckets according to the received mapping.
-		//	timer.reset("putCircuitsInBuckets");
+			phase = PhaseProfiler.start("putCircuitsInBuckets");
 			putCircuitsInBuckets();
-		//	timer.stop();
+			phase.stop();
 			
 			//Prove the placement masks by sending the decommitments of the diff protocol.
-		//	timer.reset("proveCorrectnessOfPlacementMasks");
+			phase = PhaseProfiler.start("proveCorrectnessOfPlacementMasks");
 			proveCorrectnessOfPlacementMasks();
-		//	timer.stop();
+			phase.stop();
 		} catch (ClassNotFoundException e) {
 			throw new IOException(e);
 		}
@@ -284,6 +282,8 @@ public class CutAndChooseProver {
 	 */
 	private void sendCommitments() throws IOException,CheatAttemptException{
 		//Send a commitment package for each circuit bundle.
+		//The package keeps the seed and mask commitments as raw bytes next to the commitments on the keys, so it is smaller than 
+		//the Java serialized messages of the batch commitment API, and the verifier reads all of them from the same message.
 		for (int j = 0; j < circuitBundles.length; j++) {
 			//Create the commitment package.
 			CommitmentsPackage cmtPackage = new CommitmentsPackage(primitives.getCryptographicHash().getHashedMsgSize(), primitives.getStatisticalParameter());
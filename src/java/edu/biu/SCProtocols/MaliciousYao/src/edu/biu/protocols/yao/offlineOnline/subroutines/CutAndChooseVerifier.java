@@ -7,7 +7,7 @@ import java.util.Arrays;
 
 import edu.biu.protocols.CommitmentWithZkProofOfDifference.CmtWithDifferenceReceiver;
 import edu.biu.protocols.CommitmentWithZkProofOfDifference.DifferenceCommitmentReceiverBundle;
-import edu.biu.protocols.yao.common.LogTimer;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.common.Preconditions;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketMapping;
@@ -180,38 +180,38 @@ public class CutAndChooseVerifier {
 	public void run() throws IOException, CheatAttemptException {
 		
 		//Receive all garbled circuits from the cut and choose prover.
-	//	LogTimer timer = new LogTimer("receiveGarbledCircuits");
+		PhaseProfiler.Phase phase = PhaseProfiler.start("receiveGarbledCircuits");
 		receiveGarbledCircuits();
-	//	timer.stop();
+		phase.stop();
 		//Send the commitments of the circuits selection and mapping.
-		//	timer.reset("commitToCutAndChoose");
+		phase = PhaseProfiler.start("commitToCutAndChoose");
 		commitToCutAndChoose();
-	//	timer.stop();
+		phase.stop();
 		
 		//Receive the commitments needed by the protocol (on keys, masks, seed, etc).
-	//	timer.reset("receiveCommitments");
+		phase = PhaseProfiler.start("receiveCommitments");
 		receiveCommitments();
-	//	timer.stop();
+		phase.stop();
 		
 		//Send to the cut and choose prover the circuit selection and mapping.
-	//	timer.reset("revealCutAndChoose");
+		phase = PhaseProfiler.start("revealCutAndChoose");
 		revealCutAndChoose();
-	//	timer.stop();
+		phase.stop();
 		
 		//Verify the checked circuits by verifying the commitments of the seeds, masks, keys of the checked circuits.
-	//	timer.reset("verifyCheckCircuits");
+		phase = PhaseProfiler.start("verifyCheckCircuits");
 		verifyCheckCircuits();
-	//	timer.stop();
+		phase.stop();
 		
 		//Put all evaluated circuits in buckets according to the received mapping.
-	//	timer.reset("putCircuitsInBuckets");
+		phase = PhaseProfiler.start("putCircuitsInBuckets");
 		putCircuitsInBuckets();
-	//	timer.stop();
+		phase.stop();
 		
 		//Verify the placement masks by verifying the decommitments of the diff protocol.
-	//	timer.reset("verifyCorrectnessOfPlacementMasks");
+		phase = PhaseProfiler.start("verifyCorrectnessOfPlacementMasks");
 		verifyCorrectnessOfPlacementMasks();
-	//	timer.stop();
+		phase.stop();
 	}
 	
 	/**
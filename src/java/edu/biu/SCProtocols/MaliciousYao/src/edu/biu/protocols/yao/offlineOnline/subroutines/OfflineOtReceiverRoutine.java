@@ -6,6 +6,7 @@ import java.util.HashMap;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
 import edu.biu.protocols.yao.offlineOnline.primitives.CommitmentBundle;
 import edu.biu.protocols.yao.offlineOnline.primitives.ExecutionParameters;
@@ -88,19 +89,24 @@ public class OfflineOtReceiverRoutine {
 	 * Generates inputs and runs the receiver side of the malicious OT protocol.
 	 */
 	public void run() {
-		//Run OT extension for each bucket.
-		for (int bucketId = 0; bucketId < numBuckets; bucketId++) {
-			//Generate random boolean input for the original indices.
-			CircuitInput y1 = CircuitInput.randomInput(originalLabels); // This remains hidden
-			//Transform the random input to extended inputs.
-			CircuitInput y1Extended = matrix.transformInput(y1, primitives.getSecureRandom());
-			
-			//Set the originsl inputs to all circuits in this bucket.
-			for (int j = 0; j < bucketSize; j++) {
-				buckets.getBundle(bucketId, j).setY1(y1);
+		PhaseProfiler.Phase phase = PhaseProfiler.start("OT extension (receiver)");
+		try {
+			//Run OT extension for each bucket.
+			for (int bucketId = 0; bucketId < numBuckets; bucketId++) {
+				//Generate random boolean input for the original indices.
+				CircuitInput y1 = CircuitInput.randomInput(originalLabels); // This remains hidden
+				//Transform the random input to extended inputs.
+				CircuitInput y1Extended = matrix.transformInput(y1, primitives.getSecureRandom());
+				
+				//Set the originsl inputs to all circuits in this bucket.
+				for (int j = 0; j < bucketSize; j++) {
+					buckets.getBundle(bucketId, j).setY1(y1);
+				}
+				//Run OT extension on the extended keys.
+				runOtExtensionTransfer(y1Extended, bucketId);
 			}
-			//Run OT extension on the extended keys.
-			runOtExtensionTransfer(y1Extended, bucketId);
+		} finally {
+			phase.stop();
 		}
 	}
 	
@@ -4,6 +4,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.protocols.yao.common.KeyUtils;
+import edu.biu.protocols.yao.common.PhaseProfiler;
 import edu.biu.protocols.yao.common.Preconditions;
 import edu.biu.protocols.yao.offlineOnline.primitives.BucketList;
 import edu.biu.protocols.yao.offlineOnline.primitives.Bundle;
@@ -60,8 +61,13 @@ public class OfflineOtSenderRoutine {
 	 * Runs the sender side of the malicious OT protocol for each bucket.
 	 */
 	public void run() {
-		for (int bucketId = 0; bucketId < numBuckets; bucketId++) {
-			runOtExtensionTransfer(bucketId);
+		PhaseProfiler.Phase phase = PhaseProfiler.start("OT extension (sender)");
+		try {
+			for (int bucketId = 0; bucketId < numBuckets; bucketId++) {
+				runOtExtensionTransfer(bucketId);
+			}
+		} finally {
+			phase.stop();
 		}
 	}
 	
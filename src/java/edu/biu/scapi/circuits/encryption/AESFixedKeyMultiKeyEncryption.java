@@ -36,6 +36,7 @@ import edu.biu.scapi.exceptions.KeyNotSetException;
 import edu.biu.scapi.exceptions.TweakNotSetException;
 import edu.biu.scapi.primitives.prf.AES;
 import edu.biu.scapi.primitives.prf.cryptopp.CryptoPpAES;
+import edu.biu.scapi.primitives.prf.jce.JceAES;
 
 /**
  * This encryption scheme uses AES with a fixed key and thus has the benefit of not needing to repeatedly perform the costly setKey 
@@ -79,8 +80,20 @@ public class AESFixedKeyMultiKeyEncryption implements MultiKeyEncryptionScheme {
 	//This flag indicates which algorithm to use.
 	private boolean isFreeXor = false; 
 
+	/**
+	 * Uses the Crypto++ AES. If the Crypto++ native library cannot be loaded, uses the JCE AES, which does not need native code.
+	 */
 	public AESFixedKeyMultiKeyEncryption() {
-		this(new CryptoPpAES());
+		this(createDefaultAES());
+	}
+	
+	private static AES createDefaultAES() {
+		try {
+			return new CryptoPpAES();
+		} catch (LinkageError e) {
+			//The native library is missing. The first attempt throws UnsatisfiedLinkError and the next ones throw NoClassDefFoundError.
+			return new JceAES();
+		}
 	}
 	
 	public AESFixedKeyMultiKeyEncryption(AES aes) {
@@ -33,6 +33,7 @@ import javax.crypto.SecretKey;
 
 import edu.biu.scapi.circuits.circuit.Gate;
 import edu.biu.scapi.circuits.encryption.MultiKeyEncryptionScheme;
+import edu.biu.scapi.primitives.prf.PrfBlocksUtil;
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
 
 /**
@@ -141,27 +142,10 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
 	     */
 	    for (int i = 0; i < numberOfInputs; i++) {
 	    	aes.setKey(allWireValues.get(inputWireIndices[i])[0]);
-	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
-	    		if (valuesToEncryptOn[rowNumber][i] == 0) {
-	    			byte[] tempo = new byte[aes.getBlockSize()];
-	    			aes.computeBlock(tweaksToEncrypt[rowNumber], 0, tempo, 0);
-	    			for (int byteNumber = 0; byteNumber < tempo.length; byteNumber++) {
-	    				outputValues[rowNumber][byteNumber] ^= tempo[byteNumber];
-	    			}
-	    		}
-
-	    	}
+	    	encryptRowsOnValue(i, 0, tweaksToEncrypt, valuesToEncryptOn, outputValues);
 
 	    	aes.setKey(allWireValues.get(inputWireIndices[i])[1]);
-	    	for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
-	    		if (valuesToEncryptOn[rowNumber][i] == 1) {
-	    			byte[] tempo = new byte[aes.getBlockSize()];
-	    			aes.computeBlock(tweaksToEncrypt[rowNumber], 0, tempo, 0);
-	    			for (int byteNumber = 0; byteNumber < tempo.length; byteNumber++) {
-	    				outputValues[rowNumber][byteNumber] ^= tempo[byteNumber];
-	    			}
-	    		}
-	    	}
+	    	encryptRowsOnValue(i, 1, tweaksToEncrypt, valuesToEncryptOn, outputValues);
 	    }
 	    
 	    // Now that we encrypted the tweaks and XOR them to each other, we XOR the result to outputValue, the plaintext.
@@ -175,4 +159,39 @@ class MinimizeAESSetKeyGarbledGate extends StandardGarbledGate {
     		System.arraycopy(outputValues[rowNumber], 0, garbledTablesHolder.toDoubleByteArray()[gateNumber], rowNumber * mes.getCipherSize() , mes.getCipherSize());
     	}
 	}
+
+	/**
+	 * Encrypts, using the key that is currently set to the aes, the tweaks of all the rows that should be encrypted on the given value of the
+	 * given input wire, and XORs the results to the output values of these rows.<p>
+	 * The tweaks are gathered into one array so that all of them are encrypted by a single computeBlocks call.
+	 * @param inputIndex the index of the input wire whose value is the current key.
+	 * @param value the value (0 or 1) of the input wire that is the current key.
+	 */
+	private void encryptRowsOnValue(int inputIndex, int value, byte[][] tweaksToEncrypt, int[][] valuesToEncryptOn, byte[][] outputValues) {
+		int blockSize = aes.getBlockSize();
+		int numberOfRows = tweaksToEncrypt.length;
+		
+		//Gather the tweaks to encrypt on this value.
+		byte[] blocks = new byte[numberOfRows * blockSize];
+		int numOfBlocks = 0;
+		for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
+			if (valuesToEncryptOn[rowNumber][inputIndex] == value) {
+				System.arraycopy(tweaksToEncrypt[rowNumber], 0, blocks, numOfBlocks * blockSize, blockSize);
+				numOfBlocks++;
+			}
+		}
+		
+		PrfBlocksUtil.computeBlocks(aes, blocks, 0, blocks, 0, numOfBlocks);
+		
+		//XOR each encrypted tweak to the output value of its row.
+		int block = 0;
+		for (int rowNumber = 0; rowNumber < numberOfRows; rowNumber++) {
+			if (valuesToEncryptOn[rowNumber][inputIndex] == value) {
+				for (int byteNumber = 0; byteNumber < blockSize; byteNumber++) {
+					outputValues[rowNumber][byteNumber] ^= blocks[block * blockSize + byteNumber];
+				}
+				block++;
+			}
+		}
+	}
 }
@@ -0,0 +1,138 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
+
+import javax.crypto.SecretKey;
+
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.AuthenticatedEnc;
+import edu.biu.scapi.midLayer.symmetricCrypto.encryption.SymmetricBufferEnc;
+
+/** 
+ * This channel ensures both the privacy and the authenticity of the messages, using an authenticated encryption scheme (for example, 
+ * {@link edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScEncryptThenMac} over {@link edu.biu.scapi.midLayer.symmetricCrypto.encryption.ScCTREncRandomIV}).<p>
+ * 
+ * Unlike {@link EncryptedChannel} and {@link AuthenticatedChannel}, the messages are not wrapped in plaintext, ciphertext and tag objects. 
+ * Every sent object is serialized into a reusable buffer and encrypted directly into one byte array, which is the only object 
+ * sent over the underlying channel. A received array is verified and decrypted in place and the object is read from it. 
+ * Therefore, the encryption scheme must implement {@link SymmetricBufferEnc}. Both parties must use this channel with the same scheme.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class AuthEncChannel extends ChannelDecorator {
+	private AuthenticatedEnc encScheme;
+	private SymmetricBufferEnc bufferEnc;
+	private ExposedByteArrayOutputStream serializedMsg = new ExposedByteArrayOutputStream();	//Reused by all the sent messages.
+	
+	/**
+	 * Creates a new AuthEncChannel that wraps the already connected channel. The encryption scheme does not need to be initialized with a 
+	 * key at this moment (even though it can), but before sending or receiving a message over this channel the relevant secret key must be set.
+	 *   
+	 * @param channel an already connected channel
+	 * @param encScheme an authenticated encryption scheme that implements SymmetricBufferEnc.
+	 * @throws IllegalArgumentException if the encryption scheme does not implement SymmetricBufferEnc.
+	 * @throws UnsupportedOperationException if the encryption scheme cannot encrypt buffers with its current underlying objects.
+	 */
+	public AuthEncChannel(Channel channel, AuthenticatedEnc encScheme) {
+		super(channel);
+		if (!(encScheme instanceof SymmetricBufferEnc)){
+			throw new IllegalArgumentException("the encryption scheme should implement SymmetricBufferEnc");
+		}
+		this.encScheme = encScheme;
+		this.bufferEnc = (SymmetricBufferEnc) encScheme;
+		//Fails here, rather than on the first message, if the scheme cannot encrypt buffers.
+		bufferEnc.getCiphertextLength(0);
+	}
+	
+	/**
+	 * Sets the key of the underlying encryption scheme. This function must be called before sending or receiving messages if the encryption scheme passed to this
+	 * channel had not been set with a key yet. 
+	 * @param key a suitable SecretKey
+	 * @throws InvalidKeyException if the given key does not match the underlying encryption scheme.
+	 */
+	public void setKey(SecretKey key) throws InvalidKeyException{
+		encScheme.setKey(key);
+	}
+	
+	/**
+	 * Receives an encrypted message sent by the other party, verifies and decrypts it and returns the actual object sent by the other party.
+	 * @return <B> the actual object </B> sent by the other party, if the message verifies<p>
+	 * 		   <B>{@code null}</B> if the message does not verify	 
+	 */
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		byte[] msg = (byte[]) channel.receive();
+		
+		int plaintextLength;
+		try {
+			plaintextLength = bufferEnc.getPlaintextLength(msg.length);
+		} catch (IllegalArgumentException e) {
+			//The message is too short to be a ciphertext.
+			return null;
+		}
+		
+		//Decrypt in place. The plaintext is written to the beginning of the received array.
+		if (!bufferEnc.decrypt(ByteBuffer.wrap(msg), ByteBuffer.wrap(msg))){
+			return null;
+		}
+		
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(msg, 0, plaintextLength));
+		return (Serializable) ois.readObject();
+	}
+
+	/**
+	 * Serializes the given object, encrypts it and sends the ciphertext on the channel.
+	 * @param msg the object to send to the other party  AS IS, the only constraint is that it must be Serializable
+	 */
+	public void send(Serializable msg) throws IOException {
+		serializedMsg.reset();
+		ObjectOutputStream oos = new ObjectOutputStream(serializedMsg);
+		oos.writeObject(msg);
+		oos.flush();
+		
+		int length = serializedMsg.size();
+		byte[] cipher = new byte[bufferEnc.getCiphertextLength(length)];
+		bufferEnc.encrypt(ByteBuffer.wrap(serializedMsg.getBuffer(), 0, length), ByteBuffer.wrap(cipher));
+		channel.send(cipher);
+	}
+
+	/**
+	 * Close the channel.
+	 */
+	public void close() {
+		channel.close();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return this.channel.isClosed();
+	}
+}
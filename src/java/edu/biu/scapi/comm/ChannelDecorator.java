@@ -40,10 +40,11 @@ public abstract class ChannelDecorator implements Channel {
 
 	/**
 	 * This constructor wraps the given Channel with a new ChannelDecorator.
+	 * If the given channel is a PlainChannel, it has to be in READY state. Channels created by the two party communication layer are already connected when they are returned.
 	 * @param channel 
 	 */
 	public ChannelDecorator(Channel channel){
-		if(((PlainChannel)channel).getState()!= PlainChannel.State.READY)
+		if((channel instanceof PlainChannel) && ((PlainChannel)channel).getState()!= PlainChannel.State.READY)
 			throw new InvalidChannelException("The basic channel has to be in READY state.");
 		this.channel = channel;
 	}
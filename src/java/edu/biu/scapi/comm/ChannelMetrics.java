@@ -0,0 +1,274 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Holds the traffic and timing metrics of one or more channels. The metrics are updated by {@link MeteredChannel}.<p>
+ * 
+ * The metrics count the messages and bytes that were sent and received, the messages of each class, the time spent in send 
+ * (including the serialization by the channel), the time spent in measuring the sizes of the sent messages when they are measured 
+ * by an additional serialization, and the time that receive blocked (including the deserialization by the channel). 
+ * The time of each receive call is also kept in a histogram whose bucket i counts the calls that took less than 2^i microseconds 
+ * (and at least 2^(i-1) microseconds), which shows whether a run waits for the other party or for the network.<p>
+ * 
+ * All the functions are thread safe. The metrics can be read with {@link #snapshot()} while the channels are used.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class ChannelMetrics implements ChannelMetricsMBean {
+	
+	/**
+	 * The number of buckets in the receive time histogram. The last bucket counts all the calls that took longer.
+	 */
+	public static final int NUM_OF_BUCKETS = 32;
+	
+	private AtomicLong messagesSent = new AtomicLong();
+	private AtomicLong bytesSent = new AtomicLong();
+	private AtomicLong messagesReceived = new AtomicLong();
+	private AtomicLong bytesReceived = new AtomicLong();
+	private AtomicLong sendNanos = new AtomicLong();
+	private AtomicLong measureNanos = new AtomicLong();
+	private AtomicLong receiveNanos = new AtomicLong();
+	private AtomicLongArray receiveHistogram = new AtomicLongArray(NUM_OF_BUCKETS);
+	//Counts of the sent and received messages of each class. The key is the class name.
+	private ConcurrentMap<String, AtomicLong> sentClasses = new ConcurrentHashMap<String, AtomicLong>();
+	private ConcurrentMap<String, AtomicLong> receivedClasses = new ConcurrentHashMap<String, AtomicLong>();
+	
+	/**
+	 * Records a sent message.
+	 * @param messageClass the class of the message.
+	 * @param bytes the size of the serialized message, or -1 if it was not measured.
+	 * @param measureNanos the time spent in measuring the size of the message by an additional serialization.
+	 * @param sendNanos the time spent in the send function of the underlying channel.
+	 */
+	void recordSend(Class<?> messageClass, long bytes, long measureNanos, long sendNanos){
+		messagesSent.incrementAndGet();
+		if (bytes > 0){
+			bytesSent.addAndGet(bytes);
+		}
+		this.measureNanos.addAndGet(measureNanos);
+		this.sendNanos.addAndGet(sendNanos);
+		increment(sentClasses, messageClass);
+	}
+	
+	/**
+	 * Records a received message.
+	 * @param messageClass the class of the message.
+	 * @param bytes the size of the serialized message, or -1 if it was not measured.
+	 * @param receiveNanos the time that the receive function of the underlying channel blocked.
+	 */
+	void recordReceive(Class<?> messageClass, long bytes, long receiveNanos){
+		messagesReceived.incrementAndGet();
+		if (bytes > 0){
+			bytesReceived.addAndGet(bytes);
+		}
+		this.receiveNanos.addAndGet(receiveNanos);
+		receiveHistogram.incrementAndGet(getBucket(receiveNanos));
+		increment(receivedClasses, messageClass);
+	}
+	
+	private static void increment(ConcurrentMap<String, AtomicLong> counts, Class<?> messageClass){
+		String name = (messageClass == null) ? "null" : messageClass.getName();
+		AtomicLong count = counts.get(name);
+		if (count == null){
+			AtomicLong newCount = new AtomicLong();
+			count = counts.putIfAbsent(name, newCount);
+			if (count == null){
+				count = newCount;
+			}
+		}
+		count.incrementAndGet();
+	}
+	
+	/**
+	 * Returns the histogram bucket of the given time. Bucket i holds the times of less than 2^i microseconds.
+	 */
+	private static int getBucket(long nanos){
+		long micros = nanos / 1000;
+		int bucket = 64 - Long.numberOfLeadingZeros(micros);
+		return Math.min(bucket, NUM_OF_BUCKETS - 1);
+	}
+	
+	public long getMessagesSent(){
+		return messagesSent.get();
+	}
+	
+	public long getBytesSent(){
+		return bytesSent.get();
+	}
+	
+	public long getMessagesReceived(){
+		return messagesReceived.get();
+	}
+	
+	public long getBytesReceived(){
+		return bytesReceived.get();
+	}
+	
+	public long getSendNanos(){
+		return sendNanos.get();
+	}
+	
+	public long getMeasureNanos(){
+		return measureNanos.get();
+	}
+	
+	public long getReceiveNanos(){
+		return receiveNanos.get();
+	}
+	
+	/**
+	 * Resets all the metrics to zero.<p>
+	 * Messages that are sent or received during the reset may be partially counted.
+	 */
+	public void reset(){
+		messagesSent.set(0);
+		bytesSent.set(0);
+		messagesReceived.set(0);
+		bytesReceived.set(0);
+		sendNanos.set(0);
+		measureNanos.set(0);
+		receiveNanos.set(0);
+		for (int i = 0; i < NUM_OF_BUCKETS; i++){
+			receiveHistogram.set(i, 0);
+		}
+		sentClasses.clear();
+		receivedClasses.clear();
+	}
+	
+	/**
+	 * Returns a copy of the current metrics.
+	 * @return the snapshot.
+	 */
+	public Snapshot snapshot(){
+		return new Snapshot(this);
+	}
+	
+	/**
+	 * An immutable copy of the metrics at some point in time.
+	 */
+	public static class Snapshot {
+		private long messagesSent;
+		private long bytesSent;
+		private long messagesReceived;
+		private long bytesReceived;
+		private long sendNanos;
+		private long measureNanos;
+		private long receiveNanos;
+		private long[] receiveHistogram;
+		private Map<String, Long> sentClasses;
+		private Map<String, Long> receivedClasses;
+		
+		private Snapshot(ChannelMetrics metrics){
+			messagesSent = metrics.getMessagesSent();
+			bytesSent = metrics.getBytesSent();
+			messagesReceived = metrics.getMessagesReceived();
+			bytesReceived = metrics.getBytesReceived();
+			sendNanos = metrics.getSendNanos();
+			measureNanos = metrics.getMeasureNanos();
+			receiveNanos = metrics.getReceiveNanos();
+			receiveHistogram = new long[NUM_OF_BUCKETS];
+			for (int i = 0; i < NUM_OF_BUCKETS; i++){
+				receiveHistogram[i] = metrics.receiveHistogram.get(i);
+			}
+			sentClasses = copy(metrics.sentClasses);
+			receivedClasses = copy(metrics.receivedClasses);
+		}
+		
+		private static Map<String, Long> copy(ConcurrentMap<String, AtomicLong> counts){
+			Map<String, Long> copy = new HashMap<String, Long>();
+			for (Map.Entry<String, AtomicLong> entry : counts.entrySet()){
+				copy.put(entry.getKey(), entry.getValue().get());
+			}
+			return Collections.unmodifiableMap(copy);
+		}
+		
+		public long getMessagesSent(){
+			return messagesSent;
+		}
+		
+		public long getBytesSent(){
+			return bytesSent;
+		}
+		
+		public long getMessagesReceived(){
+			return messagesReceived;
+		}
+		
+		public long getBytesReceived(){
+			return bytesReceived;
+		}
+		
+		public long getSendNanos(){
+			return sendNanos;
+		}
+		
+		public long getMeasureNanos(){
+			return measureNanos;
+		}
+		
+		public long getReceiveNanos(){
+			return receiveNanos;
+		}
+		
+		/**
+		 * @return the receive time histogram. Bucket i counts the receive calls that took less than 2^i microseconds.
+		 */
+		public long[] getReceiveHistogram(){
+			return receiveHistogram.clone();
+		}
+		
+		/**
+		 * @return the number of sent messages of each class. The key is the class name.
+		 */
+		public Map<String, Long> getSentClasses(){
+			return sentClasses;
+		}
+		
+		/**
+		 * @return the number of received messages of each class. The key is the class name.
+		 */
+		public Map<String, Long> getReceivedClasses(){
+			return receivedClasses;
+		}
+		
+		public String toString(){
+			StringBuilder builder = new StringBuilder();
+			builder.append("sent ").append(messagesSent).append(" messages (").append(bytesSent).append(" bytes, ")
+				.append(sendNanos / 1000000).append(" ms in send, ").append(measureNanos / 1000000).append(" ms in measuring sizes), ");
+			builder.append("received ").append(messagesReceived).append(" messages (").append(bytesReceived).append(" bytes, ")
+				.append(receiveNanos / 1000000).append(" ms in receive)");
+			return builder.toString();
+		}
+	}
+}
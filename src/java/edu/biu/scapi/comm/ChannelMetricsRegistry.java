@@ -0,0 +1,167 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.logging.Level;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * Keeps the metrics of the channels by name, so that an application can read the metrics of all its channels in one place.<p>
+ * 
+ * Channels that are created with the same name share the same metrics. The metrics can optionally be exposed through JMX, 
+ * under the object name "edu.biu.scapi.comm:type=ChannelMetrics,name=&lt;name&gt;".
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public final class ChannelMetricsRegistry {
+	
+	private static ChannelMetricsRegistry instance = new ChannelMetricsRegistry();
+	
+	private ConcurrentMap<String, ChannelMetrics> metrics = new ConcurrentHashMap<String, ChannelMetrics>();
+	private boolean jmxEnabled = false;
+	
+	/**
+	 * Private constructor since this class is of the singleton pattern.
+	 */
+	private ChannelMetricsRegistry(){
+	}
+	
+	/**
+	 * @return the singleton instance.
+	 */
+	public static ChannelMetricsRegistry getInstance(){
+		return instance;
+	}
+	
+	/**
+	 * Returns the metrics of the given name, and creates them if they do not exist.
+	 * @param name the name of the metrics.
+	 * @return the metrics of the given name.
+	 */
+	public ChannelMetrics getMetrics(String name){
+		ChannelMetrics channelMetrics = metrics.get(name);
+		if (channelMetrics == null){
+			ChannelMetrics newMetrics = new ChannelMetrics();
+			channelMetrics = metrics.putIfAbsent(name, newMetrics);
+			if (channelMetrics == null){
+				channelMetrics = newMetrics;
+				synchronized (this){
+					if (jmxEnabled){
+						register(name, channelMetrics);
+					}
+				}
+			}
+		}
+		return channelMetrics;
+	}
+	
+	/**
+	 * Removes the metrics of the given name from the registry.
+	 * @param name the name of the metrics.
+	 */
+	public synchronized void remove(String name){
+		if (metrics.remove(name) != null && jmxEnabled){
+			unregister(name);
+		}
+	}
+	
+	/**
+	 * Returns a snapshot of the metrics of all the names.
+	 * @return a map from the name of the metrics to their snapshot.
+	 */
+	public Map<String, ChannelMetrics.Snapshot> snapshot(){
+		Map<String, ChannelMetrics.Snapshot> snapshots = new HashMap<String, ChannelMetrics.Snapshot>();
+		for (Map.Entry<String, ChannelMetrics> entry : metrics.entrySet()){
+			snapshots.put(entry.getKey(), entry.getValue().snapshot());
+		}
+		return snapshots;
+	}
+	
+	/**
+	 * Resets the metrics of all the names.
+	 */
+	public void reset(){
+		for (ChannelMetrics channelMetrics : metrics.values()){
+			channelMetrics.reset();
+		}
+	}
+	
+	/**
+	 * Exposes the metrics of all the names through the platform MBean server, or removes them from it.
+	 * Metrics that are created after JMX was enabled are exposed when they are created.
+	 * @param enabled true to expose the metrics through JMX.
+	 */
+	public synchronized void setJmxEnabled(boolean enabled){
+		if (enabled == jmxEnabled){
+			return;
+		}
+		jmxEnabled = enabled;
+		for (Map.Entry<String, ChannelMetrics> entry : metrics.entrySet()){
+			if (enabled){
+				register(entry.getKey(), entry.getValue());
+			} else{
+				unregister(entry.getKey());
+			}
+		}
+	}
+	
+	private void register(String name, ChannelMetrics channelMetrics){
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = getObjectName(name);
+			if (!server.isRegistered(objectName)){
+				server.registerMBean(channelMetrics, objectName);
+			}
+		} catch (JMException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+	}
+	
+	private void unregister(String name){
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName objectName = getObjectName(name);
+			if (server.isRegistered(objectName)){
+				server.unregisterMBean(objectName);
+			}
+		} catch (JMException e) {
+			Logging.getLogger().log(Level.WARNING, e.toString());
+		}
+	}
+	
+	private static ObjectName getObjectName(String name) throws JMException {
+		return new ObjectName("edu.biu.scapi.comm:type=ChannelMetrics,name=" + ObjectName.quote(name));
+	}
+}
@@ -11,11 +11,12 @@ import java.io.Serializable;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
 
-public class FasterTCPChannel extends PlainChannel {
+public class FasterTCPChannel extends PlainChannel implements ByteCountingChannel {
 	
 	public static class FasterMessage implements Serializable {
 		private static final long serialVersionUID = -3417234887693230863L;
@@ -39,6 +40,8 @@ public class FasterTCPChannel extends PlainChannel {
 	private InetSocketAddress socketAddress;
 	private DataOutputStream outStream;
 	private DataInputStream inStream;
+	private AtomicLong bytesSent = new AtomicLong();		//Size of the serialized messages that were sent.
+	private AtomicLong bytesReceived = new AtomicLong();	//Size of the serialized messages that were received.
 	
 	/**
 	 * Creates a channel given the IP address and the port to connect to. 
@@ -87,6 +90,7 @@ public class FasterTCPChannel extends PlainChannel {
 		}
 		outStream.writeInt(msgBytes.length);
 		outStream.write(msgBytes);
+		bytesSent.addAndGet(msgBytes.length);
 	}
 
 	@Override
@@ -99,6 +103,7 @@ public class FasterTCPChannel extends PlainChannel {
 		if (bytesRead < msgSize) {
 			throw new IOException("did not read all bytes...");
 		}
+		bytesReceived.addAndGet(msgSize);
 		
 		if (isFaster) {
 			return new FasterMessage(msg);
@@ -109,6 +114,20 @@ public class FasterTCPChannel extends PlainChannel {
 		return (Serializable) ois.readObject();
 	}
 	
+	/**
+	 * @return the total number of bytes of the serialized messages that were sent by this channel.
+	 */
+	public long getBytesSent(){
+		return bytesSent.get();
+	}
+	
+	/**
+	 * @return the total number of bytes of the serialized messages that were received by this channel.
+	 */
+	public long getBytesReceived(){
+		return bytesReceived.get();
+	}
+	
 	/**
 	 * Closes the socket and all other used resources.
 	 */
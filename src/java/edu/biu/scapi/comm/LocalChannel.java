@@ -0,0 +1,270 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A channel that connects two parties that run in the same JVM, without sockets or a broker. <p>
+ * 
+ * The channels are created in pairs by {@link #createPair()}. Each direction of the pair is a lock-free queue with a single 
+ * producer and a single consumer, so each channel should be used by one sending thread and one receiving thread at a time.<p>
+ * 
+ * The channel can pass the messages in two ways:
+ * <ul>
+ * <li>{@link Transfer#BY_BYTES} serializes each message on send and deserializes it on receive, as the socket channels do.
+ * The receiver gets a copy of the message.</li>
+ * <li>{@link Transfer#BY_REFERENCE} passes the sent object itself. This is the fastest way to run a protocol in-process, 
+ * but the sender must not change an object after it was sent, since the receiver gets the same object.</li>
+ * </ul>
+ * 
+ * In order to simulate a real network, a channel can delay the messages it sends by a fixed latency ({@link #setLatency(long, TimeUnit)}) 
+ * and by the time it takes to transmit them in a given bandwidth ({@link #setBandwidth(long)}). The delays do not block the sender; 
+ * a message is held back at the receiver until the time it would have arrived. The size of a message is the size of its serialized form, 
+ * so limiting the bandwidth of a channel that passes messages by reference costs a serialization of each message.<p>
+ * 
+ * A channel that serializes the messages counts their bytes (see {@link ByteCountingChannel}). A channel that passes the messages 
+ * by reference does not count them, since it does not always serialize them.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class LocalChannel implements ByteCountingChannel {
+	
+	/**
+	 * The ways a local channel can pass the messages.
+	 */
+	public static enum Transfer {
+		BY_REFERENCE,
+		BY_BYTES
+	}
+	
+	/**
+	 * A sent message and the time it should arrive.
+	 */
+	private static class Message {
+		private final Object payload;		// The sent object, or its serialization.
+		private final boolean delayed;		// Indicates whether the message should wait until the arrival time.
+		private final long arrivalTime;		// In the time units of System.nanoTime.
+		
+		private Message(Object payload, boolean delayed, long arrivalTime){
+			this.payload = payload;
+			this.delayed = delayed;
+			this.arrivalTime = arrivalTime;
+		}
+	}
+	
+	//The time a receiver waits before it checks again whether the other channel of the pair was closed.
+	private static final long CLOSE_CHECK_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+	
+	private final Transfer transfer;
+	private final SpscQueue<Message> in;	// The messages sent by the other channel of the pair.
+	private final SpscQueue<Message> out;	// The messages sent to the other channel of the pair.
+	private LocalChannel peer;
+	private volatile boolean closed;
+	
+	private volatile long latencyNanos;		// The delay of each sent message.
+	private volatile long bandwidth;		// In bytes per second. 0 means unlimited.
+	private long lastTransmitEnd;			// The time the transmission of the last sent message ends. Used only by the sender.
+	private boolean transmitted;			// Indicates whether lastTransmitEnd was set.
+	private AtomicLong bytesSent = new AtomicLong();		// Size of the serialized messages that were sent. Counted only by BY_BYTES channels.
+	private AtomicLong bytesReceived = new AtomicLong();	// Size of the serialized messages that were received. Counted only by BY_BYTES channels.
+	
+	private LocalChannel(Transfer transfer, SpscQueue<Message> in, SpscQueue<Message> out){
+		this.transfer = transfer;
+		this.in = in;
+		this.out = out;
+	}
+	
+	/**
+	 * Creates two connected channels that serialize the messages.
+	 * @return the channels of the two parties. A message sent on one of them is received on the other.
+	 */
+	public static LocalChannel[] createPair(){
+		return createPair(Transfer.BY_BYTES);
+	}
+	
+	/**
+	 * Creates two connected channels that pass the messages in the given way.
+	 * @param transfer the way the channels pass the messages.
+	 * @return the channels of the two parties. A message sent on one of them is received on the other.
+	 */
+	public static LocalChannel[] createPair(Transfer transfer){
+		if (transfer == null){
+			throw new IllegalArgumentException("the transfer type should not be null");
+		}
+		SpscQueue<Message> firstToSecond = new SpscQueue<Message>();
+		SpscQueue<Message> secondToFirst = new SpscQueue<Message>();
+		LocalChannel first = new LocalChannel(transfer, secondToFirst, firstToSecond);
+		LocalChannel second = new LocalChannel(transfer, firstToSecond, secondToFirst);
+		first.peer = second;
+		second.peer = first;
+		return new LocalChannel[]{first, second};
+	}
+	
+	/**
+	 * @return the way this channel passes the messages.
+	 */
+	public Transfer getTransfer(){
+		return transfer;
+	}
+	
+	/**
+	 * Sets the latency added to each message sent on this channel. The default is no latency.
+	 * @param latency the one way latency.
+	 * @param unit the unit of the latency.
+	 */
+	public void setLatency(long latency, TimeUnit unit){
+		if (latency < 0){
+			throw new IllegalArgumentException("the latency should not be negative");
+		}
+		latencyNanos = unit.toNanos(latency);
+	}
+	
+	/**
+	 * Sets the bandwidth of the messages sent on this channel. The default is an unlimited bandwidth.
+	 * @param bytesPerSecond the bandwidth in bytes per second, or 0 for an unlimited bandwidth.
+	 */
+	public void setBandwidth(long bytesPerSecond){
+		if (bytesPerSecond < 0){
+			throw new IllegalArgumentException("the bandwidth should not be negative");
+		}
+		bandwidth = bytesPerSecond;
+	}
+	
+	public void send(Serializable data) throws IOException {
+		if (isClosed() || peer.isClosed()){
+			throw new IOException("the channel is closed");
+		}
+		
+		long bytesPerSecond = bandwidth;
+		long latency = latencyNanos;
+		
+		byte[] bytes = null;
+		if (transfer == Transfer.BY_BYTES || bytesPerSecond > 0){
+			bytes = serialize(data);
+		}
+		Object payload = data;
+		if (transfer == Transfer.BY_BYTES){
+			payload = bytes;
+			bytesSent.addAndGet(bytes.length);
+		}
+		
+		if (bytesPerSecond == 0 && latency == 0){
+			out.offer(new Message(payload, false, 0));
+			return;
+		}
+		
+		//The message is transmitted after the previous messages, and arrives after the latency.
+		long now = System.nanoTime();
+		long transmitStart = (transmitted && lastTransmitEnd - now > 0) ? lastTransmitEnd : now;
+		long transmitTime = (bytesPerSecond > 0) ? bytes.length * 1000000000L / bytesPerSecond : 0;
+		lastTransmitEnd = transmitStart + transmitTime;
+		transmitted = true;
+		out.offer(new Message(payload, true, lastTransmitEnd + latency));
+	}
+
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		Message message;
+		try {
+			while ((message = in.poll(CLOSE_CHECK_NANOS, TimeUnit.NANOSECONDS)) == null){
+				if (isClosed() || peer.isClosed()){
+					throw new IOException("the channel is closed");
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for a message");
+		}
+		
+		//Hold the message until its arrival time.
+		if (message.delayed){
+			long remaining;
+			while ((remaining = message.arrivalTime - System.nanoTime()) > 0){
+				LockSupport.parkNanos(this, remaining);
+			}
+		}
+		
+		if (transfer == Transfer.BY_BYTES){
+			byte[] bytes = (byte[]) message.payload;
+			bytesReceived.addAndGet(bytes.length);
+			return deserialize(bytes);
+		}
+		return (Serializable) message.payload;
+	}
+	
+	private static byte[] serialize(Serializable data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		ObjectOutputStream objOut = new ObjectOutputStream(bytes);
+		objOut.writeObject(data);
+		objOut.close();
+		return bytes.toByteArray();
+	}
+	
+	private static Serializable deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+		ObjectInputStream objIn = new ObjectInputStream(new ByteArrayInputStream(bytes));
+		try {
+			return (Serializable) objIn.readObject();
+		} finally {
+			objIn.close();
+		}
+	}
+
+	/**
+	 * Closes the channel. Messages that were already sent can still be received by the other party, 
+	 * after which the other party gets an IOException, as do further sends on both sides.
+	 */
+	public void close() {
+		closed = true;
+		//Close the queues of both directions, so that their receivers stop waiting once they are empty.
+		in.close();
+		out.close();
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+	
+	/**
+	 * @return the total number of bytes of the serialized messages that were sent by this channel. Always 0 if the channel passes the messages by reference.
+	 */
+	public long getBytesSent(){
+		return bytesSent.get();
+	}
+	
+	/**
+	 * @return the total number of bytes of the serialized messages that were received by this channel. Always 0 if the channel passes the messages by reference.
+	 */
+	public long getBytesReceived(){
+		return bytesReceived.get();
+	}
+}
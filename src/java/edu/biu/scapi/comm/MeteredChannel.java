@@ -0,0 +1,175 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * A channel decorator that records the traffic and timing of the channel in {@link ChannelMetrics}, 
+ * without changing the messages that are passed to the underlying channel. <p>
+ * 
+ * If the wrapped channel, or the channel under its decorators, is a {@link ByteCountingChannel}, the sizes of the messages 
+ * are taken from its counters at no cost. Otherwise the sizes are measured only if {@link #setMeasureSizes(boolean)} is turned on, 
+ * by serializing each message again into a stream that only counts the bytes. The time of this additional serialization is 
+ * recorded as the measure time. A message that cannot be measured is recorded without its size, so measuring never fails 
+ * a send or a receive.<p>
+ * 
+ * The serialization and deserialization done by the underlying channel are part of the recorded send and receive times, 
+ * since the channel does not expose them separately. The time of receive also includes the wait for the message.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class MeteredChannel extends ChannelDecorator {
+	
+	private ChannelMetrics metrics;
+	private ByteCountingChannel counter;	//The counting channel under the decorators, or null if there is none.
+	private boolean measureSizes = false;
+	
+	/**
+	 * Wraps the given channel and records its metrics in the given metrics object.
+	 * @param channel the channel to measure.
+	 * @param metrics the metrics to update. Several channels can share the same metrics.
+	 */
+	public MeteredChannel(Channel channel, ChannelMetrics metrics){
+		super(channel);
+		this.metrics = metrics;
+		
+		//Look for a channel that counts its bytes under the decorators.
+		Channel inner = channel;
+		while (!(inner instanceof ByteCountingChannel) && (inner instanceof ChannelDecorator)){
+			inner = ((ChannelDecorator) inner).channel;
+		}
+		//A local channel that passes the messages by reference does not serialize them, so it cannot count their bytes.
+		if ((inner instanceof ByteCountingChannel) && !isLocalByReference(inner)){
+			counter = (ByteCountingChannel) inner;
+		}
+	}
+	
+	/**
+	 * Wraps the given channel and records its metrics in the metrics of the given name in the {@link ChannelMetricsRegistry}.
+	 * @param channel the channel to measure.
+	 * @param name the name of the metrics.
+	 */
+	public MeteredChannel(Channel channel, String name){
+		this(channel, ChannelMetricsRegistry.getInstance().getMetrics(name));
+	}
+	
+	/**
+	 * @return the metrics of this channel.
+	 */
+	public ChannelMetrics getMetrics(){
+		return metrics;
+	}
+	
+	/**
+	 * Sets whether the sizes of the messages are measured by serializing them again, when the underlying channel does not count them. 
+	 * The default is false.
+	 * @param measureSizes true to serialize each message again in order to measure its size.
+	 */
+	public void setMeasureSizes(boolean measureSizes){
+		this.measureSizes = measureSizes;
+	}
+	
+	/**
+	 * Sends the message by the underlying channel and records it.
+	 */
+	public void send(Serializable data) throws IOException {
+		long measureStart = System.nanoTime();
+		long bytes = measureSize(data);
+		long countBefore = (counter == null) ? 0 : counter.getBytesSent();
+		long start = System.nanoTime();
+		channel.send(data);
+		long end = System.nanoTime();
+		if (counter != null){
+			bytes = counter.getBytesSent() - countBefore;
+		}
+		metrics.recordSend((data == null) ? null : data.getClass(), bytes, start - measureStart, end - start);
+	}
+	
+	/**
+	 * Receives a message by the underlying channel and records it.
+	 */
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		long countBefore = (counter == null) ? 0 : counter.getBytesReceived();
+		long start = System.nanoTime();
+		Serializable data = channel.receive();
+		long end = System.nanoTime();
+		long bytes = (counter == null) ? measureSize(data) : counter.getBytesReceived() - countBefore;
+		metrics.recordReceive((data == null) ? null : data.getClass(), bytes, end - start);
+		return data;
+	}
+	
+	private static boolean isLocalByReference(Channel channel){
+		return (channel instanceof LocalChannel) && ((LocalChannel) channel).getTransfer() == LocalChannel.Transfer.BY_REFERENCE;
+	}
+	
+	/**
+	 * Returns the size of the serialized message, or -1 if sizes are not measured or the message cannot be serialized.
+	 */
+	private long measureSize(Serializable data){
+		if (counter != null || !measureSizes){
+			return -1;
+		}
+		if (data instanceof byte[]){
+			return ((byte[]) data).length;
+		}
+		CountingOutputStream out = new CountingOutputStream();
+		try {
+			ObjectOutputStream oos = new ObjectOutputStream(out);
+			oos.writeObject(data);
+			oos.close();
+		} catch (IOException e) {
+			//Only the size of the message is not recorded.
+			return -1;
+		}
+		return out.count;
+	}
+	
+	public void close() {
+		channel.close();
+	}
+
+	public boolean isClosed() {
+		return channel.isClosed();
+	}
+	
+	/**
+	 * An output stream that only counts the bytes written to it.
+	 */
+	private static class CountingOutputStream extends OutputStream {
+		private long count = 0;
+		
+		public void write(int b) {
+			count++;
+		}
+		
+		public void write(byte[] b, int off, int len) {
+			count += len;
+		}
+	}
+}
@@ -37,6 +37,7 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
@@ -50,7 +51,7 @@ import edu.biu.scapi.generals.Logging;
  *  
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Meital Levy)
  */
-public class PlainTCPChannel extends PlainChannel{
+public class PlainTCPChannel extends PlainChannel implements ByteCountingChannel{
 	
 	
 	/**
@@ -81,6 +82,8 @@ public class PlainTCPChannel extends PlainChannel{
 	private Message intermediate;
 	private Message msgObj;
 	byte[] msgBytes;
+	private AtomicLong bytesSent = new AtomicLong();		//Size of the serialized messages that were sent.
+	private AtomicLong bytesReceived = new AtomicLong();	//Size of the serialized messages that were received.
 
 
 	
@@ -128,6 +131,7 @@ public class PlainTCPChannel extends PlainChannel{
 		outStream.writeObject(msgObj);
 		
 		outStream.reset();
+		bytesSent.addAndGet(msgBytes.length);
 		//System.out.println("Sending " + msg.getClass().getName());
 		
 		//outStream.writeObject(msg);
@@ -145,6 +149,7 @@ public class PlainTCPChannel extends PlainChannel{
 
 		//We actually received a message of class Message. We translate it back to the original object that was sent by the user and return this object. 
 		intermediate =   (Message) inStream.readObject();
+		bytesReceived.addAndGet(intermediate.getData().length);
 		ByteArrayInputStream iInput = new ByteArrayInputStream(intermediate.getData());
 		ObjectInputStream ois = new ObjectInputStream(iInput);
 		
@@ -154,6 +159,20 @@ public class PlainTCPChannel extends PlainChannel{
 		//return (Serializable) inStream.readObject();
 	}
 
+	/**
+	 * @return the total number of bytes of the serialized messages that were sent by this channel.
+	 */
+	public long getBytesSent(){
+		return bytesSent.get();
+	}
+	
+	/**
+	 * @return the total number of bytes of the serialized messages that were received by this channel.
+	 */
+	public long getBytesReceived(){
+		return bytesReceived.get();
+	}
+	
 	/**
 	 * Closes the socket and all other used resources.
 	 */
@@ -0,0 +1,337 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.charset.Charset;
+import java.security.GeneralSecurityException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.NoSuchPaddingException;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.primitives.kdf.HKDF;
+import edu.biu.scapi.primitives.prf.bc.BcHMAC;
+
+/** 
+ * This channel ensures both the privacy and the authenticity of the messages using AES-GCM, and replaces the stacking of 
+ * {@link EncryptedChannel} over {@link AuthenticatedChannel}.<p>
+ * 
+ * Both parties hold the same session key (for example, the output of a key exchange). Each direction of the channel uses its own 128 bit AES key that 
+ * is derived from the session key using HKDF, so one party must be constructed as the initiator and the other one as the responder. 
+ * When the channel is created the parties exchange fresh random salts that are mixed into the derivation, so every connection gets new keys even if 
+ * the session key and the label are reused; this means that both parties must create their channels at the same time.
+ * Every message is sealed as a single frame. The nonce of a frame is its sequence number in its direction and is never sent, 
+ * so a frame that was replayed, reordered or dropped does not verify. After a configurable number of frames the key of the direction is replaced by a key 
+ * derived from it, on both sides and without any additional message.<p>
+ * 
+ * Messages of type byte[] are sealed as is; any other message is serialized first. 
+ * The encryption is done by the JCE "AES/GCM/NoPadding" cipher, which uses the AES and carry-less multiplication instructions of the processor when they are available.<p>
+ * 
+ * One thread may send while another thread receives, but two threads may not send (or receive) at the same time.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+public class SecureChannel extends ChannelDecorator {
+	
+	/**
+	 * The default number of frames sealed with the same key before the key of the direction is replaced.
+	 */
+	public static final long DEFAULT_REKEY_INTERVAL = 1L << 20;
+	
+	private static final int KEY_SIZE = 16;			//Size in bytes of the AES key of each direction.
+	private static final int NONCE_SIZE = 12;
+	private static final int TAG_SIZE = 16;
+	private static final int SALT_SIZE = 16;		//Size in bytes of the random salt chosen by each party.
+	private static final byte OBJECT_FRAME = 0;		//The frame contains a serialized object.
+	private static final byte BYTES_FRAME = 1;		//The frame contains a byte array as is.
+	
+	private HKDF kdf = new HKDF(new BcHMAC());
+	private long rekeyInterval;
+	private Direction sendDirection;
+	private Direction receiveDirection;
+	private ExposedByteArrayOutputStream serializedMsg = new ExposedByteArrayOutputStream();	//Reused by all the sent messages.
+	private byte[] frameType = new byte[1];
+	
+	/**
+	 * Holds the state of one direction of the channel.
+	 */
+	private static class Direction {
+		private Cipher cipher;
+		private byte[] key;
+		private long epoch;						//The number of times the key was replaced.
+		private long sequenceNumber;			//The sequence number of the next frame.
+		private byte[] nonce = new byte[NONCE_SIZE];
+		
+		private Direction(byte[] key) throws NoSuchAlgorithmException, NoSuchPaddingException{
+			cipher = Cipher.getInstance("AES/GCM/NoPadding");
+			this.key = key;
+		}
+	}
+	
+	/**
+	 * Creates a new SecureChannel that wraps the already connected channel, using the default rekey interval.
+	 * 
+	 * @param channel an already connected channel
+	 * @param sessionKey the key shared by the two parties.
+	 * @param isInitiator true for one of the parties and false for the other one.
+	 * @throws NoSuchAlgorithmException if the JCE provider does not support AES-GCM.
+	 * @throws IOException if the exchange of the salts failed.
+	 * @throws ClassNotFoundException if there was a problem during the serialization of the other party's salt.
+	 */
+	public SecureChannel(Channel channel, SecretKey sessionKey, boolean isInitiator) throws NoSuchAlgorithmException, IOException, ClassNotFoundException {
+		this(channel, sessionKey, isInitiator, "", DEFAULT_REKEY_INTERVAL);
+	}
+	
+	/**
+	 * Creates a new SecureChannel that wraps the already connected channel.<p>
+	 * The label is part of the key derivation, so that several channels may be created from the same session key as long as each one of them gets a different label.
+	 * The constructor sends a random salt to the other party and waits for the salt of the other party.
+	 * 
+	 * @param channel an already connected channel
+	 * @param sessionKey the key shared by the two parties.
+	 * @param isInitiator true for one of the parties and false for the other one.
+	 * @param label a label that is unique to this channel among all the channels that use the session key. Both parties must use the same label.
+	 * @param rekeyInterval the number of frames sealed with the same key before the key of the direction is replaced.
+	 * @throws NoSuchAlgorithmException if the JCE provider does not support AES-GCM.
+	 * @throws IOException if the exchange of the salts failed.
+	 * @throws ClassNotFoundException if there was a problem during the serialization of the other party's salt.
+	 * @throws IllegalArgumentException if the rekey interval is not positive or the session key has no encoding.
+	 */
+	public SecureChannel(Channel channel, SecretKey sessionKey, boolean isInitiator, String label, long rekeyInterval) throws NoSuchAlgorithmException, IOException, ClassNotFoundException {
+		super(channel);
+		if (rekeyInterval <= 0){
+			throw new IllegalArgumentException("the rekey interval should be positive");
+		}
+		byte[] sessionKeyBytes = sessionKey.getEncoded();
+		if (sessionKeyBytes == null){
+			throw new IllegalArgumentException("the session key should have an encoding");
+		}
+		this.rekeyInterval = rekeyInterval;
+		
+		//Both parties contribute a fresh salt, so the keys of this connection were never used before, even if the session key and the label were.
+		byte[] salts = exchangeSalts(isInitiator);
+		
+		//Each direction gets its own key, so the same nonce is never used twice with the same key.
+		byte[] initiatorKey = deriveKey(sessionKeyBytes, label + "/initiator", salts);
+		byte[] responderKey = deriveKey(sessionKeyBytes, label + "/responder", salts);
+		try {
+			sendDirection = new Direction(isInitiator ? initiatorKey : responderKey);
+			receiveDirection = new Direction(isInitiator ? responderKey : initiatorKey);
+		} catch (NoSuchPaddingException e) {
+			throw new NoSuchAlgorithmException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Wraps each one of the given channels with a SecureChannel. The id of each channel is used as its label, 
+	 * so all the channels may be created from the same session key.<p>
+	 * The channels are created in the order of their ids, so the salts of all the channels are exchanged in the same order on both sides.
+	 * 
+	 * @param channels the connected channels, mapped by their ids.
+	 * @param sessionKey the key shared by the two parties.
+	 * @param isInitiator true for one of the parties and false for the other one.
+	 * @param rekeyInterval the number of frames sealed with the same key before the key of the direction is replaced.
+	 * @return a map that contains the secure channels, mapped by the same ids.
+	 * @throws NoSuchAlgorithmException if the JCE provider does not support AES-GCM.
+	 * @throws IOException if the exchange of the salts failed.
+	 * @throws ClassNotFoundException if there was a problem during the serialization of the other party's salt.
+	 */
+	public static Map<String, Channel> secureChannels(Map<String, Channel> channels, SecretKey sessionKey, boolean isInitiator, long rekeyInterval) throws NoSuchAlgorithmException, IOException, ClassNotFoundException {
+		Map<String, Channel> secured = new HashMap<String, Channel>();
+		Iterator<Entry<String, Channel>> itr = new TreeMap<String, Channel>(channels).entrySet().iterator();
+		while (itr.hasNext()){
+			Entry<String, Channel> entry = itr.next();
+			secured.put(entry.getKey(), new SecureChannel(entry.getValue(), sessionKey, isInitiator, entry.getKey(), rekeyInterval));
+		}
+		return secured;
+	}
+	
+	/**
+	 * Serializes the given object (unless it is a byte array), seals it and sends the frame on the channel.
+	 * @param msg the object to send to the other party  AS IS, the only constraint is that it must be Serializable
+	 */
+	public void send(Serializable msg) throws IOException {
+		byte[] frame;
+		if (msg instanceof byte[]){
+			byte[] bytes = (byte[]) msg;
+			frameType[0] = BYTES_FRAME;
+			frame = seal(frameType, bytes, 0, bytes.length);
+		} else {
+			serializedMsg.reset();
+			ObjectOutputStream oos = new ObjectOutputStream(serializedMsg);
+			oos.writeObject(msg);
+			oos.flush();
+			frameType[0] = OBJECT_FRAME;
+			frame = seal(frameType, serializedMsg.getBuffer(), 0, serializedMsg.size());
+		}
+		channel.send(frame);
+	}
+
+	/**
+	 * Receives a frame sent by the other party, verifies and opens it and returns the actual object sent by the other party.
+	 * @return <B> the actual object </B> sent by the other party, if the frame verifies<p>
+	 * 		   <B>{@code null}</B> if the frame does not verify	 
+	 */
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		Serializable received = channel.receive();
+		if (!(received instanceof byte[])){
+			return null;
+		}
+		byte[] frame = (byte[]) received;
+		
+		int length = open(frame);
+		if (length < 1){
+			return null;
+		}
+		
+		if (frame[0] == BYTES_FRAME){
+			return Arrays.copyOfRange(frame, 1, length);
+		}
+		ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(frame, 1, length - 1));
+		return (Serializable) ois.readObject();
+	}
+
+	/**
+	 * Close the channel.
+	 */
+	public void close() {
+		channel.close();
+	}
+
+	@Override
+	public boolean isClosed() {
+		return this.channel.isClosed();
+	}
+	
+	/**
+	 * Seals the header followed by the given message as one frame.
+	 */
+	private byte[] seal(byte[] header, byte[] msg, int offset, int length) throws IOException {
+		Direction direction = sendDirection;
+		try {
+			initCipher(direction, Cipher.ENCRYPT_MODE);
+			byte[] frame = new byte[header.length + length + TAG_SIZE];
+			int written = direction.cipher.update(header, 0, header.length, frame, 0);
+			direction.cipher.doFinal(msg, offset, length, frame, written);
+			direction.sequenceNumber++;
+			return frame;
+		} catch (GeneralSecurityException e) {
+			throw new IOException("failed to seal the message: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Verifies the given frame and decrypts it in place.
+	 * @return the length of the plaintext at the beginning of the frame, or -1 if the frame does not verify.
+	 */
+	private int open(byte[] frame) throws IOException {
+		if (frame.length < TAG_SIZE){
+			return -1;
+		}
+		Direction direction = receiveDirection;
+		try {
+			initCipher(direction, Cipher.DECRYPT_MODE);
+			int length = direction.cipher.doFinal(frame, 0, frame.length, frame, 0);
+			//The sequence number advances only when a frame verifies, so a forged frame does not break the channel.
+			direction.sequenceNumber++;
+			return length;
+		} catch (AEADBadTagException e) {
+			return -1;
+		} catch (GeneralSecurityException e) {
+			throw new IOException("failed to open the message: " + e.getMessage());
+		}
+	}
+	
+	/**
+	 * Replaces the key of the direction if its current key sealed the maximal number of frames, 
+	 * and initializes the cipher with the nonce of the next frame.
+	 */
+	private void initCipher(Direction direction, int mode) throws GeneralSecurityException {
+		long epoch = direction.sequenceNumber / rekeyInterval;
+		while (direction.epoch < epoch){
+			direction.key = deriveKey(direction.key, "rekey");
+			direction.epoch++;
+		}
+		
+		//The nonce is the big-endian sequence number, padded with zeros.
+		long sequenceNumber = direction.sequenceNumber;
+		for (int i = NONCE_SIZE - 1; i >= NONCE_SIZE - 8; i--){
+			direction.nonce[i] = (byte) sequenceNumber;
+			sequenceNumber >>>= 8;
+		}
+		direction.cipher.init(mode, new SecretKeySpec(direction.key, "AES"), new GCMParameterSpec(TAG_SIZE * 8, direction.nonce));
+	}
+	
+	/**
+	 * Sends a random salt to the other party and receives the salt of the other party.
+	 * @return the salt of the initiator followed by the salt of the responder.
+	 */
+	private byte[] exchangeSalts(boolean isInitiator) throws IOException, ClassNotFoundException {
+		byte[] salt = new byte[SALT_SIZE];
+		new SecureRandom().nextBytes(salt);
+		channel.send(salt);
+		
+		Serializable received = channel.receive();
+		if (!(received instanceof byte[]) || ((byte[]) received).length != SALT_SIZE){
+			throw new IOException("the salt of the other party is not valid");
+		}
+		byte[] otherSalt = (byte[]) received;
+		
+		byte[] salts = new byte[2 * SALT_SIZE];
+		System.arraycopy(isInitiator ? salt : otherSalt, 0, salts, 0, SALT_SIZE);
+		System.arraycopy(isInitiator ? otherSalt : salt, 0, salts, SALT_SIZE, SALT_SIZE);
+		return salts;
+	}
+	
+	private byte[] deriveKey(byte[] key, String info){
+		return kdf.deriveKey(key, 0, key.length, KEY_SIZE, info.getBytes(Charset.forName("UTF-8"))).getEncoded();
+	}
+	
+	/**
+	 * Derives a key from the given key, with the info followed by the salts of both parties as the context of HKDF.
+	 */
+	private byte[] deriveKey(byte[] key, String info, byte[] salts){
+		byte[] infoBytes = info.getBytes(Charset.forName("UTF-8"));
+		byte[] context = Arrays.copyOf(infoBytes, infoBytes.length + salts.length);
+		System.arraycopy(salts, 0, context, infoBytes.length, salts.length);
+		return kdf.deriveKey(key, 0, key.length, KEY_SIZE, context).getEncoded();
+	}
+}
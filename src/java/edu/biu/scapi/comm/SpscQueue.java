@@ -0,0 +1,144 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.comm;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Unbounded lock-free queue for a single producer thread and a single consumer thread. <p>
+ * The queue is a linked list of nodes: the producer appends nodes after the tail and the consumer moves the head, 
+ * so the two threads never write the same field. A consumer that finds the queue empty spins for a short while 
+ * and then parks until the producer unparks it or the queue is closed.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ */
+class SpscQueue<E> {
+	
+	//The number of times the consumer polls the queue before it parks.
+	private static final int SPINS = 1000;
+	
+	private static class Node<E> {
+		private E value;
+		private volatile Node<E> next;
+		
+		Node(E value){
+			this.value = value;
+		}
+	}
+	
+	private Node<E> head;					// Accessed only by the consumer. The value of the head node was already consumed.
+	private Node<E> tail;					// Accessed only by the producer.
+	private volatile Thread waitingConsumer;	// The consumer thread while it is parked, null otherwise.
+	private volatile boolean closed;
+	
+	SpscQueue(){
+		head = tail = new Node<E>(null);
+	}
+	
+	/**
+	 * Adds the given element to the queue. Should be called only by the producer thread.
+	 */
+	void offer(E element){
+		Node<E> node = new Node<E>(element);
+		//The volatile write publishes the value of the node together with the node. 
+		//It also orders the write before the read of the waiting consumer, so that a consumer that has just parked is not missed.
+		tail.next = node;
+		tail = node;
+		
+		Thread consumer = waitingConsumer;
+		if (consumer != null){
+			LockSupport.unpark(consumer);
+		}
+	}
+	
+	/**
+	 * Removes and returns the first element of the queue. Should be called only by the consumer thread.
+	 * @return the first element, or null if the queue is empty.
+	 */
+	E poll(){
+		Node<E> next = head.next;
+		if (next == null){
+			return null;
+		}
+		E element = next.value;
+		next.value = null;
+		head = next;
+		return element;
+	}
+	
+	/**
+	 * Removes and returns the first element of the queue, waiting for it if the queue is empty. 
+	 * Should be called only by the consumer thread.
+	 * @param timeout the maximal time to wait.
+	 * @param unit the unit of the timeout.
+	 * @return the first element, or null if the timeout passed or the queue was closed before an element was added.
+	 * @throws InterruptedException if the consumer thread was interrupted while waiting.
+	 */
+	E poll(long timeout, TimeUnit unit) throws InterruptedException {
+		E element = poll();
+		for (int i = 0; element == null && i < SPINS; i++){
+			element = poll();
+		}
+		if (element != null){
+			return element;
+		}
+		
+		long deadline = System.nanoTime() + unit.toNanos(timeout);
+		waitingConsumer = Thread.currentThread();
+		try {
+			//The element and the closed flag are checked again after the consumer is published, so that an element added 
+			//or a close done meanwhile is not missed.
+			while ((element = poll()) == null){
+				if (closed){
+					return null;
+				}
+				long remaining = deadline - System.nanoTime();
+				if (remaining <= 0){
+					return null;
+				}
+				LockSupport.parkNanos(this, remaining);
+				if (Thread.interrupted()){
+					throw new InterruptedException();
+				}
+			}
+			return element;
+		} finally {
+			waitingConsumer = null;
+		}
+	}
+	
+	/**
+	 * Closes the queue and wakes up the consumer, if it is waiting. The elements that were already added can still be polled, 
+	 * but a consumer that finds the queue empty returns at once instead of waiting.
+	 */
+	void close(){
+		closed = true;
+		Thread consumer = waitingConsumer;
+		if (consumer != null){
+			LockSupport.unpark(consumer);
+		}
+	}
+}
@@ -0,0 +1,428 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.comm.twoPartyComm;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+
+import javax.jms.BytesMessage;
+import javax.jms.Connection;
+import javax.jms.DeliveryMode;
+import javax.jms.Destination;
+import javax.jms.JMSException;
+import javax.jms.Message;
+import javax.jms.MessageConsumer;
+import javax.jms.MessageListener;
+import javax.jms.MessageProducer;
+import javax.jms.Session;
+
+import edu.biu.scapi.comm.ByteCountingChannel;
+import edu.biu.scapi.generals.Logging;
+
+/**
+ * This class represents a concrete channel in the Decorator Pattern used to create Channels. Like {@link QueueChannel}, this channel uses the 
+ * JMS mechanism and can work on any concrete implementation, by getting a concrete Connection object in the constructor. 
+ * It uses the same queues as QueueChannel, so both parties should use the same kind of channel.<p>
+ * 
+ * QueueChannel sends each message as an ObjectMessage, which means that every message is serialized by the Java serialization and makes its 
+ * own round trip to the broker. This channel sends the messages as BytesMessages instead:
+ * <ul>
+ * <li>Each message is written as a frame that holds its type, its length and its content. Messages of type byte[] are written as is; 
+ * any other message is serialized first.</li>
+ * <li>Small messages are coalesced into one BytesMessage. The batch is sent when it reaches the flush threshold, when the flush delay has passed since 
+ * its first message was written, before the channel waits for a message in {@link #receive()} (the other party may wait for the batch in 
+ * order to answer) and when the channel is closed.</li>
+ * <li>The messages are received asynchronously by a MessageListener, that splits each BytesMessage into its frames and puts them in a local queue. 
+ * {@link #receive()} takes the next message from this queue.</li>
+ * </ul>
+ * 
+ * The producer and the consumer use different sessions, since the session of an asynchronous consumer belongs to the JMS delivery thread. 
+ * One thread may send while another thread receives.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class BytesQueueChannel implements ByteCountingChannel, MessageListener {
+	
+	/**
+	 * The default size in bytes of a batch that is sent immediately.
+	 */
+	static final int DEFAULT_FLUSH_THRESHOLD = 32 * 1024;
+	
+	/**
+	 * The default time in milliseconds that a message can wait in the batch.
+	 */
+	static final long DEFAULT_FLUSH_DELAY = 1;
+	
+	private static final byte OBJECT_FRAME = 0;		//The frame contains a serialized object.
+	private static final byte BYTES_FRAME = 1;		//The frame contains a byte array as is.
+	private static final int FRAME_HEADER_SIZE = 5;	//The type and the length of the frame.
+	
+	//Put in the received queue when the channel is closed, in order to wake up the receiver.
+	private static final Object CLOSED = new Object();
+	
+	//Sends the batches whose flush delay has passed. A single thread serves all the channels.
+	private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "BytesQueueChannel flusher");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	/**
+	 * A received frame that holds a serialized object. It is deserialized by the receiving thread.
+	 */
+	private static class SerializedObject {
+		private final byte[] bytes;
+		
+		private SerializedObject(byte[] bytes){
+			this.bytes = bytes;
+		}
+	}
+	
+	/**
+	 * ByteArrayOutputStream that gives access to its internal buffer, so that the buffer is not copied before it is written.
+	 */
+	private static class Buffer extends ByteArrayOutputStream {
+		private Buffer(int size){
+			super(size);
+		}
+		
+		private byte[] getBuffer(){
+			return buf;
+		}
+	}
+	
+	private Session producerSession;	//Used only to send messages, while holding the send lock.
+	private Session consumerSession;	//Used by the JMS delivery thread.
+	private MessageProducer producer;	// Used to send messages.
+	private MessageConsumer consumer;	//Used to receive messages.
+	private volatile boolean isClosed;
+	//As a convention, each queue should be deleted at the end of the communication by the consumer of this queue.
+	//(Thus, the producer queue will be deleted by the other side of the communication).
+	private Destination consumerQueue;	//We save it in order to remove it at the end of the communication.
+	private Connection connection;		//We save because we need it to remove the consumer queue at the end of the communication.
+	private DestroyDestinationUtil destroyer;
+	
+	private final int flushThreshold;
+	private final long flushDelay;
+	private final Object sendLock = new Object();		//Guards the batch and the producer, which are used by the sender and the flusher.
+	private final Buffer batch;							//The frames that were not sent yet.
+	private final Buffer serialized = new Buffer(256);	//Reused to serialize the sent objects.
+	private boolean flushScheduled;						//Indicates whether the flusher was asked to send the current batch.
+	private RuntimeException flushError;				//An error of the flusher, thrown to the sender.
+	private AtomicLong bytesSent = new AtomicLong();	//Size of the frame contents that were sent.
+	private AtomicLong bytesReceived = new AtomicLong();	//Size of the frame contents that were received.
+	
+	//The received frames, as byte arrays or serialized objects. May also hold an exception of the listener or the CLOSED object.
+	private final LinkedBlockingQueue<Object> received = new LinkedBlockingQueue<Object>();
+	
+	private final Runnable flushTask = new Runnable() {
+		public void run() {
+			synchronized (sendLock) {
+				flushScheduled = false;
+				if (isClosed){
+					return;
+				}
+				try {
+					flushBatch();
+				} catch (RuntimeException e) {
+					Logging.getLogger().log(Level.WARNING, e.toString());
+					flushError = e;
+				}
+			}
+		}
+	};
+	
+	/**
+	 * A constructor that gets the two parties, the Connection object to use, the number of connections and the batching parameters.
+	 * It creates the producer and consumer sessions, builds a queue to send messages on and a queue to receive messages from, 
+	 * and registers this channel as the listener of the consumer. 
+	 * The names of the queues are the same as the names of the {@link QueueChannel} queues.
+	 * @param first The party which declares the running program.
+	 * @param second The party which declares the other program.
+	 * @param connection The JMS connection object to build the producer and consumer on.
+	 * @param connectionsId the id of this connection.
+	 * @param destroyer The class that delete the created destinations. Should match to the given connection object.
+	 * @param flushThreshold The size in bytes of a batch that is sent immediately.
+	 * @param flushDelay The time in milliseconds that a message can wait in the batch. 0 means that each message is sent immediately.
+	 */
+	BytesQueueChannel(QueuePartyData first, QueuePartyData second, Connection connection, String connectionsId, DestroyDestinationUtil destroyer, 
+			int flushThreshold, long flushDelay) {
+		if (flushThreshold <= 0){
+			throw new IllegalArgumentException("the flush threshold should be positive");
+		}
+		if (flushDelay < 0){
+			throw new IllegalArgumentException("the flush delay should not be negative");
+		}
+		this.flushThreshold = flushThreshold;
+		this.flushDelay = flushDelay;
+		batch = new Buffer(Math.min(flushThreshold, DEFAULT_FLUSH_THRESHOLD) + FRAME_HEADER_SIZE);
+		
+		try {
+			this.connection = connection;
+			this.destroyer = destroyer;
+			
+			//Create the producer queue and the producer object.
+			producerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+			String producerQueueName = connectionsId+" "+first.getId() + " "+ second.getId();
+			Destination producerQueue = producerSession.createQueue(producerQueueName);
+			producer = producerSession.createProducer(producerQueue);
+			producer.setDeliveryMode(DeliveryMode.NON_PERSISTENT);
+			
+			//Create the consumer queue and the consumer object, that delivers the messages to this channel.
+			consumerSession = connection.createSession(false, Session.AUTO_ACKNOWLEDGE);
+			String consumerQueueName = connectionsId+" "+second.getId() + " "+ first.getId();
+			consumerQueue = consumerSession.createQueue(consumerQueueName);
+			consumer = consumerSession.createConsumer(consumerQueue);
+			consumer.setMessageListener(this);
+			
+			isClosed = false;
+		} catch (JMSException e) {
+			throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+		}
+	}
+
+	/**
+	 * Writes the given message to the current batch. The batch is sent if it reached the flush threshold; 
+	 * otherwise it is sent after the flush delay, unless it is sent earlier.
+	 */
+	public void send(Serializable data) throws IOException {
+		if (isClosed){
+			throw new IOException("the channel is closed");
+		}
+		
+		synchronized (sendLock) {
+			throwFlushError();
+			
+			if (data instanceof byte[]){
+				byte[] bytes = (byte[]) data;
+				writeFrame(BYTES_FRAME, bytes, bytes.length);
+				bytesSent.addAndGet(bytes.length);
+			} else {
+				serialized.reset();
+				ObjectOutputStream oos = new ObjectOutputStream(serialized);
+				oos.writeObject(data);
+				oos.flush();
+				writeFrame(OBJECT_FRAME, serialized.getBuffer(), serialized.size());
+				bytesSent.addAndGet(serialized.size());
+			}
+			
+			if (flushDelay == 0 || batch.size() >= flushThreshold){
+				flushBatch();
+			} else if (!flushScheduled){
+				flushScheduled = true;
+				flusher.schedule(flushTask, flushDelay, TimeUnit.MILLISECONDS);
+			}
+		}
+	}
+	
+	/**
+	 * Sends the messages that were written to the batch and were not sent yet.
+	 */
+	void flush() {
+		synchronized (sendLock) {
+			throwFlushError();
+			flushBatch();
+		}
+	}
+
+	/**
+	 * Sends the pending batch and returns the next received message.
+	 */
+	public Serializable receive() throws ClassNotFoundException, IOException {
+		if (!isClosed){
+			flush();
+		}
+		
+		Object frame;
+		try {
+			frame = received.take();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException("interrupted while waiting for a message");
+		}
+		
+		if (frame == CLOSED){
+			//Leave the mark for the next calls.
+			received.offer(CLOSED);
+			throw new IOException("the channel is closed");
+		}
+		if (frame instanceof RuntimeException){
+			throw (RuntimeException) frame;
+		}
+		if (frame instanceof SerializedObject){
+			byte[] bytes = ((SerializedObject) frame).bytes;
+			bytesReceived.addAndGet(bytes.length);
+			ObjectInputStream ois = new ObjectInputStream(new ByteArrayInputStream(bytes));
+			return (Serializable) ois.readObject();
+		}
+		bytesReceived.addAndGet(((byte[]) frame).length);
+		return (byte[]) frame;
+	}
+	
+	/**
+	 * Called by the JMS delivery thread for each received message. Splits the message into its frames and puts them in the received queue.
+	 */
+	public void onMessage(Message message) {
+		//Check that the received message is instance of BytesMessage.
+		if (!(message instanceof BytesMessage)){
+			received.offer(new IllegalArgumentException("message should be an instance of BytesMessage"));
+			return;
+		}
+		
+		byte[] body;
+		try {
+			BytesMessage bytesMessage = (BytesMessage) message;
+			body = new byte[(int) bytesMessage.getBodyLength()];
+			bytesMessage.readBytes(body);
+		} catch (JMSException e) {
+			received.offer(new edu.biu.scapi.exceptions.JMSException(e.getMessage()));
+			return;
+		}
+		
+		int offset = 0;
+		while (offset < body.length){
+			if (body.length - offset < FRAME_HEADER_SIZE){
+				received.offer(new IllegalArgumentException("the received message is not a sequence of frames"));
+				return;
+			}
+			byte type = body[offset];
+			int length = ((body[offset + 1] & 0xFF) << 24) | ((body[offset + 2] & 0xFF) << 16) | ((body[offset + 3] & 0xFF) << 8) | (body[offset + 4] & 0xFF);
+			offset += FRAME_HEADER_SIZE;
+			if (length < 0 || length > body.length - offset || (type != BYTES_FRAME && type != OBJECT_FRAME)){
+				received.offer(new IllegalArgumentException("the received message is not a sequence of frames"));
+				return;
+			}
+			
+			byte[] content = Arrays.copyOfRange(body, offset, offset + length);
+			offset += length;
+			received.offer((type == BYTES_FRAME) ? content : new SerializedObject(content));
+		}
+	}
+
+	/**
+	 * @return the total number of bytes of the frame contents that were sent by this channel.
+	 */
+	public long getBytesSent(){
+		return bytesSent.get();
+	}
+	
+	/**
+	 * @return the total number of bytes of the frame contents that were received by this channel.
+	 */
+	public long getBytesReceived(){
+		return bytesReceived.get();
+	}
+	
+	/**
+	 * Sends the pending batch and closes the channel. A thread that waits in {@link #receive()} gets an IOException.
+	 */
+	public void close(){
+		try {
+			synchronized (sendLock) {
+				if (isClosed){
+					return;
+				}
+				flushBatch();
+				isClosed = true;
+			}
+			//Close the producer and consumer.
+			producer.close();
+			consumer.close();
+			//Close the sessions.
+			producerSession.close();
+			consumerSession.close();
+			received.offer(CLOSED);
+			//As a convention, each queue should be deleted at the end of the communication by the consumer of this queue.
+			//(Thus, the producer queue will be deleted by the other side of the communication).
+			destroyer.destroyDestination(connection, consumerQueue);
+		} catch (JMSException e) {
+			throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+		}
+	}
+
+	public boolean isClosed() {
+		return isClosed;
+	}
+	
+	/**
+	 * Writes a frame with the given type and content to the batch. Should be called while holding the send lock.
+	 */
+	private void writeFrame(byte type, byte[] content, int length){
+		batch.write(type);
+		batch.write(length >>> 24);
+		batch.write(length >>> 16);
+		batch.write(length >>> 8);
+		batch.write(length);
+		batch.write(content, 0, length);
+	}
+	
+	/**
+	 * Sends the batch as one BytesMessage, if it is not empty. Should be called while holding the send lock.
+	 */
+	private void flushBatch(){
+		if (batch.size() == 0){
+			return;
+		}
+		try {
+			BytesMessage message = producerSession.createBytesMessage();
+			message.writeBytes(batch.getBuffer(), 0, batch.size());
+			producer.send(message);
+			
+			//We cast the exception to SCAPI exception which is a runtime exception.
+			//That way we do not need to declare the function to throw this exception.
+		} catch (JMSException e) {
+			throw new edu.biu.scapi.exceptions.JMSException(e.getMessage());
+		} finally {
+			batch.reset();
+		}
+	}
+	
+	/**
+	 * Throws the error of the last flush done by the flusher, if there was one. Should be called while holding the send lock.
+	 */
+	private void throwFlushError(){
+		if (flushError != null){
+			RuntimeException e = flushError;
+			flushError = null;
+			throw e;
+		}
+	}
+}
@@ -35,9 +35,10 @@ import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketException;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 
-import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.ByteCountingChannel;
 import edu.biu.scapi.comm.PlainTCPChannel;
 import edu.biu.scapi.generals.Logging;
 
@@ -56,7 +57,7 @@ import edu.biu.scapi.generals.Logging;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class PlainTCPSocketChannel implements Channel{
+public class PlainTCPSocketChannel implements ByteCountingChannel{
 	
 	/**
 	 * A channel has a state. It can be either NOT_INIT,CONNECTING or READY.
@@ -102,6 +103,8 @@ public class PlainTCPSocketChannel implements Channel{
 	private byte[] msgBytes;
 	private SocketPartyData me;					//Used to send the identity if needed.
 	protected boolean checkIdentity;			//Indicated if there is a need to verify identity.
+	private AtomicLong bytesSent = new AtomicLong();		//Size of the serialized messages that were sent.
+	private AtomicLong bytesReceived = new AtomicLong();	//Size of the serialized messages that were received.
 
 	/**
 	 * A constructor that set the state of this channel to not ready.
@@ -170,6 +173,7 @@ public class PlainTCPSocketChannel implements Channel{
 		msgObj.setData(msgBytes);
 		outStream.writeObject(msgObj);
 		outStream.reset();
+		bytesSent.addAndGet(msgBytes.length);
 		
 	}
 
@@ -183,6 +187,7 @@ public class PlainTCPSocketChannel implements Channel{
 		
 		//We actually received a message of class Message. We translate it back to the original object that was sent by the user and return this object. 
 		intermediate =   (Message) inStream.readObject();
+		bytesReceived.addAndGet(intermediate.getData().length);
 		ByteArrayInputStream iInput = new ByteArrayInputStream(intermediate.getData());
 		ObjectInputStream ois = new ObjectInputStream(iInput);
 		
@@ -190,6 +195,20 @@ public class PlainTCPSocketChannel implements Channel{
 		
 	}
 
+	/**
+	 * @return the total number of bytes of the serialized messages that were sent by this channel.
+	 */
+	public long getBytesSent(){
+		return bytesSent.get();
+	}
+	
+	/**
+	 * @return the total number of bytes of the serialized messages that were received by this channel.
+	 */
+	public long getBytesReceived(){
+		return bytesReceived.get();
+	}
+
 	/**
 	 * Closes the sockets and all other used resources.
 	 */
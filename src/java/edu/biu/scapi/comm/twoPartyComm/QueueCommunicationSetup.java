@@ -25,11 +25,14 @@
 
 package edu.biu.scapi.comm.twoPartyComm;
 
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
+import javax.crypto.SecretKey;
 import javax.jms.Connection;
 import javax.jms.ConnectionFactory;
 import javax.jms.JMSException;
@@ -38,6 +41,7 @@ import org.apache.commons.exec.TimeoutObserver;
 import org.apache.commons.exec.Watchdog;
 
 import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.SecureChannel;
 import edu.biu.scapi.exceptions.DuplicatePartyException;
 import edu.biu.scapi.exceptions.ScapiRuntimeException;
 import edu.biu.scapi.generals.Logging;
@@ -83,6 +87,11 @@ public class QueueCommunicationSetup implements TwoPartyCommunicationSetup, Time
 	QueuePartyData me;						//The data of the current application.
 	QueuePartyData other;					//The data of the other application to communicate with.
 	DestroyDestinationUtil destroyer;
+	private SecretKey sessionKey;			//If set, the created channels are wrapped with SecureChannel.
+	private long rekeyInterval;				//The rekey interval of the secure channels.
+	private boolean bytesChannels = false;	//Indicates whether to create BytesQueueChannels instead of QueueChannels.
+	private int flushThreshold;				//The flush threshold of the bytes channels.
+	private long flushDelay;				//The flush delay of the bytes channels.
 	
 	protected QueueCommunicationSetup(){}
 	
@@ -158,7 +167,12 @@ public class QueueCommunicationSetup implements TwoPartyCommunicationSetup, Time
 		//For each connection between the two parties, create a Queue channel.
 		int size = connectionsIds.length;
 		for (int i=0; i<size && !bTimedOut; i++){
-			QueueChannel channel = new QueueChannel(me, other, connection, connectionsIds[i], destroyer);
+			Channel channel;
+			if (bytesChannels){
+				channel = new BytesQueueChannel(me, other, connection, connectionsIds[i], destroyer, flushThreshold, flushDelay);
+			} else {
+				channel = new QueueChannel(me, other, connection, connectionsIds[i], destroyer);
+			}
 			//put the created channel in the map.
 			connectedChannels.put(connectionsIds[i], channel);	
 		}
@@ -174,7 +188,78 @@ public class QueueCommunicationSetup implements TwoPartyCommunicationSetup, Time
 			throw new TimeoutException("timeout has occurred");
 		}
 		
-		return connectedChannels;
+		return secureIfNeeded(connectedChannels);
+	}
+	
+	/**
+	 * Makes every channel created from now on by this setup send the messages as BytesMessages instead of ObjectMessages, 
+	 * using the default flush threshold (32KB) and flush delay (1 millisecond). 
+	 * Byte arrays are sent without the Java serialization and small messages are coalesced into one BytesMessage. 
+	 * The other party must create its channels the same way.
+	 */
+	public void enableBytesChannels(){
+		enableBytesChannels(BytesQueueChannel.DEFAULT_FLUSH_THRESHOLD, BytesQueueChannel.DEFAULT_FLUSH_DELAY);
+	}
+	
+	/**
+	 * Makes every channel created from now on by this setup send the messages as BytesMessages instead of ObjectMessages. 
+	 * Byte arrays are sent without the Java serialization and small messages are coalesced into one BytesMessage. 
+	 * A batch is sent when it reaches the flush threshold, when the flush delay has passed, before the channel waits for a message and when the channel is closed. 
+	 * The other party must create its channels the same way.
+	 * @param flushThreshold the size in bytes of a batch that is sent immediately.
+	 * @param flushDelay the time in milliseconds that a message can wait in the batch. 0 means that each message is sent immediately.
+	 */
+	public void enableBytesChannels(int flushThreshold, long flushDelay){
+		if (flushThreshold <= 0){
+			throw new IllegalArgumentException("the flush threshold should be positive");
+		}
+		if (flushDelay < 0){
+			throw new IllegalArgumentException("the flush delay should not be negative");
+		}
+		this.bytesChannels = true;
+		this.flushThreshold = flushThreshold;
+		this.flushDelay = flushDelay;
+	}
+	
+	/**
+	 * Makes every channel created from now on by this setup a {@link SecureChannel} that uses the given session key and the default rekey interval. 
+	 * The other party must call this function with the same key.
+	 * @param sessionKey the key shared by the two parties (for example, the output of a key exchange).
+	 */
+	public void enableSecureChannels(SecretKey sessionKey){
+		enableSecureChannels(sessionKey, SecureChannel.DEFAULT_REKEY_INTERVAL);
+	}
+	
+	/**
+	 * Makes every channel created from now on by this setup a {@link SecureChannel} that uses the given session key. 
+	 * The other party must call this function with the same key and rekey interval.
+	 * @param sessionKey the key shared by the two parties (for example, the output of a key exchange).
+	 * @param rekeyInterval the number of frames sealed with the same key before the key of each direction is replaced.
+	 */
+	public void enableSecureChannels(SecretKey sessionKey, long rekeyInterval){
+		if (rekeyInterval <= 0){
+			throw new IllegalArgumentException("the rekey interval should be positive");
+		}
+		this.sessionKey = sessionKey;
+		this.rekeyInterval = rekeyInterval;
+	}
+	
+	/**
+	 * Wraps the given channels with SecureChannels if a session key was set.
+	 */
+	private Map<String, Channel> secureIfNeeded(Map<String, Channel> connections){
+		if (sessionKey == null){
+			return connections;
+		}
+		try {
+			return SecureChannel.secureChannels(connections, sessionKey, me.getId() < other.getId(), rekeyInterval);
+		} catch (NoSuchAlgorithmException e) {
+			throw new ScapiRuntimeException(e.getMessage());
+		} catch (IOException e) {
+			throw new ScapiRuntimeException("failed to exchange the salts of the secure channels: " + e.getMessage());
+		} catch (ClassNotFoundException e) {
+			throw new ScapiRuntimeException("failed to exchange the salts of the secure channels: " + e.getMessage());
+		}
 	}
 	
 	@Override
@@ -25,15 +25,21 @@
 
 package edu.biu.scapi.comm.twoPartyComm;
 
+import java.io.IOException;
+import java.security.NoSuchAlgorithmException;
 import java.util.Map;
 import java.util.concurrent.TimeoutException;
 import java.util.logging.Level;
 
+import javax.crypto.SecretKey;
+
 import org.apache.commons.exec.TimeoutObserver;
 import org.apache.commons.exec.Watchdog;
 
 import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.comm.SecureChannel;
 import edu.biu.scapi.exceptions.DuplicatePartyException;
+import edu.biu.scapi.exceptions.ScapiRuntimeException;
 import edu.biu.scapi.generals.Logging;
 
 /**
@@ -64,6 +70,8 @@ public class SocketCommunicationSetup implements TwoPartyCommunicationSetup, Tim
 	private int connectionsNumber;									//Holds the number of created connections. 
 	protected SocketPartyData me;									//The data of the current application.
 	protected SocketPartyData other;								//The data of the other application to communicate with.
+	private SecretKey sessionKey;									//If set, the created channels are wrapped with SecureChannel.
+	private long rekeyInterval;										//The rekey interval of the secure channels.
 	
 	/**
 	 * A constructor that set the given parties.
@@ -126,7 +134,7 @@ public class SocketCommunicationSetup implements TwoPartyCommunicationSetup, Tim
 		connectionsNumber += connector.getConnectionsCount();
 		
 		//Return the map of channels held in the established connection object.
-		Map<String, Channel> connections = connector.getConnections();
+		Map<String, Channel> connections = secureIfNeeded(connector.getConnections());
 		
 		connector.reset();
 		
@@ -187,6 +195,47 @@ public class SocketCommunicationSetup implements TwoPartyCommunicationSetup, Tim
 		this.enableNagle  = true;
 	}
 	
+	/**
+	 * Makes every channel created from now on by this setup a {@link SecureChannel} that uses the given session key and the default rekey interval. 
+	 * The other party must call this function with the same key.
+	 * @param sessionKey the key shared by the two parties (for example, the output of a key exchange).
+	 */
+	public void enableSecureChannels(SecretKey sessionKey){
+		enableSecureChannels(sessionKey, SecureChannel.DEFAULT_REKEY_INTERVAL);
+	}
+	
+	/**
+	 * Makes every channel created from now on by this setup a {@link SecureChannel} that uses the given session key. 
+	 * The other party must call this function with the same key and rekey interval.
+	 * @param sessionKey the key shared by the two parties (for example, the output of a key exchange).
+	 * @param rekeyInterval the number of frames sealed with the same key before the key of each direction is replaced.
+	 */
+	public void enableSecureChannels(SecretKey sessionKey, long rekeyInterval){
+		if (rekeyInterval <= 0){
+			throw new IllegalArgumentException("the rekey interval should be positive");
+		}
+		this.sessionKey = sessionKey;
+		this.rekeyInterval = rekeyInterval;
+	}
+	
+	/**
+	 * Wraps the given channels with SecureChannels if a session key was set.
+	 */
+	private Map<String, Channel> secureIfNeeded(Map<String, Channel> connections){
+		if (sessionKey == null){
+			return connections;
+		}
+		try {
+			return SecureChannel.secureChannels(connections, sessionKey, me.compareTo(other) > 0, rekeyInterval);
+		} catch (NoSuchAlgorithmException e) {
+			throw new ScapiRuntimeException(e.getMessage());
+		} catch (IOException e) {
+			throw new ScapiRuntimeException("failed to exchange the salts of the secure channels: " + e.getMessage());
+		} catch (ClassNotFoundException e) {
+			throw new ScapiRuntimeException("failed to exchange the salts of the secure channels: " + e.getMessage());
+		}
+	}
+	
 	/**
 	 * This function is called by the infrastructure of the Watchdog if the previously set timeout has passed. (Do not call this function).
 	 */
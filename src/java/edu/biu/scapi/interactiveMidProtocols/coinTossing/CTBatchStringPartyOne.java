@@ -0,0 +1,149 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.coinTossing;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitter;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
+
+/**
+ * This class plays as party one of a coin tossing protocol that tosses many L-bit strings with a single round of commitments.<p>
+ * 
+ * The protocol runs the Blum protocol on strings instead of bits, and batches all the tosses of one call:
+ * party one commits to all its strings in one message, party two answers with all its strings in one message 
+ * and party one decommits all of them in one message. Each output is uniform as long as one of the parties is honest, 
+ * given that the underlying commitment is hiding and binding. As in the Blum protocol, party one sees the strings of party two 
+ * before it decommits and may abort at this point. 
+ * Applications that need simulation-based security should use CTStringPartyOne, which proves the knowledge of the committed value.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CTBatchStringPartyOne implements CTBatchPartyOne{
+
+	private Channel channel;
+	private CmtBatchCommitter committer;
+	private int l;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that sets the given parameters.
+	 * @param channel used to communicate between two parties.
+	 * @param committer batch committer that commits to byte arrays, such as COMMIT_HASH.
+	 * @param l determining the length of each output. Should be a positive multiple of 8.
+	 * @param random source of randomness.
+	 */
+	public CTBatchStringPartyOne(Channel channel, CmtBatchCommitter committer, int l, SecureRandom random){
+		if (l <= 0 || (l % 8) != 0){
+			throw new IllegalArgumentException("l should be a positive multiple of 8");
+		}
+		this.channel = channel;
+		this.committer = committer;
+		this.l = l;
+		this.random = random;
+	}
+	
+	/**
+	 * Tosses a single string.
+	 */
+	public CTOutput toss() throws IOException, CommitValueException, CheatAttemptException, ClassNotFoundException {
+		return toss(1)[0];
+	}
+	
+	/**
+	 * Execute the following protocol:<p>
+	 * "SAMPLE random L-bit strings s1_1,...,s1_count <- {0,1}^L<p>
+	 *	RUN subprotocol COMMIT.commit on s1_1,...,s1_count in one batch<p>
+	 *	WAIT for L-bit strings s2_1,...,s2_count from P2<p>
+	 *	RUN subprotocol COMMIT.decommit to reveal s1_1,...,s1_count in one batch<p>
+	 *	OUTPUT s1_i XOR s2_i for each i".
+	 */
+	public CTOutput[] toss(int count) throws IOException, CommitValueException, CheatAttemptException, ClassNotFoundException {
+		if (count < 1){
+			throw new IllegalArgumentException("the number of coins should be positive");
+		}
+		int len = l/8;
+		
+		//Sample random L-bit strings and commit to all of them in one batch.
+		byte[][] s1 = new byte[count][len];
+		CmtCommitValue[] values = new CmtCommitValue[count];
+		long[] ids = new long[count];
+		for (int i = 0; i < count; i++){
+			random.nextBytes(s1[i]);
+			values[i] = committer.generateCommitValue(s1[i]);
+			ids[i] = random.nextLong();
+		}
+		committer.commitBatch(values, ids);
+		
+		//Receive the strings of party two.
+		byte[][] s2 = receiveS2(count);
+		
+		//Reveal all the strings of party one in one batch.
+		committer.decommitBatch(ids);
+		
+		//Output s1_i XOR s2_i.
+		CTOutput[] outputs = new CTOutput[count];
+		for (int i = 0; i < count; i++){
+			byte[] result = new byte[len];
+			for (int j = 0; j < len; j++){
+				result[j] = (byte) (s1[i][j] ^ s2[i][j]);
+			}
+			outputs[i] = new CTStringOutput(result);
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Receives the strings of party two and checks that there are count strings of L bits.
+	 * @return the received strings.
+	 */
+	private byte[][] receiveS2(int count) throws ClassNotFoundException, IOException {
+		Serializable s2;
+		try {
+			s2 = channel.receive();
+		} catch (IOException e) {
+			throw new IOException("Failed to receive s2. The thrown message is: " + e.getMessage());
+		}
+		if (!(s2 instanceof byte[][])){
+			throw new IllegalArgumentException("The received s2 is not an instance of byte[][]");
+		}
+		byte[][] strings = (byte[][]) s2;
+		if (strings.length != count){
+			throw new IllegalArgumentException("the number of the given s2 strings is not " + count);
+		}
+		for (int i = 0; i < count; i++){
+			if (strings[i] == null || strings[i].length != l/8){
+				throw new IllegalArgumentException("the length of the given s2 is not l-bit");
+			}
+		}
+		return strings;
+	}
+}
@@ -0,0 +1,138 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.coinTossing;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRCommitPhaseOutput;
+
+/**
+ * This class plays as party two of a coin tossing protocol that tosses many L-bit strings with a single round of commitments.<p>
+ * 
+ * The protocol runs the Blum protocol on strings instead of bits, and batches all the tosses of one call.
+ * See CTBatchStringPartyOne for the security properties of the protocol.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CTBatchStringPartyTwo implements CTBatchPartyTwo{
+
+	private Channel channel;
+	private CmtBatchReceiver receiver;
+	private int l;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that sets the given parameters.
+	 * @param channel used to communicate between two parties.
+	 * @param receiver batch receiver that commits to byte arrays, such as COMMIT_HASH.
+	 * @param l determining the length of each output. Should be a positive multiple of 8.
+	 * @param random source of randomness.
+	 */
+	public CTBatchStringPartyTwo(Channel channel, CmtBatchReceiver receiver, int l, SecureRandom random){
+		if (l <= 0 || (l % 8) != 0){
+			throw new IllegalArgumentException("l should be a positive multiple of 8");
+		}
+		this.channel = channel;
+		this.receiver = receiver;
+		this.l = l;
+		this.random = random;
+	}
+	
+	/**
+	 * Tosses a single string.
+	 */
+	public CTOutput toss() throws ClassNotFoundException, IOException, CheatAttemptException, CommitValueException {
+		return toss(1)[0];
+	}
+	
+	/**
+	 * Execute the following protocol:<p>
+	 * "SAMPLE random L-bit strings s2_1,...,s2_count <- {0,1}^L<p>
+	 *	WAIT for COMMIT.commit on s1_1,...,s1_count in one batch<p>
+	 *	SEND s2_1,...,s2_count to P1<p>
+	 *	RUN subprotocol COMMIT.decommit to receive s1_1,...,s1_count in one batch<p>
+	 *	IF COMMIT.decommit returns INVALID for some i
+	 *	      REPORT ERROR (cheat attempt) <p>
+	 *	ELSE
+	 *	      OUTPUT s1_i XOR s2_i for each i".
+	 */
+	public CTOutput[] toss(int count) throws ClassNotFoundException, IOException, CheatAttemptException, CommitValueException {
+		if (count < 1){
+			throw new IllegalArgumentException("the number of coins should be positive");
+		}
+		int len = l/8;
+		
+		//Sample random L-bit strings.
+		byte[][] s2 = new byte[count][len];
+		for (int i = 0; i < count; i++){
+			random.nextBytes(s2[i]);
+		}
+		
+		//Wait for the commitments on the strings of party one.
+		CmtRCommitPhaseOutput[] commitOutputs = receiver.receiveCommitmentBatch();
+		if (commitOutputs.length != count){
+			throw new IllegalArgumentException("the number of the received commitments is not " + count);
+		}
+		long[] ids = new long[count];
+		for (int i = 0; i < count; i++){
+			ids[i] = commitOutputs[i].getCommitmentId();
+		}
+		
+		//Send all the strings to party one.
+		try {
+			channel.send(s2);
+		} catch (IOException e) {
+			throw new IOException("failed to send the message. The thrown message is: " + e.getMessage());
+		}
+		
+		//Receive the decommitments of all the strings of party one.
+		CmtCommitValue[] s1 = receiver.receiveDecommitmentBatch(ids);
+		
+		//Output s1_i XOR s2_i.
+		CTOutput[] outputs = new CTOutput[count];
+		for (int i = 0; i < count; i++){
+			if (s1[i] == null){
+				throw new CheatAttemptException("The decommitment of s1 was rejected");
+			}
+			byte[] s1Bytes = receiver.generateBytesFromCommitValue(s1[i]);
+			if (s1Bytes.length != len){
+				throw new IllegalArgumentException("The given s1 is not a L-bit string");
+			}
+			byte[] result = new byte[len];
+			for (int j = 0; j < len; j++){
+				result[j] = (byte) (s1Bytes[j] ^ s2[i][j]);
+			}
+			outputs[i] = new CTStringOutput(result);
+		}
+		return outputs;
+	}
+}
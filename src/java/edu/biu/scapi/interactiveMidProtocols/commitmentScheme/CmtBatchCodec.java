@@ -0,0 +1,179 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+import java.math.BigInteger;
+
+import edu.biu.scapi.primitives.dlog.ECElementSendableData;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
+
+/**
+ * Writes the commitment and decommitment messages of a commitment scheme in a compact form.<p>
+ * The batch messages ({@link CmtBatchCommitmentMessage} and {@link CmtBatchDecommitmentMessage}) write each value that their codec
+ * can encode as the raw group elements, BigIntegers and byte arrays of the message, instead of writing it with Java serialization,
+ * which adds the class descriptors and the fields of each value. Values that the codec cannot encode are serialized as usual.<p>
+ * The codec object itself is written once in each batch message, so a concrete codec should not have any fields.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public abstract class CmtBatchCodec implements Serializable {
+	
+	private static final long serialVersionUID = -3208514637215498712L;
+	
+	//Tags of the group elements in the compact form.
+	private static final byte ZP_ELEMENT = 0;
+	private static final byte EC_ELEMENT = 1;
+	
+	//Limits the lengths read from the stream, so that a corrupted message cannot cause a huge allocation.
+	private static final int MAX_BYTES_LENGTH = 1 << 20;
+	
+	/**
+	 * Checks if the given commitment can be written by {@link #writeCommitment(DataOutput, CmtCCommitmentMsg)}.
+	 * @param commitment the commitment message to check.
+	 * @return true if the commitment can be encoded; false, otherwise.
+	 */
+	public abstract boolean canEncode(CmtCCommitmentMsg commitment);
+	
+	/**
+	 * Writes the given commitment in the compact form.
+	 * @param out the stream to write to.
+	 * @param commitment a commitment that can be encoded by this codec.
+	 * @throws IOException if the writing failed.
+	 */
+	public abstract void writeCommitment(DataOutput out, CmtCCommitmentMsg commitment) throws IOException;
+	
+	/**
+	 * Reads a commitment that was written by {@link #writeCommitment(DataOutput, CmtCCommitmentMsg)}.
+	 * @param in the stream to read from.
+	 * @return the commitment message.
+	 * @throws IOException if the reading failed or the stream does not contain a legal commitment.
+	 */
+	public abstract CmtCCommitmentMsg readCommitment(DataInput in) throws IOException;
+	
+	/**
+	 * Checks if the given decommitment can be written by {@link #writeDecommitment(DataOutput, CmtCDecommitmentMessage)}.
+	 * @param decommitment the decommitment message to check.
+	 * @return true if the decommitment can be encoded; false, otherwise.
+	 */
+	public abstract boolean canEncode(CmtCDecommitmentMessage decommitment);
+	
+	/**
+	 * Writes the given decommitment in the compact form.
+	 * @param out the stream to write to.
+	 * @param decommitment a decommitment that can be encoded by this codec.
+	 * @throws IOException if the writing failed.
+	 */
+	public abstract void writeDecommitment(DataOutput out, CmtCDecommitmentMessage decommitment) throws IOException;
+	
+	/**
+	 * Reads a decommitment that was written by {@link #writeDecommitment(DataOutput, CmtCDecommitmentMessage)}.
+	 * @param in the stream to read from.
+	 * @return the decommitment message.
+	 * @throws IOException if the reading failed or the stream does not contain a legal decommitment.
+	 */
+	public abstract CmtCDecommitmentMessage readDecommitment(DataInput in) throws IOException;
+	
+	/**
+	 * Checks if the given group element can be written by {@link #writeElement(DataOutput, GroupElementSendableData)}.
+	 * Only the exact sendable data classes of the Zp and the elliptic curve elements are written in the compact form,
+	 * so that subclasses keep their type.
+	 */
+	protected static boolean canEncode(GroupElementSendableData element){
+		if (element == null){
+			return false;
+		}
+		if (element.getClass() == ZpElementSendableData.class){
+			return ((ZpElementSendableData) element).getX() != null;
+		}
+		if (element.getClass() == ECElementSendableData.class){
+			return ((ECElementSendableData) element).getX() != null && ((ECElementSendableData) element).getY() != null;
+		}
+		return false;
+	}
+	
+	/**
+	 * Writes the given group element in the compact form.
+	 */
+	protected static void writeElement(DataOutput out, GroupElementSendableData element) throws IOException {
+		if (element instanceof ZpElementSendableData){
+			out.writeByte(ZP_ELEMENT);
+			writeBigInteger(out, ((ZpElementSendableData) element).getX());
+		} else {
+			out.writeByte(EC_ELEMENT);
+			writeBigInteger(out, ((ECElementSendableData) element).getX());
+			writeBigInteger(out, ((ECElementSendableData) element).getY());
+		}
+	}
+	
+	/**
+	 * Reads a group element that was written by {@link #writeElement(DataOutput, GroupElementSendableData)}.
+	 */
+	protected static GroupElementSendableData readElement(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		switch (tag){
+			case ZP_ELEMENT:
+				return new ZpElementSendableData(readBigInteger(in));
+			case EC_ELEMENT:
+				BigInteger x = readBigInteger(in);
+				BigInteger y = readBigInteger(in);
+				return new ECElementSendableData(x, y);
+			default:
+				throw new IOException("unknown group element type " + tag);
+		}
+	}
+	
+	protected static void writeBigInteger(DataOutput out, BigInteger value) throws IOException {
+		writeBytes(out, value.toByteArray());
+	}
+	
+	protected static BigInteger readBigInteger(DataInput in) throws IOException {
+		byte[] bytes = readBytes(in);
+		if (bytes.length == 0){
+			throw new IOException("illegal BigInteger length");
+		}
+		return new BigInteger(bytes);
+	}
+	
+	protected static void writeBytes(DataOutput out, byte[] bytes) throws IOException {
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	protected static byte[] readBytes(DataInput in) throws IOException {
+		int len = in.readInt();
+		if (len < 0 || len > MAX_BYTES_LENGTH){
+			throw new IOException("illegal byte array length");
+		}
+		byte[] bytes = new byte[len];
+		in.readFully(bytes);
+		return bytes;
+	}
+}
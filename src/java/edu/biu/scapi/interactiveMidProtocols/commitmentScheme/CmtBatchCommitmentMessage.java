@@ -0,0 +1,118 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * The message sent from the committer to the receiver when a batch of values is committed at once.<p>
+ * It holds the commitment messages of all the values of the batch, so the whole batch is sent as a single message.
+ * If the message has a codec (see {@link CmtBatchCodec}), each commitment that the codec can encode is written as its raw
+ * group elements, BigIntegers and byte arrays, and only the other commitments are written with Java serialization.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CmtBatchCommitmentMessage implements Serializable {
+	
+	private static final long serialVersionUID = -6130472210348553370L;
+	
+	//Limits the number of commitments read from the stream, so that a corrupted message cannot cause a huge allocation.
+	private static final int MAX_COMMITMENTS = 1 << 22;
+	
+	private transient CmtCCommitmentMsg[] commitments;
+	private transient CmtBatchCodec codec;
+	
+	/**
+	 * Constructor that sets the commitments of the batch. The commitments are written with Java serialization.
+	 * @param commitments the commitment messages, one for each committed value.
+	 */
+	public CmtBatchCommitmentMessage(CmtCCommitmentMsg[] commitments){
+		this(commitments, null);
+	}
+	
+	/**
+	 * Constructor that sets the commitments of the batch and the codec that writes them.
+	 * @param commitments the commitment messages, one for each committed value.
+	 * @param codec writes the commitments in a compact form. If null, the commitments are written with Java serialization.
+	 */
+	public CmtBatchCommitmentMessage(CmtCCommitmentMsg[] commitments, CmtBatchCodec codec){
+		this.commitments = commitments;
+		this.codec = codec;
+	}
+	
+	/**
+	 * Returns the commitment messages of the batch.
+	 * @return the commitment messages, one for each committed value.
+	 */
+	public CmtCCommitmentMsg[] getCommitments(){
+		return commitments;
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.writeObject(codec);
+		out.writeInt(commitments.length);
+		for (int i = 0; i < commitments.length; i++){
+			if (codec != null && commitments[i] != null && codec.canEncode(commitments[i])){
+				out.writeBoolean(true);
+				codec.writeCommitment(out, commitments[i]);
+			} else {
+				out.writeBoolean(false);
+				out.writeObject(commitments[i]);
+			}
+		}
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		Object codecObject = in.readObject();
+		if (codecObject != null && !(codecObject instanceof CmtBatchCodec)){
+			throw new IOException("the serialized codec is not an instance of CmtBatchCodec");
+		}
+		codec = (CmtBatchCodec) codecObject;
+		
+		int size = in.readInt();
+		if (size < 0 || size > MAX_COMMITMENTS){
+			throw new IOException("illegal number of commitments");
+		}
+		commitments = new CmtCCommitmentMsg[size];
+		for (int i = 0; i < size; i++){
+			if (in.readBoolean()){
+				if (codec == null){
+					throw new IOException("a compact commitment was written without a codec");
+				}
+				commitments[i] = codec.readCommitment(in);
+			} else {
+				Object commitment = in.readObject();
+				if (commitment != null && !(commitment instanceof CmtCCommitmentMsg)){
+					throw new IOException("the serialized commitment is not an instance of CmtCCommitmentMsg");
+				}
+				commitments[i] = (CmtCCommitmentMsg) commitment;
+			}
+		}
+	}
+}
@@ -0,0 +1,86 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+import java.io.IOException;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+
+/**
+ * This interface is implemented by committers that can commit and decommit a batch of values at once.<p>
+ * 
+ * A batch is sent as one message instead of one message per value, and the commitments of the batch can be 
+ * computed in parallel. The receiver should implement {@link CmtBatchReceiver} and call the matching batch functions.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface CmtBatchCommitter extends CmtCommitter {
+
+	/**
+	 * Generates the commitment messages of all the given values, without sending them.<p>
+	 * The result is the same as calling generateCommitmentMsg for each value, but the messages are packed in one batch message.
+	 * @param inputs the values to commit on.
+	 * @param ids the unique ids of the commitments. ids[i] is attached to inputs[i].
+	 * @return the generated batch commitment message.
+	 * @throws IllegalArgumentException if the number of ids is not equal to the number of inputs.
+	 */
+	public CmtBatchCommitmentMessage generateCommitmentBatchMsg(CmtCommitValue[] inputs, long[] ids);
+	
+	/**
+	 * Commits on all the given values and sends the commitments to the receiver in one message.
+	 * @param inputs the values to commit on.
+	 * @param ids the unique ids of the commitments. ids[i] is attached to inputs[i].
+	 * @throws IOException if there is any problem at the communication level.
+	 */
+	public void commitBatch(CmtCommitValue[] inputs, long[] ids) throws IOException;
+	
+	/**
+	 * Generates the decommitment messages of the commitments with the given ids, without sending them.
+	 * @param ids the ids of the commitments to decommit.
+	 * @return the generated batch decommitment message.
+	 * @throws IllegalStateException In case the decommit phase is interactive.
+	 */
+	public CmtBatchDecommitmentMessage generateDecommitmentBatchMsg(long[] ids);
+	
+	/**
+	 * Decommits the commitments with the given ids.<p>
+	 * In case the decommit phase is not interactive, all the decommitments are sent in one message.
+	 * @param ids the ids of the commitments to decommit.
+	 * @throws IOException if there is any problem at the communication level.
+	 * @throws CheatAttemptException if the committer suspects that the receiver is trying to cheat.
+	 * @throws ClassNotFoundException if there was a problem during serialization.
+	 * @throws CommitValueException if the committed values do not match the implementing commitment.
+	 */
+	public void decommitBatch(long[] ids) throws IOException, CheatAttemptException, ClassNotFoundException, CommitValueException;
+	
+	/**
+	 * Sets the number of threads used to compute the commitments of a batch.<p>
+	 * The default is one thread. The computation is done sequentially if the underlying primitives cannot be used by several threads (for example, a DlogGroup that cannot be copied).
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void setNumOfThreads(int numOfThreads);
+}
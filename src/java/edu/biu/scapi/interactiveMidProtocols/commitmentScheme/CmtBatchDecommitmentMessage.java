@@ -0,0 +1,118 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * The message sent from the committer to the receiver when a batch of commitments is decommitted at once.<p>
+ * The decommitments are ordered according to the ids given to the decommit function, and the receiver
+ * has to use the same ids in the same order.
+ * As in {@link CmtBatchCommitmentMessage}, the decommitments that the codec of the message can encode are written in a compact form.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CmtBatchDecommitmentMessage implements Serializable {
+	
+	private static final long serialVersionUID = 1937416653208840957L;
+	
+	//Limits the number of decommitments read from the stream, so that a corrupted message cannot cause a huge allocation.
+	private static final int MAX_DECOMMITMENTS = 1 << 22;
+	
+	private transient CmtCDecommitmentMessage[] decommitments;
+	private transient CmtBatchCodec codec;
+	
+	/**
+	 * Constructor that sets the decommitments of the batch. The decommitments are written with Java serialization.
+	 * @param decommitments the decommitment messages, one for each decommitted value.
+	 */
+	public CmtBatchDecommitmentMessage(CmtCDecommitmentMessage[] decommitments){
+		this(decommitments, null);
+	}
+	
+	/**
+	 * Constructor that sets the decommitments of the batch and the codec that writes them.
+	 * @param decommitments the decommitment messages, one for each decommitted value.
+	 * @param codec writes the decommitments in a compact form. If null, the decommitments are written with Java serialization.
+	 */
+	public CmtBatchDecommitmentMessage(CmtCDecommitmentMessage[] decommitments, CmtBatchCodec codec){
+		this.decommitments = decommitments;
+		this.codec = codec;
+	}
+	
+	/**
+	 * Returns the decommitment messages of the batch.
+	 * @return the decommitment messages, one for each decommitted value.
+	 */
+	public CmtCDecommitmentMessage[] getDecommitments(){
+		return decommitments;
+	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		out.writeObject(codec);
+		out.writeInt(decommitments.length);
+		for (int i = 0; i < decommitments.length; i++){
+			if (codec != null && decommitments[i] != null && codec.canEncode(decommitments[i])){
+				out.writeBoolean(true);
+				codec.writeDecommitment(out, decommitments[i]);
+			} else {
+				out.writeBoolean(false);
+				out.writeObject(decommitments[i]);
+			}
+		}
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		Object codecObject = in.readObject();
+		if (codecObject != null && !(codecObject instanceof CmtBatchCodec)){
+			throw new IOException("the serialized codec is not an instance of CmtBatchCodec");
+		}
+		codec = (CmtBatchCodec) codecObject;
+		
+		int size = in.readInt();
+		if (size < 0 || size > MAX_DECOMMITMENTS){
+			throw new IOException("illegal number of decommitments");
+		}
+		decommitments = new CmtCDecommitmentMessage[size];
+		for (int i = 0; i < size; i++){
+			if (in.readBoolean()){
+				if (codec == null){
+					throw new IOException("a compact decommitment was written without a codec");
+				}
+				decommitments[i] = codec.readDecommitment(in);
+			} else {
+				Object decommitment = in.readObject();
+				if (decommitment != null && !(decommitment instanceof CmtCDecommitmentMessage)){
+					throw new IOException("the serialized decommitment is not an instance of CmtCDecommitmentMessage");
+				}
+				decommitments[i] = (CmtCDecommitmentMessage) decommitment;
+			}
+		}
+	}
+}
@@ -0,0 +1,76 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+import java.io.IOException;
+
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+
+/**
+ * This interface is implemented by receivers that can receive and verify a batch of commitments at once.<p>
+ * 
+ * It is the receiver side of {@link CmtBatchCommitter}. The verification of the decommitments of a batch can be computed in parallel.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface CmtBatchReceiver extends CmtReceiver {
+
+	/**
+	 * Waits for a batch of commitments and stores each commitment according to its id.
+	 * @return the outputs of the commitments, in the order they were committed.
+	 * @throws ClassNotFoundException if the commitment received cannot be deserialized
+	 * @throws IOException if there is any problem at the communication level
+	 */
+	public CmtRCommitPhaseOutput[] receiveCommitmentBatch() throws ClassNotFoundException, IOException;
+	
+	/**
+	 * Waits for the decommitments of the commitments with the given ids and verifies them.
+	 * @param ids the ids of the commitments, in the order the committer decommitted them.
+	 * @return the committed values. The i-th value is null if the decommitment of ids[i] was rejected.
+	 * @throws ClassNotFoundException if the decommitment received cannot be deserialized
+	 * @throws IOException if there is any problem at the communication level.
+	 * @throws CommitValueException if the commit value does not match the implementing commitment.
+	 * @throws CheatAttemptException if there is an error that could have been caused by a cheating attempt
+	 */
+	public CmtCommitValue[] receiveDecommitmentBatch(long[] ids) throws ClassNotFoundException, IOException, CommitValueException, CheatAttemptException;
+	
+	/**
+	 * Verifies each of the given decommitments according to the matching commitment.
+	 * @param commitments the commitment objects.
+	 * @param decommitments the decommitment objects. decommitments[i] is verified against commitments[i].
+	 * @return the committed values. The i-th value is null if the i-th decommitment was rejected.
+	 * @throws IllegalArgumentException if the number of commitments is not equal to the number of decommitments.
+	 */
+	public CmtCommitValue[] verifyDecommitmentBatch(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments);
+	
+	/**
+	 * Sets the number of threads used to verify the decommitments of a batch.<p>
+	 * The default is one thread. The computation is done sequentially if the underlying primitives cannot be used by several threads (for example, a DlogGroup that cannot be copied).
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void setNumOfThreads(int numOfThreads);
+}
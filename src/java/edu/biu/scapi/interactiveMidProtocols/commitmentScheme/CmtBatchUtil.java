@@ -0,0 +1,166 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+import java.io.IOException;
+import java.io.Serializable;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.tools.BatchRangeRunner;
+
+/**
+ * Common functionality of the batch commitment schemes.<p>
+ * The functions compute a batch by calling the single value functions of the given committer or receiver, 
+ * splitting the batch between the given number of threads. 
+ * The caller is responsible to pass one thread if the committer or receiver is not thread safe.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class CmtBatchUtil {
+	
+	private static final int MIN_TUPLES_PER_THREAD = 8;	//Each commitment costs at least one exponentiation or hash, so small ranges are worth a thread.
+	
+	private CmtBatchUtil(){}
+	
+	/**
+	 * Generates the commitment messages of all the given values using the given committer.
+	 * @param committer generates the commitment of each value.
+	 * @param inputs the values to commit on.
+	 * @param ids the unique ids of the commitments.
+	 * @param numOfThreads the maximal number of threads to use.
+	 * @param codec writes the commitments of the batch in a compact form. May be null.
+	 * @return the batch commitment message.
+	 * @throws IllegalArgumentException if the number of ids is not equal to the number of inputs.
+	 */
+	public static CmtBatchCommitmentMessage generateCommitments(final CmtCommitter committer, final CmtCommitValue[] inputs, final long[] ids, int numOfThreads, CmtBatchCodec codec){
+		if (inputs.length != ids.length){
+			throw new IllegalArgumentException("the number of ids should be equal to the number of inputs");
+		}
+		
+		final CmtCCommitmentMsg[] commitments = new CmtCCommitmentMsg[inputs.length];
+		BatchRangeRunner.run(inputs.length, numOfThreads, MIN_TUPLES_PER_THREAD, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				for (int i = from; i < to; i++){
+					commitments[i] = committer.generateCommitmentMsg(inputs[i], ids[i]);
+				}
+			}
+		});
+		return new CmtBatchCommitmentMessage(commitments, codec);
+	}
+	
+	/**
+	 * Generates the decommitment messages of the commitments with the given ids using the given committer.
+	 * @param committer generates the decommitment of each commitment.
+	 * @param ids the ids of the commitments to decommit.
+	 * @param codec writes the decommitments of the batch in a compact form. May be null.
+	 * @return the batch decommitment message.
+	 */
+	public static CmtBatchDecommitmentMessage generateDecommitments(CmtCommitter committer, long[] ids, CmtBatchCodec codec){
+		//The decommitment messages are taken from the stored commitment values, so there is nothing to parallelize.
+		CmtCDecommitmentMessage[] decommitments = new CmtCDecommitmentMessage[ids.length];
+		for (int i = 0; i < ids.length; i++){
+			decommitments[i] = committer.generateDecommitmentMsg(ids[i]);
+		}
+		return new CmtBatchDecommitmentMessage(decommitments, codec);
+	}
+	
+	/**
+	 * Verifies each decommitment according to the matching commitment using the given receiver.<p>
+	 * A missing commitment (for example, a decommitment of an id that was never committed) is rejected.
+	 * @param receiver verifies each pair of commitment and decommitment.
+	 * @param commitments the commitment objects.
+	 * @param decommitments the decommitment objects.
+	 * @param numOfThreads the maximal number of threads to use.
+	 * @return the committed values. The i-th value is null if the i-th decommitment was rejected.
+	 * @throws IllegalArgumentException if the number of commitments is not equal to the number of decommitments.
+	 */
+	public static CmtCommitValue[] verifyDecommitments(final CmtReceiver receiver, final CmtCCommitmentMsg[] commitments, final CmtCDecommitmentMessage[] decommitments, int numOfThreads){
+		if (commitments.length != decommitments.length){
+			throw new IllegalArgumentException("the number of decommitments should be equal to the number of commitments");
+		}
+		
+		final CmtCommitValue[] values = new CmtCommitValue[commitments.length];
+		BatchRangeRunner.run(commitments.length, numOfThreads, MIN_TUPLES_PER_THREAD, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				for (int i = from; i < to; i++){
+					if (commitments[i] != null && decommitments[i] != null){
+						values[i] = receiver.verifyDecommitment(commitments[i], decommitments[i]);
+					}
+				}
+			}
+		});
+		return values;
+	}
+	
+	/**
+	 * Receives a batch commitment message from the given channel.
+	 * @param channel the channel to the committer.
+	 * @return the commitment messages of the batch.
+	 * @throws ClassNotFoundException if the commitment received cannot be deserialized
+	 * @throws IOException if there is any problem at the communication level
+	 */
+	public static CmtCCommitmentMsg[] receiveCommitments(Channel channel) throws ClassNotFoundException, IOException{
+		Serializable message = null;
+		try{
+			message = channel.receive();
+		} catch (ClassNotFoundException e) {
+			throw new ClassNotFoundException("Failed to receive commitment. The error is: " + e.getMessage());
+		} catch (IOException e) {
+			throw new IOException("Failed to receive commitment. The error is: " + e.getMessage());
+		}
+		if (!(message instanceof CmtBatchCommitmentMessage)){
+			throw new IllegalArgumentException("the received message is not an instance of CmtBatchCommitmentMessage");
+		}
+		return ((CmtBatchCommitmentMessage) message).getCommitments();
+	}
+	
+	/**
+	 * Receives a batch decommitment message from the given channel.
+	 * @param channel the channel to the committer.
+	 * @param numOfDecommitments the expected number of decommitments in the batch.
+	 * @return the decommitment messages of the batch.
+	 * @throws ClassNotFoundException if the decommitment received cannot be deserialized
+	 * @throws IOException if there is any problem at the communication level
+	 */
+	public static CmtCDecommitmentMessage[] receiveDecommitments(Channel channel, int numOfDecommitments) throws ClassNotFoundException, IOException{
+		Serializable message = null;
+		try{
+			message = channel.receive();
+		} catch (ClassNotFoundException e) {
+			throw new ClassNotFoundException("Failed to receive decommitment. The error is: " + e.getMessage());
+		} catch (IOException e) {
+			throw new IOException("Failed to receive decommitment. The error is: " + e.getMessage());
+		}
+		if (!(message instanceof CmtBatchDecommitmentMessage)){
+			throw new IllegalArgumentException("the received message is not an instance of CmtBatchDecommitmentMessage");
+		}
+		CmtCDecommitmentMessage[] decommitments = ((CmtBatchDecommitmentMessage) message).getDecommitments();
+		if (decommitments.length != numOfDecommitments){
+			throw new IllegalArgumentException("the number of received decommitments should be " + numOfDecommitments);
+		}
+		return decommitments;
+	}
+}
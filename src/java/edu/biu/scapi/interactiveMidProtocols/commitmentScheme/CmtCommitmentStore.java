@@ -0,0 +1,76 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+/**
+ * A store of the commitment state of a committer or a receiver, keyed by the commitment id.<p>
+ * 
+ * The committer keeps the committed values and the random values until the decommitment, and the receiver keeps the 
+ * received commitments until the decommitment. Since the commitment schemes can be used by several threads (for example, in batch mode), 
+ * implementations should be thread safe.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ * @param <V> the type of the stored commitment state.
+ */
+public interface CmtCommitmentStore<V> {
+
+	/**
+	 * Stores the given value under the given id.
+	 * @param id the commitment id.
+	 * @param value the commitment state.
+	 * @return the value that was previously stored under this id, or null if there was none.
+	 * @throws IllegalArgumentException if the given value is null.
+	 */
+	public V put(long id, V value);
+	
+	/**
+	 * Returns the value stored under the given id.
+	 * @param id the commitment id.
+	 * @return the stored value, or null if there is no value for this id.
+	 */
+	public V get(long id);
+	
+	/**
+	 * Removes the value stored under the given id.
+	 * @param id the commitment id.
+	 * @return the removed value, or null if there was no value for this id.
+	 */
+	public V remove(long id);
+	
+	/**
+	 * Notifies the store that the commitment with the given id was decommitted.<p>
+	 * Stores that evict decommitted commitments remove the value here; other stores keep it, so that the commitment 
+	 * phase values are still available after the decommitment.
+	 * @param id the commitment id.
+	 */
+	public void decommitted(long id);
+	
+	/**
+	 * Returns the number of values currently held by the store.
+	 * @return the number of resident values.
+	 */
+	public int size();
+}
@@ -0,0 +1,245 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme;
+
+/**
+ * A concurrent commitment store keyed by primitive long ids.<p>
+ * 
+ * The ids are spread between independent stripes, each one an open addressing hash table with its own lock. 
+ * Unlike a Hashtable&lt;Long, V&gt;, the ids are not boxed and threads that access different stripes do not block each other.<p>
+ * 
+ * The store can be set to remove a commitment when it is decommitted, so that long-lived committers and receivers do not keep 
+ * the state of all the commitments they ever handled.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ * @param <V> the type of the stored commitment state.
+ */
+public class CmtStripedCommitmentStore<V> implements CmtCommitmentStore<V> {
+	
+	public static final int DEFAULT_NUM_OF_STRIPES = 16;
+	private static final int INITIAL_STRIPE_CAPACITY = 16; 	//Must be a power of two.
+	
+	private final Stripe[] stripes;
+	private final boolean removeOnDecommit;
+	
+	/**
+	 * Constructor that creates a store with the default number of stripes that keeps decommitted commitments.
+	 */
+	public CmtStripedCommitmentStore(){
+		this(DEFAULT_NUM_OF_STRIPES, false);
+	}
+	
+	/**
+	 * Constructor that creates a store with the default number of stripes.
+	 * @param removeOnDecommit true if the store should remove a commitment when it is decommitted.
+	 */
+	public CmtStripedCommitmentStore(boolean removeOnDecommit){
+		this(DEFAULT_NUM_OF_STRIPES, removeOnDecommit);
+	}
+	
+	/**
+	 * Constructor that sets the number of stripes.
+	 * @param numOfStripes the number of independent stripes. Must be a power of two.
+	 * @param removeOnDecommit true if the store should remove a commitment when it is decommitted.
+	 * @throws IllegalArgumentException if the number of stripes is not a positive power of two.
+	 */
+	public CmtStripedCommitmentStore(int numOfStripes, boolean removeOnDecommit){
+		if (numOfStripes <= 0 || (numOfStripes & (numOfStripes - 1)) != 0){
+			throw new IllegalArgumentException("the number of stripes should be a positive power of two");
+		}
+		stripes = new Stripe[numOfStripes];
+		for (int i = 0; i < numOfStripes; i++){
+			stripes[i] = new Stripe();
+		}
+		this.removeOnDecommit = removeOnDecommit;
+	}
+	
+	/**
+	 * Returns a factory that creates striped stores with the default number of stripes.
+	 * @param removeOnDecommit true if the created stores should remove a commitment when it is decommitted.
+	 * @return the created factory.
+	 */
+	public static CmtCommitmentStoreFactory factory(final boolean removeOnDecommit){
+		return new CmtCommitmentStoreFactory(){
+			public <T> CmtCommitmentStore<T> createStore(){
+				return new CmtStripedCommitmentStore<T>(removeOnDecommit);
+			}
+		};
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V put(long id, V value){
+		if (value == null){
+			throw new IllegalArgumentException("the stored value should not be null");
+		}
+		long hash = mix(id);
+		return (V) stripeOf(hash).put(id, (int) hash, value);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V get(long id){
+		long hash = mix(id);
+		return (V) stripeOf(hash).get(id, (int) hash);
+	}
+	
+	@SuppressWarnings("unchecked")
+	public V remove(long id){
+		long hash = mix(id);
+		return (V) stripeOf(hash).remove(id, (int) hash);
+	}
+	
+	/**
+	 * Removes the commitment if this store was created to remove decommitted commitments; otherwise, does nothing.
+	 */
+	public void decommitted(long id){
+		if (removeOnDecommit){
+			remove(id);
+		}
+	}
+	
+	public int size(){
+		int size = 0;
+		for (int i = 0; i < stripes.length; i++){
+			size += stripes[i].size();
+		}
+		return size;
+	}
+	
+	/**
+	 * The stripe is chosen by the high bits of the hash and the slot in the stripe by the low bits, 
+	 * so ids of the same stripe are still spread over the slots.
+	 */
+	private Stripe stripeOf(long hash){
+		return stripes[(int) (hash >>> 32) & (stripes.length - 1)];
+	}
+	
+	/**
+	 * Mixes the bits of the id (the finalizer of MurmurHash3), since ids are usually consecutive.
+	 */
+	private static long mix(long id){
+		long h = id;
+		h ^= h >>> 33;
+		h *= 0xff51afd7ed558ccdL;
+		h ^= h >>> 33;
+		h *= 0xc4ceb9fe1a85ec53L;
+		h ^= h >>> 33;
+		return h;
+	}
+	
+	/**
+	 * An open addressing hash table with linear probing. A slot is free if its value is null.
+	 */
+	private static final class Stripe {
+		private long[] keys = new long[INITIAL_STRIPE_CAPACITY];
+		private Object[] values = new Object[INITIAL_STRIPE_CAPACITY];
+		private int size;
+		
+		synchronized Object get(long id, int hash){
+			int mask = keys.length - 1;
+			for (int i = hash & mask; values[i] != null; i = (i + 1) & mask){
+				if (keys[i] == id){
+					return values[i];
+				}
+			}
+			return null;
+		}
+		
+		synchronized Object put(long id, int hash, Object value){
+			int mask = keys.length - 1;
+			int i = hash & mask;
+			for (; values[i] != null; i = (i + 1) & mask){
+				if (keys[i] == id){
+					Object old = values[i];
+					values[i] = value;
+					return old;
+				}
+			}
+			keys[i] = id;
+			values[i] = value;
+			size++;
+			//Keep the load factor at most one half, so the probe sequences stay short.
+			if (2 * size > keys.length){
+				rehash(keys.length * 2);
+			}
+			return null;
+		}
+		
+		synchronized Object remove(long id, int hash){
+			int mask = keys.length - 1;
+			int i = hash & mask;
+			for (; values[i] != null; i = (i + 1) & mask){
+				if (keys[i] == id){
+					Object old = values[i];
+					shiftBack(i);
+					size--;
+					return old;
+				}
+			}
+			return null;
+		}
+		
+		synchronized int size(){
+			return size;
+		}
+		
+		/**
+		 * Frees the given slot and moves back the following entries of the probe sequence, so that no lookup stops at the freed slot.
+		 */
+		private void shiftBack(int free){
+			int mask = keys.length - 1;
+			int i = (free + 1) & mask;
+			while (values[i] != null){
+				int home = (int) mix(keys[i]) & mask;
+				//Move the entry if its home slot is not in the cyclic range (free, i].
+				if (((i - home) & mask) >= ((i - free) & mask)){
+					keys[free] = keys[i];
+					values[free] = values[i];
+					free = i;
+				}
+				i = (i + 1) & mask;
+			}
+			values[free] = null;
+		}
+		
+		private void rehash(int capacity){
+			long[] oldKeys = keys;
+			Object[] oldValues = values;
+			keys = new long[capacity];
+			values = new Object[capacity];
+			int mask = capacity - 1;
+			for (int j = 0; j < oldKeys.length; j++){
+				if (oldValues[j] != null){
+					int i = (int) mix(oldKeys[j]) & mask;
+					while (values[i] != null){
+						i = (i + 1) & mask;
+					}
+					keys[i] = oldKeys[j];
+					values[i] = oldValues[j];
+				}
+			}
+		}
+	}
+}
@@ -0,0 +1,158 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.elGamal;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCodec;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalCiphertextSendableData;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalOnByteArrayCiphertext.ElGamalOnByteArraySendableData;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalOnGroupElementCiphertext.ElGamalOnGrElSendableData;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+
+/**
+ * Writes the messages of the ElGamal commitment schemes in the batch messages.<p>
+ * A commitment is written as the two parts of its ciphertext (a group element and a group element or a byte array) and its id,
+ * and a decommitment as the committed group element or byte array and the BigInteger r.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class CmtElGamalBatchCodec extends CmtBatchCodec {
+	
+	private static final long serialVersionUID = -8451967032116578214L;
+	
+	//The codec has no state, so all the batch messages of the scheme use this instance.
+	static final CmtElGamalBatchCodec INSTANCE = new CmtElGamalBatchCodec();
+	
+	//Tags of the ciphertexts and the committed values in the compact form.
+	private static final byte GROUP_ELEMENT = 0;
+	private static final byte BYTE_ARRAY = 1;
+	
+	@Override
+	public boolean canEncode(CmtCCommitmentMsg commitment) {
+		if (commitment.getClass() != CmtElGamalCommitmentMessage.class){
+			return false;
+		}
+		ElGamalCiphertextSendableData cipher = ((CmtElGamalCommitmentMessage) commitment).getCommitment();
+		if (cipher == null){
+			return false;
+		}
+		if (cipher.getClass() == ElGamalOnGrElSendableData.class){
+			ElGamalOnGrElSendableData data = (ElGamalOnGrElSendableData) cipher;
+			return canEncode(data.getCipher1()) && canEncode(data.getCipher2());
+		}
+		if (cipher.getClass() == ElGamalOnByteArraySendableData.class){
+			ElGamalOnByteArraySendableData data = (ElGamalOnByteArraySendableData) cipher;
+			return canEncode(data.getCipher1()) && data.getCipher2() != null;
+		}
+		return false;
+	}
+	
+	@Override
+	public void writeCommitment(DataOutput out, CmtCCommitmentMsg commitment) throws IOException {
+		CmtElGamalCommitmentMessage msg = (CmtElGamalCommitmentMessage) commitment;
+		ElGamalCiphertextSendableData cipher = msg.getCommitment();
+		if (cipher instanceof ElGamalOnGrElSendableData){
+			out.writeByte(GROUP_ELEMENT);
+			writeElement(out, ((ElGamalOnGrElSendableData) cipher).getCipher1());
+			writeElement(out, ((ElGamalOnGrElSendableData) cipher).getCipher2());
+		} else {
+			out.writeByte(BYTE_ARRAY);
+			writeElement(out, ((ElGamalOnByteArraySendableData) cipher).getCipher1());
+			writeBytes(out, ((ElGamalOnByteArraySendableData) cipher).getCipher2());
+		}
+		out.writeLong(msg.getId());
+	}
+	
+	@Override
+	public CmtCCommitmentMsg readCommitment(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		ElGamalCiphertextSendableData cipher;
+		switch (tag){
+			case GROUP_ELEMENT:
+				GroupElementSendableData c1 = readElement(in);
+				cipher = new ElGamalOnGrElSendableData(c1, readElement(in));
+				break;
+			case BYTE_ARRAY:
+				GroupElementSendableData u = readElement(in);
+				cipher = new ElGamalOnByteArraySendableData(u, readBytes(in));
+				break;
+			default:
+				throw new IOException("unknown ciphertext type " + tag);
+		}
+		return new CmtElGamalCommitmentMessage(cipher, in.readLong());
+	}
+	
+	@Override
+	public boolean canEncode(CmtCDecommitmentMessage decommitment) {
+		if (decommitment.getClass() != CmtElGamalDecommitmentMessage.class){
+			return false;
+		}
+		CmtElGamalDecommitmentMessage msg = (CmtElGamalDecommitmentMessage) decommitment;
+		if (msg.getR() == null || msg.getR().getR() == null){
+			return false;
+		}
+		Serializable x = msg.getX();
+		return (x instanceof byte[]) || ((x instanceof GroupElementSendableData) && canEncode((GroupElementSendableData) x));
+	}
+	
+	@Override
+	public void writeDecommitment(DataOutput out, CmtCDecommitmentMessage decommitment) throws IOException {
+		CmtElGamalDecommitmentMessage msg = (CmtElGamalDecommitmentMessage) decommitment;
+		Serializable x = msg.getX();
+		if (x instanceof byte[]){
+			out.writeByte(BYTE_ARRAY);
+			writeBytes(out, (byte[]) x);
+		} else {
+			out.writeByte(GROUP_ELEMENT);
+			writeElement(out, (GroupElementSendableData) x);
+		}
+		writeBigInteger(out, msg.getR().getR());
+	}
+	
+	@Override
+	public CmtCDecommitmentMessage readDecommitment(DataInput in) throws IOException {
+		byte tag = in.readByte();
+		Serializable x;
+		switch (tag){
+			case GROUP_ELEMENT:
+				x = readElement(in);
+				break;
+			case BYTE_ARRAY:
+				x = readBytes(in);
+				break;
+			default:
+				throw new IOException("unknown committed value type " + tag);
+		}
+		return new CmtElGamalDecommitmentMessage(x, new BigIntegerRandomValue(readBigInteger(in)));
+	}
+}
@@ -0,0 +1,87 @@
+/**
+ * %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+ * 
+ * Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+ * This file is part of the SCAPI project.
+ * DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+ * 
+ * Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+ * to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+ * and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+ * 
+ * The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+ * FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+ * 
+ * We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+ * http://crypto.biu.ac.il/SCAPI.
+ * 
+ * SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+ * %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+ * 
+ */
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.elGamal;
+
+import java.math.BigInteger;
+
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.tools.BatchRangeRunner;
+
+/**
+ * Computes the exponentiations of the ElGamal commitments of a batch, which are the expensive part of the commitments and of their verifications.<p>
+ * The exponentiations are split between the threads. Each thread computes with its own copy of the DlogGroup and the results are moved
+ * to the given group by their sendable data, so the committer and the receiver only complete the encryptions in the calling thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class CmtElGamalBatchUtil {
+	
+	private static final int MIN_VALUES_PER_THREAD = 8;	//Each value costs two exponentiations, so small ranges are worth a thread.
+	
+	private CmtElGamalBatchUtil(){}
+	
+	/**
+	 * Computes g^r and h^r of each of the given random values.
+	 * @param dlog the group of the commitments.
+	 * @param h the public key of the commitments.
+	 * @param r the random values.
+	 * @param numOfThreads the maximal number of threads to use.
+	 * @return the exponentiations. The i-th array holds g^r[i] and h^r[i].
+	 */
+	static GroupElement[][] computeExponentiations(final DlogGroup dlog, final GroupElement h, final BigInteger[] r, int numOfThreads){
+		final GroupElementSendableData hData = h.generateSendableData();
+		final GroupElement[][] exponentiations = new GroupElement[r.length][];
+		final GroupElementSendableData[][] exponentiationsData = new GroupElementSendableData[r.length][];
+		
+		BatchRangeRunner.run(r.length, BatchRangeRunner.getNumOfThreads(dlog, numOfThreads), MIN_VALUES_PER_THREAD, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				GroupElement g = group.getGenerator();
+				GroupElement groupH = (group == dlog) ? h : group.reconstructElement(false, hData);
+				for (int i = from; i < to; i++){
+					GroupElement gExpR = group.exponentiate(g, r[i]);
+					GroupElement hExpR = group.exponentiate(groupH, r[i]);
+					if (group == dlog){
+						exponentiations[i] = new GroupElement[]{gExpR, hExpR};
+					} else {
+						exponentiationsData[i] = new GroupElementSendableData[]{gExpR.generateSendableData(), hExpR.generateSendableData()};
+					}
+				}
+			}
+		});
+		
+		//Move the elements that were computed by the other threads to the given group.
+		for (int i = 0; i < r.length; i++){
+			if (exponentiations[i] == null){
+				exponentiations[i] = new GroupElement[]{dlog.reconstructElement(false, exponentiationsData[i][0]),
+						dlog.reconstructElement(false, exponentiationsData[i][1])};
+			}
+		}
+		return exponentiations;
+	}
+}
@@ -30,8 +30,6 @@ import java.security.InvalidKeyException;
 import java.security.Key;
 import java.security.KeyPair;
 import java.security.SecureRandom;
-import java.util.Hashtable;
-import java.util.Map;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
@@ -41,16 +39,26 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitter;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchDecommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchUtil;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitter;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ElGamalAbs;
 import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ElGamalEnc;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScElGamalPrivateKey;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScElGamalPublicKey;
 import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
 import edu.biu.scapi.midLayer.ciphertext.ElGamalCiphertextSendableData;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.securityLevel.DDH;
 
 /**
@@ -60,7 +68,7 @@ import edu.biu.scapi.securityLevel.DDH;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public abstract class CmtElGamalCommitterCore implements CmtCommitter {
+public abstract class CmtElGamalCommitterCore implements CmtCommitter, CmtBatchCommitter {
 	
 	/*
 	 * runs the following protocol:
@@ -81,10 +89,20 @@ public abstract class CmtElGamalCommitterCore implements CmtCommitter {
 	protected DlogGroup dlog;
 	protected SecureRandom random;
 	private BigInteger qMinusOne;
-	protected Map<Long, CmtElGamalCommitmentPhaseValues> commitmentMap;
+	protected CmtCommitmentStore<CmtElGamalCommitmentPhaseValues> commitmentMap;
 	protected ElGamalEnc elGamal;
 	protected ScElGamalPublicKey publicKey;
 	private ScElGamalPrivateKey privateKey;
+	//The number of threads used to compute the commitments of a batch.
+	protected int numOfThreads = 1;
+	//The random values of the batch that is committed by the current thread, and their exponentiations.
+	private final ThreadLocal<BatchRandomness> batchRandomness = new ThreadLocal<BatchRandomness>();
+	
+	private static class BatchRandomness {
+		private BigInteger[] r;
+		private GroupElement[][] exponentiations;
+		private int next;	//The index of the next value to commit.
+	}
 
 
 	/**
@@ -122,7 +140,7 @@ public abstract class CmtElGamalCommitterCore implements CmtCommitter {
 		this.dlog = dlog;
 		this.random = random;
 		qMinusOne =  dlog.getOrder().subtract(BigInteger.ONE);
-		commitmentMap = new Hashtable<Long, CmtElGamalCommitmentPhaseValues>();
+		commitmentMap = new CmtStripedCommitmentStore<CmtElGamalCommitmentPhaseValues>();
 		this.elGamal = elGamal;
 		preProcess();
 	}
@@ -170,15 +188,25 @@ public abstract class CmtElGamalCommitterCore implements CmtCommitter {
 	 */
 	public CmtCCommitmentMsg generateCommitmentMsg(CmtCommitValue input, long id){
 		
-		//Sample random r <-Zq.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);	
-		
-		//Compute u = g^r and v = h^r * x.
-		//This is actually the encryption of x.
-		AsymmetricCiphertext c =  elGamal.encrypt(input.convertToPlaintext(), r);
+		BigInteger r;
+		AsymmetricCiphertext c;
+		BatchRandomness batch = batchRandomness.get();
+		if (batch != null && batch.next < batch.r.length){
+			//The value is a part of a batch, whose random values and exponentiations were already computed.
+			int i = batch.next++;
+			r = batch.r[i];
+			c = ((ElGamalAbs) elGamal).encrypt(input.convertToPlaintext(), batch.exponentiations[i][0], batch.exponentiations[i][1]);
+		} else {
+			//Sample random r <-Zq.
+			r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);	
+			
+			//Compute u = g^r and v = h^r * x.
+			//This is actually the encryption of x.
+			c =  elGamal.encrypt(input.convertToPlaintext(), r);
+		}
 		
 		//keep the committed value in the map together with its ID.
-		commitmentMap.put(Long.valueOf(id), new CmtElGamalCommitmentPhaseValues(new BigIntegerRandomValue(r), input,c));
+		commitmentMap.put(id, new CmtElGamalCommitmentPhaseValues(new BigIntegerRandomValue(r), input,c));
 		
 		return new CmtElGamalCommitmentMessage((ElGamalCiphertextSendableData)c.generateSendableData(), id);
 	}
@@ -199,17 +227,59 @@ public abstract class CmtElGamalCommitterCore implements CmtCommitter {
 			//Send the message by the channel.
 			channel.send(c);
 		} catch (IOException e) {
-			commitmentMap.remove(Long.valueOf(id));
+			commitmentMap.remove(id);
 			throw new IOException("failed to send the commitment. The error is: " + e.getMessage());
 		}	
 		
 	}
 	
+	/**
+	 * Runs the commitment computation of each value and returns all the commitments in one message.<p>
+	 * The random values of the batch are sampled first and their exponentiations g^r and h^r are split between the threads, 
+	 * each computing with its own copy of the DlogGroup. Then the commitments are completed by the calling thread.
+	 */
+	public CmtBatchCommitmentMessage generateCommitmentBatchMsg(CmtCommitValue[] inputs, long[] ids){
+		int threads = BatchRangeRunner.getNumOfThreads(dlog, numOfThreads);
+		if (threads == 1 || !(elGamal instanceof ElGamalAbs)){
+			return CmtBatchUtil.generateCommitments(this, inputs, ids, 1, CmtElGamalBatchCodec.INSTANCE);
+		}
+		
+		BatchRandomness batch = new BatchRandomness();
+		batch.r = new BigInteger[inputs.length];
+		for (int i = 0; i < inputs.length; i++){
+			batch.r[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		batch.exponentiations = CmtElGamalBatchUtil.computeExponentiations(dlog, publicKey.getH(), batch.r, threads);
+		
+		//generateCommitmentMsg takes the values of the batch in their order.
+		batchRandomness.set(batch);
+		try {
+			return CmtBatchUtil.generateCommitments(this, inputs, ids, 1, CmtElGamalBatchCodec.INSTANCE);
+		} finally {
+			batchRandomness.remove();
+		}
+	}
+	
+	/**
+	 * Runs the commit phase of the commitment scheme on all the given values and sends the commitments in one message.
+	 */
+	public void commitBatch(CmtCommitValue[] inputs, long[] ids) throws IOException {
+		CmtBatchCommitmentMessage msg = generateCommitmentBatchMsg(inputs, ids);
+		try {
+			channel.send(msg);
+		} catch (IOException e) {
+			for (int i = 0; i < ids.length; i++){
+				commitmentMap.remove(ids[i]);
+			}
+			throw new IOException("failed to send the commitment. The error is: " + e.getMessage());
+		}	
+	}
+	
 	@Override
 	public CmtCDecommitmentMessage generateDecommitmentMsg(long id){
 		
 		//fetch the commitment according to the requested ID
-		CmtElGamalCommitmentPhaseValues values = commitmentMap.get(Long.valueOf(id));
+		CmtElGamalCommitmentPhaseValues values = commitmentMap.get(id);
 		return new CmtElGamalDecommitmentMessage(values.getX().generateSendableData(),values.getR());
 	}
 
@@ -228,8 +298,63 @@ public abstract class CmtElGamalCommitterCore implements CmtCommitter {
 		catch (IOException e) {
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}
+		decommitted(id);
 	}	
 
+	@Override
+	public CmtBatchDecommitmentMessage generateDecommitmentBatchMsg(long[] ids){
+		return CmtBatchUtil.generateDecommitments(this, ids, CmtElGamalBatchCodec.INSTANCE);
+	}
+	
+	/**
+	 * Runs the decommit phase of the commitment scheme on all the given ids and sends the decommitments in one message.
+	 */
+	public void decommitBatch(long[] ids) throws IOException {
+		CmtBatchDecommitmentMessage msg = generateDecommitmentBatchMsg(ids);
+		try{
+			channel.send(msg);
+		}
+		catch (IOException e) {
+			throw new IOException("failed to send the message. The error is: " + e.getMessage());
+		}
+		for (int i = 0; i < ids.length; i++){
+			decommitted(ids[i]);
+		}
+	}
+	
+	/**
+	 * Sets the number of threads used to compute the commitments of a batch.
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads < 1){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Sets the factory of the store that keeps the commitment state.<p>
+	 * The default store keeps the state of each commitment also after it is decommitted. 
+	 * Long-lived committers can use a store that removes decommitted commitments, such as the one created by CmtStripedCommitmentStore.factory(true).
+	 * @param factory creates the new store.
+	 * @throws IllegalStateException if there are already stored commitments.
+	 */
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		if (commitmentMap.size() != 0){
+			throw new IllegalStateException("the commitment store can only be replaced before the first commitment");
+		}
+		commitmentMap = factory.createStore();
+	}
+	
+	/**
+	 * Notifies the commitment store that the commitment with the given id was decommitted.
+	 * @param id the decommitted commitment.
+	 */
+	protected void decommitted(long id){
+		commitmentMap.decommitted(id);
+	}
+	
 	@Override
 	public Key[] getPreProcessValues() {
 		Key[] keys = new Key[2];
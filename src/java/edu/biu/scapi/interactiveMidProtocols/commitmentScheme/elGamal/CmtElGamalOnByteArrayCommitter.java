@@ -58,6 +58,8 @@ import edu.biu.scapi.tools.Factories.DlogGroupFactory;
  *
  */
 public class CmtElGamalOnByteArrayCommitter extends CmtElGamalCommitterCore implements CmtCommitter, PerfectlyBindingCmt, CmtOnByteArray {
+
+	private KeyDerivationFunction kdf;
 	
 	/**
 	 * This constructor lets the caller pass the channel, the dlog group and the 
@@ -75,6 +77,7 @@ public class CmtElGamalOnByteArrayCommitter extends CmtElGamalCommitterCore impl
 	 */
 	public CmtElGamalOnByteArrayCommitter(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws IllegalArgumentException, SecurityLevelException, InvalidDlogGroupException, IOException{
 		super(channel, dlog, new ScElGamalOnByteArray(dlog, kdf), random);
+		this.kdf = kdf;
 	}
 
 	/**
@@ -85,7 +88,7 @@ public class CmtElGamalOnByteArrayCommitter extends CmtElGamalCommitterCore impl
 	public CmtElGamalOnByteArrayCommitter(Channel channel) throws IOException {
 		String dlogGroupName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
 		DlogGroup dlogGroup = null;
-		KeyDerivationFunction kdf = new HKDF(new BcHMAC());
+		kdf = new HKDF(new BcHMAC());
 		//Create the Dlog group
 		try {
 			dlogGroup = DlogGroupFactory.getInstance().getObject(dlogGroupName);
@@ -103,6 +106,7 @@ public class CmtElGamalOnByteArrayCommitter extends CmtElGamalCommitterCore impl
 		
 	}
 	
+
 	public CmtCCommitmentMsg generateCommitmentMsg(CmtCommitValue input, long id){
 		if (!(input instanceof CmtByteArrayCommitValue))
 			throw new IllegalArgumentException("The input must be of type CmtByteArrayCommitValue");
@@ -108,6 +108,7 @@ public class CmtElGamalOnByteArrayReceiver extends CmtElGamalReceiverCore implem
 		}
 	}
 
+
 	/**
 	 * Proccesses the decommitment phase.<p>
 	 * "IF NOT<p>
@@ -151,8 +152,9 @@ public class CmtElGamalOnByteArrayReceiver extends CmtElGamalReceiverCore implem
 			return null;
 		}
 		
-		GroupElement gToR = dlog.exponentiate(dlog.getGenerator(), ((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());	
-		GroupElement hToR = dlog.exponentiate(publicKey.getH(), ((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());
+		GroupElement[] exponentiations = computeExponentiations(((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());
+		GroupElement gToR = exponentiations[0];
+		GroupElement hToR = exponentiations[1];
 		
 		byte[] hToRBytes = dlog.mapAnyGroupElementToByteArray(hToR);
 		byte[] c2 = kdf.deriveKey(hToRBytes, 0, hToRBytes.length, x.length).getEncoded();
@@ -141,8 +141,9 @@ public class CmtElGamalOnGroupElementReceiver extends CmtElGamalReceiverCore imp
 
 		GroupElement u = dlog.reconstructElement(true,((ElGamalOnGrElSendableData)commitmentMsg.getCommitment()).getCipher1());
 		GroupElement v = dlog.reconstructElement(true,((ElGamalOnGrElSendableData)commitmentMsg.getCommitment()).getCipher2());
-		GroupElement gToR = dlog.exponentiate(dlog.getGenerator(), ((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());	
-		GroupElement hToR = dlog.exponentiate(publicKey.getH(), ((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());
+		GroupElement[] exponentiations = computeExponentiations(((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());
+		GroupElement gToR = exponentiations[0];
+		GroupElement hToR = exponentiations[1];
 		
 		if( u.equals(gToR) && v.equals(dlog.multiplyGroupElements(hToR, xEl)) )
 			return new CmtGroupElementCommitValue(xEl);
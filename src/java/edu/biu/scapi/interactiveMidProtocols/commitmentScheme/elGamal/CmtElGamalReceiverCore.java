@@ -26,24 +26,38 @@ package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.elGamal;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.math.BigInteger;
 import java.security.InvalidKeyException;
 import java.security.PublicKey;
-import java.util.Hashtable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchUtil;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRBasicCommitPhaseOutput;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtReceiver;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRCommitPhaseOutput;
+import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ElGamalAbs;
 import edu.biu.scapi.midLayer.asymmetricCrypto.encryption.ElGamalEnc;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScElGamalPublicKey;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScElGamalPublicKey.ScElGamalPublicKeySendableData;
+import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
+import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.securityLevel.DDH;
 
 /**
@@ -55,7 +69,7 @@ import edu.biu.scapi.securityLevel.DDH;
  *
  */
 
-public abstract class CmtElGamalReceiverCore implements CmtReceiver{
+public abstract class CmtElGamalReceiverCore implements CmtReceiver, CmtBatchReceiver{
 	
 	/*
 	 * runs the following protocol:
@@ -77,11 +91,15 @@ public abstract class CmtElGamalReceiverCore implements CmtReceiver{
 	 *
 	 */
 	
-	protected Map<Long , CmtElGamalCommitmentMessage> commitmentMap;
+	protected CmtCommitmentStore<CmtElGamalCommitmentMessage> commitmentMap;
 	protected DlogGroup dlog;
 	protected Channel channel;
 	protected ElGamalEnc elGamal;
 	protected ScElGamalPublicKey publicKey;
+	//The number of threads used to verify the decommitments of a batch.
+	protected int numOfThreads = 1;
+	//The exponentiations g^r and h^r of the random values of the batch that is verified by the current thread.
+	private final ThreadLocal<Map<BigInteger, GroupElement[]>> batchExponentiations = new ThreadLocal<Map<BigInteger, GroupElement[]>>();
 	
 	/**
 	 * Constructor that receives a connected channel (to the receiver), 
@@ -117,7 +135,7 @@ public abstract class CmtElGamalReceiverCore implements CmtReceiver{
 
 		this.channel = channel;
 		this.dlog = dlog;
-		commitmentMap = new Hashtable<Long, CmtElGamalCommitmentMessage>();
+		commitmentMap = new CmtStripedCommitmentStore<CmtElGamalCommitmentMessage>();
 		this.elGamal = elGamal;
 		preProcess();
 		try {
@@ -174,7 +192,7 @@ public abstract class CmtElGamalReceiverCore implements CmtReceiver{
 			throw new IOException("Failed to receive commitment. The error is: " + e.getMessage());
 		}
 
-		commitmentMap.put(Long.valueOf(msg.getId()), msg);
+		commitmentMap.put(msg.getId(), msg);
 		return new CmtRBasicCommitPhaseOutput(msg.getId());
 	}
 
@@ -209,9 +227,146 @@ public abstract class CmtElGamalReceiverCore implements CmtReceiver{
 		if (!(message instanceof CmtElGamalDecommitmentMessage)){
 			throw new IllegalArgumentException("the received message is not an instance of CmtElGamalDecommitmentMessage");
 		}
-		CmtElGamalCommitmentMessage receivedCommitment = commitmentMap.get(Long.valueOf(id));
+		CmtElGamalCommitmentMessage receivedCommitment = commitmentMap.get(id);
 		
-		return verifyDecommitment(receivedCommitment, (CmtElGamalDecommitmentMessage) message);
+		CmtCommitValue value = verifyDecommitment(receivedCommitment, (CmtElGamalDecommitmentMessage) message);
+		commitmentMap.decommitted(id);
+		return value;
+	}
+	
+	/**
+	 * Runs the commit phase of the commitment scheme on a batch of commitments.<p>
+	 * Pseudo code:<p>
+	 * "WAIT for values c1,...,cn<p>
+	 *	STORE c1,...,cn".
+	 * @return the outputs of the commit phase.
+	 * @throws ClassNotFoundException if there was a problem during serialization mechanism.
+	 * @throws IOException  if there was a problem during communication phase
+	 */
+	public CmtRCommitPhaseOutput[] receiveCommitmentBatch() throws ClassNotFoundException, IOException {
+		CmtCCommitmentMsg[] commitments = CmtBatchUtil.receiveCommitments(channel);
+		CmtRCommitPhaseOutput[] outputs = new CmtRCommitPhaseOutput[commitments.length];
+		for (int i = 0; i < commitments.length; i++){
+			if (!(commitments[i] instanceof CmtElGamalCommitmentMessage)){
+				throw new IllegalArgumentException("the received message is not an instance of CmtElGamalCommitmentMessage");
+			}
+			CmtElGamalCommitmentMessage msg = (CmtElGamalCommitmentMessage) commitments[i];
+			commitmentMap.put(msg.getId(), msg);
+			outputs[i] = new CmtRBasicCommitPhaseOutput(msg.getId());
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Runs the decommit phase of the commitment scheme on a batch of commitments.<p>
+	 * Each decommitment is verified as in the receiveDecommitment function. Decommitments of ids that had no commitment are rejected.
+	 * @param ids the ids of the commitments, in the order they were decommitted.
+	 * @return the committed values. The i-th value is null if the decommitment of ids[i] was rejected.
+	 * @throws ClassNotFoundException if there was a problem during serialization mechanism.
+	 * @throws IOException  if there was a problem during communication phase
+	 */
+	public CmtCommitValue[] receiveDecommitmentBatch(long[] ids) throws ClassNotFoundException, IOException {
+		CmtCDecommitmentMessage[] decommitments = CmtBatchUtil.receiveDecommitments(channel, ids.length);
+		CmtCCommitmentMsg[] commitments = new CmtCCommitmentMsg[ids.length];
+		for (int i = 0; i < ids.length; i++){
+			commitments[i] = commitmentMap.get(ids[i]);
+		}
+		CmtCommitValue[] values = verifyDecommitmentBatch(commitments, decommitments);
+		for (int i = 0; i < ids.length; i++){
+			commitmentMap.decommitted(ids[i]);
+		}
+		return values;
+	}
+	
+	/**
+	 * Verifies each decommitment as in the verifyDecommitment function.<p>
+	 * The exponentiations g^r and h^r of the random values of the batch are split between the threads, 
+	 * each computing with its own copy of the DlogGroup. Then the decommitments are verified by the calling thread.
+	 */
+	public CmtCommitValue[] verifyDecommitmentBatch(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments){
+		int threads = BatchRangeRunner.getNumOfThreads(dlog, numOfThreads);
+		if (threads == 1){
+			return CmtBatchUtil.verifyDecommitments(this, commitments, decommitments, 1);
+		}
+		
+		List<BigInteger> r = new ArrayList<BigInteger>(decommitments.length);
+		for (int i = 0; i < decommitments.length; i++){
+			if (decommitments[i] instanceof CmtElGamalDecommitmentMessage && ((CmtElGamalDecommitmentMessage) decommitments[i]).getR() != null){
+				BigInteger value = ((CmtElGamalDecommitmentMessage) decommitments[i]).getR().getR();
+				if (value != null){
+					r.add(value);
+				}
+			}
+		}
+		BigInteger[] values = r.toArray(new BigInteger[r.size()]);
+		GroupElement[][] exponentiations = CmtElGamalBatchUtil.computeExponentiations(dlog, publicKey.getH(), values, threads);
+		Map<BigInteger, GroupElement[]> map = new HashMap<BigInteger, GroupElement[]>();
+		for (int i = 0; i < values.length; i++){
+			map.put(values[i], exponentiations[i]);
+		}
+		
+		//The verifications take the exponentiations of their random values from the map.
+		batchExponentiations.set(map);
+		try {
+			return CmtBatchUtil.verifyDecommitments(this, commitments, decommitments, 1);
+		} finally {
+			batchExponentiations.remove();
+		}
+	}
+	
+	/**
+	 * Computes g^r and h^r of the given random value of a decommitment.<p>
+	 * During a batch verification the exponentiations were already computed by verifyDecommitmentBatch.
+	 * @param r the random value of the decommitment.
+	 * @return an array that holds g^r and h^r.
+	 */
+	protected GroupElement[] computeExponentiations(BigInteger r){
+		Map<BigInteger, GroupElement[]> map = batchExponentiations.get();
+		GroupElement[] exponentiations = (map == null) ? null : map.get(r);
+		if (exponentiations == null){
+			exponentiations = new GroupElement[]{dlog.exponentiate(dlog.getGenerator(), r), dlog.exponentiate(publicKey.getH(), r)};
+		}
+		return exponentiations;
+	}
+	
+	/**
+	 * Encrypts the given plaintext using the given random value of a decommitment, as the committer did.<p>
+	 * During a batch verification only the completion of the encryption is computed, using the exponentiations of computeExponentiations.
+	 * @param plaintext the committed value.
+	 * @param r the random value of the decommitment.
+	 * @return the encryption of the plaintext.
+	 */
+	protected AsymmetricCiphertext encrypt(Plaintext plaintext, BigInteger r){
+		if (batchExponentiations.get() != null && elGamal instanceof ElGamalAbs){
+			GroupElement[] exponentiations = computeExponentiations(r);
+			return ((ElGamalAbs) elGamal).encrypt(plaintext, exponentiations[0], exponentiations[1]);
+		}
+		return elGamal.encrypt(plaintext, r);
+	}
+	
+	/**
+	 * Sets the number of threads used to verify the decommitments of a batch.
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads < 1){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Sets the factory of the store that keeps the commitment state.<p>
+	 * The default store keeps the state of each commitment also after it is decommitted. 
+	 * Long-lived receivers can use a store that removes decommitted commitments, such as the one created by CmtStripedCommitmentStore.factory(true).
+	 * @param factory creates the new store.
+	 * @throws IllegalStateException if there are already stored commitments.
+	 */
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		if (commitmentMap.size() != 0){
+			throw new IllegalStateException("the commitment store can only be replaced before the first commitment");
+		}
+		commitmentMap = factory.createStore();
 	}
 	
 	@Override
@@ -26,8 +26,6 @@ package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.elGamalHash;
 
 import java.io.IOException;
 import java.security.SecureRandom;
-import java.util.Hashtable;
-import java.util.Map;
 
 
 import edu.biu.scapi.comm.Channel;
@@ -35,6 +33,9 @@ import edu.biu.scapi.exceptions.CommitValueException;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtByteArrayCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
@@ -69,7 +70,7 @@ public class CmtElGamalHashCommitter extends CmtElGamalCommitterCore implements
 	 */
 	
 	private CryptographicHash hash;
-	private Map<Long, byte[]> hashCommitmentMap;
+	private CmtCommitmentStore<byte[]> hashCommitmentMap;
 
 	/**
 	 * This constructor receives as argument the channel and chosses default values of 
@@ -118,7 +119,7 @@ public class CmtElGamalHashCommitter extends CmtElGamalCommitterCore implements
 			throw new IllegalArgumentException("The size in bytes of the resulting hash is bigger than the size in bytes of the order of the DlogGroup.");
 		}
 		this.hash = hash;
-		hashCommitmentMap = new Hashtable<Long, byte[]>();
+		hashCommitmentMap = new CmtStripedCommitmentStore<byte[]>();
 	}
 	
 	/**
@@ -159,12 +160,15 @@ public class CmtElGamalHashCommitter extends CmtElGamalCommitterCore implements
 		//Hash the input x with the hash function
 		byte[] x  = ((CmtByteArrayCommitValue)input).getX();
 		//Keep the original commit value x and its id in the commitmentMap, needed for later (during the decommit phase).
-		hashCommitmentMap.put(Long.valueOf(id), x);
+		hashCommitmentMap.put(id, x);
 		
 		//calculate H(x) = Hash(x)
+		//The hash is shared between the commitments of a batch, which may be computed by several threads.
 		byte[] hashValArray = new byte[hash.getHashedMsgSize()];
-		hash.update(x, 0, x.length);
-		hash.hashFinal(hashValArray, 0);
+		synchronized (hash){
+			hash.update(x, 0, x.length);
+			hash.hashFinal(hashValArray, 0);
+		}
 		return hashValArray;
 	}
 
@@ -172,7 +176,7 @@ public class CmtElGamalHashCommitter extends CmtElGamalCommitterCore implements
 	public CmtCDecommitmentMessage generateDecommitmentMsg(long id){
 		
 		//Fetch the commitment according to the requested ID
-		byte[] x = hashCommitmentMap.get(Long.valueOf(id));
+		byte[] x = hashCommitmentMap.get(id);
 		//Get the relevant random value used in the commitment phase
 		BigIntegerRandomValue r = (commitmentMap.get(id)).getR();
 				
@@ -191,8 +195,24 @@ public class CmtElGamalHashCommitter extends CmtElGamalCommitterCore implements
 		catch (IOException e) {
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}
+		decommitted(id);
 	}
 
+	/**
+	 * Sets the factory of the stores that keep the commitment state, including the original values before the hashing.
+	 */
+	@Override
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		super.setCommitmentStore(factory);
+		hashCommitmentMap = factory.createStore();
+	}
+	
+	@Override
+	protected void decommitted(long id){
+		super.decommitted(id);
+		hashCommitmentMap.decommitted(id);
+	}
+	
 	/**
 	 * This function samples random commit value and returns it.
 	 * @return the sampled commit value
@@ -137,12 +137,15 @@ public class CmtElGamalHashReceiver extends CmtElGamalReceiverCore implements Cm
 		//Hash the input x with the hash function
 		byte[] x  = (byte[]) decommitmentMsg.getX();
 		//calculate H(x) = Hash(x)
+		//The hash is shared between the commitments of a batch, which may be computed by several threads.
 		byte[] hashValArray = new byte[hash.getHashedMsgSize()];
-		hash.update(x, 0, x.length);
-		hash.hashFinal(hashValArray, 0);
+		synchronized (hash){
+			hash.update(x, 0, x.length);
+			hash.hashFinal(hashValArray, 0);
+		}
 
 		//Fetch received commitment according to ID
-		ElGamalOnByteArrayCiphertext c =(ElGamalOnByteArrayCiphertext) elGamal.encrypt(new ByteArrayPlaintext(hashValArray), ((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());
+		ElGamalOnByteArrayCiphertext c =(ElGamalOnByteArrayCiphertext) encrypt(new ByteArrayPlaintext(hashValArray), ((CmtElGamalDecommitmentMessage) decommitmentMsg).getR().getR());
 		
 		ElGamalOnByteArrayCiphertext receivedCommitmentCipher = (ElGamalOnByteArrayCiphertext) elGamal.reconstructCiphertext(((CmtElGamalCommitmentMessage) commitmentMsg).getCommitment());
 		
@@ -8,6 +8,9 @@ import java.io.IOException;
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitter;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitter;
@@ -27,7 +30,7 @@ import edu.biu.scapi.securityLevel.EquivocalCmt;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class CmtEquivocalCommitter implements CmtCommitter, EquivocalCmt{
+public class CmtEquivocalCommitter implements CmtCommitter, CmtBatchCommitter, EquivocalCmt{
 	
 	/*
 	  Runs the following pseudo code:
@@ -76,6 +79,33 @@ public class CmtEquivocalCommitter implements CmtCommitter, EquivocalCmt{
 		committer.commit(input, id);
 	}
 	
+	@Override
+	public CmtBatchCommitmentMessage generateCommitmentBatchMsg(CmtCommitValue[] inputs, long[] ids) {
+		// Delegate to the underlying committer.
+		return getBatchCommitter().generateCommitmentBatchMsg(inputs, ids);
+	}
+	
+	/**
+	 * Runs the commit phase of the protocol on a batch of values.<p>
+	 * Pseudo code:<p>
+	 * "RUN any COMMIT protocol for C to commit to x1,...,xn".
+	 */
+	public void commitBatch(CmtCommitValue[] inputs, long[] ids) throws IOException {
+		//Delegate to the underlying committer.
+		getBatchCommitter().commitBatch(inputs, ids);
+	}
+	
+	/**
+	 * Returns the underlying committer as a batch committer.
+	 * @throws IllegalStateException if the underlying committer does not support batches.
+	 */
+	private CmtBatchCommitter getBatchCommitter(){
+		if (!(committer instanceof CmtBatchCommitter)){
+			throw new IllegalStateException("the underlying committer does not support batch commitments");
+		}
+		return (CmtBatchCommitter) committer;
+	}
+	
 	@Override
 	public CmtCDecommitmentMessage generateDecommitmentMsg(long id) {
 		throw new IllegalStateException("The Decommitment phase of this scheme is interactive. Thus, it can't generate a decommitment message. Call decommit function");
@@ -92,6 +122,27 @@ public class CmtEquivocalCommitter implements CmtCommitter, EquivocalCmt{
 		committer.proveCommittedValue(id);
 	}
 	
+	@Override
+	public CmtBatchDecommitmentMessage generateDecommitmentBatchMsg(long[] ids) {
+		throw new IllegalStateException("The Decommitment phase of this scheme is interactive. Thus, it can't generate a decommitment message. Call decommitBatch function");
+	}
+	
+	/**
+	 * Runs the decommit phase of the protocol on each of the given ids, one after the other, since the proof of each value is interactive.
+	 */
+	public void decommitBatch(long[] ids) throws IOException, CheatAttemptException, ClassNotFoundException, CommitValueException {
+		for (int i = 0; i < ids.length; i++){
+			decommit(ids[i]);
+		}
+	}
+	
+	/**
+	 * Sets the number of threads the underlying committer uses to compute the commitments of a batch.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		getBatchCommitter().setNumOfThreads(numOfThreads);
+	}
+	
 	/**
 	 * This function samples random commit value and returns it.
 	 * @return the sampled commit value
@@ -8,6 +8,7 @@ import java.io.IOException;
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchReceiver;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtReceiver;
@@ -28,7 +29,7 @@ import edu.biu.scapi.securityLevel.EquivocalCmt;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class CmtEquivocalReceiver implements CmtReceiver, EquivocalCmt {
+public class CmtEquivocalReceiver implements CmtReceiver, CmtBatchReceiver, EquivocalCmt {
 	
 	/*
 	  Runs the following pseudo code:
@@ -91,6 +92,49 @@ public class CmtEquivocalReceiver implements CmtReceiver, EquivocalCmt {
 		throw new IllegalStateException("The Decommitment phase of this scheme is interactive. Thus, it can't generate a decommitment message. Call decommit function");
 	}
 
+	/**
+	 * Runs the commit phase of the protocol on a batch of commitments:<P>
+	 * "RUN any COMMIT protocol for C to commit to x1,...,xn".
+	 */
+	public CmtRCommitPhaseOutput[] receiveCommitmentBatch() throws ClassNotFoundException, IOException {
+		//Delegate to the underlying receiver.
+		return getBatchReceiver().receiveCommitmentBatch();
+	}
+	
+	/**
+	 * Runs the decommit phase of the protocol on each of the given ids, one after the other, since the proof of each value is interactive.
+	 */
+	public CmtCommitValue[] receiveDecommitmentBatch(long[] ids) throws IOException, ClassNotFoundException, CheatAttemptException, CommitValueException {
+		CmtCommitValue[] values = new CmtCommitValue[ids.length];
+		for (int i = 0; i < ids.length; i++){
+			values[i] = receiveDecommitment(ids[i]);
+		}
+		return values;
+	}
+	
+	@Override
+	public CmtCommitValue[] verifyDecommitmentBatch(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments) {
+		throw new IllegalStateException("The Decommitment phase of this scheme is interactive. Thus, it can't generate a decommitment message. Call decommit function");
+	}
+	
+	/**
+	 * Sets the number of threads the underlying receiver uses in batch computations.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		getBatchReceiver().setNumOfThreads(numOfThreads);
+	}
+	
+	/**
+	 * Returns the underlying receiver as a batch receiver.
+	 * @throws IllegalStateException if the underlying receiver does not support batches.
+	 */
+	private CmtBatchReceiver getBatchReceiver(){
+		if (!(receiver instanceof CmtBatchReceiver)){
+			throw new IllegalStateException("the underlying receiver does not support batch commitments");
+		}
+		return (CmtBatchReceiver) receiver;
+	}
+
 	@Override
 	public Object[] getPreProcessedValues() {
 		//Delegate to the underlying receiver.
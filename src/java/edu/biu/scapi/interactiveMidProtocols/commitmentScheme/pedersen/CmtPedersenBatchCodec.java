@@ -0,0 +1,88 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersen;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCodec;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
+
+/**
+ * Writes the messages of the Pedersen commitment schemes in the batch messages.<p>
+ * A commitment is written as its group element and id, and a decommitment as the BigIntegers x and r.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class CmtPedersenBatchCodec extends CmtBatchCodec {
+	
+	private static final long serialVersionUID = 2694318472205917636L;
+	
+	//The codec has no state, so all the batch messages of the scheme use this instance.
+	static final CmtPedersenBatchCodec INSTANCE = new CmtPedersenBatchCodec();
+	
+	@Override
+	public boolean canEncode(CmtCCommitmentMsg commitment) {
+		return commitment.getClass() == CmtPedersenCommitmentMessage.class
+				&& canEncode(((CmtPedersenCommitmentMessage) commitment).getCommitment());
+	}
+	
+	@Override
+	public void writeCommitment(DataOutput out, CmtCCommitmentMsg commitment) throws IOException {
+		CmtPedersenCommitmentMessage msg = (CmtPedersenCommitmentMessage) commitment;
+		writeElement(out, msg.getCommitment());
+		out.writeLong(msg.getId());
+	}
+	
+	@Override
+	public CmtCCommitmentMsg readCommitment(DataInput in) throws IOException {
+		return new CmtPedersenCommitmentMessage(readElement(in), in.readLong());
+	}
+	
+	@Override
+	public boolean canEncode(CmtCDecommitmentMessage decommitment) {
+		if (decommitment.getClass() != CmtPedersenDecommitmentMessage.class){
+			return false;
+		}
+		CmtPedersenDecommitmentMessage msg = (CmtPedersenDecommitmentMessage) decommitment;
+		return msg.getX() != null && msg.getR() != null && msg.getR().getR() != null;
+	}
+	
+	@Override
+	public void writeDecommitment(DataOutput out, CmtCDecommitmentMessage decommitment) throws IOException {
+		CmtPedersenDecommitmentMessage msg = (CmtPedersenDecommitmentMessage) decommitment;
+		writeBigInteger(out, msg.getX());
+		writeBigInteger(out, msg.getR().getR());
+	}
+	
+	@Override
+	public CmtCDecommitmentMessage readDecommitment(DataInput in) throws IOException {
+		return new CmtPedersenDecommitmentMessage(readBigInteger(in), new BigIntegerRandomValue(readBigInteger(in)));
+	}
+}
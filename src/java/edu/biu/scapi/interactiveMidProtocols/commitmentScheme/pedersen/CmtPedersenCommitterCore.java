@@ -28,8 +28,6 @@ import java.io.IOException;
 import java.io.Serializable;
 import java.math.BigInteger;
 import java.security.SecureRandom;
-import java.util.Hashtable;
-import java.util.Map;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -40,14 +38,24 @@ import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.generals.ScapiDefaultConfiguration;
 import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitter;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchDecommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchUtil;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBigIntegerCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitter;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.FixedBasesTable;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
 /**
@@ -56,7 +64,9 @@ import edu.biu.scapi.tools.Factories.DlogGroupFactory;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public abstract class CmtPedersenCommitterCore implements CmtCommitter{
+public abstract class CmtPedersenCommitterCore implements CmtCommitter, CmtBatchCommitter{
+	
+	private static final int MIN_VALUES_PER_THREAD = 8;	//Each commitment costs a multiple exponentiation, so small ranges are worth a thread.
 	
 	/*
 	 * runs the following protocol:
@@ -85,10 +95,16 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 	//Each committed value is sent together with an ID so that the receiver can keep it in some data structure. This is necessary
 	//in the cases that the same instances of committer and receiver can be used for performing various commitments utilizing the values calculated
 	//during the pre-process stage for the sake of efficiency.
-	protected Map<Long, CmtPedersenCommitmentPhaseValues> commitmentMap;		
+	protected CmtCommitmentStore<CmtPedersenCommitmentPhaseValues> commitmentMap;		
 	
 	//The content of the message obtained from the receiver during the pre-process phase which occurs upon construction.
     protected GroupElement h; 		 
+    //The number of threads used to compute the commitments of a batch.
+    protected int numOfThreads = 1;
+    //Fixed-base tables of g and h. They are built on the first commitment, since g and h do not change after the pre-process phase.
+    private volatile FixedBasesTable basesTable;
+    //Fixed-base tables of g and h in the copies of the DlogGroup that the threads of a batch compute with.
+    private final ThreadLocal<FixedBasesTable> threadBasesTable = new ThreadLocal<FixedBasesTable>();
  
     /**
 	 * Constructor that receives a connected channel (to the receiver) and chooses default dlog and random. 
@@ -139,7 +155,7 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 		this.dlog = dlog;
 		this.random = random;
 		qMinusOne =  dlog.getOrder().subtract(BigInteger.ONE);
-		commitmentMap = new Hashtable<Long, CmtPedersenCommitmentPhaseValues>();
+		commitmentMap = new CmtStripedCommitmentStore<CmtPedersenCommitmentPhaseValues>();
 		//The pre-process phase is actually performed at construction
 		preProcess();
 	}
@@ -167,29 +183,57 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 	 */
 	public CmtCCommitmentMsg generateCommitmentMsg(CmtCommitValue input, long id){
 		
+		BigInteger x = getExponentInZq(input);
+		committed(id, input);
+		
+		//Sample a random value r <- Zq
+		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);	
+		
+		//Compute  c = g^r * h^x using the fixed-base tables of g and h.
+		GroupElement c = getBasesTable().exponentiate(new BigInteger[]{r, x});
+		
+		return storeCommitment(id, r, x, c);
+	}
+	
+	/**
+	 * Returns the exponent of h in the commitment of the given input.<p>
+	 * Pedersen commits to the input itself. Schemes that commit to a function of the input override this function.
+	 * @param input the value to commit on.
+	 * @return the exponent.
+	 * @throws IllegalArgumentException if the input does not match the scheme.
+	 */
+	protected BigInteger getCommittedExponent(CmtCommitValue input){
 		if (!(input instanceof CmtBigIntegerCommitValue))
 			throw new IllegalArgumentException("The input must be of type CmtBigIntegerCommitValue");
 		
-		BigInteger x = ((CmtBigIntegerCommitValue)input).getX();
+		return ((CmtBigIntegerCommitValue)input).getX();
+	}
+	
+	/**
+	 * Called when the given input is committed with the given id, before the commitment is computed.<p>
+	 * Schemes that need the original input in the decommit phase override this function in order to keep it.
+	 * @param id the id of the commitment.
+	 * @param input the value to commit on.
+	 */
+	protected void committed(long id, CmtCommitValue input){}
+	
+	private BigInteger getExponentInZq(CmtCommitValue input){
+		BigInteger x = getCommittedExponent(input);
 		//Check that the input is in Zq.
 		if ((x.compareTo(BigInteger.ZERO)<0) || (x.compareTo(dlog.getOrder())>0)){
 			throw new IllegalArgumentException("The input must be in Zq");
 		}
-		
-		//Sample a random value r <- Zq
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);	
-		
-		//Compute  c = g^r * h^x
-		GroupElement gToR = dlog.exponentiate(dlog.getGenerator(), r);
-		GroupElement hToX = dlog.exponentiate(h, x);
-		GroupElement c = dlog.multiplyGroupElements(gToR, hToX);
-		
-		//Keep the committed value in the map together with its ID.
-		commitmentMap.put(Long.valueOf(id), new CmtPedersenCommitmentPhaseValues(new BigIntegerRandomValue(r), new CmtBigIntegerCommitValue(x), c));
+		return x;
+	}
+	
+	/**
+	 * Keeps the committed value in the map together with its ID and returns the commitment message.
+	 */
+	private CmtCCommitmentMsg storeCommitment(long id, BigInteger r, BigInteger x, GroupElement c){
+		commitmentMap.put(id, new CmtPedersenCommitmentPhaseValues(new BigIntegerRandomValue(r), new CmtBigIntegerCommitValue(x), c));
 		
 		//Send c
 		return new CmtPedersenCommitmentMessage(c.generateSendableData(), id);
-		
 	}
 	
 	/**
@@ -206,16 +250,81 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 			//Send the message by the channel.
 			channel.send(msg);
 		} catch (IOException e) {
-			commitmentMap.remove(Long.valueOf(id));
+			commitmentMap.remove(id);
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}	
 		
 	}
 
+	/**
+	 * Runs the commitment computation of each value and returns all the commitments in one message.<p>
+	 * The exponents and the random values of the batch are prepared by the calling thread. The exponentiations are split between 
+	 * the threads, each computing with its own copy of the DlogGroup and its own fixed-base tables.
+	 */
+	public CmtBatchCommitmentMessage generateCommitmentBatchMsg(CmtCommitValue[] inputs, final long[] ids){
+		int threads = BatchRangeRunner.getNumOfThreads(dlog, numOfThreads);
+		if (threads == 1){
+			return CmtBatchUtil.generateCommitments(this, inputs, ids, 1, CmtPedersenBatchCodec.INSTANCE);
+		}
+		if (inputs.length != ids.length){
+			throw new IllegalArgumentException("the number of ids should be equal to the number of inputs");
+		}
+		
+		int n = inputs.length;
+		final BigInteger[] x = new BigInteger[n];
+		final BigInteger[] r = new BigInteger[n];
+		for (int i = 0; i < n; i++){
+			x[i] = getExponentInZq(inputs[i]);
+			committed(ids[i], inputs[i]);
+			r[i] = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		}
+		
+		//Compute c = g^r * h^x of each value. The other threads compute in their copies of the group, and return the sendable data of c.
+		final GroupElement[] c = new GroupElement[n];
+		final GroupElementSendableData[] cData = new GroupElementSendableData[n];
+		BatchRangeRunner.run(n, threads, MIN_VALUES_PER_THREAD, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				FixedBasesTable table = (group == dlog) ? getBasesTable() : getThreadBasesTable(group);
+				for (int i = from; i < to; i++){
+					GroupElement element = table.exponentiate(new BigInteger[]{r[i], x[i]});
+					if (group == dlog){
+						c[i] = element;
+					} else {
+						cData[i] = element.generateSendableData();
+					}
+				}
+			}
+		});
+		
+		CmtCCommitmentMsg[] commitments = new CmtCCommitmentMsg[n];
+		for (int i = 0; i < n; i++){
+			GroupElement element = (c[i] != null) ? c[i] : dlog.reconstructElement(false, cData[i]);
+			commitments[i] = storeCommitment(ids[i], r[i], x[i], element);
+		}
+		return new CmtBatchCommitmentMessage(commitments, CmtPedersenBatchCodec.INSTANCE);
+	}
+	
+	/**
+	 * Runs the commit phase of the commitment scheme on all the given values and sends the commitments in one message.
+	 */
+	public void commitBatch(CmtCommitValue[] inputs, long[] ids) throws IOException {
+		CmtBatchCommitmentMessage msg = generateCommitmentBatchMsg(inputs, ids);
+		try {
+			//Send the message by the channel.
+			channel.send(msg);
+		} catch (IOException e) {
+			for (int i = 0; i < ids.length; i++){
+				commitmentMap.remove(ids[i]);
+			}
+			throw new IOException("failed to send the message. The error is: " + e.getMessage());
+		}	
+	}
+	
 	@Override
 	public CmtCDecommitmentMessage generateDecommitmentMsg(long id){
 		
-		CmtPedersenCommitmentPhaseValues values = commitmentMap.get(Long.valueOf(id));
+		CmtPedersenCommitmentPhaseValues values = commitmentMap.get(id);
 		CmtBigIntegerCommitValue xCVal = (CmtBigIntegerCommitValue)values.getX();
 		return new CmtPedersenDecommitmentMessage(xCVal.getX(),values.getR());
 		
@@ -237,8 +346,96 @@ public abstract class CmtPedersenCommitterCore implements CmtCommitter{
 		catch (IOException e) {
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}
+		decommitted(id);
 	}	
 
+	@Override
+	public CmtBatchDecommitmentMessage generateDecommitmentBatchMsg(long[] ids){
+		return CmtBatchUtil.generateDecommitments(this, ids, CmtPedersenBatchCodec.INSTANCE);
+	}
+	
+	/**
+	 * Runs the decommit phase of the commitment scheme on all the given ids and sends the decommitments in one message.
+	 */
+	public void decommitBatch(long[] ids) throws IOException {
+		CmtBatchDecommitmentMessage msg = generateDecommitmentBatchMsg(ids);
+		try{
+			channel.send(msg);
+		}
+		catch (IOException e) {
+			throw new IOException("failed to send the message. The error is: " + e.getMessage());
+		}
+		for (int i = 0; i < ids.length; i++){
+			decommitted(ids[i]);
+		}
+	}
+	
+	/**
+	 * Sets the number of threads used to compute the commitments of a batch.
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads < 1){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Sets the factory of the store that keeps the commitment state.<p>
+	 * The default store keeps the state of each commitment also after it is decommitted. 
+	 * Long-lived committers can use a store that removes decommitted commitments, such as the one created by CmtStripedCommitmentStore.factory(true).
+	 * @param factory creates the new store.
+	 * @throws IllegalStateException if there are already stored commitments.
+	 */
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		if (commitmentMap.size() != 0){
+			throw new IllegalStateException("the commitment store can only be replaced before the first commitment");
+		}
+		commitmentMap = factory.createStore();
+	}
+	
+	/**
+	 * Notifies the commitment store that the commitment with the given id was decommitted.
+	 * @param id the decommitted commitment.
+	 */
+	protected void decommitted(long id){
+		commitmentMap.decommitted(id);
+	}
+	
+	/**
+	 * Returns the fixed-base tables of g and h, and builds them on the first call.<p>
+	 * g and h are fixed once the pre-process phase is done, so the cost of building the tables 
+	 * is shared by all the commitments of this committer.
+	 * @return the tables of g (index 0) and h (index 1).
+	 */
+	protected FixedBasesTable getBasesTable(){
+		FixedBasesTable table = basesTable;
+		if (table == null){
+			synchronized (this){
+				if (basesTable == null){
+					basesTable = new FixedBasesTable(dlog, new GroupElement[]{dlog.getGenerator(), h});
+				}
+				table = basesTable;
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Returns the fixed-base tables of g and h in the given copy of the DlogGroup, which is the copy of the calling thread.
+	 * The tables are built on the first batch that the thread computes for this committer.
+	 */
+	private FixedBasesTable getThreadBasesTable(DlogGroup group){
+		FixedBasesTable table = threadBasesTable.get();
+		if (table == null){
+			GroupElement groupH = group.reconstructElement(false, h.generateSendableData());
+			table = new FixedBasesTable(group, new GroupElement[]{group.getGenerator(), groupH});
+			threadBasesTable.set(table);
+		}
+		return table;
+	}
+	
 	/**
 	 * Receives message from the receiver.
 	 * @return the received message
@@ -29,7 +29,6 @@ import java.io.Serializable;
 
 import java.math.BigInteger;
 import java.security.SecureRandom;
-import java.util.Hashtable;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -38,15 +37,24 @@ import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchUtil;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRBasicCommitPhaseOutput;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBigIntegerCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtReceiver;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRCommitPhaseOutput;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.FixedBasesTable;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 import edu.biu.scapi.securityLevel.DDH;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
 /*
@@ -55,7 +63,9 @@ import edu.biu.scapi.tools.Factories.DlogGroupFactory;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public abstract class CmtPedersenReceiverCore implements CmtReceiver{
+public abstract class CmtPedersenReceiverCore implements CmtReceiver, CmtBatchReceiver{
+	
+	private static final int MIN_VALUES_PER_THREAD = 8;	//Each verification costs an exponentiation, so small ranges are worth a thread.
 	
 	/*
 	 * runs the following protocol:
@@ -88,7 +98,21 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 	//The committer may commit many values one after the other without decommitting. And only at a later time decommit some or all those values. In order to keep track
 	//of the commitments and be able to relate them afterwards to the decommitments we keep them in the commitmentMap. The key is some unique id known to the application
 	//running the committer. The exact same id has to be use later on to decommit the corresponding values, otherwise the receiver will reject the decommitment.
-	protected Hashtable<Long, CmtPedersenCommitmentMessage> commitmentMap; 
+	protected CmtCommitmentStore<CmtPedersenCommitmentMessage> commitmentMap; 
+	//The number of threads used to verify the decommitments of a batch.
+	protected int numOfThreads = 1;
+	//Fixed-base table of g. It is built on the first verification, since g and the trapdoor do not change after the pre-process phase.
+	private volatile FixedBasesTable gTable;
+	//Fixed-base tables of g in the copies of the DlogGroup that the threads of a batch compute with.
+	private final ThreadLocal<FixedBasesTable> threadGTable = new ThreadLocal<FixedBasesTable>();
+	//Indicates whether the decommitments of a batch are verified together using a random linear combination.
+	private boolean batchVerification = false;
+	
+	/**
+	 * The length in bits of the random coefficients used by the batch verification. 
+	 * A batch that contains an invalid decommitment passes the combined check with probability at most 2^-(BATCH_VERIFICATION_BITS-1).
+	 */
+	public static final int BATCH_VERIFICATION_BITS = 80;
 	
 
 	/**
@@ -138,7 +162,7 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 		this.dlog = dlog;
 		this.random = random;
 		qMinusOne =  dlog.getOrder().subtract(BigInteger.ONE);
-		commitmentMap = new Hashtable<Long, CmtPedersenCommitmentMessage>();
+		commitmentMap = new CmtStripedCommitmentStore<CmtPedersenCommitmentMessage>();
 		
 		//The pre-process phase is actually performed at construction
 		preProcess();
@@ -191,7 +215,7 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 		}
 		CmtPedersenCommitmentMessage msg = (CmtPedersenCommitmentMessage) message;
 		
-		commitmentMap.put(Long.valueOf(msg.getId()), msg);
+		commitmentMap.put(msg.getId(), msg);
 		return new CmtRBasicCommitPhaseOutput(msg.getId());
 	}
 
@@ -216,8 +240,202 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 		}
 		CmtPedersenDecommitmentMessage msg = (CmtPedersenDecommitmentMessage) message;
 		
-		CmtPedersenCommitmentMessage receivedCommitment = commitmentMap.get(Long.valueOf(id));
-		return verifyDecommitment(receivedCommitment, msg);
+		CmtPedersenCommitmentMessage receivedCommitment = commitmentMap.get(id);
+		CmtCommitValue value = verifyDecommitment(receivedCommitment, msg);
+		commitmentMap.decommitted(id);
+		return value;
+	}
+	
+	/**
+	 * Wait for the committer to send a batch of commitments and save each of them in the commitmentMap using its id.<P>
+	 * Pseudo code:<P>
+	 * "WAIT for messages c1,...,cn from C<P>
+	 *  STORE values (h,c1),...,(h,cn)".
+	 */
+	public CmtRCommitPhaseOutput[] receiveCommitmentBatch() throws ClassNotFoundException, IOException {
+		CmtCCommitmentMsg[] commitments = CmtBatchUtil.receiveCommitments(channel);
+		CmtRCommitPhaseOutput[] outputs = new CmtRCommitPhaseOutput[commitments.length];
+		for (int i = 0; i < commitments.length; i++){
+			if (!(commitments[i] instanceof CmtPedersenCommitmentMessage)){
+				throw new IllegalArgumentException("The received message should be an instance of CmtPedersenCommitmentMessage");
+			}
+			CmtPedersenCommitmentMessage msg = (CmtPedersenCommitmentMessage) commitments[i];
+			commitmentMap.put(msg.getId(), msg);
+			outputs[i] = new CmtRBasicCommitPhaseOutput(msg.getId());
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Wait for the decommitter to send a batch of decommitments and verify each of them. 
+	 * Decommitments of ids that had no commitment are rejected.
+	 */
+	public CmtCommitValue[] receiveDecommitmentBatch(long[] ids) throws ClassNotFoundException, IOException {
+		CmtCDecommitmentMessage[] decommitments = CmtBatchUtil.receiveDecommitments(channel, ids.length);
+		CmtCCommitmentMsg[] commitments = new CmtCCommitmentMsg[ids.length];
+		for (int i = 0; i < ids.length; i++){
+			commitments[i] = commitmentMap.get(ids[i]);
+		}
+		CmtCommitValue[] values = verifyDecommitmentBatch(commitments, decommitments);
+		for (int i = 0; i < ids.length; i++){
+			commitmentMap.decommitted(ids[i]);
+		}
+		return values;
+	}
+	
+	/**
+	 * Verifies each decommitment as in the verifyDecommitment function.<P>
+	 * The exponentiations of the batch are split between the threads, each computing with its own copy of the DlogGroup.<P>
+	 * If batch verification is enabled, all the well formed decommitments are first verified together by checking that <P>
+	 * "c1^d1 * ... * cn^dn = g^(d1*(r1 + a*x1) + ... + dn*(rn + a*xn))" <P>
+	 * for random odd d1,...,dn of BATCH_VERIFICATION_BITS bits. If the check fails, each decommitment is verified separately 
+	 * in order to find the invalid ones.<P>
+	 * The combined check is sound only because every commitment is reconstructed with a membership check, as in verifyDecommitment, 
+	 * so all the elements are in the prime order group. If some commitment is not a member, the batch is verified separately.
+	 */
+	public CmtCommitValue[] verifyDecommitmentBatch(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments){
+		if (commitments.length != decommitments.length){
+			throw new IllegalArgumentException("the number of commitments and decommitments should be equal");
+		}
+		if (batchVerification){
+			CmtCommitValue[] values = verifyCombined(commitments, decommitments);
+			if (values != null){
+				return values;
+			}
+		}
+		return verifySeparately(commitments, decommitments);
+	}
+	
+	/**
+	 * Verifies each decommitment as in the verifyDecommitment function.<p>
+	 * The exponents are computed by the calling thread, and the exponentiations and the membership checks are split between the threads.
+	 */
+	private CmtCommitValue[] verifySeparately(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments){
+		int threads = BatchRangeRunner.getNumOfThreads(dlog, numOfThreads);
+		if (threads == 1){
+			return CmtBatchUtil.verifyDecommitments(this, commitments, decommitments, 1);
+		}
+		
+		int n = commitments.length;
+		BigInteger q = dlog.getOrder();
+		final BigInteger[] exponents = new BigInteger[n];
+		final GroupElementSendableData[] elements = new GroupElementSendableData[n];
+		for (int i = 0; i < n; i++){
+			//Decommitments that do not match a commitment or whose value is not in Zq are rejected.
+			if (!(commitments[i] instanceof CmtPedersenCommitmentMessage) || !(decommitments[i] instanceof CmtPedersenDecommitmentMessage)){
+				continue;
+			}
+			CmtPedersenDecommitmentMessage msg = (CmtPedersenDecommitmentMessage) decommitments[i];
+			BigInteger x = getCommittedExponent(msg);
+			if (x != null){
+				exponents[i] = msg.getR().getR().add(trapdoor.multiply(x)).mod(q);
+				elements[i] = ((CmtPedersenCommitmentMessage) commitments[i]).getCommitment();
+			}
+		}
+		
+		//Check that c = g^(r + a*x) for each decommitment. Each thread reconstructs the commitments in its own copy of the group.
+		final boolean[] valid = new boolean[n];
+		BatchRangeRunner.run(n, threads, MIN_VALUES_PER_THREAD, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				FixedBasesTable table = (group == dlog) ? getGTable() : getThreadGTable(group);
+				for (int i = from; i < to; i++){
+					if (exponents[i] != null){
+						GroupElement commitmentElement = group.reconstructElement(true, elements[i]);
+						valid[i] = commitmentElement.equals(table.exponentiate(0, exponents[i]));
+					}
+				}
+			}
+		});
+		
+		CmtCommitValue[] values = new CmtCommitValue[n];
+		for (int i = 0; i < n; i++){
+			if (valid[i]){
+				values[i] = getCommittedValue((CmtPedersenDecommitmentMessage) decommitments[i]);
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * Verifies all the decommitments of a batch with one multiple exponentiation.
+	 * @return the committed values, where rejected decommitments have null values, 
+	 * 			or null if the combined check failed and the decommitments should be verified separately.
+	 */
+	private CmtCommitValue[] verifyCombined(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments){
+		int n = commitments.length;
+		BigInteger q = dlog.getOrder();
+		CmtCommitValue[] values = new CmtCommitValue[n];
+		GroupElement[] elements = new GroupElement[n];
+		BigInteger[] coefficients = new BigInteger[n];
+		BigInteger exponent = BigInteger.ZERO;
+		int count = 0;
+		
+		for (int i = 0; i < n; i++){
+			//Decommitments that do not match a commitment or whose value is not in Zq are rejected without entering the combined check.
+			if (!(commitments[i] instanceof CmtPedersenCommitmentMessage) || !(decommitments[i] instanceof CmtPedersenDecommitmentMessage)){
+				continue;
+			}
+			CmtPedersenDecommitmentMessage msg = (CmtPedersenDecommitmentMessage) decommitments[i];
+			BigInteger x = getCommittedExponent(msg);
+			if (x == null){
+				continue;
+			}
+			//The combined check relies on the membership check of reconstructElement: in a group of prime order q, 
+			//an invalid decommitment passes only if its random coefficient hits one value modulo q.
+			//A commitment that is not a member makes the separate verification handle the whole batch, like verifyDecommitment does.
+			try {
+				elements[count] = dlog.reconstructElement(true, ((CmtPedersenCommitmentMessage) commitments[i]).getCommitment());
+			} catch (IllegalArgumentException e){
+				return null;
+			}
+			//The coefficients are odd so that none of them is zero.
+			BigInteger d = new BigInteger(BATCH_VERIFICATION_BITS, random).setBit(0);
+			coefficients[count] = d;
+			exponent = exponent.add(d.multiply(msg.getR().getR().add(trapdoor.multiply(x))));
+			values[i] = getCommittedValue(msg);
+			count++;
+		}
+		if (count == 0){
+			return values;
+		}
+		if (count < n){
+			GroupElement[] tmpElements = new GroupElement[count];
+			BigInteger[] tmpCoefficients = new BigInteger[count];
+			System.arraycopy(elements, 0, tmpElements, 0, count);
+			System.arraycopy(coefficients, 0, tmpCoefficients, 0, count);
+			elements = tmpElements;
+			coefficients = tmpCoefficients;
+		}
+		
+		GroupElement left = dlog.simultaneousMultipleExponentiations(elements, coefficients);
+		GroupElement right = getGTable().exponentiate(0, exponent.mod(q));
+		if (left.equals(right)){
+			return values;
+		}
+		return null;
+	}
+	
+	/**
+	 * Enables or disables the combined verification of the decommitments of a batch.<p>
+	 * The combined verification is faster when the decommitments are usually valid, 
+	 * and falls back to the separate verification of each decommitment when some decommitment is invalid.
+	 * It is disabled by default.
+	 * @param batchVerification true to verify the decommitments of a batch together.
+	 */
+	public void setBatchVerification(boolean batchVerification){
+		this.batchVerification = batchVerification;
+	}
+	
+	/**
+	 * Sets the number of threads used to verify the decommitments of a batch.
+	 * @param numOfThreads the maximal number of threads to use.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads < 1){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
 	}
 	
 	/**
@@ -232,26 +450,92 @@ public abstract class CmtPedersenReceiverCore implements CmtReceiver{
 	 * @return the committed value
 	 */
 	public CmtCommitValue verifyDecommitment(CmtCCommitmentMsg commitmentMsg, CmtCDecommitmentMessage decommitmentMsg) {
-		BigInteger x = ((CmtPedersenDecommitmentMessage)decommitmentMsg).getX();
-		BigInteger r = ((CmtPedersenDecommitmentMessage)decommitmentMsg).getR().getR();
+		CmtPedersenDecommitmentMessage msg = (CmtPedersenDecommitmentMessage) decommitmentMsg;
+		BigInteger x = getCommittedExponent(msg);
+		BigInteger r = msg.getR().getR();
 		
 		//if x is not in Zq return null
-		if ((x.compareTo(BigInteger.ZERO)<0) || (x.compareTo(dlog.getOrder())>0)){
+		if (x == null){
 			return null; 
 		}
 		
-		//Calculate c = g^r * h^x
-		GroupElement gTor = dlog.exponentiate(dlog.getGenerator(),r);
-		GroupElement hTox = dlog.exponentiate(h,x);
+		//Calculate c = g^r * h^x. Since h = g^a, it is computed as g^(r + a*x) using the fixed-base table of g.
+		GroupElement gToExp = getGTable().exponentiate(0, r.add(trapdoor.multiply(x)).mod(dlog.getOrder()));
 		
 		GroupElement commitmentElement = dlog.reconstructElement(true, ((CmtPedersenCommitmentMessage)commitmentMsg).getCommitment());
-		if (commitmentElement.equals(dlog.multiplyGroupElements(gTor, hTox)))
-			return new CmtBigIntegerCommitValue(x);
+		if (commitmentElement.equals(gToExp))
+			return getCommittedValue(msg);
 		//In the pseudocode it says to return X and ACCEPT if valid commitment else, REJECT.
 		//For now we return null as a mode of reject. If the returned value of this function is not null then it means ACCEPT
 		return null;
 	}
 
+	/**
+	 * Returns the exponent of h in the commitment that the given decommitment opens.<p>
+	 * Pedersen commits to x itself. Schemes that commit to a function of the value override this function.
+	 * @param msg the decommitment message.
+	 * @return the exponent, or null if it is not in Zq.
+	 */
+	protected BigInteger getCommittedExponent(CmtPedersenDecommitmentMessage msg){
+		BigInteger x = msg.getX();
+		if ((x.compareTo(BigInteger.ZERO)<0) || (x.compareTo(dlog.getOrder())>0)){
+			return null; 
+		}
+		return x;
+	}
+	
+	/**
+	 * Returns the value that is output when the given decommitment is accepted.
+	 * @param msg the decommitment message.
+	 * @return the committed value.
+	 */
+	protected CmtCommitValue getCommittedValue(CmtPedersenDecommitmentMessage msg){
+		return new CmtBigIntegerCommitValue(msg.getX());
+	}
+	
+	/**
+	 * Returns the fixed-base table of g, and builds it on the first call.
+	 */
+	private FixedBasesTable getGTable(){
+		FixedBasesTable table = gTable;
+		if (table == null){
+			synchronized (this){
+				if (gTable == null){
+					gTable = new FixedBasesTable(dlog, new GroupElement[]{dlog.getGenerator()});
+				}
+				table = gTable;
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * Returns the fixed-base table of g in the given copy of the DlogGroup, which is the copy of the calling thread.
+	 * The table is built on the first batch that the thread verifies for this receiver.
+	 */
+	private FixedBasesTable getThreadGTable(DlogGroup group){
+		FixedBasesTable table = threadGTable.get();
+		if (table == null){
+			table = new FixedBasesTable(group, new GroupElement[]{group.getGenerator()});
+			threadGTable.set(table);
+		}
+		return table;
+	}
+	
+	/**
+	 * Sets the factory of the store that keeps the commitment state.<p>
+	 * The default store keeps the state of each commitment also after it is decommitted. 
+	 * Long-lived receivers can use a store that removes decommitted commitments, such as the one created by CmtStripedCommitmentStore.factory(true).
+	 * @param factory creates the new store.
+	 * @throws IllegalStateException if there are already stored commitments.
+	 */
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		if (commitmentMap.size() != 0){
+			throw new IllegalStateException("the commitment store can only be replaced before the first commitment");
+		}
+		commitmentMap = factory.createStore();
+	}
+	
 	@Override
 	public Object[] getPreProcessedValues(){
 		GroupElement[] values = new GroupElement[1];
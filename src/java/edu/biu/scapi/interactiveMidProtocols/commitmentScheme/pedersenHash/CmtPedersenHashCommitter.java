@@ -28,8 +28,6 @@ package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersenHash;
 import java.io.IOException;
 import java.math.BigInteger;
 import java.security.SecureRandom;
-import java.util.Hashtable;
-import java.util.Map;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
@@ -37,9 +35,10 @@ import edu.biu.scapi.exceptions.CommitValueException;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.BigIntegerRandomValue;
-import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBigIntegerCommitValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtByteArrayCommitValue;
-import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitter;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
@@ -72,7 +71,7 @@ public class CmtPedersenHashCommitter extends CmtPedersenCommitterCore implement
 	 */
 	
 	private CryptographicHash hash;
-	private Map<Long, byte[]> hashCommitmentMap;
+	private CmtCommitmentStore<byte[]> hashCommitmentMap;
 	
 	/**
 	 * This constructor uses a default Dlog Group and default Cryptographic Hash. They keep the condition that 
@@ -86,7 +85,7 @@ public class CmtPedersenHashCommitter extends CmtPedersenCommitterCore implement
 	public CmtPedersenHashCommitter(Channel channel) throws ClassNotFoundException, IOException, CheatAttemptException{
 		super(channel);
 		this.hash = new OpenSSLSHA224(); 	//This default hash suits the default DlogGroup of the underlying Committer.
-		hashCommitmentMap = new Hashtable<Long, byte[]>();
+		hashCommitmentMap = new CmtStripedCommitmentStore<byte[]>();
 	}
 	
 	/**
@@ -112,7 +111,7 @@ public class CmtPedersenHashCommitter extends CmtPedersenCommitterCore implement
 			throw new IllegalArgumentException("The size in bytes of the resulting hash is bigger than the size in bytes of the order of the DlogGroup.");
 		}
 		this.hash = hash;
-		hashCommitmentMap = new Hashtable<Long, byte[]>();
+		hashCommitmentMap = new CmtStripedCommitmentStore<byte[]>();
 	}
 	
 	/*
@@ -121,34 +120,42 @@ public class CmtPedersenHashCommitter extends CmtPedersenCommitterCore implement
 	 */
 	
 	/**
-	 * Runs COMMIT_ElGamal to commit to value H(x).
-	 * @return the created commitment.
+	 * Runs COMMIT_PEDERSEN to commit to value H(x): the committed exponent is H(x).
+	 * @return the exponent H(x).
 	 */
-	public CmtCCommitmentMsg generateCommitmentMsg(CmtCommitValue input, long id){
+	@Override
+	protected BigInteger getCommittedExponent(CmtCommitValue input){
 		
 		//Check that the input x is in the end a byte[]
 		if (!(input instanceof CmtByteArrayCommitValue))
 			throw new IllegalArgumentException("The input must be of type CmtByteArrayCommitValue");
 		//Hash the input x with the hash function
 		byte[] x  = ((CmtByteArrayCommitValue)input).getX();
-		//Keep the original commit value x and its id in the commitmentMap, needed for later (during the decommit phase).
-		hashCommitmentMap.put(Long.valueOf(id), x);
 		
 		//calculate H(x) = Hash(x)
+		//The hash is shared by all the commitments of this committer, which may be computed by several threads.
 		byte[] hashValArray = new byte[hash.getHashedMsgSize()];
-		hash.update(x, 0, x.length);
-		hash.hashFinal(hashValArray, 0);
+		synchronized (hash){
+			hash.update(x, 0, x.length);
+			hash.hashFinal(hashValArray, 0);
+		}
 		
-		//After the input has been manipulated with the Hash call the super's commit function. Since the super has been initialized with ScElGamalOnByteArray
-		//it will know how to take care of the byte array input.
-		return super.generateCommitmentMsg(new CmtBigIntegerCommitValue(new BigInteger(1, hashValArray)), id);
+		return new BigInteger(1, hashValArray);
+	}
+	
+	/**
+	 * Keeps the original commit value x and its id in the commitmentMap, needed for later (during the decommit phase).
+	 */
+	@Override
+	protected void committed(long id, CmtCommitValue input){
+		hashCommitmentMap.put(id, ((CmtByteArrayCommitValue)input).getX());
 	}
 
 	@Override
 	public CmtCDecommitmentMessage generateDecommitmentMsg(long id){
 		
 		//Fetch the commitment according to the requested ID
-		byte[] x = hashCommitmentMap.get(Long.valueOf(id));
+		byte[] x = hashCommitmentMap.get(id);
 		//Get the relevant random value used in the commitment phase
 		BigIntegerRandomValue r = (commitmentMap.get(id)).getR();
 		
@@ -168,8 +175,24 @@ public class CmtPedersenHashCommitter extends CmtPedersenCommitterCore implement
 		catch (IOException e) {
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}
+		decommitted(id);
 	}
 
+	/**
+	 * Sets the factory of the stores that keep the commitment state, including the original values before the hashing.
+	 */
+	@Override
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		super.setCommitmentStore(factory);
+		hashCommitmentMap = factory.createStore();
+	}
+	
+	@Override
+	protected void decommitted(long id){
+		super.decommitted(id);
+		hashCommitmentMap.decommitted(id);
+	}
+	
 	/**
 	 * This function samples random commit value and returns it.
 	 * @return the sampled commit value
@@ -33,8 +33,6 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtByteArrayCommitValue;
-import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
-import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtReceiver;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtOnByteArray;
@@ -103,23 +101,30 @@ public class CmtPedersenHashReceiver extends CmtPedersenReceiverCore implements
 	}
 
 	/**
-	 * Verifies that the commitment was to H(x).
+	 * The commitment is to H(x), so the committed exponent is the hash of the decommitted x.
 	 */
 	@Override
-	public CmtCommitValue verifyDecommitment(CmtCCommitmentMsg commitmentMsg, CmtCDecommitmentMessage decommitmentMsg) {
+	protected BigInteger getCommittedExponent(CmtPedersenDecommitmentMessage msg) {
 		//Hash the input x with the hash function
-		byte[] x  = ((CmtPedersenDecommitmentMessage)decommitmentMsg).getX().toByteArray();
+		byte[] x  = msg.getX().toByteArray();
 		//calculate H(x) = Hash(x)
+		//The hash is shared between the commitments of a batch, which may be computed by several threads.
 		byte[] hashValArray = new byte[hash.getHashedMsgSize()];
-		hash.update(x, 0, x.length);
-		hash.hashFinal(hashValArray, 0);
+		synchronized (hash){
+			hash.update(x, 0, x.length);
+			hash.hashFinal(hashValArray, 0);
+		}
 		
-		CmtCommitValue val = super.verifyDecommitment(commitmentMsg, new CmtPedersenDecommitmentMessage(new BigInteger(1, hashValArray), ((CmtPedersenDecommitmentMessage)decommitmentMsg).getR()));
-		//If the inner Pedersen core algorithm returned null it means that it rejected the decommitment, so Pedersen Hash also rejects the answer and returns null
-		if (val == null)
-			return null;
-		//The decommitment was accpeted by Pedersen core. Now, Pedersen Hash has to return the original value before the hashing.
-		return new CmtByteArrayCommitValue(x);
+		//H(x) is shorter than the order of the group, so it is always in Zq.
+		return new BigInteger(1, hashValArray);
+	}
+	
+	/**
+	 * Pedersen Hash returns the original value before the hashing.
+	 */
+	@Override
+	protected CmtCommitValue getCommittedValue(CmtPedersenDecommitmentMessage msg) {
+		return new CmtByteArrayCommitValue(msg.getX().toByteArray());
 	}
 	
 	/**
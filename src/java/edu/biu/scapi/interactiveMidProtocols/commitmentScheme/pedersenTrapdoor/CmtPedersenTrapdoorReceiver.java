@@ -32,6 +32,7 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.InvalidDlogGroupException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRBasicCommitPhaseOutput;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRCommitPhaseOutput;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtReceiver;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtOnBigInteger;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRTrapdoorCommitPhaseOutput;
@@ -99,4 +100,16 @@ public class CmtPedersenTrapdoorReceiver extends CmtPedersenReceiver implements
 		//Wrap the output with the trapdoor.
 		return new CmtRTrapdoorCommitPhaseOutput(trapdoor, output.getCommitmentId());
 	}
+	
+	@Override
+	public CmtRCommitPhaseOutput[] receiveCommitmentBatch() throws ClassNotFoundException, IOException {
+		//Get the outputs from the super.receiveCommitmentBatch.
+		CmtRCommitPhaseOutput[] outputs = super.receiveCommitmentBatch();
+		
+		//Wrap each output with the trapdoor.
+		for (int i = 0; i < outputs.length; i++){
+			outputs[i] = new CmtRTrapdoorCommitPhaseOutput(trapdoor, outputs[i].getCommitmentId());
+		}
+		return outputs;
+	}
 }
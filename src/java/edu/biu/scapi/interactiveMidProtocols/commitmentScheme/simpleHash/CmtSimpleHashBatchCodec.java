@@ -0,0 +1,89 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+import edu.biu.scapi.interactiveMidProtocols.ByteArrayRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCodec;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
+
+/**
+ * Writes the messages of the simple hash commitment scheme in the batch messages.<p>
+ * A commitment is written as the hash value and its id, and a decommitment as the byte arrays r and x.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class CmtSimpleHashBatchCodec extends CmtBatchCodec {
+	
+	private static final long serialVersionUID = 5917204381736620451L;
+	
+	//The codec has no state, so all the batch messages of the scheme use this instance.
+	static final CmtSimpleHashBatchCodec INSTANCE = new CmtSimpleHashBatchCodec();
+	
+	@Override
+	public boolean canEncode(CmtCCommitmentMsg commitment) {
+		return commitment.getClass() == CmtSimpleHashCommitmentMessage.class
+				&& ((CmtSimpleHashCommitmentMessage) commitment).getCommitment() != null;
+	}
+	
+	@Override
+	public void writeCommitment(DataOutput out, CmtCCommitmentMsg commitment) throws IOException {
+		CmtSimpleHashCommitmentMessage msg = (CmtSimpleHashCommitmentMessage) commitment;
+		writeBytes(out, msg.getCommitment());
+		out.writeLong(msg.getId());
+	}
+	
+	@Override
+	public CmtCCommitmentMsg readCommitment(DataInput in) throws IOException {
+		return new CmtSimpleHashCommitmentMessage(readBytes(in), in.readLong());
+	}
+	
+	@Override
+	public boolean canEncode(CmtCDecommitmentMessage decommitment) {
+		if (decommitment.getClass() != CmtSimpleHashDecommitmentMessage.class){
+			return false;
+		}
+		CmtSimpleHashDecommitmentMessage msg = (CmtSimpleHashDecommitmentMessage) decommitment;
+		return msg.getX() != null && msg.getR() != null && msg.getR().getR() != null;
+	}
+	
+	@Override
+	public void writeDecommitment(DataOutput out, CmtCDecommitmentMessage decommitment) throws IOException {
+		CmtSimpleHashDecommitmentMessage msg = (CmtSimpleHashDecommitmentMessage) decommitment;
+		writeBytes(out, msg.getR().getR());
+		writeBytes(out, msg.getX());
+	}
+	
+	@Override
+	public CmtCDecommitmentMessage readDecommitment(DataInput in) throws IOException {
+		ByteArrayRandomValue r = new ByteArrayRandomValue(readBytes(in));
+		return new CmtSimpleHashDecommitmentMessage(r, readBytes(in));
+	}
+}
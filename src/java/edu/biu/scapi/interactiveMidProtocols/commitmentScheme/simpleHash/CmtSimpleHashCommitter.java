@@ -26,12 +26,17 @@ package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash;
 
 import java.io.IOException;
 import java.security.SecureRandom;
-import java.util.Hashtable;
-import java.util.Map;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CommitValueException;
 import edu.biu.scapi.interactiveMidProtocols.ByteArrayRandomValue;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchCommitter;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchDecommitmentMessage;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchUtil;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtByteArrayCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
@@ -55,7 +60,7 @@ import edu.biu.scapi.securityLevel.SecureCommit;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
+public class CmtSimpleHashCommitter implements CmtCommitter, CmtBatchCommitter, SecureCommit {
 	
 	/*
 	 * runs the following protocol:
@@ -72,7 +77,7 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 	private CryptographicHash hash;
 	private int n;
 	private SecureRandom random;
-	private  Map<Long, CmtSimpleHashCommitmentValues> commitmentMap;
+	private  CmtCommitmentStore<CmtSimpleHashCommitmentValues> commitmentMap;
 
 	/**
 	 * Constructor that receives a connected channel (to the receiver) and chosses default 
@@ -98,7 +103,7 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 		this.hash = hash;
 		this.n = n;
 		this.random = random;
-		commitmentMap = new Hashtable<Long, CmtSimpleHashCommitmentValues>();
+		commitmentMap = new CmtStripedCommitmentStore<CmtSimpleHashCommitmentValues>();
 		
 		//No pre-process in SimpleHash Commitment
 	}
@@ -123,7 +128,7 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 		byte[] hashValArray = computeCommitment(x, r);
 		
 		//After succeeding in sending the commitment, keep the committed value in the map together with its ID.
-		commitmentMap.put(Long.valueOf(id), new CmtSimpleHashCommitmentValues(new ByteArrayRandomValue(r), input, hashValArray));
+		commitmentMap.put(id, new CmtSimpleHashCommitmentValues(new ByteArrayRandomValue(r), input, hashValArray));
 		
 		return new CmtSimpleHashCommitmentMessage(hashValArray, id);
 	}
@@ -142,11 +147,35 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 			//Send the message by the channel.
 			channel.send(msg);
 		} catch (IOException e) {
-			commitmentMap.remove(Long.valueOf(id));
+			commitmentMap.remove(id);
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}	
 	}
 
+	/**
+	 * Runs the commitment computation of each value and returns all the commitments in one message.
+	 */
+	public CmtBatchCommitmentMessage generateCommitmentBatchMsg(CmtCommitValue[] inputs, long[] ids){
+		//The commitment of a value is a single hash computation, so the batch is always computed by the calling thread.
+		return CmtBatchUtil.generateCommitments(this, inputs, ids, 1, CmtSimpleHashBatchCodec.INSTANCE);
+	}
+	
+	/**
+	 * Runs the commit phase of the commitment scheme on all the given values and sends the commitments in one message.
+	 */
+	public void commitBatch(CmtCommitValue[] inputs, long[] ids) throws IOException {
+		CmtBatchCommitmentMessage msg = generateCommitmentBatchMsg(inputs, ids);
+		try {
+			//Send the message by the channel.
+			channel.send(msg);
+		} catch (IOException e) {
+			for (int i = 0; i < ids.length; i++){
+				commitmentMap.remove(ids[i]);
+			}
+			throw new IOException("failed to send the message. The error is: " + e.getMessage());
+		}	
+	}
+	
 	/**
 	 * Computes the hash function on the concatination of the inputs.
 	 * @param x user input
@@ -169,7 +198,7 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 	public CmtCDecommitmentMessage generateDecommitmentMsg(long id){
 		
 		//fetch the commitment according to the requested ID
-		CmtSimpleHashCommitmentValues vals = commitmentMap.get(Long.valueOf(id));
+		CmtSimpleHashCommitmentValues vals = commitmentMap.get(id);
 		byte[] x = ((CmtByteArrayCommitValue)vals.getX()).getX();
 		return new CmtSimpleHashDecommitmentMessage(vals.getR(), x);
 		
@@ -190,8 +219,59 @@ public class CmtSimpleHashCommitter implements CmtCommitter, SecureCommit {
 			throw new IOException("failed to send the message. The error is: " + e.getMessage());
 		}
 	
+		decommitted(id);
 	}	
 
+	@Override
+	public CmtBatchDecommitmentMessage generateDecommitmentBatchMsg(long[] ids){
+		return CmtBatchUtil.generateDecommitments(this, ids, CmtSimpleHashBatchCodec.INSTANCE);
+	}
+	
+	/**
+	 * Runs the decommit phase of the commitment scheme on all the given ids and sends the decommitments in one message.
+	 */
+	public void decommitBatch(long[] ids) throws IOException {
+		CmtBatchDecommitmentMessage msg = generateDecommitmentBatchMsg(ids);
+		try{
+			channel.send(msg);
+		}
+		catch (IOException e) {
+			throw new IOException("failed to send the message. The error is: " + e.getMessage());
+		}
+		for (int i = 0; i < ids.length; i++){
+			decommitted(ids[i]);
+		}
+	}
+	
+	/**
+	 * Simple Hash commitments compute a single hash per value, which costs less than handing the value to another thread. 
+	 * Therefore, batches are always computed sequentially and this function does nothing.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+	}
+	
+	/**
+	 * Sets the factory of the store that keeps the commitment state.<p>
+	 * The default store keeps the state of each commitment also after it is decommitted. 
+	 * Long-lived committers can use a store that removes decommitted commitments, such as the one created by CmtStripedCommitmentStore.factory(true).
+	 * @param factory creates the new store.
+	 * @throws IllegalStateException if there are already stored commitments.
+	 */
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		if (commitmentMap.size() != 0){
+			throw new IllegalStateException("the commitment store can only be replaced before the first commitment");
+		}
+		commitmentMap = factory.createStore();
+	}
+	
+	/**
+	 * Notifies the commitment store that the commitment with the given id was decommitted.
+	 * @param id the decommitted commitment.
+	 */
+	private void decommitted(long id){
+		commitmentMap.decommitted(id);
+	}
+	
 	/**
 	 * This function samples random commit value and returns it.
 	 * @return the sampled commit value
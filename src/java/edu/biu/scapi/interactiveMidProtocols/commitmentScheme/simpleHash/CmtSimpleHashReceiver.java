@@ -27,10 +27,13 @@ package edu.biu.scapi.interactiveMidProtocols.commitmentScheme.simpleHash;
 import java.io.IOException;
 import java.io.Serializable;
 import java.util.Arrays;
-import java.util.Hashtable;
-import java.util.Map;
 
 import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitmentStoreFactory;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtStripedCommitmentStore;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchReceiver;
+import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtBatchUtil;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCCommitmentMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCDecommitmentMessage;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRBasicCommitPhaseOutput;
@@ -54,7 +57,7 @@ import edu.biu.scapi.securityLevel.SecureCommit;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class CmtSimpleHashReceiver implements CmtReceiver, SecureCommit {
+public class CmtSimpleHashReceiver implements CmtReceiver, CmtBatchReceiver, SecureCommit {
 	
 	/*
 	 * runs the following protocol:
@@ -71,7 +74,7 @@ public class CmtSimpleHashReceiver implements CmtReceiver, SecureCommit {
 	 *		      OUTPUT ACC and value x"	 
 	 */
 	
-	private Map<Long , CmtSimpleHashCommitmentMessage> commitmentMap;
+	private CmtCommitmentStore<CmtSimpleHashCommitmentMessage> commitmentMap;
 	private Channel channel;	
 	private CryptographicHash hash;
 	private int n; //security parameter.
@@ -99,7 +102,7 @@ public class CmtSimpleHashReceiver implements CmtReceiver, SecureCommit {
 		this.channel = channel;
 		this.hash = hash;
 		this.n = n;
-		commitmentMap = new Hashtable<Long, CmtSimpleHashCommitmentMessage>();
+		commitmentMap = new CmtStripedCommitmentStore<CmtSimpleHashCommitmentMessage>();
 		
 		//No pre-process in SimpleHash Commitment
 	}
@@ -123,7 +126,7 @@ public class CmtSimpleHashReceiver implements CmtReceiver, SecureCommit {
 		}
 		
 		CmtSimpleHashCommitmentMessage msg = (CmtSimpleHashCommitmentMessage) message;
-		commitmentMap.put(Long.valueOf(msg.getId()), msg);
+		commitmentMap.put(msg.getId(), msg);
 		return new CmtRBasicCommitPhaseOutput(msg.getId());
 	}
 
@@ -154,12 +157,63 @@ public class CmtSimpleHashReceiver implements CmtReceiver, SecureCommit {
 		}
 		
 		//Fetch received commitment according to ID
-		CmtSimpleHashCommitmentMessage receivedCommitment = commitmentMap.get(Long.valueOf(id));
+		CmtSimpleHashCommitmentMessage receivedCommitment = commitmentMap.get(id);
 				
-		return verifyDecommitment(receivedCommitment, (CmtCDecommitmentMessage)message);
+		CmtCommitValue value = verifyDecommitment(receivedCommitment, (CmtCDecommitmentMessage)message);
+		commitmentMap.decommitted(id);
+		return value;
 		
 	}
 	
+	/**
+	 * Run the commit phase of the protocol on a batch of commitments:
+	 * "WAIT for values c1,...,cn
+	 *	STORE c1,...,cn".
+	 */
+	public CmtRCommitPhaseOutput[] receiveCommitmentBatch() throws ClassNotFoundException, IOException {
+		CmtCCommitmentMsg[] commitments = CmtBatchUtil.receiveCommitments(channel);
+		CmtRCommitPhaseOutput[] outputs = new CmtRCommitPhaseOutput[commitments.length];
+		for (int i = 0; i < commitments.length; i++){
+			if (!(commitments[i] instanceof CmtSimpleHashCommitmentMessage)){
+				throw new IllegalArgumentException("the received message is not an instance of CmtSimpleHashCommitmentMessage");
+			}
+			CmtSimpleHashCommitmentMessage msg = (CmtSimpleHashCommitmentMessage) commitments[i];
+			commitmentMap.put(msg.getId(), msg);
+			outputs[i] = new CmtRBasicCommitPhaseOutput(msg.getId());
+		}
+		return outputs;
+	}
+	
+	/**
+	 * Run the decommit phase of the protocol on a batch of commitments.
+	 * Each decommitment is verified as in the receiveDecommitment function.
+	 */
+	public CmtCommitValue[] receiveDecommitmentBatch(long[] ids) throws ClassNotFoundException, IOException {
+		CmtCDecommitmentMessage[] decommitments = CmtBatchUtil.receiveDecommitments(channel, ids.length);
+		//Fetch received commitments according to the IDs
+		CmtCCommitmentMsg[] commitments = new CmtCCommitmentMsg[ids.length];
+		for (int i = 0; i < ids.length; i++){
+			commitments[i] = commitmentMap.get(ids[i]);
+		}
+		CmtCommitValue[] values = verifyDecommitmentBatch(commitments, decommitments);
+		for (int i = 0; i < ids.length; i++){
+			commitmentMap.decommitted(ids[i]);
+		}
+		return values;
+	}
+	
+	public CmtCommitValue[] verifyDecommitmentBatch(CmtCCommitmentMsg[] commitments, CmtCDecommitmentMessage[] decommitments){
+		//The verification of a value is a single hash computation, so the batch is always computed by the calling thread.
+		return CmtBatchUtil.verifyDecommitments(this, commitments, decommitments, 1);
+	}
+	
+	/**
+	 * Simple Hash commitments compute a single hash per value, which costs less than handing the value to another thread. 
+	 * Therefore, batches are always verified sequentially and this function does nothing.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+	}
+	
 	public CmtCommitValue verifyDecommitment(CmtCCommitmentMsg commitmentMsg, CmtCDecommitmentMessage decommitmentMsg){
 		if (!(decommitmentMsg instanceof CmtSimpleHashDecommitmentMessage)){
 			throw new IllegalArgumentException("the received message is not an instance of CmtSimpleHashDecommitmentMessage");
@@ -189,6 +243,20 @@ public class CmtSimpleHashReceiver implements CmtReceiver, SecureCommit {
 		return null;
 	}
 	
+	/**
+	 * Sets the factory of the store that keeps the commitment state.<p>
+	 * The default store keeps the state of each commitment also after it is decommitted. 
+	 * Long-lived receivers can use a store that removes decommitted commitments, such as the one created by CmtStripedCommitmentStore.factory(true).
+	 * @param factory creates the new store.
+	 * @throws IllegalStateException if there are already stored commitments.
+	 */
+	public void setCommitmentStore(CmtCommitmentStoreFactory factory){
+		if (commitmentMap.size() != 0){
+			throw new IllegalStateException("the commitment store can only be replaced before the first commitment");
+		}
+		commitmentMap = factory.createStore();
+	}
+	
 	/**
 	 * No pre-process is performed for Simple Hash Receiver, therefore this function returns null! 
 	 */
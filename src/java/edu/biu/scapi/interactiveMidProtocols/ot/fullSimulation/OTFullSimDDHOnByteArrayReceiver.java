@@ -155,7 +155,7 @@ public class OTFullSimDDHOnByteArrayReceiver implements OTReceiver, Malicious, S
 		String statisticalParameter = ScapiDefaultConfiguration.getInstance().getProperty("StatisticalParameter");
 		int t = Integer.parseInt(statisticalParameter);	
 		//Creates the underlying ZKPOK. 
-		ZKPOKFromSigmaCmtPedersenProver zkProver = new ZKPOKFromSigmaCmtPedersenProver(channel, new SigmaDHProverComputation(dlog, t, random));
+		ZKPOKFromSigmaCmtPedersenProver zkProver = new ZKPOKFromSigmaCmtPedersenProver(channel, new SigmaDHProverComputation(dlog, t, random), dlog, random);
 		
 		// Some OT protocols have a pre-process stage before the transfer. 
 		// Usually, pre process is done once at the beginning of the protocol and will not be executed later, 
@@ -144,7 +144,7 @@ public class OTFullSimDDHOnByteArraySender implements OTSender, Malicious, Stand
 		int t = Integer.parseInt(statisticalParameter);
 		
 		//Create the underlying ZKPOK
-		ZKPOKFromSigmaCmtPedersenVerifier zkVerifier = new ZKPOKFromSigmaCmtPedersenVerifier(channel, new SigmaDHVerifierComputation(dlog, t, random), random);
+		ZKPOKFromSigmaCmtPedersenVerifier zkVerifier = new ZKPOKFromSigmaCmtPedersenVerifier(channel, new SigmaDHVerifierComputation(dlog, t, random), dlog, random);
 		
 		
 		// Some OT protocols have a pre-process stage before the transfer. 
@@ -142,7 +142,7 @@ public class OTFullSimDDHOnGroupElementSender implements OTSender, Malicious, St
 		int t = Integer.parseInt(statisticalParameter);
 		
 		//Create the underlying ZKPOK
-		ZKPOKFromSigmaCmtPedersenVerifier zkVerifier = new ZKPOKFromSigmaCmtPedersenVerifier(channel, new SigmaDHVerifierComputation(dlog, t, random), random);
+		ZKPOKFromSigmaCmtPedersenVerifier zkVerifier = new ZKPOKFromSigmaCmtPedersenVerifier(channel, new SigmaDHVerifierComputation(dlog, t, random), dlog, random);
 		
 		// Some OT protocols have a pre-process stage before the transfer. 
 		// Usually, pre process is done once at the beginning of the protocol and will not be executed later, 
@@ -0,0 +1,187 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+
+/**
+ * OT receiver that uses random OTs that were generated ahead of time. <P>
+ * 
+ * In the offline phase, the precompute function runs a random OT extension (any OTBatchReceiver that accepts 
+ * OTExtensionRandomRInput, such as OTSemiHonestIKNPExtensionReceiver) with random choice bits c, and appends (c, r_c) to a 
+ * local store file. In the online phase, the transfer function sends d = sigma XOR c for the next stored OTs and 
+ * computes the output from the answer of the sender. See OTExtensionPrecomputedSender for the details.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionPrecomputedReceiver implements OTBatchReceiver{
+	
+	private RandomOTStore store;	//Holds c (one byte) and r_c of each OT, one after the other.
+	private int elementSize;		//In bytes.
+	private int bitLength;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that opens the given store file, or creates it if it does not exist.
+	 * @param storeFile the file that holds the precomputed OTs.
+	 * @param bitLength the size of each element in the OTs, in bits. Must be a multiple of 8.
+	 * @throws IOException if the store file could not be opened.
+	 */
+	public OTExtensionPrecomputedReceiver(File storeFile, int bitLength) throws IOException{
+		this(storeFile, bitLength, new SecureRandom());
+	}
+	
+	/**
+	 * Constructor that opens the given store file, or creates it if it does not exist, and sets the source of randomness.
+	 * @param storeFile the file that holds the precomputed OTs.
+	 * @param bitLength the size of each element in the OTs, in bits. Must be a multiple of 8.
+	 * @param random used to choose the choice bits of the random OTs.
+	 * @throws IOException if the store file could not be opened.
+	 */
+	public OTExtensionPrecomputedReceiver(File storeFile, int bitLength, SecureRandom random) throws IOException{
+		if (bitLength <= 0 || bitLength % 8 != 0){
+			throw new IllegalArgumentException("the bit length should be a positive multiple of 8");
+		}
+		this.bitLength = bitLength;
+		elementSize = bitLength / 8;
+		this.random = random;
+		store = new RandomOTStore(storeFile, 1 + elementSize);
+	}
+	
+	/**
+	 * Generates random OTs with the given OT extension and appends them to the store.<p>
+	 * The sender should call its precompute function with the same number of OTs at the same time.
+	 * @param channel used to communicate with the sender.
+	 * @param extension the OT extension receiver that generates the random OTs.
+	 * @param numOfOts number of OTs to generate.
+	 */
+	public void precompute(Channel channel, OTBatchReceiver extension, long numOfOts) throws IOException, ClassNotFoundException, CheatAttemptException {
+		for (long done = 0; done < numOfOts; done += OTExtensionPrecomputedSender.PRECOMPUTE_CHUNK_SIZE){
+			int size = (int) Math.min(OTExtensionPrecomputedSender.PRECOMPUTE_CHUNK_SIZE, numOfOts - done);
+			byte[] c = new byte[size];
+			for (int j = 0; j < size; j++){
+				c[j] = (byte) random.nextInt(2);
+			}
+			byte[] rc = ((OTOnByteArrayROutput) extension.transfer(channel, new OTExtensionRandomRInput(c, bitLength))).getXSigma();
+			
+			byte[] records = new byte[size * (1 + elementSize)];
+			for (int j = 0; j < size; j++){
+				records[j * (1 + elementSize)] = c[j];
+				System.arraycopy(rc, j * elementSize, records, j * (1 + elementSize) + 1, elementSize);
+			}
+			store.append(records);
+		}
+	}
+	
+	/**
+	 * Returns the number of precomputed OTs that were not used yet.
+	 */
+	public long getNumOfAvailableOts() throws IOException {
+		return store.available();
+	}
+	
+	/**
+	 * Runs the online transfer phase using the next precomputed OTs.<p>
+	 * The version is determined by the given input: OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput.
+	 * The element size must be the size that was given in the constructor.
+	 * @param channel used to communicate with the sender.
+	 * @param input the choice bits of the receiver.
+	 * @return OTOnByteArrayROutput that holds all the received elements, one after the other.
+	 * @throws IllegalStateException if there are not enough precomputed OTs.
+	 * @throws IOException if there was a problem during the communication or with the store file.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public synchronized OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws IOException, ClassNotFoundException {
+		if (!(input instanceof OTExtensionRInput)){
+			throw new IllegalArgumentException("input should be an instance of OTExtensionRInput.");
+		}
+		byte[] sigma = ((OTExtensionRInput) input).getSigmaArr();
+		int numOfOts = sigma.length;
+		if (numOfOts == 0 || ((OTExtensionRInput) input).getElementSize() != bitLength){
+			throw new IllegalArgumentException("the number of OTs should be positive and the element size should be " + bitLength);
+		}
+		for (int j = 0; j < numOfOts; j++){
+			if (sigma[j] != 0 && sigma[j] != 1){
+				throw new IllegalArgumentException("each sigma should be 0 or 1");
+			}
+		}
+		
+		byte[] records = store.take(numOfOts);
+		
+		//SEND d = sigma XOR c and set the output to r_c.
+		byte[] d = new byte[(numOfOts + 7) / 8];
+		byte[] output = new byte[numOfOts * elementSize];
+		for (int j = 0; j < numOfOts; j++){
+			int offset = j * (1 + elementSize);
+			d[j >>> 3] |= (sigma[j] ^ records[offset]) << (j & 7);
+			System.arraycopy(records, offset + 1, output, j * elementSize, elementSize);
+		}
+		channel.send(d);
+		
+		if (input instanceof OTExtensionRandomRInput){
+			return new OTOnByteArrayROutput(output);
+		}
+		
+		boolean general = !(input instanceof OTExtensionCorrelatedRInput);
+		//In the general version y holds y0 and y1 for all the OTs; in the correlated version y holds one element for each OT.
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[]) || ((byte[]) message).length != (general ? 2 : 1) * output.length){
+			throw new IllegalArgumentException("the received message should be a byte array that matches the number of OTs");
+		}
+		byte[] y = (byte[]) message;
+		for (int j = 0; j < numOfOts; j++){
+			int offset;
+			if (general){
+				offset = (sigma[j] == 0 ? 0 : output.length) + j * elementSize;
+			} else if (sigma[j] == 1){
+				offset = j * elementSize;
+			} else {
+				continue;
+			}
+			for (int k = 0; k < elementSize; k++){
+				output[j * elementSize + k] ^= y[offset + k];
+			}
+		}
+		return new OTOnByteArrayROutput(output);
+	}
+	
+	/**
+	 * Closes the store file.
+	 */
+	public void close() throws IOException {
+		store.close();
+	}
+}
@@ -0,0 +1,204 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+
+/**
+ * OT sender that uses random OTs that were generated ahead of time. <P>
+ * 
+ * In the offline phase, the precompute function runs a random OT extension (any OTBatchSender that accepts 
+ * OTExtensionRandomSInput, such as OTSemiHonestIKNPExtensionSender) and appends the random pairs (r0, r1) to a local store file. 
+ * In the online phase, the transfer function derandomizes the next stored OTs into the requested version:<p>
+ * 
+ * The receiver, who holds (c, r_c) for each OT, sends d = sigma XOR c. Then:
+ * <ul>
+ * <li>In the general version, the sender sends y0 = x0 XOR r_d and y1 = x1 XOR r_{1-d}.</li>
+ * <li>In the correlated version, the sender outputs x0 = r_d and x1 = x0 XOR delta and sends y = x1 XOR r_{1-d}.</li>
+ * <li>In the random version, the sender outputs x0 = r_d and x1 = r_{1-d} and sends nothing.</li>
+ * </ul>
+ * So the online cost is one round of communication and a XOR for each OT.<p>
+ * 
+ * The receiver side is OTExtensionPrecomputedReceiver. Both parties must precompute the same numbers of OTs and call transfer 
+ * in the same order, since each call consumes the next OTs of the store. The store holds the secret outputs of the OTs, 
+ * so its file should be protected like a key file.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTExtensionPrecomputedSender implements OTBatchSender{
+	
+	static final int PRECOMPUTE_CHUNK_SIZE = 1 << 16;	//Number of OTs in each call to the underlying OT extension.
+	
+	private RandomOTStore store;	//Holds r0 and r1 of each OT, one after the other.
+	private int elementSize;		//In bytes.
+	private int bitLength;
+	
+	/**
+	 * Constructor that opens the given store file, or creates it if it does not exist.
+	 * @param storeFile the file that holds the precomputed OTs.
+	 * @param bitLength the size of each element in the OTs, in bits. Must be a multiple of 8.
+	 * @throws IOException if the store file could not be opened.
+	 */
+	public OTExtensionPrecomputedSender(File storeFile, int bitLength) throws IOException{
+		if (bitLength <= 0 || bitLength % 8 != 0){
+			throw new IllegalArgumentException("the bit length should be a positive multiple of 8");
+		}
+		this.bitLength = bitLength;
+		elementSize = bitLength / 8;
+		store = new RandomOTStore(storeFile, 2 * elementSize);
+	}
+	
+	/**
+	 * Generates random OTs with the given OT extension and appends them to the store.<p>
+	 * The receiver should call its precompute function with the same number of OTs at the same time.
+	 * @param channel used to communicate with the receiver.
+	 * @param extension the OT extension sender that generates the random OTs.
+	 * @param numOfOts number of OTs to generate.
+	 */
+	public void precompute(Channel channel, OTBatchSender extension, long numOfOts) throws IOException, ClassNotFoundException, CheatAttemptException, InvalidDlogGroupException {
+		for (long done = 0; done < numOfOts; done += PRECOMPUTE_CHUNK_SIZE){
+			int size = (int) Math.min(PRECOMPUTE_CHUNK_SIZE, numOfOts - done);
+			OTExtensionSOutput output = (OTExtensionSOutput) extension.transfer(channel, new OTExtensionRandomSInput(size, bitLength));
+			
+			byte[] records = new byte[size * 2 * elementSize];
+			for (int j = 0; j < size; j++){
+				System.arraycopy(output.getX0Arr(), j * elementSize, records, 2 * j * elementSize, elementSize);
+				System.arraycopy(output.getX1Arr(), j * elementSize, records, (2 * j + 1) * elementSize, elementSize);
+			}
+			store.append(records);
+		}
+	}
+	
+	/**
+	 * Returns the number of precomputed OTs that were not used yet.
+	 */
+	public long getNumOfAvailableOts() throws IOException {
+		return store.available();
+	}
+	
+	/**
+	 * Runs the online transfer phase using the next precomputed OTs.<p>
+	 * The version is determined by the given input: OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput.
+	 * The size of the elements must be the size that was given in the constructor.
+	 * @param channel used to communicate with the receiver.
+	 * @param input the input of the sender.
+	 * @return null in the general version; OTExtensionSOutput containing x0 and x1 in the correlated and random versions.
+	 * @throws IllegalStateException if there are not enough precomputed OTs.
+	 * @throws IOException if there was a problem during the communication or with the store file.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public synchronized OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws IOException, ClassNotFoundException {
+		int numOfOts;
+		byte[] x0 = null;
+		byte[] x1 = null;
+		byte[] delta = null;
+		if (input instanceof OTExtensionGeneralSInput){
+			x0 = ((OTExtensionGeneralSInput) input).getX0Arr();
+			x1 = ((OTExtensionGeneralSInput) input).getX1Arr();
+			numOfOts = ((OTExtensionGeneralSInput) input).getNumOfOts();
+			checkSize(x0.length, numOfOts);
+			checkSize(x1.length, numOfOts);
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			delta = ((OTExtensionCorrelatedSInput) input).getDelta();
+			numOfOts = ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+			checkSize(delta.length, numOfOts);
+		} else if (input instanceof OTExtensionRandomSInput){
+			numOfOts = ((OTExtensionRandomSInput) input).getNumOfOts();
+			if (numOfOts <= 0 || ((OTExtensionRandomSInput) input).getBitLength() != bitLength){
+				throw new IllegalArgumentException("the number of OTs should be positive and the bit length should be " + bitLength);
+			}
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+		}
+		
+		byte[] records = store.take(numOfOts);
+		
+		//WAIT for d = sigma XOR c, one bit for each OT.
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[]) || ((byte[]) message).length != (numOfOts + 7) / 8){
+			throw new IllegalArgumentException("the received message should be a byte array with a bit for each OT");
+		}
+		byte[] d = (byte[]) message;
+		
+		//Set a = r_d and b = r_{1-d} for each OT.
+		byte[] a = new byte[numOfOts * elementSize];
+		byte[] b = new byte[numOfOts * elementSize];
+		for (int j = 0; j < numOfOts; j++){
+			int dj = (d[j >>> 3] >>> (j & 7)) & 1;
+			System.arraycopy(records, (2 * j + dj) * elementSize, a, j * elementSize, elementSize);
+			System.arraycopy(records, (2 * j + 1 - dj) * elementSize, b, j * elementSize, elementSize);
+		}
+		
+		if (x0 != null){
+			//SEND y0 = x0 XOR r_d and y1 = x1 XOR r_{1-d}.
+			byte[] y = new byte[2 * a.length];
+			for (int k = 0; k < a.length; k++){
+				y[k] = (byte) (x0[k] ^ a[k]);
+				y[a.length + k] = (byte) (x1[k] ^ b[k]);
+			}
+			channel.send(y);
+			return null;
+		}
+		
+		if (delta != null){
+			//x1 = x0 XOR delta. SEND y = x1 XOR r_{1-d}.
+			byte[] outX1 = new byte[a.length];
+			for (int k = 0; k < a.length; k++){
+				outX1[k] = (byte) (a[k] ^ delta[k]);
+				b[k] ^= outX1[k];
+			}
+			channel.send(b);
+			return new OTExtensionSOutput(a, outX1);
+		}
+		
+		return new OTExtensionSOutput(a, b);
+	}
+	
+	/**
+	 * Closes the store file.
+	 */
+	public void close() throws IOException {
+		store.close();
+	}
+	
+	/**
+	 * Checks that the given serial array holds numOfOts elements of the size of this sender.
+	 */
+	private void checkSize(int arrayLength, int numOfOts){
+		if (numOfOts <= 0 || arrayLength != numOfOts * elementSize){
+			throw new IllegalArgumentException("the input array should hold numOfOts elements of " + bitLength + " bits");
+		}
+	}
+}
@@ -0,0 +1,56 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Callback of the receiver in the chunked OT extension.<p>
+ * 
+ * The receiver's transferInChunks function splits a large batch of OTs into windows of a fixed number of OTs. 
+ * For each window it asks the handler for the choice bits of the window (OTExtensionGeneralRInput, OTExtensionCorrelatedRInput 
+ * or OTExtensionRandomRInput) and passes the received elements to the handler as soon as they are ready. 
+ * This way only one window is held in memory, and the consumer of the OTs can start working before the batch is completed.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface OTExtensionRChunkHandler {
+	
+	/**
+	 * Returns the input of the receiver for the OTs firstOt,...,firstOt+numOfOts-1 of the batch.
+	 * @param firstOt the index of the first OT of the window in the batch.
+	 * @param numOfOts the number of OTs in the window.
+	 * @return the input of the window. It must hold exactly numOfOts choice bits.
+	 */
+	public OTExtensionRInput getInput(long firstOt, int numOfOts);
+	
+	/**
+	 * Receives the output of the receiver for the OTs firstOt,...,firstOt+numOfOts-1 of the batch.
+	 * @param firstOt the index of the first OT of the window in the batch.
+	 * @param xSigma the received elements of the window, one after the other.
+	 */
+	public void onOutput(long firstOt, ByteBuffer xSigma);
+}
@@ -0,0 +1,246 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchReceiver;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+/**
+ * Abstract class for the receiver of the Java OT extension protocols.<p>
+ * 
+ * The receiver side of the IKNP OT extension is common to the semi-honest and the malicious protocols. 
+ * The concrete classes run the base OTs, in which this receiver plays the sender with random seeds, 
+ * and may add a consistency check of the extension matrix.<p>
+ * 
+ * The state of the protocol (the expansion counter of the base OT seeds and the global index of the OTs) advances 
+ * with each call to transfer, so the calls to transfer should be made in the same order on both sides. 
+ * Concurrent calls are serialized.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTExtensionReceiverAbs implements OTBatchReceiver{
+	
+	/*	
+	  This class runs the following protocol (after the base OTs gave the seeds (k_i^0, k_i^1) for i = 1,...,128 to S):
+		 	Let r be the choice bits (padded with random bits in the malicious protocol)
+			For every i, COMPUTE t_i = G(k_i^0) and u_i = t_i XOR G(k_i^1) XOR r
+			SEND u_1,...,u_128 to S
+			TRANSPOSE the matrix (t_1,...,t_128) to get the rows t_j
+			RUN the consistency check (in the malicious protocol)
+			In the general scenario:
+			*	WAIT for (y_j^0, y_j^1) and OUTPUT x_j = y_j^{r_j} XOR H(j, t_j)
+			In the correlated scenario:
+			*	WAIT for y_j and OUTPUT x_j = H(j, t_j) if r_j = 0, and x_j = y_j XOR H(j, t_j) if r_j = 1
+			In the random scenario:
+			*	OUTPUT x_j = H(j, t_j)
+	 */
+	
+	protected SecureRandom random;
+	private BcAES[] prgs0;				//AES keyed with the seeds k_i^0.
+	private BcAES[] prgs1;				//AES keyed with the seeds k_i^1.
+	private BcAES fixedKeyAES;			//Used in the correlation robust hash.
+	private long blockCounter;			//The AES counter of the next expansion of the seeds.
+	private long otCounter;				//The global index of the next OT, used as the tweak of the hash.
+	
+	/**
+	 * Constructor that sets the source of randomness.
+	 */
+	OTExtensionReceiverAbs(SecureRandom random){
+		this.random = random;
+		fixedKeyAES = OTExtensionUtil.createFixedKeyAES();
+	}
+	
+	/**
+	 * Chooses the random seeds (k_i^0, k_i^1) that are used as the inputs of the base OTs.
+	 * @return array of two arrays: the 128 seeds k_i^0 and the 128 seeds k_i^1.
+	 */
+	protected byte[][][] chooseBaseSeeds(){
+		byte[][][] seeds = new byte[2][OTExtensionUtil.KAPPA][OTExtensionUtil.SEED_SIZE];
+		prgs0 = new BcAES[OTExtensionUtil.KAPPA];
+		prgs1 = new BcAES[OTExtensionUtil.KAPPA];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			random.nextBytes(seeds[0][i]);
+			random.nextBytes(seeds[1][i]);
+			prgs0[i] = OTExtensionUtil.createAES(seeds[0][i]);
+			prgs1[i] = OTExtensionUtil.createAES(seeds[1][i]);
+		}
+		return seeds;
+	}
+	
+	/**
+	 * Returns the number of additional OTs that are added to each extension for the consistency check.
+	 */
+	protected abstract int getNumOfExtraOts();
+	
+	/**
+	 * Proves to the sender that the extension matrix was built consistently.
+	 * @param channel used to communicate with the sender.
+	 * @param tRows the rows of the matrix T, two longs for each row.
+	 * @param choices the choice bits r, including the additional OTs.
+	 * @param numOfRows number of rows in the matrix.
+	 */
+	protected abstract void proveConsistency(Channel channel, long[] tRows, long[] choices, int numOfRows) throws CheatAttemptException, IOException, ClassNotFoundException;
+	
+	/**
+	 * Runs the transfer phase of the OT extension protocol.<p>
+	 * The version of the OT extension is determined by the given input: 
+	 * OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput.
+	 * @param channel used to communicate with the sender.
+	 * @param input the choice bits of the receiver (a byte of 0 or 1 for each OT) and the size in bits of each element.
+	 * @return OTOnByteArrayROutput that holds all the received elements, one after the other.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public synchronized OTBatchROutput transfer(Channel channel, OTBatchRInput input) throws CheatAttemptException, IOException, ClassNotFoundException {
+		if (!(input instanceof OTExtensionRInput)){
+			throw new IllegalArgumentException("input should be an instance of OTExtensionRInput.");
+		}
+		byte[] sigma = ((OTExtensionRInput) input).getSigmaArr();
+		int bitLength = ((OTExtensionRInput) input).getElementSize();
+		int numOfOts = sigma.length;
+		if (numOfOts == 0 || bitLength <= 0 || bitLength % 8 != 0){
+			throw new IllegalArgumentException("the number of OTs should be positive and the element size should be a positive multiple of 8");
+		}
+		int elementSize = bitLength / 8;
+		
+		int numOfRows = OTExtensionUtil.getNumOfRows(numOfOts + getNumOfExtraOts());
+		
+		//The choice bits r. The bits after the real OTs are random.
+		long[] r = new long[numOfRows / 64];
+		for (int k = 0; k < r.length; k++){
+			r[k] = random.nextLong();
+		}
+		for (int j = 0; j < numOfOts; j++){
+			if (sigma[j] != 0 && sigma[j] != 1){
+				throw new IllegalArgumentException("each sigma should be 0 or 1");
+			}
+			r[j >>> 6] = (r[j >>> 6] & ~(1L << (j & 63))) | ((long) sigma[j] << (j & 63));
+		}
+		
+		//COMPUTE t_i = G(k_i^0) and u_i = t_i XOR G(k_i^1) XOR r.
+		long[][] t = new long[OTExtensionUtil.KAPPA][numOfRows / 64];
+		long[][] u = new long[OTExtensionUtil.KAPPA][numOfRows / 64];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			OTExtensionUtil.expand(prgs0[i], blockCounter, t[i]);
+			OTExtensionUtil.expand(prgs1[i], blockCounter, u[i]);
+			for (int k = 0; k < r.length; k++){
+				u[i][k] ^= t[i][k] ^ r[k];
+			}
+		}
+		blockCounter += numOfRows / 128;
+		
+		//SEND u_1,...,u_128 to S.
+		channel.send(u);
+		
+		long[] rows = OTExtensionUtil.transpose(t, numOfRows);
+		proveConsistency(channel, rows, r, numOfRows);
+		
+		long tweak = otCounter;
+		otCounter += numOfRows;
+		byte[] buffer = new byte[32];
+		
+		//x_j = H(j, t_j).
+		byte[] output = new byte[numOfOts * elementSize];
+		for (int j = 0; j < numOfOts; j++){
+			OTExtensionUtil.hash(fixedKeyAES, rows[2 * j], rows[2 * j + 1], tweak + j, output, j * elementSize, elementSize, buffer);
+		}
+		
+		if (input instanceof OTExtensionRandomRInput){
+			return new OTOnByteArrayROutput(output);
+		}
+		
+		boolean general = !(input instanceof OTExtensionCorrelatedRInput);
+		//In the general scenario y holds y^0 and y^1 for all the OTs; in the correlated scenario y holds one element for each OT.
+		byte[] y = receiveMasks(channel, (general ? 2 : 1) * numOfOts * elementSize);
+		for (int j = 0; j < numOfOts; j++){
+			int offset;
+			if (general){
+				offset = (sigma[j] == 0 ? 0 : numOfOts * elementSize) + j * elementSize;
+			} else if (sigma[j] == 1){
+				offset = j * elementSize;
+			} else {
+				continue;
+			}
+			for (int k = 0; k < elementSize; k++){
+				output[j * elementSize + k] ^= y[offset + k];
+			}
+		}
+		return new OTOnByteArrayROutput(output);
+	}
+	
+	/**
+	 * Runs the transfer phase of the OT extension on a large batch of OTs, in windows of chunkSize OTs.<p>
+	 * The base OTs are shared by all the windows. For each window, the choice bits are taken from the given handler and the 
+	 * received elements are passed to it before the next window starts, so the memory in use is bounded by the size of one window. 
+	 * The sender should call its transferInChunks function with the same number of OTs and chunk size.
+	 * @param channel used to communicate with the sender.
+	 * @param numOfOts the total number of OTs in the batch.
+	 * @param chunkSize the number of OTs in each window. The last window may be smaller.
+	 * @param handler provides the choice bits of each window and consumes the received elements.
+	 * @throws CheatAttemptException if the sender cheated in the consistency check (in the malicious protocol).
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public synchronized void transferInChunks(Channel channel, long numOfOts, int chunkSize, OTExtensionRChunkHandler handler) throws CheatAttemptException, IOException, ClassNotFoundException {
+		if (numOfOts <= 0 || chunkSize <= 0){
+			throw new IllegalArgumentException("the number of OTs and the chunk size should be positive");
+		}
+		for (long firstOt = 0; firstOt < numOfOts; firstOt += chunkSize){
+			int size = (int) Math.min(chunkSize, numOfOts - firstOt);
+			OTExtensionRInput input = handler.getInput(firstOt, size);
+			if (input.getSigmaArr().length != size){
+				throw new IllegalArgumentException("the input of the chunk should hold " + size + " choice bits");
+			}
+			OTOnByteArrayROutput output = (OTOnByteArrayROutput) transfer(channel, input);
+			handler.onOutput(firstOt, ByteBuffer.wrap(output.getXSigma()));
+		}
+	}
+	
+	/**
+	 * Receives the masked elements from the sender and checks their size.
+	 */
+	private byte[] receiveMasks(Channel channel, int size) throws ClassNotFoundException, IOException {
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[])){
+			throw new IllegalArgumentException("The received message should be an instance of byte[]");
+		}
+		byte[] y = (byte[]) message;
+		if (y.length != size){
+			throw new IllegalArgumentException("the size of the received message does not match the number of OTs");
+		}
+		return y;
+	}
+}
@@ -0,0 +1,61 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.nio.ByteBuffer;
+
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+
+/**
+ * Callback of the sender in the chunked OT extension.<p>
+ * 
+ * The sender's transferInChunks function splits a large batch of OTs into windows of a fixed number of OTs. 
+ * For each window it asks the handler for the input of the window (OTExtensionGeneralSInput, OTExtensionCorrelatedSInput 
+ * or OTExtensionRandomSInput) and passes the output of the window to the handler as soon as it is ready. 
+ * This way only one window is held in memory, and the consumer of the OTs can start working before the batch is completed.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface OTExtensionSChunkHandler {
+	
+	/**
+	 * Returns the input of the sender for the OTs firstOt,...,firstOt+numOfOts-1 of the batch.
+	 * @param firstOt the index of the first OT of the window in the batch.
+	 * @param numOfOts the number of OTs in the window.
+	 * @return the input of the window. It must hold exactly numOfOts OTs.
+	 */
+	public OTBatchSInput getInput(long firstOt, int numOfOts);
+	
+	/**
+	 * Receives the output of the sender for the OTs firstOt,...,firstOt+numOfOts-1 of the batch.<p>
+	 * In the general version the sender has no output and this function is called with null buffers 
+	 * after the masked inputs of the window were sent.
+	 * @param firstOt the index of the first OT of the window in the batch.
+	 * @param x0 the elements x0 of the window, one after the other.
+	 * @param x1 the elements x1 of the window, one after the other.
+	 */
+	public void onOutput(long firstOt, ByteBuffer x0, ByteBuffer x1);
+}
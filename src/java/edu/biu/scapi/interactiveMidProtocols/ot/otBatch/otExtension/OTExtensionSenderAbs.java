@@ -0,0 +1,318 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+
+/**
+ * Abstract class for the sender of the Java OT extension protocols.<p>
+ * 
+ * The sender side of the IKNP OT extension is common to the semi-honest and the malicious protocols. 
+ * The concrete classes run the base OTs, in which this sender plays the receiver with a random choice vector s, 
+ * and may add a consistency check of the extension matrix.<p>
+ * 
+ * The state of the protocol (the expansion counter of the base OT seeds and the global index of the OTs) advances 
+ * with each call to transfer, so the calls to transfer should be made in the same order on both sides. 
+ * Concurrent calls are serialized.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+abstract class OTExtensionSenderAbs implements OTBatchSender{
+	
+	/*	
+	  This class runs the following protocol (after the base OTs gave k_i^{s_i} for i = 1,...,128):
+		 	WAIT for the matrix columns u_1,...,u_128 from R
+			For every i, COMPUTE q_i = G(k_i^{s_i}) XOR s_i*u_i
+			TRANSPOSE the matrix (q_1,...,q_128) to get the rows q_j. It holds that q_j = t_j XOR r_j*s
+			RUN the consistency check (in the malicious protocol)
+			In the general scenario:
+			*	SEND y_j^0 = x_j^0 XOR H(j, q_j) and y_j^1 = x_j^1 XOR H(j, q_j XOR s)
+			In the correlated scenario:
+			*	OUTPUT x_j^0 = H(j, q_j) and x_j^1 = x_j^0 XOR delta_j
+			*	SEND y_j = x_j^1 XOR H(j, q_j XOR s)
+			In the random scenario:
+			*	OUTPUT x_j^0 = H(j, q_j) and x_j^1 = H(j, q_j XOR s)
+	 */
+	
+	protected SecureRandom random;
+	private long s0, s1;				//The choice vector s of the base OTs.
+	private BcAES[] prgs;				//AES keyed with the seeds k_i^{s_i} that were received in the base OTs.
+	private BcAES fixedKeyAES;			//Used in the correlation robust hash.
+	private long blockCounter;			//The AES counter of the next expansion of the seeds.
+	private long otCounter;				//The global index of the next OT, used as the tweak of the hash.
+	
+	/**
+	 * Constructor that sets the source of randomness.
+	 */
+	OTExtensionSenderAbs(SecureRandom random){
+		this.random = random;
+		fixedKeyAES = OTExtensionUtil.createFixedKeyAES();
+	}
+	
+	/**
+	 * Chooses the random vector s that is used as the choice bits of the base OTs.
+	 * @return the choice bits, one byte for each base OT.
+	 */
+	protected byte[] chooseBaseChoices(){
+		s0 = random.nextLong();
+		s1 = random.nextLong();
+		byte[] choices = new byte[OTExtensionUtil.KAPPA];
+		for (int i = 0; i < choices.length; i++){
+			choices[i] = (byte) (((i < 64 ? s0 : s1) >>> (i & 63)) & 1);
+		}
+		return choices;
+	}
+	
+	/**
+	 * Sets the seeds k_i^{s_i} that were received in the base OTs.
+	 * @param seeds 128 seeds of 16 bytes.
+	 */
+	protected void setBaseSeeds(byte[][] seeds){
+		if (seeds.length != OTExtensionUtil.KAPPA){
+			throw new IllegalArgumentException("there should be " + OTExtensionUtil.KAPPA + " base OT seeds");
+		}
+		prgs = new BcAES[seeds.length];
+		for (int i = 0; i < seeds.length; i++){
+			prgs[i] = OTExtensionUtil.createAES(seeds[i]);
+		}
+	}
+	
+	/**
+	 * Returns the number of additional OTs that are added to each extension for the consistency check.
+	 */
+	protected abstract int getNumOfExtraOts();
+	
+	/**
+	 * Checks that the receiver built the extension matrix consistently.
+	 * @param channel used to communicate with the receiver.
+	 * @param qRows the rows of the matrix Q, two longs for each row.
+	 * @param numOfRows number of rows in the matrix.
+	 * @param s0 first half of the choice vector s.
+	 * @param s1 second half of the choice vector s.
+	 * @throws CheatAttemptException if the check failed.
+	 */
+	protected abstract void checkConsistency(Channel channel, long[] qRows, int numOfRows, long s0, long s1) throws CheatAttemptException, IOException, ClassNotFoundException;
+	
+	/**
+	 * Runs the transfer phase of the OT extension protocol.<p>
+	 * The version of the OT extension is determined by the given input: 
+	 * OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput.
+	 * @param channel used to communicate with the receiver.
+	 * @param input the input of the sender.
+	 * @return null in the general version; OTExtensionSOutput containing x0 and x1 in the correlated and random versions.
+	 * @throws CheatAttemptException if the receiver did not build the extension matrix consistently (in the malicious protocol).
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public synchronized OTBatchSOutput transfer(Channel channel, OTBatchSInput input) throws IOException, ClassNotFoundException, CheatAttemptException {
+		
+		int numOfOts;
+		int elementSize;	//In bytes.
+		byte[] x0 = null;
+		byte[] x1 = null;
+		byte[] delta = null;
+		
+		if (input instanceof OTExtensionGeneralSInput){
+			x0 = ((OTExtensionGeneralSInput) input).getX0Arr();
+			x1 = ((OTExtensionGeneralSInput) input).getX1Arr();
+			numOfOts = ((OTExtensionGeneralSInput) input).getNumOfOts();
+			if (x0.length != x1.length){
+				throw new IllegalArgumentException("x0 and x1 should be of the same length.");
+			}
+			elementSize = getElementSize(x0.length, numOfOts);
+		} else if (input instanceof OTExtensionCorrelatedSInput){
+			delta = ((OTExtensionCorrelatedSInput) input).getDelta();
+			numOfOts = ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+			elementSize = getElementSize(delta.length, numOfOts);
+		} else if (input instanceof OTExtensionRandomSInput){
+			numOfOts = ((OTExtensionRandomSInput) input).getNumOfOts();
+			int bitLength = ((OTExtensionRandomSInput) input).getBitLength();
+			if (numOfOts <= 0 || bitLength <= 0 || bitLength % 8 != 0){
+				throw new IllegalArgumentException("the number of OTs should be positive and the bit length should be a positive multiple of 8");
+			}
+			elementSize = bitLength / 8;
+		} else {
+			throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+		}
+		
+		int numOfRows = OTExtensionUtil.getNumOfRows(numOfOts + getNumOfExtraOts());
+		
+		//WAIT for the matrix columns u_1,...,u_128 from R.
+		long[][] u = receiveColumns(channel, numOfRows);
+		
+		//COMPUTE q_i = G(k_i^{s_i}) XOR s_i*u_i.
+		long[][] q = new long[OTExtensionUtil.KAPPA][numOfRows / 64];
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			OTExtensionUtil.expand(prgs[i], blockCounter, q[i]);
+			if ((((i < 64 ? s0 : s1) >>> (i & 63)) & 1) != 0){
+				for (int k = 0; k < q[i].length; k++){
+					q[i][k] ^= u[i][k];
+				}
+			}
+		}
+		blockCounter += numOfRows / 128;
+		
+		long[] rows = OTExtensionUtil.transpose(q, numOfRows);
+		checkConsistency(channel, rows, numOfRows, s0, s1);
+		
+		long tweak = otCounter;
+		otCounter += numOfRows;
+		byte[] buffer = new byte[32];
+		
+		if (x0 != null){
+			//SEND y_j^0 = x_j^0 XOR H(j, q_j) and y_j^1 = x_j^1 XOR H(j, q_j XOR s).
+			byte[] y = new byte[2 * numOfOts * elementSize];
+			int y1Offset = numOfOts * elementSize;
+			for (int j = 0; j < numOfOts; j++){
+				long q0 = rows[2 * j];
+				long q1 = rows[2 * j + 1];
+				OTExtensionUtil.hash(fixedKeyAES, q0, q1, tweak + j, y, j * elementSize, elementSize, buffer);
+				OTExtensionUtil.hash(fixedKeyAES, q0 ^ s0, q1 ^ s1, tweak + j, y, y1Offset + j * elementSize, elementSize, buffer);
+			}
+			for (int k = 0; k < y1Offset; k++){
+				y[k] ^= x0[k];
+				y[y1Offset + k] ^= x1[k];
+			}
+			channel.send(y);
+			
+			//This version has no output.
+			return null;
+		}
+		
+		//In the correlated and random versions x_j^0 = H(j, q_j).
+		byte[] outX0 = new byte[numOfOts * elementSize];
+		byte[] outX1 = new byte[numOfOts * elementSize];
+		for (int j = 0; j < numOfOts; j++){
+			long q0 = rows[2 * j];
+			long q1 = rows[2 * j + 1];
+			OTExtensionUtil.hash(fixedKeyAES, q0, q1, tweak + j, outX0, j * elementSize, elementSize, buffer);
+			OTExtensionUtil.hash(fixedKeyAES, q0 ^ s0, q1 ^ s1, tweak + j, outX1, j * elementSize, elementSize, buffer);
+		}
+		
+		if (delta != null){
+			//x_j^1 = x_j^0 XOR delta_j. SEND y_j = x_j^1 XOR H(j, q_j XOR s), where outX1 currently holds H(j, q_j XOR s).
+			byte[] y = outX1;
+			outX1 = new byte[outX0.length];
+			for (int k = 0; k < outX0.length; k++){
+				outX1[k] = (byte) (outX0[k] ^ delta[k]);
+				y[k] ^= outX1[k];
+			}
+			channel.send(y);
+		}
+		
+		return new OTExtensionSOutput(outX0, outX1);
+	}
+	
+	/**
+	 * Runs the transfer phase of the OT extension on a large batch of OTs, in windows of chunkSize OTs.<p>
+	 * The base OTs are shared by all the windows. For each window, the input is taken from the given handler and the 
+	 * output is passed to it before the next window starts, so the memory in use is bounded by the size of one window. 
+	 * The receiver should call its transferInChunks function with the same number of OTs and chunk size.<p>
+	 * Each window is a separate extension, so very small windows waste bandwidth (and in the malicious protocol, 
+	 * a consistency check for each window). Windows of tens of thousands of OTs are a good choice.
+	 * @param channel used to communicate with the receiver.
+	 * @param numOfOts the total number of OTs in the batch.
+	 * @param chunkSize the number of OTs in each window. The last window may be smaller.
+	 * @param handler provides the input of each window and consumes its output.
+	 * @throws CheatAttemptException if the receiver did not build the extension matrix consistently (in the malicious protocol).
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public synchronized void transferInChunks(Channel channel, long numOfOts, int chunkSize, OTExtensionSChunkHandler handler) throws IOException, ClassNotFoundException, CheatAttemptException {
+		if (numOfOts <= 0 || chunkSize <= 0){
+			throw new IllegalArgumentException("the number of OTs and the chunk size should be positive");
+		}
+		for (long firstOt = 0; firstOt < numOfOts; firstOt += chunkSize){
+			int size = (int) Math.min(chunkSize, numOfOts - firstOt);
+			OTBatchSInput input = handler.getInput(firstOt, size);
+			if (getNumOfOts(input) != size){
+				throw new IllegalArgumentException("the input of the chunk should hold " + size + " OTs");
+			}
+			OTExtensionSOutput output = (OTExtensionSOutput) transfer(channel, input);
+			if (output == null){
+				handler.onOutput(firstOt, null, null);
+			} else {
+				handler.onOutput(firstOt, ByteBuffer.wrap(output.getX0Arr()), ByteBuffer.wrap(output.getX1Arr()));
+			}
+		}
+	}
+	
+	/**
+	 * Returns the number of OTs of the given input.
+	 */
+	private int getNumOfOts(OTBatchSInput input){
+		if (input instanceof OTExtensionGeneralSInput){
+			return ((OTExtensionGeneralSInput) input).getNumOfOts();
+		}
+		if (input instanceof OTExtensionCorrelatedSInput){
+			return ((OTExtensionCorrelatedSInput) input).getNumOfOts();
+		}
+		if (input instanceof OTExtensionRandomSInput){
+			return ((OTExtensionRandomSInput) input).getNumOfOts();
+		}
+		throw new IllegalArgumentException("input should be an instance of OTExtensionGeneralSInput or OTExtensionCorrelatedSInput or OTExtensionRandomSInput.");
+	}
+	
+	/**
+	 * Returns the size in bytes of each element of the given serial array.
+	 */
+	private int getElementSize(int arrayLength, int numOfOts){
+		if (numOfOts <= 0 || arrayLength == 0 || arrayLength % numOfOts != 0){
+			throw new IllegalArgumentException("the input array should hold numOfOts elements of the same non zero length");
+		}
+		return arrayLength / numOfOts;
+	}
+	
+	/**
+	 * Receives the columns u_i from the receiver and checks their size.
+	 */
+	private long[][] receiveColumns(Channel channel, int numOfRows) throws ClassNotFoundException, IOException, CheatAttemptException {
+		Serializable message = channel.receive();
+		if (!(message instanceof long[][])){
+			throw new IllegalArgumentException("The received message should be an instance of long[][]");
+		}
+		long[][] u = (long[][]) message;
+		if (u.length != OTExtensionUtil.KAPPA){
+			throw new CheatAttemptException("the receiver should send " + OTExtensionUtil.KAPPA + " columns");
+		}
+		for (int i = 0; i < u.length; i++){
+			if (u[i] == null || u[i].length != numOfRows / 64){
+				throw new CheatAttemptException("the size of the columns does not match the number of OTs");
+			}
+		}
+		return u;
+	}
+}
@@ -0,0 +1,321 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.security.InvalidKeyException;
+
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+import edu.biu.scapi.tools.Factories.KdfFactory;
+
+/**
+ * Utility functions of the Java OT extension protocols.<p>
+ * 
+ * The OT extension matrices have KAPPA = 128 columns. A column of m bits is kept in a long array, 
+ * where bit j of the column is bit (j % 64) of the long at index j / 64. 
+ * A row of 128 bits is kept in two longs; the rows of a matrix are kept one after the other in one long array.<p>
+ * 
+ * The pseudorandom expansion of the base OT seeds is done with AES in counter mode and the correlation robust hash 
+ * is built from AES with a fixed public key, as suggested in "G. Asharov, Y. Lindell, T. Schneider and M. Zohner. 
+ * More Efficient Oblivious Transfer and Extensions for Faster Secure Computation. ACM CCS 2013".
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+final class OTExtensionUtil {
+	
+	static final int KAPPA = 128;		//Number of base OTs and the security parameter.
+	static final int SEED_SIZE = 16;	//Size in bytes of the seeds of the base OTs.
+	
+	//The public key of the fixed-key AES hash. Both parties use the same key.
+	private static final byte[] FIXED_KEY = {0x53, 0x43, 0x41, 0x50, 0x49, 0x2d, 0x4f, 0x54, 0x45, 0x58, 0x54, 0x2d, 0x41, 0x45, 0x53, 0x21};
+	
+	private OTExtensionUtil(){}
+	
+	/**
+	 * Returns the default DDH secure DlogGroup of the base OTs, as written in the SCAPI configuration file.
+	 */
+	static DlogGroup getDefaultDlog(){
+		String dlogName = ScapiDefaultConfiguration.getInstance().getProperty("DDHDlogGroup");
+		try {
+			return DlogGroupFactory.getInstance().getSharedObject(dlogName);
+		} catch (FactoriesException e) {
+			// Should not occur since the dlog name in the configuration file is valid.
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Returns the default KDF of the base OTs.
+	 */
+	static KeyDerivationFunction getDefaultKdf(){
+		try {
+			return KdfFactory.getInstance().getObject("HKDF(HMac(SHA-256))");
+		} catch (FactoriesException e) {
+			// Should not occur since the KDF name is valid.
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Creates an AES object keyed with the given 128 bits key.
+	 */
+	static BcAES createAES(byte[] key){
+		BcAES aes = new BcAES();
+		try {
+			aes.setKey(new SecretKeySpec(key, "AES"));
+		} catch (InvalidKeyException e) {
+			// Should not occur since the key is 128 bits long.
+			throw new IllegalArgumentException(e.getMessage());
+		}
+		return aes;
+	}
+	
+	/**
+	 * Creates the AES object of the fixed-key hash.
+	 */
+	static BcAES createFixedKeyAES(){
+		return createAES(FIXED_KEY);
+	}
+	
+	/**
+	 * Returns the number of rows of the extension matrix for the given number of OTs, 
+	 * which is rounded up to a multiple of 128 so that the columns are made of whole AES blocks.
+	 */
+	static int getNumOfRows(int numOfOts){
+		return (numOfOts + KAPPA - 1) / KAPPA * KAPPA;
+	}
+	
+	/**
+	 * Fills the given column with the output of AES in counter mode, starting from the given block counter.
+	 * @param prg AES keyed with the seed of the column.
+	 * @param blockCounter the index of the first block to use.
+	 * @param column the array to fill. Its length must be even.
+	 */
+	static void expand(BcAES prg, long blockCounter, long[] column){
+		byte[] counter = new byte[16];
+		byte[] block = new byte[16];
+		for (int i = 0; i < column.length; i += 2){
+			longToBytes(blockCounter + i / 2, counter, 0);
+			prg.computeBlock(counter, 0, block, 0);
+			column[i] = bytesToLong(block, 0);
+			column[i + 1] = bytesToLong(block, 8);
+		}
+	}
+	
+	/**
+	 * Transposes the given matrix of 128 columns.
+	 * @param columns 128 columns, each of numOfRows bits.
+	 * @param numOfRows the number of rows. Must be a multiple of 64.
+	 * @return the rows of the matrix, two longs for each row.
+	 */
+	static long[] transpose(long[][] columns, int numOfRows){
+		long[] rows = new long[2 * numOfRows];
+		long[] block = new long[64];
+		int numOfBlocks = numOfRows / 64;
+		
+		//Transposes each 64x64 sub matrix in place.
+		for (int c = 0; c < KAPPA / 64; c++){
+			for (int b = 0; b < numOfBlocks; b++){
+				for (int k = 0; k < 64; k++){
+					block[k] = columns[c * 64 + k][b];
+				}
+				transpose64(block);
+				for (int r = 0; r < 64; r++){
+					rows[2 * (b * 64 + r) + c] = block[r];
+				}
+			}
+		}
+		return rows;
+	}
+	
+	/**
+	 * Transposes a 64x64 bit matrix in place, such that bit i of a[k] is switched with bit k of a[i].
+	 */
+	static void transpose64(long[] a){
+		long mask = 0x00000000FFFFFFFFL;
+		for (int j = 32; j != 0; j >>>= 1, mask ^= (mask << j)){
+			for (int k = 0; k < 64; k = ((k | j) + 1) & ~j){
+				long t = ((a[k] >>> j) ^ a[k | j]) & mask;
+				a[k] ^= t << j;
+				a[k | j] ^= t;
+			}
+		}
+	}
+	
+	/**
+	 * Computes the correlation robust hash H(tweak, q) and puts len bytes of it in the output array.<p>
+	 * Each output block i is computed as AES(x) XOR x, where x = q XOR (tweak, i) and AES uses a fixed public key.
+	 * @param fixedKeyAES the AES of the fixed key.
+	 * @param q0 first half of the hashed row.
+	 * @param q1 second half of the hashed row.
+	 * @param tweak the global index of the OT.
+	 * @param out output array.
+	 * @param outOff the offset in the output array.
+	 * @param len number of output bytes.
+	 * @param buffer a buffer of 32 bytes.
+	 */
+	static void hash(BcAES fixedKeyAES, long q0, long q1, long tweak, byte[] out, int outOff, int len, byte[] buffer){
+		for (int i = 0; i * 16 < len; i++){
+			long x0 = q0 ^ tweak;
+			long x1 = q1 ^ i;
+			longToBytes(x0, buffer, 0);
+			longToBytes(x1, buffer, 8);
+			fixedKeyAES.computeBlock(buffer, 0, buffer, 16);
+			longToBytes(bytesToLong(buffer, 16) ^ x0, buffer, 16);
+			longToBytes(bytesToLong(buffer, 24) ^ x1, buffer, 24);
+			int toCopy = Math.min(16, len - i * 16);
+			System.arraycopy(buffer, 16, out, outOff + i * 16, toCopy);
+		}
+	}
+	
+	/**
+	 * Multiplies the given elements of GF(2^128) without reduction and XORs the 256 bits result into acc.
+	 * Bit i of a0 (a1) is the coefficient of x^i (x^(64+i)).
+	 * @param acc four longs that accumulate the unreduced products.
+	 */
+	static void gfMultiplyAdd(long a0, long a1, long b0, long b1, long[] acc){
+		long[] product = new long[2];
+		clmul(a0, b0, product);
+		acc[0] ^= product[0];
+		acc[1] ^= product[1];
+		clmul(a1, b1, product);
+		acc[2] ^= product[0];
+		acc[3] ^= product[1];
+		clmul(a0, b1, product);
+		acc[1] ^= product[0];
+		acc[2] ^= product[1];
+		clmul(a1, b0, product);
+		acc[1] ^= product[0];
+		acc[2] ^= product[1];
+	}
+	
+	/**
+	 * Computes the sum of chi_j * row_j over all the rows of the matrix, in GF(2^128).
+	 * @param chi the challenges, two longs for each row.
+	 * @param rows the rows of the matrix, two longs for each row.
+	 * @param numOfRows number of rows in the matrix.
+	 * @return the reduced sum as two longs.
+	 */
+	static long[] sumOfProducts(long[] chi, long[] rows, int numOfRows){
+		long[] acc = new long[4];
+		for (int j = 0; j < numOfRows; j++){
+			gfMultiplyAdd(chi[2 * j], chi[2 * j + 1], rows[2 * j], rows[2 * j + 1], acc);
+		}
+		return gfReduce(acc);
+	}
+	
+	/**
+	 * Expands the given seed of the consistency check into a challenge chi_j in GF(2^128) for each row of the matrix.
+	 * @param seed 16 bytes seed that was agreed by both parties.
+	 * @param numOfRows number of rows in the matrix.
+	 * @return the challenges, two longs for each row.
+	 */
+	static long[] expandChallenges(byte[] seed, int numOfRows){
+		long[] chi = new long[2 * numOfRows];
+		expand(createAES(seed), 0, chi);
+		return chi;
+	}
+	
+	/**
+	 * Returns the SHA-256 commitment of the given seed and randomness that is used in the coin tossing of the consistency check.
+	 */
+	static byte[] commit(byte[] opening){
+		BcSHA256 hash = new BcSHA256();
+		hash.update(opening, 0, opening.length);
+		byte[] out = new byte[hash.getHashedMsgSize()];
+		hash.hashFinal(out, 0);
+		return out;
+	}
+	
+	/**
+	 * Reduces the given 256 bits value modulo the GF(2^128) polynomial x^128 + x^7 + x^2 + x + 1.
+	 * @return the reduced element as two longs.
+	 */
+	static long[] gfReduce(long[] c){
+		long h0 = c[2];
+		long h1 = c[3];
+		//x^128 = x^7 + x^2 + x + 1, so the high half is multiplied by this polynomial and added to the low half.
+		long l0 = h0 ^ (h0 << 1) ^ (h0 << 2) ^ (h0 << 7);
+		long l1 = h1 ^ ((h1 << 1) | (h0 >>> 63)) ^ ((h1 << 2) | (h0 >>> 62)) ^ ((h1 << 7) | (h0 >>> 57));
+		//The bits that passed x^128 in the previous multiplication.
+		long overflow = (h1 >>> 63) ^ (h1 >>> 62) ^ (h1 >>> 57);
+		l0 ^= overflow ^ (overflow << 1) ^ (overflow << 2) ^ (overflow << 7);
+		return new long[]{c[0] ^ l0, c[1] ^ l1};
+	}
+	
+	/**
+	 * Carry-less multiplication of two 64 bits polynomials.
+	 * @param result two longs that hold the low and high halves of the product.
+	 */
+	private static void clmul(long a, long b, long[] result){
+		long low = 0;
+		long high = 0;
+		for (int i = 0; i < 64; i++){
+			if (((b >>> i) & 1) != 0){
+				low ^= a << i;
+				if (i > 0){
+					high ^= a >>> (64 - i);
+				}
+			}
+		}
+		result[0] = low;
+		result[1] = high;
+	}
+	
+	/**
+	 * Returns bit j of the given bit vector.
+	 */
+	static int getBit(long[] bits, int j){
+		return (int) ((bits[j >>> 6] >>> (j & 63)) & 1);
+	}
+	
+	/**
+	 * Puts the given long in the array in little endian order.
+	 */
+	static void longToBytes(long value, byte[] out, int offset){
+		for (int i = 0; i < 8; i++){
+			out[offset + i] = (byte) (value >>> (8 * i));
+		}
+	}
+	
+	/**
+	 * Reads a long from the array in little endian order.
+	 */
+	static long bytesToLong(byte[] in, int offset){
+		long value = 0;
+		for (int i = 7; i >= 0; i--){
+			value = (value << 8) | (in[offset + i] & 0xFF);
+		}
+		return value;
+	}
+}
@@ -0,0 +1,160 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+import java.util.Arrays;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArraySInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimDDHOnByteArraySender;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.securityLevel.Malicious;
+
+/**
+ * A concrete class for Malicious OT extension receiver, written in pure Java. <P>
+ * 
+ * This class implements the KOS OT extension over SCAPI Channels, without the native OT extension library. 
+ * The 128 base OTs are executed once, in the constructor, using the fully simulatable DDH OT. 
+ * Each call to transfer extends them like the semi-honest IKNP protocol, and then proves to the sender that 
+ * the same choice bits were used in all the columns of the extension matrix. 
+ * See OTMaliciousKOSExtensionSender for the details of the check.<p>
+ * 
+ * Like the native OTExtensionMaliciousReceiver, this class supports the general, correlated and random versions 
+ * of the OT extension, according to the given input (OTExtensionGeneralRInput, OTExtensionCorrelatedRInput or OTExtensionRandomRInput).
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTMaliciousKOSExtensionReceiver extends OTExtensionReceiverAbs implements Malicious{
+	
+	/**
+	 * Constructor that runs the base OTs with default values of DlogGroup, KDF and SecureRandom.
+	 * @param channel used to communicate with the sender.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 * @throws CheatAttemptException if the sender of the extension cheated in the base OTs.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme in the base OTs.
+	 */
+	public OTMaliciousKOSExtensionReceiver(Channel channel) throws IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		super(new SecureRandom());
+		try {
+			doConstruct(channel, OTExtensionUtil.getDefaultDlog(), OTExtensionUtil.getDefaultKdf());
+		} catch (SecurityLevelException e) {
+			// Should not occur since the default DlogGroup is DDH secure.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the default DlogGroup is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that runs the base OTs with the given DlogGroup, KDF and SecureRandom.
+	 * @param channel used to communicate with the sender.
+	 * @param dlog used in the base OTs. Must be DDH secure.
+	 * @param kdf used in the base OTs.
+	 * @param random
+	 * @throws SecurityLevelException if the given DlogGroup is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 * @throws CheatAttemptException if the sender of the extension cheated in the base OTs.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme in the base OTs.
+	 */
+	public OTMaliciousKOSExtensionReceiver(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		super(random);
+		doConstruct(channel, dlog, kdf);
+	}
+	
+	/**
+	 * Runs the base OTs. The receiver of the extension plays the sender of the base OTs, with the random seeds (k_i^0, k_i^1).
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf) throws SecurityLevelException, InvalidDlogGroupException, IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		OTFullSimDDHOnByteArraySender baseSender = new OTFullSimDDHOnByteArraySender(channel, dlog, kdf, random);
+		
+		byte[][][] seeds = chooseBaseSeeds();
+		for (int i = 0; i < OTExtensionUtil.KAPPA; i++){
+			baseSender.transfer(channel, new OTOnByteArraySInput(seeds[0][i], seeds[1][i]));
+		}
+	}
+	
+	/**
+	 * The check uses 128 random rows to hide the choice bits, and 64 more to keep a statistical security of 64 bits.
+	 */
+	protected int getNumOfExtraOts() {
+		return OTExtensionUtil.KAPPA + 64;
+	}
+
+	/**
+	 * Runs the receiver side of the consistency check of the KOS protocol:
+	 * "WAIT for COMMIT(seed_S)
+	 *	SAMPLE random seed_R and SEND seed_R
+	 *	WAIT for DECOMMIT(seed_S)
+	 *	COMPUTE chi_1,...,chi_m = G(seed_S XOR seed_R)
+	 *	SEND x = sum chi_j*r_j and t = sum chi_j*t_j"
+	 * @throws CheatAttemptException if the sender did not open its commitment correctly.
+	 */
+	protected void proveConsistency(Channel channel, long[] tRows, long[] choices, int numOfRows) throws CheatAttemptException, IOException, ClassNotFoundException {
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[])){
+			throw new IllegalArgumentException("The received message should be an instance of byte[]");
+		}
+		byte[] commitment = (byte[]) message;
+		
+		byte[] seed = new byte[OTExtensionUtil.SEED_SIZE];
+		random.nextBytes(seed);
+		channel.send(seed.clone());
+		
+		message = channel.receive();
+		if (!(message instanceof byte[]) || ((byte[]) message).length != 2 * OTExtensionUtil.SEED_SIZE){
+			throw new CheatAttemptException("the opening of the sender should be a byte array of size " + 2 * OTExtensionUtil.SEED_SIZE);
+		}
+		byte[] opening = (byte[]) message;
+		if (!Arrays.equals(commitment, OTExtensionUtil.commit(opening))){
+			throw new CheatAttemptException("the sender did not open its commitment to the seed");
+		}
+		for (int i = 0; i < seed.length; i++){
+			seed[i] ^= opening[i];
+		}
+		long[] chi = OTExtensionUtil.expandChallenges(seed, numOfRows);
+		
+		//x is the sum of the challenges of the rows with r_j = 1.
+		long x0 = 0;
+		long x1 = 0;
+		for (int j = 0; j < numOfRows; j++){
+			long mask = -(long) OTExtensionUtil.getBit(choices, j);
+			x0 ^= chi[2 * j] & mask;
+			x1 ^= chi[2 * j + 1] & mask;
+		}
+		long[] t = OTExtensionUtil.sumOfProducts(chi, tRows, numOfRows);
+		channel.send(new long[]{x0, x1, t[0], t[1]});
+	}
+}
@@ -0,0 +1,164 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.security.SecureRandom;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.CommitValueException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.OTRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.fullSimulation.OTFullSimDDHOnByteArrayReceiver;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.securityLevel.Malicious;
+
+/**
+ * A concrete class for Malicious OT extension sender, written in pure Java. <P>
+ * 
+ * This class implements the KOS OT extension over SCAPI Channels, without the native OT extension library. 
+ * The 128 base OTs are executed once, in the constructor, using the fully simulatable DDH OT. 
+ * Each call to transfer extends them like the semi-honest IKNP protocol, and then checks that the receiver 
+ * used the same choice bits in all the columns of the extension matrix:<p>
+ * 
+ * The parties toss a seed (the sender commits to its share with SHA-256), which is expanded to a random challenge chi_j 
+ * in GF(2^128) for each row. The receiver sends x = sum chi_j*r_j and t = sum chi_j*t_j, and the sender checks that 
+ * sum chi_j*q_j = t + x*s. The last 192 rows of the matrix have random choice bits and are not used, in order to hide 
+ * the real choice bits from the check.<p>
+ * 
+ * Like the native OTExtensionMaliciousSender, this class supports the general, correlated and random versions 
+ * of the OT extension, according to the given input (OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput).
+ * The receiver side is OTMaliciousKOSExtensionReceiver.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTMaliciousKOSExtensionSender extends OTExtensionSenderAbs implements Malicious{
+	
+	/**
+	 * Constructor that runs the base OTs with default values of DlogGroup, KDF and SecureRandom.
+	 * @param channel used to communicate with the receiver.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 * @throws CheatAttemptException if the receiver of the extension cheated in the base OTs.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme in the base OTs.
+	 */
+	public OTMaliciousKOSExtensionSender(Channel channel) throws IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		super(new SecureRandom());
+		try {
+			doConstruct(channel, OTExtensionUtil.getDefaultDlog(), OTExtensionUtil.getDefaultKdf());
+		} catch (SecurityLevelException e) {
+			// Should not occur since the default DlogGroup is DDH secure.
+		} catch (InvalidDlogGroupException e) {
+			// Should not occur since the default DlogGroup is valid.
+		}
+	}
+	
+	/**
+	 * Constructor that runs the base OTs with the given DlogGroup, KDF and SecureRandom.
+	 * @param channel used to communicate with the receiver.
+	 * @param dlog used in the base OTs. Must be DDH secure.
+	 * @param kdf used in the base OTs.
+	 * @param random
+	 * @throws SecurityLevelException if the given DlogGroup is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given DlogGroup is not valid.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 * @throws CheatAttemptException if the receiver of the extension cheated in the base OTs.
+	 * @throws CommitValueException can occur in case of ElGamal commitment scheme in the base OTs.
+	 */
+	public OTMaliciousKOSExtensionSender(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		super(random);
+		doConstruct(channel, dlog, kdf);
+	}
+	
+	/**
+	 * Runs the base OTs. The sender of the extension plays the receiver of the base OTs, with the random choice vector s.
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf) throws SecurityLevelException, InvalidDlogGroupException, IOException, ClassNotFoundException, CheatAttemptException, CommitValueException{
+		OTFullSimDDHOnByteArrayReceiver baseReceiver = new OTFullSimDDHOnByteArrayReceiver(channel, dlog, kdf, random);
+		
+		byte[] choices = chooseBaseChoices();
+		byte[][] seeds = new byte[choices.length][];
+		for (int i = 0; i < choices.length; i++){
+			seeds[i] = ((OTOnByteArrayROutput) baseReceiver.transfer(channel, new OTRBasicInput(choices[i]))).getXSigma();
+		}
+		setBaseSeeds(seeds);
+	}
+	
+	/**
+	 * The check uses 128 random rows to hide the choice bits, and 64 more to keep a statistical security of 64 bits.
+	 */
+	protected int getNumOfExtraOts() {
+		return OTExtensionUtil.KAPPA + 64;
+	}
+
+	/**
+	 * Runs the consistency check of the KOS protocol:
+	 * "SAMPLE random seed_S and SEND COMMIT(seed_S)
+	 *	WAIT for seed_R
+	 *	SEND DECOMMIT(seed_S)
+	 *	COMPUTE chi_1,...,chi_m = G(seed_S XOR seed_R)
+	 *	WAIT for (x, t)
+	 *	IF NOT sum chi_j*q_j = t + x*s
+	 *		REPORT ERROR"
+	 */
+	protected void checkConsistency(Channel channel, long[] qRows, int numOfRows, long s0, long s1) throws CheatAttemptException, IOException, ClassNotFoundException {
+		//The opening holds the seed of the sender followed by the randomness of the commitment.
+		byte[] opening = new byte[2 * OTExtensionUtil.SEED_SIZE];
+		random.nextBytes(opening);
+		channel.send(OTExtensionUtil.commit(opening));
+		
+		Serializable message = channel.receive();
+		if (!(message instanceof byte[]) || ((byte[]) message).length != OTExtensionUtil.SEED_SIZE){
+			throw new CheatAttemptException("the seed of the receiver should be a byte array of size " + OTExtensionUtil.SEED_SIZE);
+		}
+		byte[] seed = (byte[]) message;
+		channel.send(opening);
+		for (int i = 0; i < seed.length; i++){
+			seed[i] ^= opening[i];
+		}
+		long[] chi = OTExtensionUtil.expandChallenges(seed, numOfRows);
+		
+		message = channel.receive();
+		if (!(message instanceof long[]) || ((long[]) message).length != 4){
+			throw new CheatAttemptException("the proof of the receiver should be an array of four longs");
+		}
+		long[] proof = (long[]) message;
+		
+		long[] q = OTExtensionUtil.sumOfProducts(chi, qRows, numOfRows);
+		long[] xs = new long[4];
+		OTExtensionUtil.gfMultiplyAdd(proof[0], proof[1], s0, s1, xs);
+		xs = OTExtensionUtil.gfReduce(xs);
+		if (q[0] != (proof[2] ^ xs[0]) || q[1] != (proof[3] ^ xs[1])){
+			throw new CheatAttemptException("the receiver did not use the same choice bits in all the columns of the extension matrix");
+		}
+	}
+}
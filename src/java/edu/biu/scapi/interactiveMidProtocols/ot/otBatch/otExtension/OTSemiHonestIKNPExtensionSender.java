@@ -0,0 +1,113 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.IOException;
+import java.security.SecureRandom;
+import java.util.ArrayList;
+
+import edu.biu.scapi.comm.Channel;
+import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRBasicInput;
+import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest.OTSemiHonestDDHBatchOnByteArrayReceiver;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.kdf.KeyDerivationFunction;
+import edu.biu.scapi.securityLevel.SemiHonest;
+
+/**
+ * A concrete class for Semi-Honest OT extension sender, written in pure Java. <P>
+ * 
+ * This class implements the IKNP OT extension over SCAPI Channels, without the native OT extension library. 
+ * The 128 base OTs are executed once, in the constructor, using the semi-honest batch DDH OT. 
+ * After that, each call to transfer extends them to any number of OTs using AES only.<p>
+ * 
+ * Like the native OTSemiHonestExtensionSender, this class supports the general, correlated and random versions 
+ * of the OT extension, according to the given input (OTExtensionGeneralSInput, OTExtensionCorrelatedSInput or OTExtensionRandomSInput).
+ * The receiver side is OTSemiHonestIKNPExtensionReceiver.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class OTSemiHonestIKNPExtensionSender extends OTExtensionSenderAbs implements SemiHonest{
+	
+	/**
+	 * Constructor that runs the base OTs with default values of DlogGroup, KDF and SecureRandom.
+	 * @param channel used to communicate with the receiver.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTSemiHonestIKNPExtensionSender(Channel channel) throws IOException, ClassNotFoundException{
+		super(new SecureRandom());
+		try {
+			doConstruct(channel, OTExtensionUtil.getDefaultDlog(), OTExtensionUtil.getDefaultKdf());
+		} catch (SecurityLevelException e) {
+			// Should not occur since the default DlogGroup is DDH secure.
+		}
+	}
+	
+	/**
+	 * Constructor that runs the base OTs with the given DlogGroup, KDF and SecureRandom.
+	 * @param channel used to communicate with the receiver.
+	 * @param dlog used in the base OTs. Must be DDH secure.
+	 * @param kdf used in the base OTs.
+	 * @param random
+	 * @throws SecurityLevelException if the given DlogGroup is not DDH secure.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public OTSemiHonestIKNPExtensionSender(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf, SecureRandom random) throws SecurityLevelException, IOException, ClassNotFoundException{
+		super(random);
+		doConstruct(channel, dlog, kdf);
+	}
+	
+	/**
+	 * Runs the base OTs. The sender of the extension plays the receiver of the base OTs, with the random choice vector s.
+	 */
+	private void doConstruct(Channel channel, DlogGroup dlog, KeyDerivationFunction kdf) throws SecurityLevelException, IOException, ClassNotFoundException{
+		OTSemiHonestDDHBatchOnByteArrayReceiver baseReceiver = new OTSemiHonestDDHBatchOnByteArrayReceiver(dlog, kdf, random);
+		
+		byte[] choices = chooseBaseChoices();
+		ArrayList<Byte> sigmaArr = new ArrayList<Byte>(choices.length);
+		for (int i = 0; i < choices.length; i++){
+			sigmaArr.add(choices[i]);
+		}
+		
+		OTBatchOnByteArrayROutput output = (OTBatchOnByteArrayROutput) baseReceiver.transfer(channel, new OTBatchRBasicInput(sigmaArr));
+		setBaseSeeds(output.getXSigmaArr().toArray(new byte[0][]));
+	}
+	
+	/**
+	 * The semi-honest protocol does not add OTs for a consistency check.
+	 */
+	protected int getNumOfExtraOts() {
+		return 0;
+	}
+
+	/**
+	 * The semi-honest protocol trusts the receiver to build the matrix correctly, so there is nothing to check.
+	 */
+	protected void checkConsistency(Channel channel, long[] qRows, int numOfRows, long s0, long s1) {}
+}
@@ -0,0 +1,165 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.otExtension;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+/**
+ * A file that holds precomputed random OTs as fixed size records.<p>
+ * 
+ * The file starts with the size of the records and the number of records that were already consumed. 
+ * The records are consumed in the order in which they were appended. The number of consumed records is written to the file 
+ * and forced to the storage device before the records are returned, so a record is never used twice, even after a crash.<p>
+ * 
+ * When the consumed records take most of the file, the records that were not consumed are copied to a new file that replaces the store, 
+ * so the file does not grow forever. The new file is written completely before it replaces the old one, so a crash during the 
+ * compaction leaves one of the two valid files.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+class RandomOTStore {
+	
+	private static final int HEADER_SIZE = 12;	//The record size (int) and the number of consumed records (long).
+	private static final long MIN_COMPACTION_BYTES = 1 << 20;	//The store is compacted only if the consumed records take at least this size.
+	
+	private File storeFile;
+	private RandomAccessFile file;
+	private int recordSize;
+	private long consumed;
+	
+	/**
+	 * Opens the given store file, or creates it if it does not exist.
+	 * @param storeFile the file of the store.
+	 * @param recordSize size in bytes of each record.
+	 * @throws IOException if the file could not be opened.
+	 * @throws IllegalArgumentException if the file holds records of a different size.
+	 */
+	RandomOTStore(File storeFile, int recordSize) throws IOException{
+		this.storeFile = storeFile;
+		file = new RandomAccessFile(storeFile, "rw");
+		this.recordSize = recordSize;
+		if (file.length() < HEADER_SIZE){
+			file.setLength(0);
+			file.writeInt(recordSize);
+			file.writeLong(0);
+			file.getChannel().force(true);
+		} else {
+			if (file.readInt() != recordSize){
+				file.close();
+				throw new IllegalArgumentException("the store holds OTs of a different size");
+			}
+			consumed = file.readLong();
+		}
+	}
+	
+	/**
+	 * Returns the number of records that were appended and not yet consumed.
+	 */
+	synchronized long available() throws IOException {
+		return (file.length() - HEADER_SIZE) / recordSize - consumed;
+	}
+	
+	/**
+	 * Appends the given records to the end of the store.
+	 * @param records the records, one after the other.
+	 */
+	synchronized void append(byte[] records) throws IOException {
+		file.seek(HEADER_SIZE + (file.length() - HEADER_SIZE) / recordSize * recordSize);
+		file.write(records);
+		file.getChannel().force(true);
+	}
+	
+	/**
+	 * Consumes the next records of the store.
+	 * @param numOfRecords number of records to take.
+	 * @return the records, one after the other.
+	 * @throws IllegalStateException if the store does not hold enough records.
+	 */
+	synchronized byte[] take(int numOfRecords) throws IOException {
+		if (available() < numOfRecords){
+			throw new IllegalStateException("there are not enough precomputed OTs in the store");
+		}
+		byte[] records = new byte[numOfRecords * recordSize];
+		file.seek(HEADER_SIZE + consumed * recordSize);
+		file.readFully(records);
+		
+		consumed += numOfRecords;
+		file.seek(4);
+		file.writeLong(consumed);
+		//The records are returned only after the counter is stored.
+		file.getChannel().force(true);
+		
+		if (consumed * recordSize >= MIN_COMPACTION_BYTES && consumed >= available()){
+			compact();
+		}
+		return records;
+	}
+	
+	/**
+	 * Copies the records that were not consumed to a new file and replaces the store with it.<p>
+	 * If the new file cannot replace the store, it is deleted and the store is kept as is.
+	 */
+	private void compact() throws IOException {
+		File newFile = new File(storeFile.getPath() + ".tmp");
+		RandomAccessFile out = new RandomAccessFile(newFile, "rw");
+		try {
+			out.setLength(0);
+			out.writeInt(recordSize);
+			out.writeLong(0);
+			
+			long position = HEADER_SIZE + consumed * recordSize;
+			long end = HEADER_SIZE + (consumed + available()) * recordSize;
+			byte[] buffer = new byte[(int) Math.min(MIN_COMPACTION_BYTES, Math.max(end - position, 1))];
+			file.seek(position);
+			while (position < end){
+				int len = (int) Math.min(buffer.length, end - position);
+				file.readFully(buffer, 0, len);
+				out.write(buffer, 0, len);
+				position += len;
+			}
+			out.getChannel().force(true);
+		} finally {
+			out.close();
+		}
+		
+		file.close();
+		if (newFile.renameTo(storeFile)){
+			consumed = 0;
+		} else {
+			newFile.delete();
+		}
+		file = new RandomAccessFile(storeFile, "rw");
+	}
+	
+	/**
+	 * Closes the file of the store.
+	 */
+	synchronized void close() throws IOException {
+		file.close();
+	}
+}
@@ -30,6 +30,7 @@ import java.util.ArrayList;
 
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnByteArraySenderMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnByteArrayROutput;
@@ -93,19 +94,31 @@ public class OTSemiHonestDDHBatchOnByteArrayReceiver extends OTSemiHonestDDHBatc
 			throw new IllegalArgumentException("message should be instance of OTSemiHonestDDHBatchOnByteArraySenderMsg");
 		}
 		
-		OTSemiHonestDDHBatchOnByteArraySenderMsg msg = (OTSemiHonestDDHBatchOnByteArraySenderMsg)message;
+		final OTSemiHonestDDHBatchOnByteArraySenderMsg msg = (OTSemiHonestDDHBatchOnByteArraySenderMsg)message;
 		int size = sigmaArr.size();
+		
+		//Compute kSigma = u^alpha of all the tuples in parallel ranges.
+		final ArrayList<BigInteger> alpha = alphaArr;
+		final byte[][] kBytesArr = new byte[size][];
+		runInRanges(size, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				for (int i = from; i < to; i++){
+					GroupElement u = group.reconstructElement(true, msg.getTuples().get(i).getU());
+					GroupElement kSigma = group.exponentiate(u, alpha.get(i));
+					kBytesArr[i] = group.mapAnyGroupElementToByteArray(kSigma);
+				}
+			}
+		});
+		
 		ArrayList<byte[]> xSigmaArr = new ArrayList<byte[]> ();
-		GroupElement u, kSigma;
 		byte[] vSigma, xSigma;
 
+		//The KDF keeps an internal state, so it is computed in the calling thread.
 		for (int i=0; i<size; i++){
 			
 			OTSemiHonestDDHOnByteArraySenderMsg tuple = msg.getTuples().get(i);
-			//Compute kSigma:
-			u = dlog.reconstructElement(true, tuple.getU());
-			kSigma = dlog.exponentiate(u, alphaArr.get(i));
-			byte[] kBytes = dlog.mapAnyGroupElementToByteArray(kSigma);
+			byte[] kBytes = kBytesArr[i];
 			
 			//Get v0 or v1 according to sigma.
 			if (sigmaArr.get(i) == 0){
@@ -27,14 +27,17 @@ package edu.biu.scapi.interactiveMidProtocols.ot.otBatch.semiHonest;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import edu.biu.scapi.exceptions.SecurityLevelException;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.semiHonest.OTSemiHonestDDHOnGroupElementSenderMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchOnGroupElementROutput;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchROutput;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 import edu.biu.scapi.securityLevel.SemiHonest;
 
 /**
@@ -82,36 +85,51 @@ public class OTSemiHonestDDHBatchOnGroupElementReceiver extends OTSemiHonestDDHB
 			throw new IllegalArgumentException("message should be instance of OTSemiHonestDDHBatchOnGroupElementSenderMsg");
 		}
 		
-		OTSemiHonestDDHBatchOnGroupElementSenderMsg msg = (OTSemiHonestDDHBatchOnGroupElementSenderMsg)message;
+		final OTSemiHonestDDHBatchOnGroupElementSenderMsg msg = (OTSemiHonestDDHBatchOnGroupElementSenderMsg)message;
 		int size = sigmaArr.size();
-		ArrayList<GroupElement> xSigmaArr = new ArrayList<GroupElement>();
-		GroupElement u, kSigma, vSigma;
-		BigInteger beta;
+		final ArrayList<Byte> sigma = sigmaArr;
+		final ArrayList<BigInteger> alpha = alphaArr;
+		final GroupElement[] xSigmaArr = new GroupElement[size];
+		//The results of the ranges that use a copy of the group, to be reconstructed in the protocol's group.
+		final GroupElementSendableData[] xSigmaData = new GroupElementSendableData[size];
 
-		for (int i=0; i<size; i++){
-			
-			OTSemiHonestDDHOnGroupElementSenderMsg tuple = msg.getTuples().get(i);
-			//Compute (kSigma)^(-1) = u^(-alpha):
-			u = dlog.reconstructElement(true, tuple.getU());	//Get u
-			beta = dlog.getOrder().subtract(alphaArr.get(i));	//Get -alpha
-			kSigma = dlog.exponentiate(u, beta);
-			
-			
-			//Get v0 or v1 according to sigma.
-			vSigma = null;
-			if (sigmaArr.get(i) == 0){
-				vSigma = dlog.reconstructElement(true, tuple.getV0());
-			} else {
-				vSigma = dlog.reconstructElement(true, tuple.getV1());
+		//The tuples are independent, so they are computed in parallel ranges.
+		runInRanges(size, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				for (int i = from; i < to; i++){
+					
+					OTSemiHonestDDHOnGroupElementSenderMsg tuple = msg.getTuples().get(i);
+					//Compute (kSigma)^(-1) = u^(-alpha):
+					GroupElement u = group.reconstructElement(true, tuple.getU());	//Get u
+					BigInteger beta = group.getOrder().subtract(alpha.get(i));	//Get -alpha
+					GroupElement kSigma = group.exponentiate(u, beta);
+					
+					//Get v0 or v1 according to sigma.
+					GroupElement vSigma = null;
+					if (sigma.get(i) == 0){
+						vSigma = group.reconstructElement(true, tuple.getV0());
+					} else {
+						vSigma = group.reconstructElement(true, tuple.getV1());
+					}
+					
+					//Compue xSigma
+					GroupElement xSigma = group.multiplyGroupElements(vSigma, kSigma);
+					if (group == dlog){
+						xSigmaArr[i] = xSigma;
+					} else{
+						xSigmaData[i] = xSigma.generateSendableData();
+					}
+				}
+			}
+		});
+		for (int i = 0; i < size; i++){
+			if (xSigmaArr[i] == null){
+				xSigmaArr[i] = dlog.reconstructElement(false, xSigmaData[i]);
 			}
-			
-			//Compue xSigma
-			GroupElement xSigma = dlog.multiplyGroupElements(vSigma, kSigma);
-			
-			//Create and return the output containing xSigma
-			xSigmaArr.add(i, xSigma);
 		}
-		return new OTBatchOnGroupElementROutput(xSigmaArr);
+		//Create and return the output containing xSigma
+		return new OTBatchOnGroupElementROutput(new ArrayList<GroupElement>(Arrays.asList(xSigmaArr)));
 	
 	}
 
@@ -29,6 +29,7 @@ import java.io.Serializable;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import org.bouncycastle.util.BigIntegers;
 
@@ -36,6 +37,7 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchRInput;
@@ -79,6 +81,8 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 	protected DlogGroup dlog;
 	private SecureRandom random;
 	private BigInteger qMinusOne;
+	private static final int MIN_TUPLES_PER_THREAD = 8;		//Each tuple costs at least one exponentiation, so small ranges are worth a thread.
+	private int numOfThreads = Runtime.getRuntime().availableProcessors();
 	
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -133,6 +137,27 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 		
 	}
 	
+	/**
+	 * Sets the number of threads that compute the exponentiations of a batch.<p>
+	 * By default, the number of available processors is used. Each additional thread computes with its own copy of the 
+	 * DlogGroup (see {@link BatchRangeRunner#getGroup(DlogGroup, int)}).
+	 * @param numOfThreads number of threads. 1 means that the batch is computed in the calling thread.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads <= 0){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Computes the given task on the tuples [0, size) in parallel ranges. 
+	 * Each range should compute with the group that is returned by {@link BatchRangeRunner#getGroup(DlogGroup, int)}.
+	 */
+	protected void runInRanges(int size, BatchRangeRunner.RangeTask task){
+		BatchRangeRunner.run(size, BatchRangeRunner.getNumOfThreads(dlog, numOfThreads), MIN_TUPLES_PER_THREAD, task);
+	}
+	
 	/**
 	 * Runs the transfer phase of the OT protocol.<p>
 	 * "For every i=1,...,m, SAMPLE random values alphaI <- Zq and hi <- G <p>
@@ -166,14 +191,12 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 		
 		//For every i=1,...,m, SAMPLE random values alphaI <- Zq.
 		ArrayList<BigInteger> alphaArr = new ArrayList<BigInteger>();
-		ArrayList<GroupElement> hArr = new ArrayList<GroupElement>();
 		for (int i=0; i<size; i++){
 			alphaArr.add(i, BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random));
-			hArr.add(i, dlog.createRandomElement());
 		}
 		
 		//Compute h0, h1
-		OTRGroupElementBatchMsg tuple = computeTuples(alphaArr, hArr, sigmaArr);
+		OTRGroupElementBatchMsg tuple = computeTuples(alphaArr, sigmaArr);
 		
 		//Send the tuple to sender
 		sendTupleToSender(channel, tuple);
@@ -191,31 +214,38 @@ abstract class OTSemiHonestDDHBatchReceiverAbs implements OTBatchReceiver{
 	 *  "For every i=1,...,m, COMPUTE hi0,hi1 as follows:
 	 *		1.	If SigmaI = 0 then hi0 = g^alphaI  and hi1=hi
 	 *		2.	If SigmaI = 1 then hi0=hi and hi1 = g^alphaI "
-	 * @param alpha random value sampled by the protocol
-	 * @param sigma input for the protocol
+	 * The random elements hi are sampled here, and the tuples are computed in parallel ranges.
+	 * @param alphaArr random values sampled by the protocol
+	 * @param sigmaArr input for the protocol
 	 * @return OTRSemiHonestMessage contains the tuple (h0, h1).
 	 */
-	private OTRGroupElementBatchMsg computeTuples(ArrayList<BigInteger> alphaArr, ArrayList<GroupElement> hArr, ArrayList<Byte> sigmaArr) {
+	private OTRGroupElementBatchMsg computeTuples(final ArrayList<BigInteger> alphaArr, final ArrayList<Byte> sigmaArr) {
 		int size = alphaArr.size();
-		GroupElement g = dlog.getGenerator();
-		ArrayList<OTRGroupElementPairMsg> tuples = new ArrayList<OTRGroupElementPairMsg>();
-		for (int i=0; i<size; i++){
-			//Calculate g^alphaI.
-			GroupElement gAlpha = dlog.exponentiate(g, alphaArr.get(i));
+		final OTRGroupElementPairMsg[] tuples = new OTRGroupElementPairMsg[size];
+		runInRanges(size, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				GroupElement g = group.getGenerator();
+				for (int i = from; i < to; i++){
+					//Calculate g^alphaI. The generator is a fixed base, so its precomputed values are kept between the calls.
+					GroupElement gAlpha = group.exponentiateWithPreComputedValues(g, alphaArr.get(i));
+					GroupElement h = group.createRandomElement();
 					
-			GroupElement h0 = null;
-			GroupElement h1 = null;
-			//If SigmaI = 0 then hi0 = g^alphaI  and hi1=hi
-			if (sigmaArr.get(i) == 0){
-				h0 = gAlpha;
-				h1 = hArr.get(i);
-			} else{ //If SigmaI = 1 then hi0=hi and hi1 = g^alphaI
-				h0 = hArr.get(i);
-				h1 = gAlpha;
+					GroupElement h0 = null;
+					GroupElement h1 = null;
+					//If SigmaI = 0 then hi0 = g^alphaI  and hi1=hi
+					if (sigmaArr.get(i) == 0){
+						h0 = gAlpha;
+						h1 = h;
+					} else{ //If SigmaI = 1 then hi0=hi and hi1 = g^alphaI
+						h0 = h;
+						h1 = gAlpha;
+					}
+					tuples[i] = new OTRGroupElementPairMsg(h0.generateSendableData(), h1.generateSendableData());
+				}
 			}
-			tuples.add(i, new OTRGroupElementPairMsg(h0.generateSendableData(), h1.generateSendableData()));
-		}
-		return new OTRGroupElementBatchMsg(tuples);
+		});
+		return new OTRGroupElementBatchMsg(new ArrayList<OTRGroupElementPairMsg>(Arrays.asList(tuples)));
 	}
 	
 	/**
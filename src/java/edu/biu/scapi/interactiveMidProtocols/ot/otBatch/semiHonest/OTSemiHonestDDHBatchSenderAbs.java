@@ -29,6 +29,7 @@ import java.io.Serializable;
 import java.math.BigInteger;
 import java.security.SecureRandom;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.logging.Level;
 
 import edu.biu.scapi.generals.Logging;
@@ -38,6 +39,7 @@ import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.generals.ScapiDefaultConfiguration;
+import edu.biu.scapi.tools.BatchRangeRunner;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTRGroupElementPairMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.OTSMsg;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSInput;
@@ -45,6 +47,7 @@ import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSOutput;
 import edu.biu.scapi.interactiveMidProtocols.ot.otBatch.OTBatchSender;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
 import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 import edu.biu.scapi.securityLevel.DDH;
 import edu.biu.scapi.tools.Factories.DlogGroupFactory;
 
@@ -82,6 +85,8 @@ abstract class OTSemiHonestDDHBatchSenderAbs implements OTBatchSender{
 	protected DlogGroup dlog;
 	private SecureRandom random;
 	private BigInteger qMinusOne;
+	private static final int MIN_TUPLES_PER_THREAD = 8;		//Each tuple costs at least one exponentiation, so small ranges are worth a thread.
+	private int numOfThreads = Runtime.getRuntime().availableProcessors();
 
 	/**
 	 * Constructor that chooses default values of DlogGroup and SecureRandom.
@@ -135,6 +140,27 @@ abstract class OTSemiHonestDDHBatchSenderAbs implements OTBatchSender{
 		// This protocol has no pre process stage.
 	}
 
+	/**
+	 * Sets the number of threads that compute the exponentiations of a batch.<p>
+	 * By default, the number of available processors is used. Each additional thread computes with its own copy of the 
+	 * DlogGroup (see {@link BatchRangeRunner#getGroup(DlogGroup, int)}).
+	 * @param numOfThreads number of threads. 1 means that the batch is computed in the calling thread.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads <= 0){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Computes the given task on the tuples [0, size) in parallel ranges. 
+	 * Each range should compute with the group that is returned by {@link BatchRangeRunner#getGroup(DlogGroup, int)}.
+	 */
+	protected void runInRanges(int size, BatchRangeRunner.RangeTask task){
+		BatchRangeRunner.run(size, BatchRangeRunner.getNumOfThreads(dlog, numOfThreads), MIN_TUPLES_PER_THREAD, task);
+	}
+	
 	/**
 	 * Runs the transfer phase of the protocol.<p>
 	 *	"WAIT for message (h0i,h1i) from R<p>
@@ -157,32 +183,54 @@ abstract class OTSemiHonestDDHBatchSenderAbs implements OTBatchSender{
 		OTRGroupElementBatchMsg message = waitForMessageFromReceiver(channel);
 		
 		//SAMPLE a random value r in  [0, . . . , q-1] 
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		final BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		GroupElement g = dlog.getGenerator(); //Get the group generator.
 		
-		//Calculate u = g^r.
-		GroupElement u = dlog.exponentiate(g, r);
+		//Calculate u = g^r. The generator is a fixed base, so its precomputed values are kept between the calls.
+		GroupElement u = dlog.exponentiateWithPreComputedValues(g, r);
 		
-		ArrayList<OTRGroupElementPairMsg> tuples = message.getTuples();
+		final ArrayList<OTRGroupElementPairMsg> tuples = message.getTuples();
 		int size = tuples.size();
-		ArrayList<GroupElement> k0Array = new ArrayList<GroupElement>();
-		ArrayList<GroupElement> k1Array = new ArrayList<GroupElement>();
-		GroupElement h0, h1;
-		OTRGroupElementPairMsg tuple;
+		final GroupElement[] k0 = new GroupElement[size];
+		final GroupElement[] k1 = new GroupElement[size];
+		//The results of the ranges that use a copy of the group, to be reconstructed in the protocol's group.
+		final GroupElementSendableData[] k0Data = new GroupElementSendableData[size];
+		final GroupElementSendableData[] k1Data = new GroupElementSendableData[size];
 		
 		//For every i=1,...,m, COMPUTE:
 		//	ki0 = (hi0)^r
 		//	ki1 = (hi1)^r
-		for (int i=0; i<size; i++){
-			tuple = tuples.get(i);
-			//Recreate h0 from the data in the received message.
-			h0 = dlog.reconstructElement(true, tuple.getFirstGE());
-			h1 = dlog.reconstructElement(true, tuple.getSecondGE());
-			
-			//Calculate k0 = h0^r.
-			k0Array.add(i, dlog.exponentiate(h0, r));
-			k1Array.add(i, dlog.exponentiate(h1, r));
+		//The tuples are independent, so they are computed in parallel ranges.
+		runInRanges(size, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				DlogGroup group = BatchRangeRunner.getGroup(dlog, rangeIndex);
+				for (int i = from; i < to; i++){
+					OTRGroupElementPairMsg tuple = tuples.get(i);
+					//Recreate h0 and h1 from the data in the received message.
+					GroupElement h0 = group.reconstructElement(true, tuple.getFirstGE());
+					GroupElement h1 = group.reconstructElement(true, tuple.getSecondGE());
+					
+					//Calculate k0 = h0^r and k1 = h1^r.
+					GroupElement k0i = group.exponentiate(h0, r);
+					GroupElement k1i = group.exponentiate(h1, r);
+					if (group == dlog){
+						k0[i] = k0i;
+						k1[i] = k1i;
+					} else{
+						k0Data[i] = k0i.generateSendableData();
+						k1Data[i] = k1i.generateSendableData();
+					}
+				}
+			}
+		});
+		for (int i = 0; i < size; i++){
+			if (k0[i] == null){
+				k0[i] = dlog.reconstructElement(false, k0Data[i]);
+				k1[i] = dlog.reconstructElement(false, k1Data[i]);
+			}
 		}
+		ArrayList<GroupElement> k0Array = new ArrayList<GroupElement>(Arrays.asList(k0));
+		ArrayList<GroupElement> k1Array = new ArrayList<GroupElement>(Arrays.asList(k1));
 		
 		OTSMsg messageToSend = computeMsg(input, u, k0Array, k1Array);
 		sendTupleToReceiver(channel, messageToSend);
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPublicKey;
 import edu.biu.scapi.midLayer.ciphertext.BigIntegerCiphertext;
 
@@ -38,7 +40,7 @@ import edu.biu.scapi.midLayer.ciphertext.BigIntegerCiphertext;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaDJEncryptedZeroCommonInput implements SigmaCommonInput{
+public class SigmaDJEncryptedZeroCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 	
 	private static final long serialVersionUID = -4073809422503620748L;
 	private DamgardJurikPublicKey publicKey;
@@ -74,5 +76,14 @@ public class SigmaDJEncryptedZeroCommonInput implements SigmaCommonInput{
         
         out.writeObject(publicKey.generateSendableData());  
         out.writeObject(cipher);
-    } 
+    }
+
+	/**
+	 * Writes the public key and the ciphertext to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(publicKey);
+		transcript.update(cipher);
+	}
 }
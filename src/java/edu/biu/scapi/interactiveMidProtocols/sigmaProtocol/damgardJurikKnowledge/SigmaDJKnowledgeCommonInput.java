@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPublicKey;
 import edu.biu.scapi.midLayer.ciphertext.BigIntegerCiphertext;
 
@@ -38,7 +40,7 @@ import edu.biu.scapi.midLayer.ciphertext.BigIntegerCiphertext;
  * @author Eindhoven University of Technology, Meilof Veeningen
  *
  */
-public class SigmaDJKnowledgeCommonInput implements SigmaCommonInput{
+public class SigmaDJKnowledgeCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 	private static final long serialVersionUID = 6519607348107197033L;
 	private DamgardJurikPublicKey publicKey;
 	private BigIntegerCiphertext cipherb;
@@ -70,5 +72,14 @@ public class SigmaDJKnowledgeCommonInput implements SigmaCommonInput{
 	private void writeObject(ObjectOutputStream out) throws IOException {  
         out.writeObject(publicKey.generateSendableData());  
         out.writeObject(cipherb);
-    } 
+    }
+
+	/**
+	 * Writes the public key and the ciphertext to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(publicKey);
+		transcript.update(cipherb);
+	}
 }
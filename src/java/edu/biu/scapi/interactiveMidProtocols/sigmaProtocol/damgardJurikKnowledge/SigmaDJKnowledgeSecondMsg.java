@@ -27,6 +27,8 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.damgardJurikKnowledg
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -35,7 +37,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Eindhoven University of Technology (Meilof Veeningen)
  *
  */
-class SigmaDJKnowledgeSecondMsg implements SigmaProtocolMsg{
+class SigmaDJKnowledgeSecondMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable{
 	
 	
 	private static final long serialVersionUID = 1194972045393269648L;
@@ -55,4 +57,12 @@ class SigmaDJKnowledgeSecondMsg implements SigmaProtocolMsg{
 		return z2;
 	}
 
+	/**
+	 * Writes z1 and z2 to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(z1);
+		transcript.update(z2);
+	}
 }
@@ -27,6 +27,8 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.damgardJurikProduct;
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -35,7 +37,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDJProductFirstMsg implements SigmaProtocolMsg{
+class SigmaDJProductFirstMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable{
 
 	
 	private static final long serialVersionUID = -8299363939635996180L;
@@ -54,4 +56,13 @@ class SigmaDJProductFirstMsg implements SigmaProtocolMsg{
 	BigInteger getA2(){
 		return a2;
 	}
+
+	/**
+	 * Writes a1 and a2 to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(a1);
+		transcript.update(a2);
+	}
 }
@@ -27,6 +27,8 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.damgardJurikProduct;
 import java.math.BigInteger;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -35,7 +37,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDJProductSecondMsg implements SigmaProtocolMsg{
+class SigmaDJProductSecondMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable{
 	
 	private static final long serialVersionUID = -8437524435815994178L;
 	
@@ -61,4 +63,13 @@ class SigmaDJProductSecondMsg implements SigmaProtocolMsg{
 		return z3;
 	}
 
+	/**
+	 * Writes z1, z2 and z3 to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(z1);
+		transcript.update(z2);
+		transcript.update(z3);
+	}
 }
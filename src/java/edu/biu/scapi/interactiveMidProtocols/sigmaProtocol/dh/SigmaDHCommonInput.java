@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 
 /**
@@ -37,7 +39,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaDHCommonInput implements SigmaCommonInput{
+public class SigmaDHCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 	
 	private static final long serialVersionUID = 9103075048136551008L;
 	private GroupElement h;
@@ -73,5 +75,15 @@ public class SigmaDHCommonInput implements SigmaCommonInput{
         out.writeObject(h.generateSendableData());  
         out.writeObject(u.generateSendableData());
         out.writeObject(v.generateSendableData());
-    }  
+    }
+
+	/**
+	 * Writes the tuple h, u, v to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(h);
+		transcript.update(u);
+		transcript.update(v);
+	}
 }
@@ -29,6 +29,8 @@ import java.io.ObjectOutputStream;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 import edu.biu.scapi.primitives.dlog.GroupElement;
 
 /**
@@ -38,7 +40,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaDHExtendedCommonInput implements SigmaCommonInput{
+public class SigmaDHExtendedCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 
 	private static final long serialVersionUID = 2595300376835152550L;
 	private ArrayList<GroupElement> gArray;
@@ -72,5 +74,20 @@ public class SigmaDHExtendedCommonInput implements SigmaCommonInput{
 		for(int i=0; i<hSize; i++){
 			out.writeObject(hArray.get(i).generateSendableData());
 		}
-    }  
+    }
+
+	/**
+	 * Writes the g array and then the h array, each preceded by its size.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(gArray.size());
+		for (int i = 0; i < gArray.size(); i++){
+			transcript.update(gArray.get(i));
+		}
+		transcript.update(hArray.size());
+		for (int i = 0; i < hArray.size(); i++){
+			transcript.update(hArray.get(i));
+		}
+	}
 }
@@ -27,6 +27,8 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.dhExtended;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
 
 /**
@@ -36,7 +38,7 @@ import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaDHExtendedMsg implements SigmaProtocolMsg {
+class SigmaDHExtendedMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable {
 
 	private static final long serialVersionUID = 3688239370237225167L;
 	
@@ -48,6 +50,16 @@ class SigmaDHExtendedMsg implements SigmaProtocolMsg {
 	
 	public ArrayList<GroupElementSendableData> getArray(){
 		return aArray;
-	} 
+	}
 
+	/**
+	 * Writes the number of a values, followed by the values.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(aArray.size());
+		for (int i = 0; i < aArray.size(); i++){
+			transcript.update(aArray.get(i));
+		}
+	}
 }
@@ -30,6 +30,8 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 
 /**
  * Concrete implementation of SigmaProtocol input, used by the SigmaDHExtendedStatistical verifier and simulator.<p>
@@ -38,7 +40,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonIn
  * @author Eindhoven University of Technology (Meilof Veeningen)
  *
  */
-public class SigmaDHExtendedStatisticalCommonInput implements SigmaCommonInput{
+public class SigmaDHExtendedStatisticalCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 
 	private static final long serialVersionUID = 1908006771270405668L;
 	
@@ -80,5 +82,21 @@ public class SigmaDHExtendedStatisticalCommonInput implements SigmaCommonInput{
 		for(int i=0; i<hSize; i++){
 			out.writeObject(hArray.get(i));
 		}
-    }  
+    }
+
+	/**
+	 * Writes N and then the g array and the h array, each preceded by its size.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(N);
+		transcript.update(gArray.size());
+		for (int i = 0; i < gArray.size(); i++){
+			transcript.update(gArray.get(i));
+		}
+		transcript.update(hArray.size());
+		for (int i = 0; i < hArray.size(); i++){
+			transcript.update(hArray.get(i));
+		}
+	}
 }
@@ -28,6 +28,8 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ElGamalPublicKey;
 
 /**
@@ -37,7 +39,7 @@ import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ElGamalPublicKey;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaElGamalCmtKnowledgeCommonInput implements SigmaCommonInput{
+public class SigmaElGamalCmtKnowledgeCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 
 	private static final long serialVersionUID = 761506828568805999L;
 	private ElGamalPublicKey publicKey;
@@ -60,5 +62,13 @@ public class SigmaElGamalCmtKnowledgeCommonInput implements SigmaCommonInput{
 	
 	private void writeObject(ObjectOutputStream out) throws IOException {  
 		out.writeObject(publicKey.generateSendableData());    
-    }  
+    }
+
+	/**
+	 * Writes the ElGamal public key to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(publicKey);
+	}
 }
@@ -28,6 +28,9 @@ import java.io.IOException;
 import java.io.ObjectOutputStream;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalOnGroupElementCiphertext.ElGamalOnGrElSendableData;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ElGamalPublicKey;
 import edu.biu.scapi.midLayer.ciphertext.ElGamalCiphertextSendableData;
 import edu.biu.scapi.primitives.dlog.GroupElement;
@@ -40,7 +43,7 @@ import edu.biu.scapi.primitives.dlog.GroupElement;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaElGamalCommittedValueCommonInput implements SigmaCommonInput{
+public class SigmaElGamalCommittedValueCommonInput implements SigmaCommonInput, SigmaTranscriptEncodable{
 	
 	private static final long serialVersionUID = 7108469354272702947L;
 	private ElGamalPublicKey publicKey;
@@ -87,5 +90,21 @@ public class SigmaElGamalCommittedValueCommonInput implements SigmaCommonInput{
 		out.writeObject(publicKey.generateSendableData());  
 		out.writeObject(commitment);  
 		out.writeObject(x.generateSendableData());  
-    }  
+    }
+
+	/**
+	 * Writes the public key, the two elements of the commitment and the committed value x.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(publicKey);
+		//The commitment is given as sendable data, write its group elements if possible.
+		if (commitment instanceof ElGamalOnGrElSendableData){
+			transcript.update(((ElGamalOnGrElSendableData) commitment).getCipher1());
+			transcript.update(((ElGamalOnGrElSendableData) commitment).getCipher2());
+		} else {
+			transcript.updateSerialized(commitment);
+		}
+		transcript.update(x);
+	}
 }
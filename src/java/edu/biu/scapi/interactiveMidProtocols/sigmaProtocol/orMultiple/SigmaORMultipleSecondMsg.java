@@ -27,6 +27,8 @@ package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.orMultiple;
 import java.util.ArrayList;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -37,7 +39,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaORMultipleSecondMsg implements SigmaProtocolMsg {
+class SigmaORMultipleSecondMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable {
 	
 	private static final long serialVersionUID = -348217363547929670L;
 	
@@ -62,5 +64,17 @@ class SigmaORMultipleSecondMsg implements SigmaProtocolMsg {
 	byte[][] getChallenges(){
 		return challenges;
 	}
-	
+
+	/**
+	 * Writes the polynomial, the z messages (preceded by their number) and the challenges.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(polynomial);
+		transcript.update(z.size());
+		for (int i = 0; i < z.size(); i++){
+			transcript.update(z.get(i));
+		}
+		transcript.update(challenges);
+	}
 }
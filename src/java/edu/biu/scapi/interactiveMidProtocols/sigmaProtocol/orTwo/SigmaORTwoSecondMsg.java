@@ -25,6 +25,8 @@
 package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.orTwo;
 
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscriptEncodable;
 
 /**
  * Concrete implementation of SigmaProtocol message. 
@@ -34,7 +36,7 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-class SigmaORTwoSecondMsg implements SigmaProtocolMsg{
+class SigmaORTwoSecondMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable{
 	
 	
 	private static final long serialVersionUID = 2105516191595630990L;
@@ -66,4 +68,15 @@ class SigmaORTwoSecondMsg implements SigmaProtocolMsg{
 	byte[] getE1(){
 		return e1;
 	}
+
+	/**
+	 * Writes z0, e0, z1 and e1 to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(z0);
+		transcript.update(e0);
+		transcript.update(z1);
+		transcript.update(e1);
+	}
 }
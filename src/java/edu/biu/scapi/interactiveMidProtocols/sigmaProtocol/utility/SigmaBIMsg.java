@@ -33,7 +33,7 @@ import java.math.BigInteger;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaBIMsg implements SigmaProtocolMsg{
+public class SigmaBIMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable{
 	
 	private static final long serialVersionUID = -7686300107301882304L;
 	private BigInteger z;
@@ -44,4 +44,12 @@ public class SigmaBIMsg implements SigmaProtocolMsg{
 	public BigInteger getMsg(){
 		return z;
 	}
+
+	/**
+	 * Writes z to the transcript.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(z);
+	}
 }
@@ -34,7 +34,7 @@ import java.util.ArrayList;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
  */
-public class SigmaMultipleMsg implements SigmaProtocolMsg{
+public class SigmaMultipleMsg implements SigmaProtocolMsg, SigmaTranscriptEncodable{
 	
 	
 	private static final long serialVersionUID = -8652010933123411049L;
@@ -49,4 +49,14 @@ public class SigmaMultipleMsg implements SigmaProtocolMsg{
 		return messages;
 	}
 
+	/**
+	 * Writes the number of messages, followed by the messages.
+	 * @param transcript the transcript to update.
+	 */
+	public void encodeTo(SigmaTranscript transcript){
+		transcript.update(messages.size());
+		for (int i = 0; i < messages.size(); i++){
+			transcript.update(messages.get(i));
+		}
+	}
 }
@@ -0,0 +1,412 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.io.UnsupportedEncodingException;
+import java.math.BigInteger;
+import java.security.PublicKey;
+
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.CramerShoupPublicKey;
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPublicKey;
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ElGamalPublicKey;
+import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.BigIntegerCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.CramerShoupOnGroupElementCiphertext;
+import edu.biu.scapi.midLayer.ciphertext.ElGamalOnGroupElementCiphertext;
+import edu.biu.scapi.primitives.dlog.ECElementSendableData;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
+import edu.biu.scapi.primitives.randomOracle.RandomOracle;
+
+/**
+ * This class accumulates a canonical binary encoding of the values that a Fiat-Shamir transformation feeds into 
+ * the random oracle (the common input x, the first message a and the context information cont).<p>
+ * 
+ * Every value is written as a one byte type tag, followed by a four bytes big endian length and the value's bytes. 
+ * The length is always the number of bytes that follow the header. 
+ * BigIntegers are written using their two's complement representation. Group elements are written as their coordinates, 
+ * each encoded as a BigInteger value, so the length of a group element is the total length of the encoded coordinates. 
+ * The same values always result in the same bytes, regardless of the Java serialization format.<p>
+ * 
+ * A protocol starts its transcript with a domain tag ({@link #updateDomain(String)}), so that the same values fed by different 
+ * protocols never result in the same bytes.
+ * Inputs and messages that implement {@link SigmaTranscriptEncodable} write their members using the typed update functions, 
+ * preceded by the name of their class, so that inputs and messages of different sigma protocols are separated as well.
+ * Other objects are written using Java serialization, tagged as such.<p>
+ * 
+ * The transcript keeps one internal buffer that grows as needed and is reused after {@link #reset()}, 
+ * so repeated proofs do not allocate a new buffer for each challenge. This class is not thread safe.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class SigmaTranscript {
+	
+	//Tags of the encoded values.
+	private static final byte NULL_TAG = 0;
+	private static final byte BYTES_TAG = 1;
+	private static final byte BIG_INTEGER_TAG = 2;
+	private static final byte INT_TAG = 3;
+	private static final byte ZP_ELEMENT_TAG = 4;
+	private static final byte EC_ELEMENT_TAG = 5;
+	private static final byte SERIALIZED_TAG = 6;
+	private static final byte DOMAIN_TAG = 7;
+	private static final byte CLASS_TAG = 8;
+	
+	private byte[] buffer;	//Holds the encoded values.
+	private int length;		//Number of used bytes in the buffer.
+	
+	/**
+	 * Default constructor that creates a transcript with a default initial capacity.
+	 */
+	public SigmaTranscript(){
+		this(256);
+	}
+	
+	/**
+	 * Constructor that creates a transcript with the given initial capacity. 
+	 * The buffer grows as needed, the capacity only saves reallocations.
+	 * @param initialCapacity initial size of the internal buffer, in bytes.
+	 */
+	public SigmaTranscript(int initialCapacity){
+		if (initialCapacity <= 0){
+			throw new IllegalArgumentException("the initial capacity should be positive");
+		}
+		buffer = new byte[initialCapacity];
+		length = 0;
+	}
+	
+	/**
+	 * Removes all the values written so far. The internal buffer is kept for the next use.
+	 */
+	public void reset(){
+		length = 0;
+	}
+	
+	/**
+	 * Returns the number of bytes written to the transcript.
+	 */
+	public int length(){
+		return length;
+	}
+	
+	/**
+	 * Returns a copy of the transcript bytes.
+	 */
+	public byte[] toByteArray(){
+		byte[] result = new byte[length];
+		System.arraycopy(buffer, 0, result, 0, length);
+		return result;
+	}
+	
+	/**
+	 * Computes the random oracle function on the transcript bytes, without copying them.
+	 * @param ro the random oracle to use.
+	 * @param outLen required output length IN BYTES.
+	 * @return the output of the random oracle.
+	 */
+	public byte[] computeRandomOracle(RandomOracle ro, int outLen){
+		return ro.compute(buffer, 0, length, outLen);
+	}
+	
+	/**
+	 * Writes the given domain tag to the transcript. Should be called first, with a tag that identifies the protocol.
+	 * @param domain the protocol's tag.
+	 */
+	public void updateDomain(String domain){
+		if (domain == null){
+			throw new IllegalArgumentException("the domain tag should not be null");
+		}
+		writeString(DOMAIN_TAG, domain);
+	}
+	
+	/**
+	 * Writes the given byte array to the transcript.
+	 * @param data may be null.
+	 */
+	public void update(byte[] data){
+		if (data == null){
+			writeNull();
+			return;
+		}
+		writeHeader(BYTES_TAG, data.length);
+		writeBytes(data, 0, data.length);
+	}
+	
+	/**
+	 * Writes the given array of byte arrays to the transcript, preceded by the number of arrays.
+	 * @param data may be null.
+	 */
+	public void update(byte[][] data){
+		if (data == null){
+			writeNull();
+			return;
+		}
+		update(data.length);
+		for (int i = 0; i < data.length; i++){
+			update(data[i]);
+		}
+	}
+	
+	/**
+	 * Writes the given int to the transcript. Used also to write the sizes of lists.
+	 * @param value
+	 */
+	public void update(int value){
+		writeHeader(INT_TAG, 4);
+		ensureCapacity(4);
+		writeInt(value);
+	}
+	
+	/**
+	 * Writes the given boolean to the transcript.
+	 * @param value
+	 */
+	public void update(boolean value){
+		update(value ? 1 : 0);
+	}
+	
+	/**
+	 * Writes the given BigInteger to the transcript.
+	 * @param value may be null.
+	 */
+	public void update(BigInteger value){
+		if (value == null){
+			writeNull();
+			return;
+		}
+		byte[] bytes = value.toByteArray();
+		writeHeader(BIG_INTEGER_TAG, bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * Writes the given group element to the transcript, using its sendable data.
+	 * @param element may be null.
+	 */
+	public void update(GroupElement element){
+		if (element == null){
+			writeNull();
+			return;
+		}
+		update(element.generateSendableData());
+	}
+	
+	/**
+	 * Writes the given group element's data to the transcript.<p>
+	 * Zp elements are written as their value and elliptic curve points as their two coordinates. 
+	 * Any other data is written using Java serialization.
+	 * @param data may be null.
+	 */
+	public void update(GroupElementSendableData data){
+		if (data == null){
+			writeNull();
+		} else if (data instanceof ZpElementSendableData){
+			int start = beginNested(ZP_ELEMENT_TAG);
+			update(((ZpElementSendableData) data).getX());
+			endNested(start);
+		} else if (data instanceof ECElementSendableData){
+			int start = beginNested(EC_ELEMENT_TAG);
+			update(((ECElementSendableData) data).getX());
+			update(((ECElementSendableData) data).getY());
+			endNested(start);
+		} else {
+			updateSerialized(data);
+		}
+	}
+	
+	/**
+	 * Writes the given ciphertext to the transcript.<p>
+	 * BigIntegerCiphertext, ElGamalOnGroupElementCiphertext and CramerShoupOnGroupElementCiphertext are written 
+	 * member by member. Any other ciphertext is written as its serialized sendable data.
+	 * @param cipher may be null.
+	 */
+	public void update(AsymmetricCiphertext cipher){
+		if (cipher == null){
+			writeNull();
+		} else if (cipher instanceof BigIntegerCiphertext){
+			update(((BigIntegerCiphertext) cipher).getCipher());
+		} else if (cipher instanceof ElGamalOnGroupElementCiphertext){
+			update(((ElGamalOnGroupElementCiphertext) cipher).getC1());
+			update(((ElGamalOnGroupElementCiphertext) cipher).getC2());
+		} else if (cipher instanceof CramerShoupOnGroupElementCiphertext){
+			CramerShoupOnGroupElementCiphertext c = (CramerShoupOnGroupElementCiphertext) cipher;
+			update(c.getU1());
+			update(c.getU2());
+			update(c.getE());
+			update(c.getV());
+		} else {
+			updateSerialized(cipher.generateSendableData());
+		}
+	}
+	
+	/**
+	 * Writes the given public key to the transcript.<p>
+	 * DamgardJurik, ElGamal and CramerShoup public keys are written member by member. 
+	 * Any other key is written using Java serialization.
+	 * @param key may be null.
+	 */
+	public void update(PublicKey key){
+		if (key == null){
+			writeNull();
+		} else if (key instanceof DamgardJurikPublicKey){
+			update(((DamgardJurikPublicKey) key).getModulus());
+		} else if (key instanceof ElGamalPublicKey){
+			update(((ElGamalPublicKey) key).getH());
+		} else if (key instanceof CramerShoupPublicKey){
+			CramerShoupPublicKey pk = (CramerShoupPublicKey) key;
+			update(pk.getGenerator1());
+			update(pk.getGenerator2());
+			update(pk.getC());
+			update(pk.getD());
+			update(pk.getH());
+		} else {
+			updateSerialized(key);
+		}
+	}
+	
+	/**
+	 * Writes the given sigma protocol message to the transcript.
+	 * @param msg may be null.
+	 */
+	public void update(SigmaProtocolMsg msg){
+		updateObject(msg);
+	}
+	
+	/**
+	 * Writes the given sigma protocol common input to the transcript.
+	 * @param input may be null.
+	 */
+	public void update(SigmaCommonInput input){
+		updateObject(input);
+	}
+	
+	/**
+	 * Writes the given object to the transcript using Java serialization.<p>
+	 * This is the fallback for objects that have no canonical encoding.
+	 * @param data may be null.
+	 * @throws IllegalArgumentException if the given object cannot be serialized.
+	 */
+	public void updateSerialized(Serializable data){
+		if (data == null){
+			writeNull();
+			return;
+		}
+		ByteArrayOutputStream bOut = new ByteArrayOutputStream();
+		try {
+			ObjectOutputStream oOut = new ObjectOutputStream(bOut);
+			oOut.writeObject(data);
+			oOut.close();
+		} catch (IOException e) {
+			throw new IllegalArgumentException("failed to serialize the given object. The thrown message is: " + e.getMessage());
+		}
+		byte[] bytes = bOut.toByteArray();
+		writeHeader(SERIALIZED_TAG, bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+	
+	/**
+	 * Writes an encodable object using its encodeTo function preceded by its class name, or serializes it otherwise.
+	 */
+	private void updateObject(Serializable obj){
+		if (obj instanceof SigmaTranscriptEncodable){
+			writeString(CLASS_TAG, obj.getClass().getName());
+			((SigmaTranscriptEncodable) obj).encodeTo(this);
+		} else {
+			updateSerialized(obj);
+		}
+	}
+	
+	private void writeString(byte tag, String value){
+		byte[] bytes;
+		try {
+			bytes = value.getBytes("UTF-8");
+		} catch (UnsupportedEncodingException e) {
+			throw new IllegalStateException("UTF-8 encoding is not supported");
+		}
+		writeHeader(tag, bytes.length);
+		writeBytes(bytes, 0, bytes.length);
+	}
+	
+	private void writeNull(){
+		writeHeader(NULL_TAG, 0);
+	}
+	
+	private void writeHeader(byte tag, int len){
+		ensureCapacity(5);
+		buffer[length++] = tag;
+		writeInt(len);
+	}
+	
+	/**
+	 * Writes the header of a value that consists of nested encoded values. The length is set by {@link #endNested(int)}.
+	 * @return the position of the header.
+	 */
+	private int beginNested(byte tag){
+		int start = length;
+		writeHeader(tag, 0);
+		return start;
+	}
+	
+	/**
+	 * Sets the length of the value whose header is in the given position to the number of bytes written after the header.
+	 */
+	private void endNested(int start){
+		int end = length;
+		length = start + 1;
+		writeInt(end - start - 5);
+		length = end;
+	}
+	
+	private void writeInt(int value){
+		buffer[length++] = (byte) (value >>> 24);
+		buffer[length++] = (byte) (value >>> 16);
+		buffer[length++] = (byte) (value >>> 8);
+		buffer[length++] = (byte) value;
+	}
+	
+	private void writeBytes(byte[] data, int offset, int len){
+		ensureCapacity(len);
+		System.arraycopy(data, offset, buffer, length, len);
+		length += len;
+	}
+	
+	/**
+	 * Makes sure that there is a room for additional bytes in the buffer, doubling its size if needed.
+	 */
+	private void ensureCapacity(int additional){
+		if (length + additional > buffer.length){
+			int newSize = Math.max(buffer.length * 2, length + additional);
+			byte[] newBuffer = new byte[newSize];
+			System.arraycopy(buffer, 0, newBuffer, 0, length);
+			buffer = newBuffer;
+		}
+	}
+}
@@ -24,16 +24,14 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.zeroKnowledge;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaTranscript;
 import edu.biu.scapi.primitives.randomOracle.HKDFBasedRO;
 import edu.biu.scapi.primitives.randomOracle.RandomOracle;
 
@@ -56,6 +54,7 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 	private Channel channel;
 	private SigmaProverComputation sProver; //Underlying prover that computes the proof of the sigma protocol.
 	private RandomOracle ro;				//Underlying random oracle to use.
+	private SigmaTranscript transcript = new SigmaTranscript(); //Reusable encoder of the random oracle input.
 	
 	/**
 	 * Constructor that accepts the underlying channel, sigma protocol's prover and random oracle to use.
@@ -153,38 +152,19 @@ public class ZKPOKFiatShamirFromSigmaProver implements ZKPOKProver{
 	private byte[] computeChallenge(ZKPOKFiatShamirProverInput input, SigmaProtocolMsg a) throws IOException {
 		//The input to the random oracle should include the common data of the prover 
 		//and verifier, and not the prover's private input.
-		byte[] inputArray = convertToBytes(((SigmaProverInput) input.getSigmaInput()).getCommonParams());
-		byte[] messageArray = convertToBytes(a);
+		//Write the domain tag, x, a and cont to the transcript using their canonical encoding.
+		transcript.reset();
+		transcript.updateDomain(ZKPOKFiatShamirProof.TRANSCRIPT_DOMAIN);
+		transcript.update(((SigmaProverInput) input.getSigmaInput()).getCommonParams());
+		transcript.update(a);
 		byte[] cont = input.getContext();
-
-		byte[] inputToRO = null;
-		
 		if (cont != null){
-			inputToRO = new byte[inputArray.length + messageArray.length + cont.length];
-			System.arraycopy(cont, 0, inputToRO, inputArray.length + messageArray.length, cont.length);
-		} else{
-			inputToRO = new byte[inputArray.length + messageArray.length];
+			transcript.update(cont);
 		}
-		System.arraycopy(inputArray, 0, inputToRO, 0, inputArray.length);
-		System.arraycopy(messageArray, 0, inputToRO, inputArray.length, messageArray.length);
 		
-		return ro.compute(inputToRO, 0, inputToRO.length, sProver.getSoundnessParam()/8);
+		return transcript.computeRandomOracle(ro, sProver.getSoundnessParam()/8);
 	}
 	
-	/**
-	 * Converts the given data to byte array using serialization mechanism.
-	 * @param data to convert.
-	 * @return the converted bytes.
-	 * @throws IOException
-	 */
-	private byte[] convertToBytes(Serializable data) throws IOException{
-		ByteArrayOutputStream bOut = new ByteArrayOutputStream();  
-	    ObjectOutputStream oOut  = new ObjectOutputStream(bOut);
-		oOut.writeObject(data);  
-		oOut.close();
-		
-		return bOut.toByteArray();
-	}
 	
 	/**
 	 * Sends the given message to the verifier.
@@ -24,13 +24,29 @@
 */
 package edu.biu.scapi.interactiveMidProtocols.zeroKnowledge;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.math.BigInteger;
+import java.util.ArrayList;
 
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaBIMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaGroupElementMsg;
+import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaMultipleMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
+import edu.biu.scapi.primitives.dlog.ECElementSendableData;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.primitives.dlog.ZpElementSendableData;
 
 /** 
  * This message contains two SigmaProtocolMessage and a challenge. <p>
- * The message is sent by the prover of ZKPOK Fiat Shamir protocol to the verifier.
+ * The message is sent by the prover of ZKPOK Fiat Shamir protocol to the verifier.<p>
+ * 
+ * The proof has a compact serialized form: the challenge is written as raw bytes and the general sigma messages 
+ * (SigmaBIMsg, SigmaGroupElementMsg of Zp or elliptic curve elements and SigmaMultipleMsg) are written as their 
+ * BigInteger values, without the class descriptors of each nested object. 
+ * Other sigma messages are written using the default serialization.
  * 
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Moriya Farbstein)
  *
@@ -38,10 +54,25 @@ import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocol
 public class ZKPOKFiatShamirProof implements Serializable{
 
 	
-	private static final long serialVersionUID = -3337598431871087383L;
-	private SigmaProtocolMsg a;
-	private byte[] e;
-	private SigmaProtocolMsg z;
+	private static final long serialVersionUID = 6311926437390184251L;
+	
+	//Domain tag that starts the random oracle input of the Fiat-Shamir prover and verifier.
+	static final String TRANSCRIPT_DOMAIN = "SCAPI ZKPOK Fiat-Shamir";
+	
+	//Tags of the messages in the serialized form.
+	private static final byte OBJECT_MSG = 0;
+	private static final byte BI_MSG = 1;
+	private static final byte ZP_ELEMENT_MSG = 2;
+	private static final byte EC_ELEMENT_MSG = 3;
+	private static final byte MULTIPLE_MSG = 4;
+	
+	//Bounds of the lengths read from the stream, checked before allocating.
+	private static final int MAX_BYTES_LENGTH = 1 << 20;
+	private static final int MAX_MESSAGES = 1 << 16;
+	
+	private transient SigmaProtocolMsg a;
+	private transient byte[] e;
+	private transient SigmaProtocolMsg z;
 	
 	/**
 	 * Sets the proof values.
@@ -78,4 +109,111 @@ public class ZKPOKFiatShamirProof implements Serializable{
 	public SigmaProtocolMsg getZ(){
 		return z;
 	}
+	
+	private void writeObject(ObjectOutputStream out) throws IOException {
+		writeMsg(out, a);
+		out.writeInt(e.length);
+		out.write(e);
+		writeMsg(out, z);
+	}
+	
+	private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		a = readMsg(in);
+		int len = in.readInt();
+		if (len < 0 || len > MAX_BYTES_LENGTH){
+			throw new IOException("illegal challenge length");
+		}
+		e = new byte[len];
+		in.readFully(e);
+		z = readMsg(in);
+	}
+	
+	/**
+	 * Writes the given message in the compact form.
+	 */
+	private static void writeMsg(ObjectOutputStream out, SigmaProtocolMsg msg) throws IOException {
+		//Only the exact general classes are written in the compact form, so that subclasses keep their type.
+		Class<?> msgClass = (msg == null) ? null : msg.getClass();
+		GroupElementSendableData element = (msgClass == SigmaGroupElementMsg.class) ? ((SigmaGroupElementMsg) msg).getElement() : null;
+		
+		if (msgClass == SigmaBIMsg.class && ((SigmaBIMsg) msg).getMsg() != null){
+			out.writeByte(BI_MSG);
+			writeBigInteger(out, ((SigmaBIMsg) msg).getMsg());
+			
+		} else if (element != null && element.getClass() == ZpElementSendableData.class && ((ZpElementSendableData) element).getX() != null){
+			out.writeByte(ZP_ELEMENT_MSG);
+			writeBigInteger(out, ((ZpElementSendableData) element).getX());
+			
+		} else if (element != null && element.getClass() == ECElementSendableData.class 
+				&& ((ECElementSendableData) element).getX() != null && ((ECElementSendableData) element).getY() != null){
+			out.writeByte(EC_ELEMENT_MSG);
+			writeBigInteger(out, ((ECElementSendableData) element).getX());
+			writeBigInteger(out, ((ECElementSendableData) element).getY());
+			
+		} else if (msgClass == SigmaMultipleMsg.class && ((SigmaMultipleMsg) msg).getMessages() != null){
+			ArrayList<SigmaProtocolMsg> messages = ((SigmaMultipleMsg) msg).getMessages();
+			out.writeByte(MULTIPLE_MSG);
+			out.writeInt(messages.size());
+			for (int i = 0; i < messages.size(); i++){
+				writeMsg(out, messages.get(i));
+			}
+			
+		} else {
+			//There is no compact form to the given message, use the default serialization.
+			out.writeByte(OBJECT_MSG);
+			out.writeObject(msg);
+		}
+	}
+	
+	/**
+	 * Reads a message that was written by writeMsg.
+	 */
+	private static SigmaProtocolMsg readMsg(ObjectInputStream in) throws IOException, ClassNotFoundException {
+		byte tag = in.readByte();
+		switch (tag){
+			case BI_MSG:
+				return new SigmaBIMsg(readBigInteger(in));
+			case ZP_ELEMENT_MSG:
+				return new SigmaGroupElementMsg(new ZpElementSendableData(readBigInteger(in)));
+			case EC_ELEMENT_MSG:
+				BigInteger x = readBigInteger(in);
+				BigInteger y = readBigInteger(in);
+				GroupElementSendableData point = new ECElementSendableData(x, y);
+				return new SigmaGroupElementMsg(point);
+			case MULTIPLE_MSG:
+				int size = in.readInt();
+				if (size < 0 || size > MAX_MESSAGES){
+					throw new IOException("illegal number of messages");
+				}
+				ArrayList<SigmaProtocolMsg> messages = new ArrayList<SigmaProtocolMsg>(size);
+				for (int i = 0; i < size; i++){
+					messages.add(readMsg(in));
+				}
+				return new SigmaMultipleMsg(messages);
+			case OBJECT_MSG:
+				Object msg = in.readObject();
+				if (msg != null && !(msg instanceof SigmaProtocolMsg)){
+					throw new IOException("the serialized message is not an instance of SigmaProtocolMsg");
+				}
+				return (SigmaProtocolMsg) msg;
+			default:
+				throw new IOException("unknown message type " + tag);
+		}
+	}
+	
+	private static void writeBigInteger(ObjectOutputStream out, BigInteger value) throws IOException {
+		byte[] bytes = value.toByteArray();
+		out.writeInt(bytes.length);
+		out.write(bytes);
+	}
+	
+	private static BigInteger readBigInteger(ObjectInputStream in) throws IOException {
+		int len = in.readInt();
+		if (len <= 0 || len > MAX_BYTES_LENGTH){
+			throw new IOException("illegal BigInteger length");
+		}
+		byte[] bytes = new byte[len];
+		in.readFully(bytes);
+		return new BigInteger(bytes);
+	}
 }
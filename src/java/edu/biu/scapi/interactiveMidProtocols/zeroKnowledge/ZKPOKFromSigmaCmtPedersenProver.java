@@ -26,15 +26,19 @@ package edu.biu.scapi.interactiveMidProtocols.zeroKnowledge;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.security.SecureRandom;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaProverComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProverInput;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersenTrapdoor.CmtPedersenTrapdoorReceiver;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRCommitPhaseOutput;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
 
 /**
  * Concrete implementation of Zero Knowledge prover.<p>
@@ -70,6 +74,24 @@ public class ZKPOKFromSigmaCmtPedersenProver implements ZKPOKProver{
 		this.channel = channel;
 	}
 	
+	/**
+	 * Constructor that accepts the underlying channel, sigma protocol's prover and the DlogGroup of the underlying commitment.<p>
+	 * The verifier should be created with the same DlogGroup.
+	 * @param channel used for communication
+	 * @param sProver underlying sigma prover to use.
+	 * @param dlog used by the underlying Pedersen commitment.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given dlog is not valid.
+	 * @throws IOException if there was a problem to create the receiver.
+	 */
+	public ZKPOKFromSigmaCmtPedersenProver(Channel channel, SigmaProverComputation sProver, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, IOException{
+		
+		this.sProver = sProver;
+		this.receiver = new CmtPedersenTrapdoorReceiver(channel, dlog, random);
+		this.channel = channel;
+	}
+	
 	/**
 	 * Runs the prover side of the Zero Knowledge proof.<p>
 	 * Let (a,e,z) denote the prover1, verifier challenge and prover2 messages of the sigma protocol.<p>
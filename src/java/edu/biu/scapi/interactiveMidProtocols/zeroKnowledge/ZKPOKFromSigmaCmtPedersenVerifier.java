@@ -30,12 +30,15 @@ import java.security.SecureRandom;
 
 import edu.biu.scapi.comm.Channel;
 import edu.biu.scapi.exceptions.CheatAttemptException;
+import edu.biu.scapi.exceptions.InvalidDlogGroupException;
+import edu.biu.scapi.exceptions.SecurityLevelException;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.SigmaVerifierComputation;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaCommonInput;
 import edu.biu.scapi.interactiveMidProtocols.sigmaProtocol.utility.SigmaProtocolMsg;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtCommitValue;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.CmtRCommitPhaseOutput;
 import edu.biu.scapi.interactiveMidProtocols.commitmentScheme.pedersenTrapdoor.CmtPedersenTrapdoorCommitter;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
 
 /**
  * Concrete implementation of Zero Knowledge verifier.<p>
@@ -75,6 +78,27 @@ public class ZKPOKFromSigmaCmtPedersenVerifier implements ZKPOKVerifier{
 		this.random = random;
 	}
 	
+	/**
+	 * Constructor that accepts the underlying channel, sigma protocol's verifier and the DlogGroup of the underlying commitment.<p>
+	 * The prover should be created with the same DlogGroup.
+	 * @param channel used for communication
+	 * @param sVerifier underlying sigma verifier to use.
+	 * @param dlog used by the underlying Pedersen commitment.
+	 * @param random
+	 * @throws SecurityLevelException if the given dlog is not DDH secure.
+	 * @throws InvalidDlogGroupException if the given dlog is not valid.
+	 * @throws CheatAttemptException in case the verifier suspects the prover is trying to cheat.
+	 * @throws IOException if there was a problem during the communication.
+	 * @throws ClassNotFoundException if there was a problem during the serialization mechanism.
+	 */
+	public ZKPOKFromSigmaCmtPedersenVerifier(Channel channel, SigmaVerifierComputation sVerifier, DlogGroup dlog, SecureRandom random) throws SecurityLevelException, InvalidDlogGroupException, ClassNotFoundException, IOException, CheatAttemptException{
+	
+		this.channel = channel;
+		this.sVerifier = sVerifier;
+		this.committer = new CmtPedersenTrapdoorCommitter(channel, dlog, random);
+		this.random = random;
+	}
+	
 	/**
 	 * Runs the verifier side of the Zero Knowledge proof.<p>
 	 * Let (a,e,z) denote the prover1, verifier challenge and prover2 messages of the sigma protocol.<p>
@@ -0,0 +1,64 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.math.BigInteger;
+import java.util.List;
+
+import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
+
+/**
+ * This interface is implemented by additively homomorphic encryption schemes that can combine a list of ciphertexts at once.<p>
+ * 
+ * The result of each function is the same as combining the ciphertexts one by one using the functions of {@link AsymAdditiveHomomorphicEnc}, 
+ * but implementations may compute it more efficiently, for example in parallel.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface AsymAdditiveHomomorphicBatchEnc extends AsymAdditiveHomomorphicEnc {
+	
+	/**
+	 * Receives ciphertexts c1 = Enc(m1), ..., ck = Enc(mk) and returns an encryption of m1 + ... + mk.
+	 * @param ciphers the ciphertexts to sum. Should contain at least one ciphertext.
+	 * @return the addition result
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption.
+	 */
+	public AsymmetricCiphertext sum(List<? extends AsymmetricCiphertext> ciphers);
+	
+	/**
+	 * Receives ciphertexts c1 = Enc(m1), ..., ck = Enc(mk) and constant numbers a1, ..., ak 
+	 * and returns an encryption of a1*m1 + ... + ak*mk.
+	 * @param ciphers the ciphertexts. Should contain at least one ciphertext.
+	 * @param constNumbers the constant numbers. Should have the same size as ciphers.
+	 * @return the inner product result
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given ciphertexts do not match this asymmetric encryption 
+	 * 									or the sizes of the lists are different.
+	 */
+	public AsymmetricCiphertext innerProduct(List<? extends AsymmetricCiphertext> ciphers, List<BigInteger> constNumbers);
+}
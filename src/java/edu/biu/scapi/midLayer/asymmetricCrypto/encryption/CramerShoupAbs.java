@@ -69,6 +69,7 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 	protected SecureRandom random;
 	protected BigInteger qMinusOne; 				// Saved to avoid many calculations.
 	private boolean isKeySet;
+	private CramerShoupRandomnessPool randomnessPool;	//Optional pool of precomputed randomness.
 	
 	/**
 	 * Default constructor. It uses a default Dlog group and CryptographicHash.
@@ -385,12 +386,49 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 		 *	Create and return an CramerShoupCiphertext object with u1, u2, e and v.
 		 */
 		
+		//If there are precomputed values, the exponentiations of r are taken from the pool.
+		CramerShoupRandomnessPool.Randomness randomness = pollRandomness();
+		if (randomness != null){
+			return completeEncryption(plaintext, randomness);
+		}
+		
 		//Choose the random r.
 		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
 		return encrypt(plaintext, r);
 	}
 	
+	/**
+	 * Encrypts the given plaintext using precomputed exponentiations of a random r.
+	 * @param plaintext message to encrypt.
+	 * @param randomness the precomputed values.
+	 * @return Ciphertext the encrypted plaintext.
+	 */
+	protected abstract AsymmetricCiphertext completeEncryption(Plaintext plaintext, CramerShoupRandomnessPool.Randomness randomness);
+	
+	/**
+	 * Sets a pool of precomputed randomness.<p>
+	 * When the pool is set, the encrypt function that chooses the random value by itself takes the exponentiations 
+	 * of the random value from the pool. If the pool is empty or does not match the current public key, 
+	 * the exponentiations are computed as usual.
+	 * @param pool the pool to use, or null in order to stop using a pool.
+	 */
+	public void setRandomnessPool(CramerShoupRandomnessPool pool){
+		this.randomnessPool = pool;
+	}
+	
+	/**
+	 * Returns precomputed values from the randomness pool.
+	 * @return the values, or null if there is no pool, the pool does not match the public key or the pool is empty.
+	 */
+	private CramerShoupRandomnessPool.Randomness pollRandomness(){
+		CramerShoupRandomnessPool pool = randomnessPool;
+		if (pool == null || !pool.matches(publicKey)){
+			return null;
+		}
+		return pool.poll();
+	}
+	
 	/**
 	 * Calculates h^r
 	 * @param r a random value.
@@ -461,6 +499,19 @@ public abstract class CramerShoupAbs implements CramerShoupDDHEnc{
 		return v;
 	}
 	
+	/**
+	 * calculate the v value of the encryption using precomputed values.
+	 * v = c^r * (d^r)^alpha.
+	 * @param randomness the precomputed values of r.
+	 * @param alpha the value returned from the hash calculation.
+	 * @return the calculated value v.
+	 */
+	protected GroupElement calcV(CramerShoupRandomnessPool.Randomness randomness, byte[] alpha) {
+		BigInteger alphaModQ = new BigInteger(alpha).mod(dlogGroup.getOrder());
+		GroupElement dExpRAlpha = dlogGroup.exponentiate(randomness.getDExpR(), alphaModQ);
+		return dlogGroup.multiplyGroupElements(randomness.getCExpR(), dExpRAlpha);
+	}
+	
 	/**
 	 * This function is called from the decrypt function. It Validates that the given cipher is correct.
 	 * If the function find that the cipher is not valid, it throws a ScapiRuntimeException.
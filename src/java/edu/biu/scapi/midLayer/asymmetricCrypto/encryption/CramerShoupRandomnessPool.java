@@ -0,0 +1,214 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.CramerShoupPublicKey;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Pool of precomputed randomness for the Cramer-Shoup encryption schemes.<p>
+ * 
+ * For a random r, the pool computes u1 = g1^r, u2 = g2^r, h^r, c^r and d^r. These exponentiations do not depend 
+ * on the plaintext, so they can be computed offline. After setting the pool in 
+ * {@link CramerShoupAbs#setRandomnessPool(CramerShoupRandomnessPool)}, the encryption function that chooses the random 
+ * value by itself takes the values from the pool. The online encryption then computes v = c^r * (d^r)^alpha, 
+ * which is a single exponentiation by the hash output alpha.<p>
+ * 
+ * Each pool belongs to one public key and should get the DlogGroup instance of the encryption scheme, 
+ * since the precomputed elements are combined with the elements of that group. {@link #fill()} uses this DlogGroup, 
+ * so it should be called by the thread that uses the encryption scheme. The background threads compute the values in their 
+ * own copies of the group (see {@link DlogGroupFactory#getThreadCopy(DlogGroup)}), and the values are moved to the group 
+ * of the encryption scheme when they are taken from the pool.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class CramerShoupRandomnessPool extends PrecomputedRandomnessPool<CramerShoupRandomnessPool.Randomness> {
+	
+	private DlogGroup dlog;						//The underlying DlogGroup.
+	private CramerShoupPublicKey publicKey;
+	private GroupElementSendableData[] keyData;	//g1, g2, h, c and d, to be reconstructed in the copies of the group.
+	private BigInteger qMinusOne;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that sets the group and public key of the precomputed values.
+	 * @param dlog the DlogGroup of the encryption scheme.
+	 * @param publicKey the public key of the encryption scheme.
+	 * @param capacity maximum number of values in the pool.
+	 * @param random source of randomness. SecureRandom is thread safe, so it can be used by the background threads.
+	 */
+	public CramerShoupRandomnessPool(DlogGroup dlog, CramerShoupPublicKey publicKey, int capacity, SecureRandom random){
+		super(capacity);
+		this.dlog = dlog;
+		this.publicKey = publicKey;
+		this.keyData = new GroupElementSendableData[]{publicKey.getGenerator1().generateSendableData(), 
+				publicKey.getGenerator2().generateSendableData(), publicKey.getH().generateSendableData(), 
+				publicKey.getC().generateSendableData(), publicKey.getD().generateSendableData()};
+		this.qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		this.random = random;
+	}
+	
+	/**
+	 * Constructor that sets the group and public key of the precomputed values and uses a default SecureRandom.
+	 * @param dlog the DlogGroup of the encryption scheme.
+	 * @param publicKey the public key of the encryption scheme.
+	 * @param capacity maximum number of values in the pool.
+	 */
+	public CramerShoupRandomnessPool(DlogGroup dlog, CramerShoupPublicKey publicKey, int capacity){
+		this(dlog, publicKey, capacity, new SecureRandom());
+	}
+	
+	/**
+	 * Chooses a random r in Zq and computes g1^r, g2^r, h^r, c^r and d^r.
+	 */
+	protected Randomness generate(){
+		return new Randomness(generate(dlog, new GroupElement[]{publicKey.getGenerator1(), publicKey.getGenerator2(), 
+				publicKey.getH(), publicKey.getC(), publicKey.getD()}));
+	}
+	
+	/**
+	 * Computes the values in the copy of the group of the background thread, and keeps them as sendable data.
+	 */
+	protected Randomness generateInBackground(){
+		DlogGroup copy = DlogGroupFactory.getInstance().getThreadCopy(dlog);
+		GroupElement[] bases = new GroupElement[keyData.length];
+		for (int i = 0; i < bases.length; i++){
+			bases[i] = copy.reconstructElement(false, keyData[i]);
+		}
+		GroupElement[] values = generate(copy, bases);
+		GroupElementSendableData[] data = new GroupElementSendableData[values.length];
+		for (int i = 0; i < values.length; i++){
+			data[i] = values[i].generateSendableData();
+		}
+		return new Randomness(data);
+	}
+	
+	/**
+	 * Reconstructs values that were computed by a background thread in the group of the encryption scheme.
+	 */
+	protected Randomness prepare(Randomness randomness){
+		if (randomness.data == null){
+			return randomness;
+		}
+		GroupElement[] values = new GroupElement[randomness.data.length];
+		for (int i = 0; i < values.length; i++){
+			values[i] = dlog.reconstructElement(false, randomness.data[i]);
+		}
+		return new Randomness(values);
+	}
+	
+	/**
+	 * Starts background threads that keep the pool full. Each thread computes in its own copy of the DlogGroup.
+	 * @throws IllegalStateException if the DlogGroup cannot be copied (see {@link DlogGroupFactory#canCopy(DlogGroup)}) 
+	 * or if the background threads are already running.
+	 */
+	public synchronized void start(int numOfThreads){
+		if (!DlogGroupFactory.getInstance().canCopy(dlog)){
+			throw new IllegalStateException("the pool cannot be refilled in the background since its DlogGroup cannot be copied");
+		}
+		super.start(numOfThreads);
+	}
+	
+	/**
+	 * Chooses a random r in Zq and raises each of the given bases (g1, g2, h, c and d) to r.
+	 */
+	private GroupElement[] generate(DlogGroup group, GroupElement[] bases){
+		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		GroupElement[] values = new GroupElement[bases.length];
+		for (int i = 0; i < bases.length; i++){
+			values[i] = group.exponentiate(bases[i], r);
+		}
+		return values;
+	}
+	
+	/**
+	 * Checks if the values of this pool were computed with the given public key.
+	 * @param key the public key of the encryption.
+	 * @return true if the values of this pool can be used by the encryption; false, otherwise.
+	 */
+	public boolean matches(CramerShoupPublicKey key){
+		return publicKey == key ||
+				(publicKey.getH().equals(key.getH()) && publicKey.getC().equals(key.getC()) && publicKey.getD().equals(key.getD()) 
+				&& publicKey.getGenerator1().equals(key.getGenerator1()) && publicKey.getGenerator2().equals(key.getGenerator2()));
+	}
+	
+	/**
+	 * Precomputed values of one encryption.
+	 */
+	public static class Randomness {
+		private GroupElement u1;
+		private GroupElement u2;
+		private GroupElement hExpR;
+		private GroupElement cExpR;
+		private GroupElement dExpR;
+		//The values of a background thread, before they are reconstructed in the group of the encryption scheme.
+		private GroupElementSendableData[] data;
+		
+		Randomness(GroupElement u1, GroupElement u2, GroupElement hExpR, GroupElement cExpR, GroupElement dExpR){
+			this.u1 = u1;
+			this.u2 = u2;
+			this.hExpR = hExpR;
+			this.cExpR = cExpR;
+			this.dExpR = dExpR;
+		}
+		
+		Randomness(GroupElement[] values){
+			this(values[0], values[1], values[2], values[3], values[4]);
+		}
+		
+		Randomness(GroupElementSendableData[] data){
+			this.data = data;
+		}
+		
+		public GroupElement getU1(){
+			return u1;
+		}
+		
+		public GroupElement getU2(){
+			return u2;
+		}
+		
+		public GroupElement getHExpR(){
+			return hExpR;
+		}
+		
+		public GroupElement getCExpR(){
+			return cExpR;
+		}
+		
+		public GroupElement getDExpR(){
+			return dExpR;
+		}
+	}
+}
@@ -0,0 +1,109 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPublicKey;
+
+/**
+ * Pool of precomputed r^N mod N' values for the Damgard-Jurik encryption scheme, where N = n^s and N' = n^(s+1).<p>
+ * 
+ * Computing r^N is the most expensive part of the encryption, re-randomization and the homomorphic operations 
+ * of Damgard-Jurik. Since it does not depend on the plaintext, it can be computed offline. 
+ * After setting the pool in {@link ScDamgardJurikEnc#setRandomnessPool(DamgardJurikRandomnessPool)}, 
+ * the functions that choose the random value by themselves take r^N from the pool.<p>
+ * 
+ * Each pool belongs to one public key and one length parameter s.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class DamgardJurikRandomnessPool extends PrecomputedRandomnessPool<BigInteger> {
+	
+	private BigInteger n;				//The modulus of the public key.
+	private int s;						//The length parameter.
+	private BigInteger N;				//n^s
+	private BigInteger Ntag;			//n^(s+1)
+	private BigInteger NtagMinus1;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that sets the key and length parameter of the precomputed values.
+	 * @param publicKey the public key of the encryption scheme.
+	 * @param s the length parameter of the encryption scheme.
+	 * @param capacity maximum number of values in the pool.
+	 * @param random source of randomness. SecureRandom is thread safe, so it can be used by the background threads.
+	 */
+	public DamgardJurikRandomnessPool(DamgardJurikPublicKey publicKey, int s, int capacity, SecureRandom random){
+		super(capacity);
+		if (s <= 0){
+			throw new IllegalArgumentException("the length parameter should be positive");
+		}
+		this.n = publicKey.getModulus();
+		this.s = s;
+		this.N = n.pow(s);
+		this.Ntag = N.multiply(n);
+		this.NtagMinus1 = Ntag.subtract(BigInteger.ONE);
+		this.random = random;
+	}
+	
+	/**
+	 * Constructor that sets the key and length parameter of the precomputed values and uses a default SecureRandom.
+	 * @param publicKey the public key of the encryption scheme.
+	 * @param s the length parameter of the encryption scheme.
+	 * @param capacity maximum number of values in the pool.
+	 */
+	public DamgardJurikRandomnessPool(DamgardJurikPublicKey publicKey, int s, int capacity){
+		this(publicKey, s, capacity, new SecureRandom());
+	}
+	
+	/**
+	 * Chooses a random r in ZN'* and computes r^N mod N'.
+	 */
+	protected BigInteger generate(){
+		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
+		//which is with overwhelming probability in Zntag*.
+		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
+		return r.modPow(N, Ntag);
+	}
+	
+	/**
+	 * Returns the length parameter s of the precomputed values.
+	 */
+	public int getLengthParameter(){
+		return s;
+	}
+	
+	/**
+	 * Returns the modulus n of the public key of the precomputed values.
+	 */
+	public BigInteger getModulus(){
+		return n;
+	}
+}
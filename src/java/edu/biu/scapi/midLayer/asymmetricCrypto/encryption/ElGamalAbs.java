@@ -70,6 +70,7 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 	protected SecureRandom random;				//Source of randomness
 	private boolean isKeySet;
 	protected BigInteger qMinusOne;				//We keep this value to save unnecessary calculations.
+	private ElGamalRandomnessPool randomnessPool;	//Optional pool of precomputed (g^y, h^y) pairs.
 	
 	
 	/**
@@ -267,6 +268,29 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 	return (ElGamalPrivateKey)data;
 	}
 	
+	/**
+	 * Sets a pool of precomputed (g^y, h^y) pairs.<p>
+	 * When the pool is set, the functions that choose the random value by themselves take a pair from the pool 
+	 * instead of computing the exponentiations. If the pool is empty or does not match the current public key, 
+	 * the pair is computed as usual.
+	 * @param pool the pool to use, or null in order to stop using a pool.
+	 */
+	public void setRandomnessPool(ElGamalRandomnessPool pool){
+		this.randomnessPool = pool;
+	}
+	
+	/**
+	 * Returns a precomputed pair from the randomness pool.
+	 * @return the pair, or null if there is no pool, the pool does not match the public key or the pool is empty.
+	 */
+	protected ElGamalRandomnessPool.Randomness pollRandomness(){
+		ElGamalRandomnessPool pool = randomnessPool;
+		if (pool == null || !pool.matches(dlog.getGenerator(), publicKey)){
+			return null;
+		}
+		return pool.poll();
+	}
+	
 	/**
 	 * Encrypts the given message using ElGamal encryption scheme.
 	 * 
@@ -287,6 +311,12 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		 *		Calculate c2 = h^y * plaintext.getElement() mod p // For ElGamal on a GroupElement.
 		 *					OR KDF(h^y) XOR plaintext.getBytes()  // For ElGamal on a ByteArray.
 		 */
+		//If there is a precomputed pair, only the completion of the encryption is computed.
+		ElGamalRandomnessPool.Randomness randomness = pollRandomness();
+		if (randomness != null){
+			return completeEncryption(randomness.getGExpY(), randomness.getHExpY(), plaintext);
+		}
+		
 		//Chooses a random value y<-Zq.
 		BigInteger y = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
 		
@@ -333,6 +363,28 @@ public abstract class ElGamalAbs implements ElGamalEnc{
 		return completeEncryption(c1, hy, plaintext);
 	}
 	
+	/**
+	 * Encrypts the given plaintext using the given exponentiations of a random value r.<p>
+	 * This function lets a caller that encrypts many values compute the exponentiations of all the values first, 
+	 * for example by several threads, and then complete the encryptions. The caller is responsible to compute both elements 
+	 * with the same random value r in Zq, using the generator of the group and the current public key.
+	 * 
+	 * @param plaintext contains message to encrypt. The given plaintext must match this ElGamal type.
+	 * @param gExpR the element g^r.
+	 * @param hExpR the element h^r, where h is the public key.
+	 * @return Ciphertext containing the encrypted message.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException if the given Plaintext does not match this ElGamal type.
+	 */
+	public AsymmetricCiphertext encrypt(Plaintext plaintext, GroupElement gExpR, GroupElement hExpR) {
+		// If there is no public key can not encrypt, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to encrypt a message this object must be initialized with public key");
+		}
+		
+		return completeEncryption(gExpR, hExpR, plaintext);
+	}
+	
 	protected abstract AsymmetricCiphertext completeEncryption(GroupElement c1, GroupElement hy, Plaintext plaintext);
 	
 	
@@ -0,0 +1,178 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.math.BigInteger;
+import java.security.SecureRandom;
+
+import org.bouncycastle.util.BigIntegers;
+
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ElGamalPublicKey;
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.GroupElement;
+import edu.biu.scapi.primitives.dlog.GroupElementSendableData;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Pool of precomputed (g^y, h^y) pairs for the ElGamal encryption schemes, where h is the public key.<p>
+ * 
+ * The two exponentiations are the most expensive part of the ElGamal encryption and do not depend on the plaintext, 
+ * so they can be computed offline. After setting the pool in {@link ElGamalAbs#setRandomnessPool(ElGamalRandomnessPool)}, 
+ * the encryption functions that choose the random value by themselves take a pair from the pool, 
+ * and the online encryption costs only the combination of h^y with the plaintext.<p>
+ * 
+ * Each pool belongs to one public key and should get the DlogGroup instance of the encryption scheme, 
+ * since the precomputed elements are combined with the elements of that group. {@link #fill()} uses this DlogGroup, 
+ * so it should be called by the thread that uses the encryption scheme. The background threads compute the pairs in their 
+ * own copies of the group (see {@link DlogGroupFactory#getThreadCopy(DlogGroup)}), and the pairs are moved to the group 
+ * of the encryption scheme when they are taken from the pool.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ElGamalRandomnessPool extends PrecomputedRandomnessPool<ElGamalRandomnessPool.Randomness> {
+	
+	private DlogGroup dlog;					//The underlying DlogGroup.
+	private GroupElement h;					//The public key.
+	private GroupElementSendableData hData;	//The public key, to be reconstructed in the copies of the group.
+	private BigInteger qMinusOne;
+	private SecureRandom random;
+	
+	/**
+	 * Constructor that sets the group and public key of the precomputed values.
+	 * @param dlog the DlogGroup of the encryption scheme.
+	 * @param publicKey the public key of the encryption scheme.
+	 * @param capacity maximum number of values in the pool.
+	 * @param random source of randomness. SecureRandom is thread safe, so it can be used by the background threads.
+	 */
+	public ElGamalRandomnessPool(DlogGroup dlog, ElGamalPublicKey publicKey, int capacity, SecureRandom random){
+		super(capacity);
+		this.dlog = dlog;
+		this.h = publicKey.getH();
+		this.hData = h.generateSendableData();
+		this.qMinusOne = dlog.getOrder().subtract(BigInteger.ONE);
+		this.random = random;
+	}
+	
+	/**
+	 * Constructor that sets the group and public key of the precomputed values and uses a default SecureRandom.
+	 * @param dlog the DlogGroup of the encryption scheme.
+	 * @param publicKey the public key of the encryption scheme.
+	 * @param capacity maximum number of values in the pool.
+	 */
+	public ElGamalRandomnessPool(DlogGroup dlog, ElGamalPublicKey publicKey, int capacity){
+		this(dlog, publicKey, capacity, new SecureRandom());
+	}
+	
+	/**
+	 * Chooses a random y in Zq and computes g^y and h^y.
+	 */
+	protected Randomness generate(){
+		return generate(dlog, h);
+	}
+	
+	/**
+	 * Computes the pair in the copy of the group of the background thread, and keeps it as sendable data.
+	 */
+	protected Randomness generateInBackground(){
+		DlogGroup copy = DlogGroupFactory.getInstance().getThreadCopy(dlog);
+		Randomness randomness = generate(copy, copy.reconstructElement(false, hData));
+		return new Randomness(randomness.gExpY.generateSendableData(), randomness.hExpY.generateSendableData());
+	}
+	
+	/**
+	 * Reconstructs a pair that was computed by a background thread in the group of the encryption scheme.
+	 */
+	protected Randomness prepare(Randomness randomness){
+		if (randomness.gExpY != null){
+			return randomness;
+		}
+		return new Randomness(dlog.reconstructElement(false, randomness.gExpYData), dlog.reconstructElement(false, randomness.hExpYData));
+	}
+	
+	/**
+	 * Starts background threads that keep the pool full. Each thread computes in its own copy of the DlogGroup.
+	 * @throws IllegalStateException if the DlogGroup cannot be copied (see {@link DlogGroupFactory#canCopy(DlogGroup)}) 
+	 * or if the background threads are already running.
+	 */
+	public synchronized void start(int numOfThreads){
+		if (!DlogGroupFactory.getInstance().canCopy(dlog)){
+			throw new IllegalStateException("the pool cannot be refilled in the background since its DlogGroup cannot be copied");
+		}
+		super.start(numOfThreads);
+	}
+	
+	private Randomness generate(DlogGroup group, GroupElement publicKey){
+		BigInteger y = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+		GroupElement gExpY = group.exponentiate(group.getGenerator(), y);
+		GroupElement hExpY = group.exponentiate(publicKey, y);
+		return new Randomness(gExpY, hExpY);
+	}
+	
+	/**
+	 * Checks if the values of this pool were computed with the given generator and public key.
+	 * @param generator the generator of the encryption's DlogGroup.
+	 * @param publicKey the public key of the encryption.
+	 * @return true if the values of this pool can be used by the encryption; false, otherwise.
+	 */
+	public boolean matches(GroupElement generator, ElGamalPublicKey publicKey){
+		return h.equals(publicKey.getH()) && dlog.getGenerator().equals(generator);
+	}
+	
+	/**
+	 * A precomputed pair (g^y, h^y).
+	 */
+	public static class Randomness {
+		private GroupElement gExpY;
+		private GroupElement hExpY;
+		//The pair of a background thread, before it is reconstructed in the group of the encryption scheme.
+		private GroupElementSendableData gExpYData;
+		private GroupElementSendableData hExpYData;
+		
+		Randomness(GroupElement gExpY, GroupElement hExpY){
+			this.gExpY = gExpY;
+			this.hExpY = hExpY;
+		}
+		
+		Randomness(GroupElementSendableData gExpYData, GroupElementSendableData hExpYData){
+			this.gExpYData = gExpYData;
+			this.hExpYData = hExpYData;
+		}
+		
+		/**
+		 * Returns g^y, which is the first part of the ciphertext.
+		 */
+		public GroupElement getGExpY(){
+			return gExpY;
+		}
+		
+		/**
+		 * Returns h^y.
+		 */
+		public GroupElement getHExpY(){
+			return hExpY;
+		}
+	}
+}
@@ -0,0 +1,244 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.asymmetricCrypto.encryption;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Abstract class of a bounded pool of precomputed encryption randomness.<p>
+ * 
+ * Many encryption schemes spend most of the encryption time on exponentiations that do not depend on the plaintext 
+ * (for example, r^N in Damgard-Jurik or (g^y, h^y) in ElGamal). These values can be computed offline and kept in a pool, 
+ * so that the online encryption only combines the plaintext with a precomputed value.<p>
+ * 
+ * The pool can be filled synchronously by calling {@link #fill()}, or refilled in the background by threads that are 
+ * started by {@link #start(int)}. The background threads keep the pool full and wait while it is full. 
+ * Pools whose values are computed with objects that are not thread safe compute them in the background threads with 
+ * objects of their own ({@link #generateInBackground()}) and adapt them to the objects of the encryption scheme 
+ * when they are taken ({@link #prepare(Object)}).<p>
+ * 
+ * Each precomputed value is given once by {@link #poll()} and never reused. If the pool is empty, poll returns null 
+ * and the encryption scheme should compute the randomness by itself. Such events are counted as misses, 
+ * so the user can tell whether the pool is large enough for the encryption rate.<p>
+ * 
+ * This class is thread safe.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ * @param <T> the type of the precomputed values.
+ */
+public abstract class PrecomputedRandomnessPool<T> {
+	
+	private ArrayBlockingQueue<T> pool;			//The precomputed values.
+	private int capacity;						//Maximum number of values in the pool.
+	private Thread[] threads;					//Background threads that refill the pool.
+	private volatile boolean running;			//Indicates if the background threads should keep working.
+	
+	//Metrics of the pool usage.
+	private AtomicLong generated = new AtomicLong();
+	private AtomicLong taken = new AtomicLong();
+	private AtomicLong misses = new AtomicLong();
+	
+	/**
+	 * Constructor that sets the maximum number of precomputed values in the pool.
+	 * @param capacity maximum number of values in the pool.
+	 * @throws IllegalArgumentException if the capacity is not positive.
+	 */
+	protected PrecomputedRandomnessPool(int capacity){
+		if (capacity <= 0){
+			throw new IllegalArgumentException("the capacity of the pool should be positive");
+		}
+		this.capacity = capacity;
+		pool = new ArrayBlockingQueue<T>(capacity);
+	}
+	
+	/**
+	 * Computes one precomputed value. This function should use fresh randomness each time it is called.
+	 * @return the precomputed value.
+	 */
+	protected abstract T generate();
+	
+	/**
+	 * Computes one precomputed value in a background thread of the pool. Calls {@link #generate()} by default.
+	 * @return the precomputed value.
+	 */
+	protected T generateInBackground(){
+		return generate();
+	}
+	
+	/**
+	 * Adapts a value that is taken from the pool to the thread that took it. Returns the given value by default.
+	 * @param value the value that was taken from the pool.
+	 * @return the value to use.
+	 */
+	protected T prepare(T value){
+		return value;
+	}
+	
+	/**
+	 * Returns a precomputed value and removes it from the pool.
+	 * @return a precomputed value or null if the pool is empty.
+	 */
+	public T poll(){
+		T value = pool.poll();
+		if (value == null){
+			misses.incrementAndGet();
+			return null;
+		}
+		taken.incrementAndGet();
+		return prepare(value);
+	}
+	
+	/**
+	 * Fills the pool up to its capacity, in the calling thread.
+	 */
+	public void fill(){
+		while (pool.remainingCapacity() > 0){
+			if (!pool.offer(generate())){
+				//Other threads filled the pool in the meantime.
+				return;
+			}
+			generated.incrementAndGet();
+		}
+	}
+	
+	/**
+	 * Starts background threads that keep the pool full.<p>
+	 * The threads are daemon threads so they do not prevent the application from exiting. 
+	 * @param numOfThreads number of threads that compute values in parallel.
+	 * @throws IllegalStateException if the background threads are already running.
+	 * @throws IllegalArgumentException if the number of threads is not positive.
+	 */
+	public synchronized void start(int numOfThreads){
+		if (running){
+			throw new IllegalStateException("the pool is already refilled in the background");
+		}
+		if (numOfThreads <= 0){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		running = true;
+		threads = new Thread[numOfThreads];
+		for (int i = 0; i < numOfThreads; i++){
+			threads[i] = new RefillThread();
+			threads[i].start();
+		}
+	}
+	
+	/**
+	 * Stops the background threads. The values that were already computed stay in the pool.
+	 */
+	public synchronized void stop(){
+		if (!running){
+			return;
+		}
+		running = false;
+		for (int i = 0; i < threads.length; i++){
+			threads[i].interrupt();
+		}
+		for (int i = 0; i < threads.length; i++){
+			try {
+				threads[i].join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				break;
+			}
+		}
+		threads = null;
+	}
+	
+	/**
+	 * Returns true if the pool is refilled by background threads.
+	 */
+	public boolean isRunning(){
+		return running;
+	}
+	
+	/**
+	 * Returns the maximum number of values in the pool.
+	 */
+	public int getCapacity(){
+		return capacity;
+	}
+	
+	/**
+	 * Returns the number of values that are currently in the pool.
+	 */
+	public int size(){
+		return pool.size();
+	}
+	
+	/**
+	 * Returns the number of values that were computed by this pool.
+	 */
+	public long getGeneratedCount(){
+		return generated.get();
+	}
+	
+	/**
+	 * Returns the number of values that were taken from the pool.
+	 */
+	public long getTakenCount(){
+		return taken.get();
+	}
+	
+	/**
+	 * Returns the number of times the pool was empty when a value was requested.
+	 */
+	public long getMissCount(){
+		return misses.get();
+	}
+	
+	/**
+	 * Sets the metrics of the pool to zero. The values in the pool are not removed.
+	 */
+	public void resetMetrics(){
+		generated.set(0);
+		taken.set(0);
+		misses.set(0);
+	}
+	
+	/**
+	 * Thread that computes values and puts them in the pool, waiting while the pool is full.
+	 */
+	private class RefillThread extends Thread{
+		
+		RefillThread(){
+			setName("RandomnessPoolRefill");
+			setDaemon(true);
+		}
+		
+		public void run(){
+			try {
+				while (running){
+					pool.put(generateInBackground());
+					generated.incrementAndGet();
+				}
+			} catch (InterruptedException e) {
+				//The pool was stopped.
+			}
+		}
+	}
+}
@@ -169,6 +169,21 @@ public class ScCramerShoupDDHOnByteArray extends CramerShoupAbs{
 	 * @throws IllegalArgumentException if the given Plaintext is not instance of ByteArrayPlaintext.
 	 */
 	public AsymmetricCiphertext encrypt(Plaintext plaintext, BigInteger r){
+		return computeEncryption(plaintext, r, null);
+	}
+	
+	/**
+	 * Encrypts the given plaintext using precomputed exponentiations of a random r.
+	 */
+	@Override
+	protected AsymmetricCiphertext completeEncryption(Plaintext plaintext, CramerShoupRandomnessPool.Randomness randomness){
+		return computeEncryption(plaintext, null, randomness);
+	}
+	
+	/**
+	 * Encrypts the given plaintext using the given random value or the given precomputed values (exactly one of them is not null).
+	 */
+	private AsymmetricCiphertext computeEncryption(Plaintext plaintext, BigInteger r, CramerShoupRandomnessPool.Randomness randomness){
 		/*
 		 *	Calculate 	u1 = g1^r<p>
 		 *         		u2 = g2^r<p>
@@ -188,12 +203,12 @@ public class ScCramerShoupDDHOnByteArray extends CramerShoupAbs{
 		byte[] msg = ((ByteArrayPlaintext) plaintext).getText();
 		
 		//Check that the random value passed to this function is in Zq.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(qMinusOne)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(qMinusOne)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
-		GroupElement u1 = calcU1(r);
-		GroupElement u2 = calcU2(r);
-		GroupElement hExpr = calcHExpR(r);
+		GroupElement u1 = (randomness != null) ? randomness.getU1() : calcU1(r);
+		GroupElement u2 = (randomness != null) ? randomness.getU2() : calcU2(r);
+		GroupElement hExpr = (randomness != null) ? randomness.getHExpR() : calcHExpR(r);
 		byte[] hrBytes = dlogGroup.mapAnyGroupElementToByteArray(hExpr);
 		byte[] e = kdf.deriveKey(hrBytes, 0, hrBytes.length, msg.length).getEncoded();
 		
@@ -209,7 +224,7 @@ public class ScCramerShoupDDHOnByteArray extends CramerShoupAbs{
 		byte[] alpha = calcAlpha(u1ToByteArray, u2ToByteArray, e);
 		
 		//Calculates v = c^r * d^(r*alpha).
-		GroupElement v = calcV(r, alpha); 
+		GroupElement v = (randomness != null) ? calcV(randomness, alpha) : calcV(r, alpha); 
 		
 		//Creates and return an CramerShoupCiphertext object with u1, u2, e and v.
 		return new CramerShoupOnByteArrayCiphertext(u1, u2, e, v);
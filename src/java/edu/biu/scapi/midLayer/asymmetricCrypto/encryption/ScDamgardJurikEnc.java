@@ -36,6 +36,8 @@ import java.security.PublicKey;
 import java.security.SecureRandom;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Vector;
 
 import org.bouncycastle.util.BigIntegers;
@@ -45,6 +47,7 @@ import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPrivateKey;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.DamgardJurikPublicKey;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.KeySendableData;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScDamgardJurikPrivateKey;
+import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScDamgardJurikPrivateKey.DecryptionValues;
 import edu.biu.scapi.midLayer.asymmetricCrypto.keys.ScDamgardJurikPublicKey;
 import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertext;
 import edu.biu.scapi.midLayer.ciphertext.AsymmetricCiphertextSendableData;
@@ -54,6 +57,8 @@ import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.primitives.trapdoorPermutation.RSAModulus;
 import edu.biu.scapi.primitives.trapdoorPermutation.ScRSAPermutation;
 import edu.biu.scapi.tools.math.MathAlgorithms;
+import edu.biu.scapi.tools.BatchRangeRunner;
+import edu.biu.scapi.tools.math.MontgomeryMultiplier;
 
 /**
  * Damgard Jurik is an asymmetric encryption scheme based on the Paillier encryption scheme.
@@ -62,7 +67,7 @@ import edu.biu.scapi.tools.math.MathAlgorithms;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class ScDamgardJurikEnc implements DamgardJurikEnc {
+public class ScDamgardJurikEnc implements DamgardJurikBatchEnc {
 	
 	private DamgardJurikPublicKey publicKey;
 	private DamgardJurikPrivateKey privateKey;
@@ -70,6 +75,12 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	private boolean isKeySet;
 	
 	private int consts = -1;
+	private DamgardJurikRandomnessPool randomnessPool; //Optional pool of precomputed r^N values.
+	
+	//Parameters of the batch operations (sum, innerProduct and reRandomize of a list).
+	private static final int MIN_CIPHERS_PER_THREAD = 64;	//Smaller lists are not worth the threads overhead.
+	private int numOfThreads = Runtime.getRuntime().availableProcessors();
+	private boolean useMontgomery = false;	//Indicates if the products are accumulated using Montgomery multiplication.
 
 
 	/**
@@ -227,6 +238,39 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		this.consts = s;
 	}
 	
+	/**
+	 * Sets the number of threads used by the batch operations (sum, innerProduct and reRandomize of a list).<p>
+	 * Lists are split into ranges that are processed in parallel, and the partial results are combined in a binary tree.
+	 * By default, the number of available processors is used. 
+	 * @param numOfThreads number of threads. 1 means that the batch operations are computed in the calling thread.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads <= 0){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/**
+	 * Sets whether the batch operations accumulate the products of ciphertexts using Montgomery multiplication 
+	 * instead of multiply-and-mod. Montgomery multiplication avoids the long division of each modular reduction.
+	 * @param useMontgomery true in order to use Montgomery multiplication. The default is false.
+	 */
+	public void setMontgomeryAccumulation(boolean useMontgomery){
+		this.useMontgomery = useMontgomery;
+	}
+	
+	/**
+	 * Sets a pool of precomputed r^N values to use in the encryption, re-randomization, addition and multiplication by constant 
+	 * functions that choose the random value by themselves.<p>
+	 * The pool is used only for operations with the pool's length parameter and public key. 
+	 * If the pool is empty, the random value is computed as usual.
+	 * @param pool the pool to use, or null in order to stop using a pool.
+	 */
+	public void setRandomnessPool(DamgardJurikRandomnessPool pool){
+		this.randomnessPool = pool;
+	}
+	
 	/** 
 	 * This function performs the encryption of he given plain text
 	 * @param plainText MUST be an instance of BigIntegerPlainText.
@@ -244,23 +288,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		 * 		CHOOSE a random r in ZN'*.	
 		 */
 		
-		if(!(plaintext instanceof BigIntegerPlainText)){
-			throw new IllegalArgumentException("The plaintext has to be of type BigIntegerPlainText");
-		}
-		
-		BigInteger x = ((BigIntegerPlainText)plaintext).getX();
-		
-		//Calculates the length parameter s.
-		int s = (consts!=-1)?consts:((x.bitLength()/(publicKey.getModulus().bitLength() - 1)) + 1);
-		
-		BigInteger Ntag = publicKey.getModulus().pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		return encrypt(plaintext, r);
+		//The random value is chosen during the encryption. If a randomness pool was set, r^N is taken from the pool.
+		return computeEncryption(plaintext, null);
 	}
 	
 	/**
@@ -269,7 +298,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 * @return   Generated randomness
 	 */
 	public BigInteger generateEncryptionRandomness() {
-		BigInteger Ntag = publicKey.getModulus().pow(consts+1);
+		BigInteger Ntag = getModulusPow(consts+1);
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		return BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);		
 	}
@@ -290,6 +319,14 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 * 		2. If the BigInteger value in the given plaintext is not in ZN.
 	 */
 	public AsymmetricCiphertext encrypt(Plaintext plainText, BigInteger r) {
+		return computeEncryption(plainText, r);
+	}
+
+	/**
+	 * Encrypts the given plaintext, as described in the encrypt functions.
+	 * @param r the random value to use, or null in order to choose a random value (or take r^N from the randomness pool).
+	 */
+	private AsymmetricCiphertext computeEncryption(Plaintext plainText, BigInteger r) {
 		/*
 		 * We use the notation N=n^s, and N' = n^(s+1).
 		 * Pseudo-Code:
@@ -314,23 +351,24 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		//Calculates the length parameter s.
 		int s = (consts!=-1)?consts:((x.bitLength()/(publicKey.getModulus().bitLength() - 1)) + 1);
 		
-		BigInteger N = publicKey.getModulus().pow(s);
+		BigInteger N = getModulusPow(s);
 		
 		//Makes sure the x belongs to ZN
 		if(x.compareTo(BigInteger.ZERO) < 0 || x.compareTo(N) >= 0)
 			throw new IllegalArgumentException("Message too big for encryption");
 		
-		BigInteger Ntag = publicKey.getModulus().pow(s+1);
+		BigInteger Ntag = getModulusPow(s+1);
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		
 		//Check that the random value passed to this function is in Zq.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 		
 		//Computes c = ((1 + n) ^x) * r ^N mod N'.
-		BigInteger  mult1= (publicKey.getModulus().add(BigInteger.ONE)).modPow(x, Ntag);
-		BigInteger mult2 = r.modPow(N, Ntag);
+		//(1 + n)^x is computed using the binomial expansion instead of a modular exponentiation.
+		BigInteger  mult1= computeOnePlusNPow(x, s);
+		BigInteger mult2 = computeRandomnessPow(r, s, N, Ntag);
 		BigInteger c = (mult1.multiply(mult2)).mod(Ntag);
 		
 		//Wraps the BigInteger c with BigIntegerCiphertext and returns it.
@@ -364,7 +402,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		 *		   begin
 		 *		      x = x - 1
 		 *		      t2 = t2 * x mod nj
-		 *		      t1 =  (t1 - (t2 * n^(k-1)) / factorial(k) )  mod n^j
+		 *		      t1 =  (t1 - (t2 * n^(k-1)) * factorial(k)^(-1) )  mod n^j
 		 *		  end
 		 *		  x = t1
 		 *		end
@@ -387,39 +425,54 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 
 		//Calculates N and N' based on s: N = n^s, N' = n^(s+1)
 		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s);
-		BigInteger Ntag = n.pow(s+1);
+		BigInteger N = getModulusPow(s);
+		BigInteger Ntag = getModulusPow(s+1);
 		
 		//Makes sure the cipher belongs to ZN'
 		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(Ntag) >= 0)
 			throw new IllegalArgumentException("The cipher is not in ZN'");
 		
-		BigInteger d;
-		//Optimization for the calculation of d:
-		//If s == 1 used the pre-computed d which we have in the private key
-		//else, compute d using the Chinese Remainder Theorem, such that d = 1 mod N, and d = 0 mod t.
-		if(s==1){
-			d = privateKey.getDForS1();
-		}else{
-			d = generateD(N, privateKey.getT());
+		//Computes (cipher ^ d) mod N', such that d = 1 mod N, and d = 0 mod t.
+		BigInteger a;
+		BigInteger[] factorialInverses = new BigInteger[s+1];
+		if (privateKey instanceof ScDamgardJurikPrivateKey){
+			//Optimization: the constants of s are cached in the private key and the power is computed 
+			//modulo p^(s+1) and q^(s+1) separately and combined using the Chinese Remainder Theorem.
+			DecryptionValues values = ((ScDamgardJurikPrivateKey) privateKey).getDecryptionValues(s);
+			a = values.powD(djCipher.getCipher());
+			for(int k = 2; k <= s; k++){
+				factorialInverses[k] = values.getFactorialInverse(k);
+			}
+		} else {
+			BigInteger d;
+			//Optimization for the calculation of d:
+			//If s == 1 used the pre-computed d which we have in the private key
+			//else, compute d using the Chinese Remainder Theorem, such that d = 1 mod N, and d = 0 mod t.
+			if(s==1){
+				d = privateKey.getDForS1();
+			}else{
+				d = generateD(N, privateKey.getT());
+			}
+			a = djCipher.getCipher().modPow(d, Ntag);
+			for(int k = 2; k <= s; k++){
+				factorialInverses[k] = MathAlgorithms.factorialBI(k).modInverse(N);
+			}
 		}
 		
-		//Computes (cipher ^ d) mod N'
-		BigInteger a = djCipher.getCipher().modPow(d, Ntag);
-		
 		//Computes x as the discrete logarithm of c^d to the base (1+n) modulo N'. This is done by the algorithm shown above.
+		//The division by factorial(k) is done by multiplying with the inverse of factorial(k) modulo n^j 
+		//(the inverse modulo N is also an inverse modulo n^j).
 		BigInteger x = BigInteger.ZERO;
 		BigInteger t1, t2;
-		BigInteger nPowJ, factorialK, temp;
+		BigInteger nPowJ, temp;
 		for(int j = 1; j <= s; j++){
-			t1 = (a.mod(n.pow(j+1)).subtract(BigInteger.ONE)).divide(n);
+			t1 = (a.mod(getModulusPow(j+1)).subtract(BigInteger.ONE)).divide(n);
 			t2 = x;
-			nPowJ = n.pow(j);
+			nPowJ = getModulusPow(j);
 			for(int k = 2; k <=j; k++){
 				x = x.subtract(BigInteger.ONE);
 				t2 = (t2.multiply(x)).mod(nPowJ);
-				factorialK = MathAlgorithms.factorialBI(k);
-				temp = (t2.multiply(n.pow(k-1))).divide(factorialK);
+				temp = t2.multiply(getModulusPow(k-1)).multiply(factorialInverses[k]);
 				t1 = t1.subtract(temp).mod(nPowJ);
 			}
 			x = t1;
@@ -455,31 +508,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext reRandomize(AsymmetricCiphertext cipher) {
-		// If there is no public key can not operate the function, throws exception.
-		if (!isKeySet()){
-			throw new IllegalStateException("in order to reRandomize a ciphertext this object must be initialized with public key");
-		}
-		
-		//Ciphertext should be Damgard-Jurik ciphertext.
-		if (!(cipher instanceof BigIntegerCiphertext)){
-			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
-		}
-		
-		BigIntegerCiphertext djCipher = (BigIntegerCiphertext) cipher;
-		//n is the modulus in the public key.
-		//Calculates s = |cipher| / |n|.
-		int s = (consts!=-1)?consts:((djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength());
-
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		return reRandomize(cipher, r);
+		//The random value is chosen during the computation. If a randomness pool was set, r^N is taken from the pool.
+		return computeReRandomize(cipher, null);
 	}
 	
 	/**
@@ -493,6 +523,14 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext reRandomize(AsymmetricCiphertext cipher, BigInteger r) {
+		return computeReRandomize(cipher, r);
+	}
+
+	/**
+	 * Re-randomizes the given ciphertext, as described in the reRandomize functions.
+	 * @param r the random value to use, or null in order to choose a random value (or take r^N from the randomness pool).
+	 */
+	private AsymmetricCiphertext computeReRandomize(AsymmetricCiphertext cipher, BigInteger r) {
 		// If there is no public key can not operate the function, throws exception.
 		if (!isKeySet()){
 			throw new IllegalStateException("in order to reRandomize a ciphertext this object must be initialized with public key");
@@ -510,8 +548,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 
 		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
 		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s);
-		BigInteger Ntag = n.pow(s+1);
+		BigInteger N = getModulusPow(s);
+		BigInteger Ntag = getModulusPow(s+1);
 		
 		//Makes sure the cipher belongs to ZN'.
 		if(djCipher.getCipher().compareTo(BigInteger.ZERO) < 0 || djCipher.getCipher().compareTo(Ntag) >= 0)
@@ -519,11 +557,11 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 				
-		BigInteger c = djCipher.getCipher().multiply(r.modPow(N, Ntag)).mod(Ntag);
+		BigInteger c = djCipher.getCipher().multiply(computeRandomnessPow(r, s, N, Ntag)).mod(Ntag);
 		
 		return new BigIntegerCiphertext(c);
 	}
@@ -539,33 +577,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext add(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2) {
-		// If there is no public key can not encrypt, throws exception.
-		if (!isKeySet()){
-			throw new IllegalStateException("in order to add ciphertexts this object must be initialized with public key");
-		}
-		
-		//Ciphertexts should be Damgard-Jurik ciphertexts.
-		if (!(cipher1 instanceof BigIntegerCiphertext)){
-			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
-		}
-		BigIntegerCiphertext djCipher1 = (BigIntegerCiphertext) cipher1;
-		
-		BigInteger c = djCipher1.getCipher();
-		
-		//n is the modulus in the public key.
-		//Calculates s = |cipher|/ |n|.
-		int s = (consts!=-1)?consts:(c.bitLength() / publicKey.getModulus().bitLength());
-		
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		return add(cipher1, cipher2, r);
+		//The random value is chosen during the computation. If a randomness pool was set, r^N is taken from the pool.
+		return computeAdd(cipher1, cipher2, null);
 	}
 	
 	/**
@@ -585,6 +598,14 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext add(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger r) {
+		return computeAdd(cipher1, cipher2, r);
+	}
+
+	/**
+	 * Computes the homomorphic addition of the given ciphertexts, as described in the add functions.
+	 * @param r the random value to use, or null in order to choose a random value (or take r^N from the randomness pool).
+	 */
+	private AsymmetricCiphertext computeAdd(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger r) {
 		
 		// If there is no public key can not operate the function, throws exception.
 		if (!isKeySet()){
@@ -611,12 +632,12 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		
 		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
 		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s1);
-		BigInteger Ntag = n.pow(s1+1);
+		BigInteger N = getModulusPow(s1);
+		BigInteger Ntag = getModulusPow(s1+1);
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 		
@@ -628,7 +649,7 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 		
 		BigInteger c = c1.multiply(c2).mod(Ntag);
 		
-		c = c.multiply(r.modPow(N, Ntag)).mod(Ntag);
+		c = c.multiply(computeRandomnessPow(r, s1, N, Ntag)).mod(Ntag);
 		
 		//Call the other function that computes the addition.
 		return new BigIntegerCiphertext(c);
@@ -647,32 +668,8 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext multByConst(AsymmetricCiphertext cipher, BigInteger constNumber) {
-		// If there is no public key can not operate the function, throws exception.
-		if (!isKeySet()){
-			throw new IllegalStateException("in order to multiply a ciphertext this object must be initialized with public key");
-		}
-		
-		//Ciphertext should be Damgard-Jurik ciphertext.
-		if (!(cipher instanceof BigIntegerCiphertext)){
-			throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
-		}
-		
-		BigIntegerCiphertext djCipher = (BigIntegerCiphertext) cipher;
-		//n is the modulus in the public key.
-		//Calculates s = |cipher| / |n|.
-		int s = (consts!=-1)?consts:((djCipher).getCipher().bitLength() / publicKey.getModulus().bitLength());
-				
-		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
-		BigInteger n = publicKey.getModulus();
-		BigInteger Ntag = n.pow(s+1);
-		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
-		
-		//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
-		//which is with overwhelming probability in Zntag*.
-		BigInteger r = BigIntegers.createRandomInRange(BigInteger.ONE, NtagMinus1, random);
-		
-		//Call the other function that computes the multiplication.
-		return multByConst(cipher, constNumber, r);
+		//The random value is chosen during the computation. If a randomness pool was set, r^N is taken from the pool.
+		return computeMultByConst(cipher, constNumber, null);
 	}
 	
 	/**
@@ -696,6 +693,14 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	 */
 	@Override
 	public AsymmetricCiphertext multByConst(AsymmetricCiphertext cipher, BigInteger constNumber, BigInteger r) {
+		return computeMultByConst(cipher, constNumber, r);
+	}
+
+	/**
+	 * Computes the homomorphic multiplication by a constant, as described in the multByConst functions.
+	 * @param r the random value to use, or null in order to choose a random value (or take r^N from the randomness pool).
+	 */
+	private AsymmetricCiphertext computeMultByConst(AsymmetricCiphertext cipher, BigInteger constNumber, BigInteger r) {
 		// If there is no public key can not operate the function, throws exception.
 		if (!isKeySet()){
 			throw new IllegalStateException("in order to multiply a ciphertext this object must be initialized with public key");
@@ -713,12 +718,12 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 
 		//Calculates N and N' based on s: N = n^s, N' = n^(s+1).
 		BigInteger n = publicKey.getModulus();
-		BigInteger N = n.pow(s);
-		BigInteger Ntag = n.pow(s+1);
+		BigInteger N = getModulusPow(s);
+		BigInteger Ntag = getModulusPow(s+1);
 		BigInteger NtagMinus1 = Ntag.subtract(BigInteger.ONE);
 		
 		//Check that the r random value passed to this function is in Zntag*.
-		if(!((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
+		if(r != null && !((r.compareTo(BigInteger.ZERO))>=0) && (r.compareTo(NtagMinus1)<=0)) {
 			throw new IllegalArgumentException("r must be in Zq");
 		}
 				
@@ -732,11 +737,241 @@ public class ScDamgardJurikEnc implements DamgardJurikEnc {
 	
 		BigInteger c = djCipher.getCipher().modPow(constNumber, Ntag);
 		
-		c = c.multiply(r.modPow(N, Ntag)).mod(Ntag);
+		c = c.multiply(computeRandomnessPow(r, s, N, Ntag)).mod(Ntag);
+		
+		return new BigIntegerCiphertext(c);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) this function returns Enc(p1 + ... + pk).<p>
+	 * The ciphertexts are multiplied modulo N' in parallel ranges and the result is re-randomized once, 
+	 * so the result is distributed as the result of adding the ciphertexts one by one.
+	 * All ciphertexts have to have been generated with the same public key as this encryption's public key.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If the list is empty or one or more of the given ciphertexts is not an instance of BigIntegerCiphertext.
+	 * 		2. If the sizes of ciphertexts do not match.
+	 * 		3. If one or more of the BigInteger numbers in the given ciphertexts is not in ZN'.
+	 */
+	@Override
+	public AsymmetricCiphertext sum(List<? extends AsymmetricCiphertext> ciphers) {
+		// If there is no public key can not operate the function, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to add ciphertexts this object must be initialized with public key");
+		}
+		BigInteger[] values = new BigInteger[ciphers.size()];
+		int s = getBatchCiphertexts(ciphers, values);
+		BigInteger N = getModulusPow(s);
+		BigInteger Ntag = getModulusPow(s+1);
+		
+		BigInteger c = parallelProduct(values, null, Ntag);
+		c = c.multiply(computeRandomnessPow(null, s, N, Ntag)).mod(Ntag);
+		return new BigIntegerCiphertext(c);
+	}
+	
+	/**
+	 * Given ciphers c1 = Enc(p1), ..., ck = Enc(pk) and constant numbers a1, ..., ak this function returns 
+	 * Enc(a1*p1 + ... + ak*pk) = c1^a1 * ... * ck^ak * r^N mod N'.<p>
+	 * The exponentiations and the multiplications are computed in parallel ranges and the result is re-randomized once.
+	 * All ciphertexts have to have been generated with the same public key as this encryption's public key.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If the list is empty or one or more of the given ciphertexts is not an instance of BigIntegerCiphertext.
+	 * 		2. If the sizes of ciphertexts do not match or the number of constants is not the number of ciphertexts.
+	 * 		3. If one or more of the BigInteger numbers in the given ciphertexts is not in ZN'.
+	 * 		4. If one or more of the constant numbers is not in ZN.
+	 */
+	@Override
+	public AsymmetricCiphertext innerProduct(List<? extends AsymmetricCiphertext> ciphers, List<BigInteger> constNumbers) {
+		// If there is no public key can not operate the function, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to multiply ciphertexts this object must be initialized with public key");
+		}
+		if (ciphers.size() != constNumbers.size()){
+			throw new IllegalArgumentException("the number of constant numbers should be equal to the number of ciphertexts");
+		}
+		BigInteger[] values = new BigInteger[ciphers.size()];
+		int s = getBatchCiphertexts(ciphers, values);
+		BigInteger N = getModulusPow(s);
+		BigInteger Ntag = getModulusPow(s+1);
+		
+		BigInteger[] exponents = new BigInteger[values.length];
+		for (int i = 0; i < exponents.length; i++){
+			exponents[i] = constNumbers.get(i);
+			//Makes sure the constant number belongs to ZN.
+			if(exponents[i].compareTo(BigInteger.ZERO) < 0 || exponents[i].compareTo(N) >= 0)
+				throw new IllegalArgumentException("The constant number is not in ZN");
+		}
 		
+		BigInteger c = parallelProduct(values, exponents, Ntag);
+		c = c.multiply(computeRandomnessPow(null, s, N, Ntag)).mod(Ntag);
 		return new BigIntegerCiphertext(c);
 	}
 	
+	/**
+	 * Re-randomizes each of the given ciphertexts, in parallel ranges.<p>
+	 * If a randomness pool was set, the r^N values are taken from the pool.
+	 * @throws IllegalStateException if no public key was set.
+	 * @throws IllegalArgumentException in the following cases:
+	 * 		1. If one or more of the given ciphertexts is not an instance of BigIntegerCiphertext.
+	 * 		2. If the BigInteger number in one of the given ciphertexts is not in ZN'.
+	 */
+	@Override
+	public ArrayList<AsymmetricCiphertext> reRandomize(final List<? extends AsymmetricCiphertext> ciphers) {
+		// If there is no public key can not operate the function, throws exception.
+		if (!isKeySet()){
+			throw new IllegalStateException("in order to reRandomize a ciphertext this object must be initialized with public key");
+		}
+		final AsymmetricCiphertext[] results = new AsymmetricCiphertext[ciphers.size()];
+		
+		BatchRangeRunner.run(results.length, numOfThreads, MIN_CIPHERS_PER_THREAD, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				for (int i = from; i < to; i++){
+					results[i] = computeReRandomize(ciphers.get(i), null);
+				}
+			}
+		});
+		
+		ArrayList<AsymmetricCiphertext> list = new ArrayList<AsymmetricCiphertext>(results.length);
+		for (int i = 0; i < results.length; i++){
+			list.add(results[i]);
+		}
+		return list;
+	}
+	
+	/**
+	 * Checks the given ciphertexts and puts their values in the given array.
+	 * @return the length parameter s of the ciphertexts.
+	 */
+	private int getBatchCiphertexts(List<? extends AsymmetricCiphertext> ciphers, BigInteger[] values){
+		if (ciphers.isEmpty()){
+			throw new IllegalArgumentException("there should be at least one ciphertext");
+		}
+		int s = -1;
+		BigInteger Ntag = null;
+		for (int i = 0; i < values.length; i++){
+			AsymmetricCiphertext cipher = ciphers.get(i);
+			//Ciphertexts should be Damgard-Jurik ciphertexts.
+			if (!(cipher instanceof BigIntegerCiphertext)){
+				throw new IllegalArgumentException("cipher should be instance of BigIntegerCiphertext");
+			}
+			values[i] = ((BigIntegerCiphertext) cipher).getCipher();
+			//Calculates s = |cipher|/ |n|.
+			int si = (consts!=-1)?consts:(values[i].bitLength() / publicKey.getModulus().bitLength());
+			if (s == -1){
+				s = si;
+				Ntag = getModulusPow(s+1);
+			} else if (si != s){
+				throw new IllegalArgumentException("Sizes of ciphertexts do not match");
+			}
+			//Checks that the cipher belongs to ZN'
+			if(values[i].compareTo(BigInteger.ZERO) < 0 || values[i].compareTo(Ntag) >= 0)
+				throw new IllegalArgumentException("cipher " + i + " is not in ZN'");
+		}
+		return s;
+	}
+	
+	/**
+	 * Computes the product of values[i]^exponents[i] modulo N' (or the product of the values if exponents is null).<p>
+	 * The values are split into ranges that are computed in parallel. Then, the partial products are combined in a binary tree.
+	 */
+	private BigInteger parallelProduct(final BigInteger[] values, final BigInteger[] exponents, final BigInteger Ntag){
+		int numOfRanges = BatchRangeRunner.getNumOfRanges(values.length, numOfThreads, MIN_CIPHERS_PER_THREAD);
+		final BigInteger[] partials = new BigInteger[numOfRanges];
+		final MontgomeryMultiplier montgomery = useMontgomery ? new MontgomeryMultiplier(Ntag) : null;
+		
+		//If there are exponents, each thread puts the powers of its range in this array.
+		final BigInteger[] factors = (exponents == null) ? values : new BigInteger[values.length];
+		
+		BatchRangeRunner.runInRanges(values.length, numOfRanges, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				if (exponents != null){
+					for (int i = from; i < to; i++){
+						factors[i] = values[i].modPow(exponents[i], Ntag);
+					}
+				}
+				BigInteger product;
+				if (montgomery != null){
+					product = montgomery.product(factors, from, to);
+				} else {
+					product = BigInteger.ONE;
+					for (int i = from; i < to; i++){
+						product = product.multiply(factors[i]).mod(Ntag);
+					}
+				}
+				partials[rangeIndex] = product;
+			}
+		});
+		
+		//Combines the partial products in a binary tree.
+		int count = partials.length;
+		while (count > 1){
+			int half = (count + 1) / 2;
+			for (int i = 0; i < count / 2; i++){
+				partials[i] = partials[2*i].multiply(partials[2*i + 1]).mod(Ntag);
+			}
+			if (count % 2 == 1){
+				partials[half - 1] = partials[count - 1];
+			}
+			count = half;
+		}
+		return partials[0];
+	}
+	
+	/**
+	 * Returns n^j, where n is the modulus of the public key. 
+	 * If the public key is a ScDamgardJurikPublicKey, the powers are cached in the key.
+	 */
+	private BigInteger getModulusPow(int j){
+		if (publicKey instanceof ScDamgardJurikPublicKey){
+			return ((ScDamgardJurikPublicKey) publicKey).getModulusPow(j);
+		}
+		return publicKey.getModulus().pow(j);
+	}
+	
+	/**
+	 * Computes (1 + n)^x mod n^(s+1) using the binomial expansion:<p>
+	 * (1 + n)^x = sum_{k=0}^{s} (x choose k) * n^k mod n^(s+1), since n^k = 0 mod n^(s+1) for every k > s.<p>
+	 * This requires s multiplications instead of a full modular exponentiation.
+	 */
+	private BigInteger computeOnePlusNPow(BigInteger x, int s){
+		BigInteger Ntag = getModulusPow(s+1);
+		BigInteger result = BigInteger.ONE;
+		BigInteger binomial = BigInteger.ONE;
+		for (int k = 1; k <= s; k++){
+			//(x choose k) = (x choose k-1) * (x-k+1) / k. The division is exact.
+			binomial = binomial.multiply(x.subtract(BigInteger.valueOf(k-1))).divide(BigInteger.valueOf(k));
+			if (binomial.signum() == 0){
+				break;
+			}
+			//Only (x choose k) mod n^(s+1-k) affects the result.
+			BigInteger term = binomial.mod(getModulusPow(s+1-k)).multiply(getModulusPow(k));
+			result = result.add(term);
+		}
+		return result.mod(Ntag);
+	}
+	
+	/**
+	 * Returns r^N mod N'.<p>
+	 * If r is null, r^N is taken from the randomness pool (if there is a pool that matches the key and s). 
+	 * If there is no such pool or the pool is empty, a random r in ZN'* is chosen and r^N is computed.
+	 */
+	private BigInteger computeRandomnessPow(BigInteger r, int s, BigInteger N, BigInteger Ntag){
+		if (r == null){
+			DamgardJurikRandomnessPool pool = randomnessPool;
+			if (pool != null && pool.getLengthParameter() == s && pool.getModulus().equals(publicKey.getModulus())){
+				BigInteger rPowN = pool.poll();
+				if (rPowN != null){
+					return rPowN;
+				}
+			}
+			//Chooses a random r in ZNtag*, this can be done by choosing a random value between 1 and Ntag -1 
+			//which is with overwhelming probability in Zntag*.
+			r = BigIntegers.createRandomInRange(BigInteger.ONE, Ntag.subtract(BigInteger.ONE), random);
+		}
+		return r.modPow(N, Ntag);
+	}
+	
 	/**
 	 * This function generates a value d such that d = 1 mod N and d = 0 mod t, using the Chinese Remainder Theorem.
 	 */
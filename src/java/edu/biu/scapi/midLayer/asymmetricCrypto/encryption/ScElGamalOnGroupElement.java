@@ -236,11 +236,8 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 	 */
 	public AsymmetricCiphertext multiply(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2) {
 		
-		//Choose a random value in Zq.
-		BigInteger w = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
-		
-		//Call the other function that computes the multiplication.
-		return multiply(cipher1, cipher2, w);
+		//Call the function that computes the multiplication. The random value is chosen there.
+		return computeMultiply(cipher1, cipher2, null);
 	}
 
 	/**
@@ -259,6 +256,15 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 	 */
 	@Override
 	public AsymmetricCiphertext multiply(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger w) {
+		return computeMultiply(cipher1, cipher2, w);
+	}
+	
+	/**
+	 * Computes the multiplication of the given ciphertexts.
+	 * @param w the random value to use. If null, a pair (g^w, h^w) is taken from the randomness pool 
+	 * 			or computed with a random w.
+	 */
+	private AsymmetricCiphertext computeMultiply(AsymmetricCiphertext cipher1, AsymmetricCiphertext cipher2, BigInteger w) {
 		/* 
 		 * Pseudo-Code:
 		 * 	c1 = (u1, v1); c2 = (u2, v2) 
@@ -290,17 +296,30 @@ public class ScElGamalOnGroupElement extends ElGamalAbs implements AsymMultiplic
 		}
 		
 		//Check that the r random value passed to this function is in Zq.
-		if(!((w.compareTo(BigInteger.ZERO))>=0) && (w.compareTo(qMinusOne)<=0)) {
+		if(w != null && !((w.compareTo(BigInteger.ZERO))>=0) && (w.compareTo(qMinusOne)<=0)) {
 			throw new IllegalArgumentException("the given random value must be in Zq");
 		}
-				
+		
+		GroupElement gExpW;
+		GroupElement hExpW;
+		ElGamalRandomnessPool.Randomness randomness = (w == null) ? pollRandomness() : null;
+		if (randomness != null){
+			gExpW = randomness.getGExpY();
+			hExpW = randomness.getHExpY();
+		} else {
+			if (w == null){
+				//Choose a random value in Zq.
+				w = BigIntegers.createRandomInRange(BigInteger.ZERO, qMinusOne, random);
+			}
+			gExpW = dlog.exponentiate(dlog.getGenerator(), w);
+			hExpW = dlog.exponentiate(publicKey.getH(), w);
+		}
+		
 		//Calculates u = g^w*u1*u2.
-		GroupElement gExpW = dlog.exponentiate(dlog.getGenerator(), w);
 		GroupElement gExpWmultU1 = dlog.multiplyGroupElements(gExpW, c1.getC1());
 		GroupElement u = dlog.multiplyGroupElements(gExpWmultU1, c2.getC1());
 		
 		//Calculates v = h^w*v1*v2.
-		GroupElement hExpW = dlog.exponentiate(publicKey.getH(), w);
 		GroupElement hExpWmultV1 = dlog.multiplyGroupElements(hExpW, c1.getC2());
 		GroupElement v = dlog.multiplyGroupElements(hExpWmultV1, c2.getC2());
 		
@@ -31,6 +31,7 @@ package edu.biu.scapi.midLayer.asymmetricCrypto.keys;
 
 import java.math.BigInteger;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
 
 import edu.biu.scapi.primitives.trapdoorPermutation.RSAModulus;
 import edu.biu.scapi.tools.math.MathAlgorithms;
@@ -50,6 +51,9 @@ public class ScDamgardJurikPrivateKey implements DamgardJurikPrivateKey, KeySend
 	private BigInteger p;
 	private BigInteger q;
 	
+	//Decryption constants for each length parameter s. Computed on demand and not sent with the key.
+	private transient volatile ConcurrentHashMap<Integer, DecryptionValues> decryptionValues;
+	
 	public ScDamgardJurikPrivateKey(RSAModulus rsaMod){
 		
 		this.p = rsaMod.p;
@@ -79,6 +83,127 @@ public class ScDamgardJurikPrivateKey implements DamgardJurikPrivateKey, KeySend
 		return d;
 	}
 	
+	/**
+	 * Returns the constants needed to decrypt ciphertexts with length parameter s.<p>
+	 * The constants are computed at the first call for each s and cached in this key, so that the decryption 
+	 * does not compute the powers of n and the CRT value d again for each ciphertext.
+	 * @param s the length parameter.
+	 * @return the decryption constants of s.
+	 * @throws IllegalArgumentException if s is not positive.
+	 */
+	public DecryptionValues getDecryptionValues(int s){
+		if (s <= 0){
+			throw new IllegalArgumentException("the length parameter should be positive");
+		}
+		ConcurrentHashMap<Integer, DecryptionValues> cache = decryptionValues;
+		if (cache == null){
+			synchronized (this){
+				if (decryptionValues == null){
+					decryptionValues = new ConcurrentHashMap<Integer, DecryptionValues>();
+				}
+				cache = decryptionValues;
+			}
+		}
+		Integer key = Integer.valueOf(s);
+		DecryptionValues values = cache.get(key);
+		if (values == null){
+			//Two threads may compute the same values, but the computation is deterministic so any of them can be kept.
+			values = new DecryptionValues(s);
+			DecryptionValues existing = cache.putIfAbsent(key, values);
+			if (existing != null){
+				values = existing;
+			}
+		}
+		return values;
+	}
+	
+	/**
+	 * This class holds the values that depend only on the key and on the length parameter s.<p>
+	 * Besides the powers of n and the CRT value d (d = 1 mod n^s, d = 0 mod t), it holds the values needed to compute c^d 
+	 * separately modulo p^(s+1) and q^(s+1) and to combine the results using the Chinese Remainder Theorem:
+	 * the exponents d mod phi(p^(s+1)) and d mod phi(q^(s+1)) and the inverse of q^(s+1) modulo p^(s+1).
+	 */
+	public class DecryptionValues {
+		private int s;
+		private BigInteger[] nPowers;			//nPowers[j] = n^j for 0 <= j <= s+1.
+		private BigInteger[] factorialInverses;	//factorialInverses[k] = (k!)^-1 mod n^s for 2 <= k <= s.
+		private BigInteger d;
+		private BigInteger pPow;				//p^(s+1)
+		private BigInteger qPow;				//q^(s+1)
+		private BigInteger dP;					//d mod p^s*(p-1)
+		private BigInteger dQ;					//d mod q^s*(q-1)
+		private BigInteger qPowInverse;		//(q^(s+1))^-1 mod p^(s+1)
+		
+		private DecryptionValues(int s){
+			this.s = s;
+			BigInteger n = p.multiply(q);
+			nPowers = new BigInteger[s+2];
+			nPowers[0] = BigInteger.ONE;
+			for (int j = 1; j <= s+1; j++){
+				nPowers[j] = nPowers[j-1].multiply(n);
+			}
+			factorialInverses = new BigInteger[s+1];
+			for (int k = 2; k <= s; k++){
+				factorialInverses[k] = MathAlgorithms.factorialBI(k).modInverse(nPowers[s]);
+			}
+			d = (s == 1) ? dForS1 : generateD(nPowers[s], t);
+			
+			BigInteger pPowS = p.pow(s);
+			BigInteger qPowS = q.pow(s);
+			pPow = pPowS.multiply(p);
+			qPow = qPowS.multiply(q);
+			dP = d.mod(pPowS.multiply(p.subtract(BigInteger.ONE)));
+			dQ = d.mod(qPowS.multiply(q.subtract(BigInteger.ONE)));
+			qPowInverse = qPow.modInverse(pPow);
+		}
+		
+		public int getS(){
+			return s;
+		}
+		
+		/**
+		 * Returns n^j, for 0 <= j <= s+1.
+		 */
+		public BigInteger getNPow(int j){
+			return nPowers[j];
+		}
+		
+		/**
+		 * Returns (k!)^-1 mod n^s, for 2 <= k <= s. 
+		 * Since n^j divides n^s, this is also the inverse of k! modulo n^j for every j <= s.
+		 */
+		public BigInteger getFactorialInverse(int k){
+			return factorialInverses[k];
+		}
+		
+		/**
+		 * Returns d such that d = 1 mod n^s and d = 0 mod t.
+		 */
+		public BigInteger getD(){
+			return d;
+		}
+		
+		/**
+		 * Computes c^d mod n^(s+1) by computing the power modulo p^(s+1) and modulo q^(s+1) with the reduced exponents 
+		 * and combining the results using the Chinese Remainder Theorem.<p>
+		 * The exponent reduction requires c to be invertible modulo n. Otherwise, the power is computed directly modulo n^(s+1).
+		 * @param c the ciphertext value, in Z(n^(s+1)).
+		 * @return c^d mod n^(s+1).
+		 */
+		public BigInteger powD(BigInteger c){
+			BigInteger cModP = c.mod(pPow);
+			BigInteger cModQ = c.mod(qPow);
+			if (cModP.mod(p).signum() == 0 || cModQ.mod(q).signum() == 0){
+				return c.modPow(d, nPowers[s+1]);
+			}
+			BigInteger aP = cModP.modPow(dP, pPow);
+			BigInteger aQ = cModQ.modPow(dQ, qPow);
+			//a = aQ + q^(s+1) * ((aP - aQ) * (q^(s+1))^-1 mod p^(s+1)).
+			BigInteger h = aP.subtract(aQ).multiply(qPowInverse).mod(pPow);
+			return aQ.add(h.multiply(qPow));
+		}
+	}
+	
 	/* (non-Javadoc)
 	 * @see java.security.Key#getAlgorithm()
 	 */
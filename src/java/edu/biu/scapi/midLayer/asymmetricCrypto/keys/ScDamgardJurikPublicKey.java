@@ -42,9 +42,46 @@ public class ScDamgardJurikPublicKey implements DamgardJurikPublicKey, KeySendab
 	private static final long serialVersionUID = -2189628744318571245L;
 
 	BigInteger modulus;
+	private transient volatile BigInteger[] modulusPowers; //modulusPowers[j] = n^j. Computed on demand and not sent with the key.
+	
 	public ScDamgardJurikPublicKey(BigInteger modulus){
 		this.modulus = modulus;
 	}
+	
+	/**
+	 * Returns n^j, where n is the modulus.<p>
+	 * The powers are cached in this key, so that the encryption scheme does not compute n^s and n^(s+1) for each operation.
+	 * @param j the power. Should be non-negative.
+	 * @return n^j
+	 */
+	public BigInteger getModulusPow(int j){
+		BigInteger[] powers = modulusPowers;
+		if (powers == null || powers.length <= j){
+			powers = computeModulusPowers(j);
+		}
+		return powers[j];
+	}
+	
+	private synchronized BigInteger[] computeModulusPowers(int j){
+		if (j < 0){
+			throw new IllegalArgumentException("the power should be non-negative");
+		}
+		BigInteger[] powers = modulusPowers;
+		if (powers != null && powers.length > j){
+			return powers;
+		}
+		BigInteger[] newPowers = new BigInteger[j+1];
+		int start = 0;
+		if (powers != null){
+			System.arraycopy(powers, 0, newPowers, 0, powers.length);
+			start = powers.length;
+		}
+		for (int i = start; i <= j; i++){
+			newPowers[i] = (i == 0) ? BigInteger.ONE : newPowers[i-1].multiply(modulus);
+		}
+		modulusPowers = newPowers;
+		return newPowers;
+	}
 	/* (non-Javadoc)
 	 * @see java.security.Key#getAlgorithm()
 	 */
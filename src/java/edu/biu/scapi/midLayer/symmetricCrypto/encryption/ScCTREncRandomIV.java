@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.ByteBuffer;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 
@@ -37,6 +38,7 @@ import edu.biu.scapi.midLayer.ciphertext.IVCiphertext;
 import edu.biu.scapi.midLayer.ciphertext.SymmetricCiphertext;
 import edu.biu.scapi.midLayer.plaintext.ByteArrayPlaintext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
+import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
 
 /**
@@ -45,7 +47,13 @@ import edu.biu.scapi.primitives.prf.PseudorandomPermutation;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
+public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc, SymmetricBufferEnc {
+
+	private static final int BUFFER_BLOCKS = 256;	//Number of key stream blocks computed at once when encrypting buffers.
+	
+	//Reusable arrays for the encryption of buffers.
+	private byte[] keyStreamBuffer;
+	private byte[] dataBuffer;
 
 	/**
 	 * Default constructor. Uses default implementation of prp and SecureRandom.
@@ -139,32 +147,13 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 		//Prepares a buffer where to store the plaintext. It has to be of the same length as the cipher.
 		byte[] plaintext = new byte[cipherLengthInBytes];
 
-		//Calculates the number of blocks in the cipher, so that we can loop over them.
-		int numOfBlocksInCipher = cipherLengthInBytes / prp.getBlockSize();
-
-		int cipherOffset = 0;
-		int plaintextOffset = 0;
-		int blockSize = prp.getBlockSize();
-		//Views the IV passed as the counter.
-		byte[] ctr = ivCipher.getIv();
-		
-		//First, process all full blocks. 
-		//If the length of the input is not a multiple of block size, we will take care of the last part of it not here, but in the next step.
-		boolean isFullBlock = true;
-		for(int i = 0; i < numOfBlocksInCipher; i++){
-			ctr = processBlock(ivCipher.getBytes(), cipherOffset, ctr, plaintext, plaintextOffset, isFullBlock);
-			cipherOffset += blockSize; 
-			plaintextOffset += blockSize;
-		}
-		
+		//Copies the IV passed as the counter, so that the ciphertext is not changed.
+		byte[] iv = ivCipher.getIv();
+		byte[] ctr = new byte[iv.length];
+		System.arraycopy(iv, 0, ctr, 0, iv.length);
 		
-		int remainder = cipherLengthInBytes % prp.getBlockSize();
-		//The last part of the cipher is of size less than blockSize.
-		//Process the remaining bytes not as a full block.
-		if(remainder > 0){
-			isFullBlock = false;
-			ctr = processBlock(ivCipher.getBytes(), cipherOffset, ctr, plaintext, plaintextOffset, isFullBlock);
-		}
+		//Computes the key stream of all the blocks, including the last part of the cipher that may be shorter than a block, and XORs it with the cipher.
+		processBlocks(ivCipher.getBytes(), ctr, plaintext);
 
 		return new ByteArrayPlaintext(plaintext);
 	}
@@ -190,76 +179,164 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 		byte[] ctr = new byte[iv.length];
 		System.arraycopy(iv,0, ctr, 0, iv.length);
 
-		int numOfBlocksInPlaintext = plaintextLengthInBytes / prp.getBlockSize();
-
-		int cipherOffset = 0;
-		int plaintextOffset = 0;
-		int blockSize = prp.getBlockSize();
-
-		//For each block in ciphertext do:
-		boolean isFullBlock = true;
-		for(int i = 0; i < numOfBlocksInPlaintext; i++){
-			ctr = processBlock(plaintext, plaintextOffset, ctr, cipher, cipherOffset, isFullBlock);
-			cipherOffset += blockSize; 
-			plaintextOffset += blockSize;
-		}
-		int remainder = plaintextLengthInBytes % prp.getBlockSize();
-		//The last part of the plaintext is of size less than blockSize.
-		//Process the remaining bytes not as a full block.
-		if(remainder > 0){
-			isFullBlock = false;
-			ctr = processBlock(plaintext, plaintextOffset, ctr, cipher, cipherOffset, isFullBlock);
-		}
+		//Computes the key stream of all the blocks, including the last part of the plaintext that may be shorter than a block, and XORs it with the plaintext.
+		processBlocks(plaintext, ctr, cipher);
 
 		return new IVCiphertext(new ByteArraySymCiphertext(cipher), iv);
 	}
 
 
-	/* This function processes a single block. It can be called both by encrypt and by decrypt.<p>
-	 * If called by encrypt then the first two arguments refer to the plaintext being processed and the resulting cipher is written to "out".<p>
-	 * If called by decrypt then the first two arguments refer to the cipher being processed and the resulting plaintext is written to "out". <p>
-	 * The data is not required to be aligned to the block size of this instance of the encryption scheme. If it is not, then the last part of the data needs special care.
+	/* This function processes all the blocks of the given data. It can be called both by encrypt and by decrypt.<p>
+	 * If called by encrypt then "in" is the plaintext being processed and the resulting cipher is written to "out".<p>
+	 * If called by decrypt then "in" is the cipher being processed and the resulting plaintext is written to "out". <p>
+	 * The data is not required to be aligned to the block size of this instance of the encryption scheme. If it is not, then only the 
+	 * relevant bytes of the last block of the key stream are used.<p>
+	 * All the counters are written to one array first, so that a PrpFixed can compute all of them with a single call to computeBlocks.
 	 * Pseudo-code:
-	 * 		out[i] = prp.computeBlock(ctr) XOR in[i]
-	 *		ctr = ctr +1 mod 2n
+	 * 		For each block i: keyStream[i] = ctr + i mod 2n
+	 * 		keyStream = prp.computeBlocks(keyStream)
+	 * 		out = in XOR keyStream
 	 * 
 	 * @param in a byte array containing the data to be processed
-	 * @param inOffset the offset in "in" byte array
-	 * @param ctr the counter used by the counter mode of operation
-	 * @param out a byte array containing the processed data
-	 * @param outOffset the offset in "out" byte array
-	 * @param isFullBlock a boolean indicating if the data is aligned to the block size of this instance of the encryption scheme, or not. 
-	 * 
-	 * @return the incremented counter
-	 * 
+	 * @param ctr the counter used by the counter mode of operation. It is incremented once for every processed block.
+	 * @param out a byte array containing the processed data. Must be of the same length as in.
 	 */
-	private byte[] processBlock(byte[] in, int inOffset, byte[] ctr, byte[] out, int outOffset, boolean isFullBlock){
+	private void processBlocks(byte[] in, byte[] ctr, byte[] out){
 		int blockSize = prp.getBlockSize();
-		//Here we have to create a new array because we can't override in and ctr arrays and out array may not be long enough.
-		byte[] prpBytes = new byte[blockSize]; 
-		try {
-			prp.computeBlock(ctr, 0, blockSize, prpBytes, 0, blockSize);
-		} catch (IllegalBlockSizeException e) {
-			//We catch this exception here because there is no chance that the ctr will have the wrong the size.
-			e.printStackTrace();
-		} 
+		int numOfBlocks = (in.length + blockSize - 1) / blockSize;
+		
+		byte[] keyStream = new byte[numOfBlocks * blockSize];
+		computeKeyStream(ctr, keyStream, numOfBlocks);
 
-		if(isFullBlock) {
-			for(int i = 0 ; i < blockSize; i++){
-				out[outOffset + i] = (byte)(in[inOffset + i] ^ prpBytes[i]); 
-			}
-		}else{
-			//Only XOR the relevant bytes.
-			int partialBlockLength = in.length - inOffset;
-			for(int i = 0 ; i < partialBlockLength; i++){
-				out[outOffset + i] = (byte)(in[inOffset + i] ^ prpBytes[i]); 
+		//XORs the data with the key stream. Only the relevant bytes of the last block are used.
+		for(int i = 0 ; i < in.length; i++){
+			out[i] = (byte)(in[i] ^ keyStream[i]); 
+		}
+	}
+	
+	/*
+	 * Puts numOfBlocks consecutive counters, starting from ctr, in the key stream array and computes the prp on all of them.
+	 * The counter is increased once for every block.
+	 */
+	private void computeKeyStream(byte[] ctr, byte[] keyStream, int numOfBlocks){
+		int blockSize = prp.getBlockSize();
+		for (int i = 0; i < numOfBlocks; i++){
+			System.arraycopy(ctr, 0, keyStream, i * blockSize, blockSize);
+			increaseCounter(ctr);
+		}
+		
+		//Computes the prp on all the counters.
+		if (prp instanceof PrpFixed){
+			((PrpFixed) prp).computeBlocks(keyStream, 0, keyStream, 0, numOfBlocks);
+		} else {
+			//Here we have to create a new array because the prp may not support computing in place.
+			byte[] prpBytes = new byte[blockSize]; 
+			try {
+				for (int i = 0; i < numOfBlocks; i++){
+					prp.computeBlock(keyStream, i * blockSize, blockSize, prpBytes, 0, blockSize);
+					System.arraycopy(prpBytes, 0, keyStream, i * blockSize, blockSize);
+				}
+			} catch (IllegalBlockSizeException e) {
+				//We catch this exception here because there is no chance that the ctr will have the wrong the size.
+				e.printStackTrace();
+			} 
+		}
+	}
+	
+	/**
+	 * Returns the length of the ciphertext of a plaintext of the given length: the IV followed by the encrypted bytes.
+	 * @param plaintextLength the length of the plaintext in bytes.
+	 */
+	public int getCiphertextLength(int plaintextLength){
+		return prp.getBlockSize() + plaintextLength;
+	}
+	
+	/**
+	 * Returns the length of the plaintext of a ciphertext of the given length.
+	 * @param ciphertextLength the length of the ciphertext in bytes.
+	 * @throws IllegalArgumentException if the given length is shorter than the IV.
+	 */
+	public int getPlaintextLength(int ciphertextLength){
+		if (ciphertextLength < prp.getBlockSize()){
+			throw new IllegalArgumentException("the ciphertext should be at least as long as the IV");
+		}
+		return ciphertextLength - prp.getBlockSize();
+	}
+	
+	/**
+	 * Encrypts the remaining bytes of the plaintext buffer with a random IV. 
+	 * Writes the IV followed by the encrypted bytes to the output buffer. 
+	 * @param plaintext the bytes to encrypt.
+	 * @param out the buffer to write the ciphertext to.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the output buffer is too short.
+	 */
+	public void encrypt(ByteBuffer plaintext, ByteBuffer out){
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		if (out.remaining() < getCiphertextLength(plaintext.remaining())){
+			throw new IllegalArgumentException("the output buffer is too short");
+		}
+		byte[] ctr = new byte[prp.getBlockSize()];
+		random.nextBytes(ctr);
+		out.put(ctr);
+		
+		processBuffer(ctr, plaintext, out);
+	}
+	
+	/**
+	 * Decrypts the remaining bytes of the ciphertext buffer, which should start with the IV. 
+	 * @param ciphertext the bytes to decrypt.
+	 * @param out the buffer to write the plaintext to.
+	 * @return true, since this scheme does not authenticate the ciphertext.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the ciphertext is shorter than the IV or the output buffer is too short.
+	 */
+	public boolean decrypt(ByteBuffer ciphertext, ByteBuffer out){
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		if (out.remaining() < getPlaintextLength(ciphertext.remaining())){
+			throw new IllegalArgumentException("the output buffer is too short");
+		}
+		byte[] ctr = new byte[prp.getBlockSize()];
+		ciphertext.get(ctr);
+		
+		processBuffer(ctr, ciphertext, out);
+		return true;
+	}
+	
+	/*
+	 * XORs the remaining bytes of the input buffer with the key stream that starts from the given counter and writes them to the 
+	 * output buffer. The key stream is computed in chunks of BUFFER_BLOCKS blocks. Each chunk of the input is read before the 
+	 * corresponding output is written, so the output may be in the same array as the input, as long as it does not start after it.
+	 */
+	private void processBuffer(byte[] ctr, ByteBuffer in, ByteBuffer out){
+		int blockSize = prp.getBlockSize();
+		if (keyStreamBuffer == null || keyStreamBuffer.length != BUFFER_BLOCKS * blockSize){
+			keyStreamBuffer = new byte[BUFFER_BLOCKS * blockSize];
+			dataBuffer = new byte[BUFFER_BLOCKS * blockSize];
+		}
+		
+		while (in.hasRemaining()){
+			int size = Math.min(in.remaining(), keyStreamBuffer.length);
+			computeKeyStream(ctr, keyStreamBuffer, (size + blockSize - 1) / blockSize);
+			in.get(dataBuffer, 0, size);
+			for (int i = 0; i < size; i++){
+				dataBuffer[i] ^= keyStreamBuffer[i];
 			}
+			out.put(dataBuffer, 0, size);
 		}
-
-		//Increases the counter by one.
+	}
+	
+	/*
+	 * Increases the given counter by one, modulo 2^(8*ctr.length).
+	 */
+	private void increaseCounter(byte[] ctr){
 		int    carry = 1;
 
-		for (int i = blockSize - 1; i >= 0; i--)
+		for (int i = ctr.length - 1; i >= 0; i--)
 		{
 			int    x = (ctr[i] & 0xff) + carry;
 
@@ -274,8 +351,6 @@ public class ScCTREncRandomIV extends EncWithIVAbs implements CTREnc {
 
 			ctr[i] = (byte)x;
 		}
-		return ctr;
-
 	}
 
 }
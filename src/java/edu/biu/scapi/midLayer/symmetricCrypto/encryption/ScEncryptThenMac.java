@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -38,7 +39,9 @@ import edu.biu.scapi.midLayer.ciphertext.SymmetricCiphertext;
 import edu.biu.scapi.midLayer.plaintext.Plaintext;
 import edu.biu.scapi.midLayer.symmetricCrypto.keys.AuthEncKeyGenParameterSpec;
 import edu.biu.scapi.midLayer.symmetricCrypto.keys.EncThenMacKey;
+import edu.biu.scapi.midLayer.symmetricCrypto.mac.CbcMac;
 import edu.biu.scapi.midLayer.symmetricCrypto.mac.Mac;
+import edu.biu.scapi.midLayer.symmetricCrypto.mac.MacBufferUtil;
 import edu.biu.scapi.midLayer.symmetricCrypto.mac.ScCbcMacPrepending;
 import edu.biu.scapi.primitives.prf.bc.BcAES;
 import edu.biu.scapi.primitives.prf.bc.BcTripleDES;
@@ -53,7 +56,7 @@ import edu.biu.scapi.primitives.prf.bc.BcTripleDES;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Yael Ejgenberg)
  *
  */
-public class ScEncryptThenMac implements AuthenticatedEnc {
+public class ScEncryptThenMac implements AuthenticatedEnc, SymmetricBufferEnc {
 	
 	private SymmetricEnc encryptor;		//The symmetric encryption object used to perform the encrypt part of encrypt-then-mac algorithm.
 	private Mac mac;					//The mac object used to perform the authentication part of encrypt-then-mac algorithm.
@@ -205,4 +208,113 @@ public class ScEncryptThenMac implements AuthenticatedEnc {
 		//Now that the message has been verified we can decrypt it:
 		return encryptor.decrypt(encMacCipher.getCipher());
 	}
+	
+	/**
+	 * Returns the length of the ciphertext of a plaintext of the given length: the ciphertext of the underlying encryption followed by the tag.
+	 * @param plaintextLength the length of the plaintext in bytes.
+	 * @throws UnsupportedOperationException if the underlying encryption does not implement SymmetricBufferEnc.
+	 */
+	public int getCiphertextLength(int plaintextLength){
+		return getBufferEncryptor().getCiphertextLength(plaintextLength) + mac.getMacSize();
+	}
+	
+	/**
+	 * Returns the length of the plaintext of a ciphertext of the given length.
+	 * @param ciphertextLength the length of the ciphertext in bytes.
+	 * @throws IllegalArgumentException if the given length is shorter than any ciphertext.
+	 * @throws UnsupportedOperationException if the underlying encryption does not implement SymmetricBufferEnc.
+	 */
+	public int getPlaintextLength(int ciphertextLength){
+		if (ciphertextLength < mac.getMacSize()){
+			throw new IllegalArgumentException("the ciphertext should be at least as long as the tag");
+		}
+		return getBufferEncryptor().getPlaintextLength(ciphertextLength - mac.getMacSize());
+	}
+	
+	/**
+	 * Encrypts the remaining bytes of the plaintext buffer and then computes the mac of the encrypted bytes.<p>
+	 * The ciphertext of the underlying encryption is written to the output buffer and followed by the tag. The mac is computed 
+	 * on the whole ciphertext of the underlying encryption, including its IV. 
+	 * @param plaintext the bytes to encrypt.
+	 * @param out the buffer to write the ciphertext to.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the output buffer is too short.
+	 * @throws UnsupportedOperationException if the underlying encryption does not implement SymmetricBufferEnc.
+	 */
+	public void encrypt(ByteBuffer plaintext, ByteBuffer out){
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		SymmetricBufferEnc bufferEncryptor = getBufferEncryptor();
+		int cipherLength = bufferEncryptor.getCiphertextLength(plaintext.remaining());
+		if (out.remaining() < cipherLength + mac.getMacSize()){
+			throw new IllegalArgumentException("the output buffer is too short");
+		}
+		
+		//Keep a view of the encrypted bytes in order to mac them.
+		ByteBuffer cipher = out.duplicate();
+		bufferEncryptor.encrypt(plaintext, out);
+		cipher.limit(out.position());
+		
+		out.put(computeTag(cipher, cipherLength));
+	}
+	
+	/**
+	 * Verifies the tag at the end of the remaining bytes of the ciphertext buffer. If verified, decrypts the rest of them. 
+	 * @param ciphertext the bytes to decrypt.
+	 * @param out the buffer to write the plaintext to.
+	 * @return true if the ciphertext was verified and decrypted; false otherwise, in which case the buffers are not changed.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the ciphertext is too short or the output buffer is too short.
+	 * @throws UnsupportedOperationException if the underlying encryption does not implement SymmetricBufferEnc.
+	 */
+	public boolean decrypt(ByteBuffer ciphertext, ByteBuffer out){
+		if (!isKeySet()){
+			throw new IllegalStateException("no SecretKey was set");
+		}
+		SymmetricBufferEnc bufferEncryptor = getBufferEncryptor();
+		if (out.remaining() < getPlaintextLength(ciphertext.remaining())){
+			throw new IllegalArgumentException("the output buffer is too short");
+		}
+		int cipherLength = ciphertext.remaining() - mac.getMacSize();
+		
+		//Compute the tag of the encrypted bytes and compare it to the received tag.
+		ByteBuffer cipher = ciphertext.duplicate();
+		cipher.limit(cipher.position() + cipherLength);
+		byte[] tag = computeTag(cipher, cipherLength);
+		byte[] receivedTag = new byte[mac.getMacSize()];
+		ByteBuffer tagView = ciphertext.duplicate();
+		tagView.position(ciphertext.position() + cipherLength);
+		tagView.get(receivedTag);
+		if (!MacBufferUtil.isEqual(tag, receivedTag)){
+			return false;
+		}
+		
+		//Now that the ciphertext has been verified we can decrypt it.
+		cipher.position(ciphertext.position());
+		bufferEncryptor.decrypt(cipher, out);
+		ciphertext.position(ciphertext.limit());
+		return true;
+	}
+	
+	/*
+	 * Computes the mac of the remaining bytes of the given buffer, in one pass.
+	 */
+	private byte[] computeTag(ByteBuffer cipher, int cipherLength){
+		//CBC-MAC has to know the length of the message before it starts.
+		if (mac instanceof CbcMac){
+			((CbcMac) mac).startMac(cipherLength);
+		}
+		return mac.doFinal(cipher);
+	}
+	
+	/*
+	 * Returns the underlying encryption as a SymmetricBufferEnc.
+	 */
+	private SymmetricBufferEnc getBufferEncryptor(){
+		if (!(encryptor instanceof SymmetricBufferEnc)){
+			throw new UnsupportedOperationException("the underlying encryption scheme does not support encryption of buffers");
+		}
+		return (SymmetricBufferEnc) encryptor;
+	}
 }
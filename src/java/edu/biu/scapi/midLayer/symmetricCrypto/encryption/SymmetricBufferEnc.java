@@ -0,0 +1,80 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.symmetricCrypto.encryption;
+
+import java.nio.ByteBuffer;
+
+/**
+ * General interface for symmetric encryption schemes that can encrypt and decrypt directly between ByteBuffers.<p>
+ * 
+ * Unlike the encrypt and decrypt functions of {@link SymmetricEnc}, these functions do not wrap the data in Plaintext and 
+ * Ciphertext objects. The ciphertext is a flat sequence of bytes that contains everything needed for decryption (for example, the IV 
+ * and the tag), so it can be written to a buffer that is sent as is.<p>
+ * The output may share an array with the input. When encrypting, the plaintext may be placed right after space that is reserved 
+ * for the header of the ciphertext (the bytes that precede the encrypted data, such as the IV), and the ciphertext is written over it. 
+ * When decrypting, the plaintext may be written at the position of the ciphertext.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public interface SymmetricBufferEnc {
+	
+	/**
+	 * Returns the length of the ciphertext of a plaintext of the given length.
+	 * @param plaintextLength the length of the plaintext in bytes.
+	 * @return the length of the ciphertext in bytes.
+	 */
+	public int getCiphertextLength(int plaintextLength);
+	
+	/**
+	 * Returns the length of the plaintext of a ciphertext of the given length.
+	 * @param ciphertextLength the length of the ciphertext in bytes.
+	 * @return the length of the plaintext in bytes.
+	 * @throws IllegalArgumentException if the given length is shorter than any ciphertext.
+	 */
+	public int getPlaintextLength(int ciphertextLength);
+	
+	/**
+	 * Encrypts the remaining bytes of the plaintext buffer and writes the ciphertext to the output buffer. 
+	 * The positions of both buffers are advanced.
+	 * @param plaintext the bytes to encrypt.
+	 * @param out the buffer to write the ciphertext to. Must have getCiphertextLength(plaintext.remaining()) remaining bytes.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the output buffer is too short.
+	 */
+	public void encrypt(ByteBuffer plaintext, ByteBuffer out);
+	
+	/**
+	 * Decrypts the remaining bytes of the ciphertext buffer and writes the plaintext to the output buffer.<p>
+	 * If the scheme authenticates the ciphertext and the ciphertext does not verify, nothing is written and the positions of 
+	 * the buffers do not change. Otherwise, the positions of both buffers are advanced.
+	 * @param ciphertext the bytes to decrypt.
+	 * @param out the buffer to write the plaintext to. Must have getPlaintextLength(ciphertext.remaining()) remaining bytes.
+	 * @return true if the ciphertext was decrypted; false if it did not verify.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the output buffer is too short or the ciphertext is too short.
+	 */
+	public boolean decrypt(ByteBuffer ciphertext, ByteBuffer out);
+}
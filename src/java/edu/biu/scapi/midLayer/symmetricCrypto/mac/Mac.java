@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.midLayer.symmetricCrypto.mac;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.spec.AlgorithmParameterSpec;
 import java.security.spec.InvalidParameterSpecException;
@@ -123,4 +124,18 @@ public interface Mac {
 	 * @return the result tag from the mac operation.
 	 */
 	public byte[] doFinal(byte[] msg, int offset, int msgLength);
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to mac. The position of the buffer is moved to its limit.
+	 * @param msg the message to add.
+	 */
+	public void update(ByteBuffer msg);
+	
+	/**
+	 * Completes the mac computation with the remaining bytes of the given buffer and returns the tag. 
+	 * The position of the buffer is moved to its limit.
+	 * @param msg the end of the message to mac.
+	 * @return the result tag from the mac operation.
+	 */
+	public byte[] doFinal(ByteBuffer msg);
 }
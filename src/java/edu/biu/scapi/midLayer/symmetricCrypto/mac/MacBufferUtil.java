@@ -0,0 +1,104 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.midLayer.symmetricCrypto.mac;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Static helpers that pass the content of ByteBuffers to a {@link Mac}.<p>
+ * Buffers that are backed by arrays are passed to the mac as is. Other buffers (direct or read only) are copied through 
+ * a temporary array, in chunks that are aligned to the mac size so that block based macs such as CBC-MAC accept them.
+ * The implementations of Mac.update(ByteBuffer) and Mac.doFinal(ByteBuffer) use these functions.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class MacBufferUtil {
+	
+	private static final int CHUNK_SIZE = 4096;	//Maximal number of bytes copied at once from a buffer that has no accessible array.
+	
+	private MacBufferUtil(){}
+	
+	/**
+	 * Adds the remaining bytes of the given buffer to the message of the given mac. The position of the buffer is moved to its limit.
+	 */
+	public static void update(Mac mac, ByteBuffer msg){
+		if (msg.hasArray()){
+			mac.update(msg.array(), msg.arrayOffset() + msg.position(), msg.remaining());
+			msg.position(msg.limit());
+			return;
+		}
+		byte[] chunk = new byte[Math.min(msg.remaining(), getChunkSize(mac))];
+		while (msg.hasRemaining()){
+			int size = Math.min(msg.remaining(), chunk.length);
+			msg.get(chunk, 0, size);
+			mac.update(chunk, 0, size);
+		}
+	}
+	
+	/**
+	 * Completes the mac computation with the remaining bytes of the given buffer and returns the tag. 
+	 * The position of the buffer is moved to its limit.
+	 */
+	public static byte[] doFinal(Mac mac, ByteBuffer msg){
+		if (msg.hasArray()){
+			byte[] tag = mac.doFinal(msg.array(), msg.arrayOffset() + msg.position(), msg.remaining());
+			msg.position(msg.limit());
+			return tag;
+		}
+		byte[] chunk = new byte[Math.min(msg.remaining(), getChunkSize(mac))];
+		//All the chunks but the last are full, and thus aligned to the mac size.
+		while (msg.remaining() > chunk.length){
+			msg.get(chunk);
+			mac.update(chunk, 0, chunk.length);
+		}
+		int size = msg.remaining();
+		msg.get(chunk, 0, size);
+		return mac.doFinal(chunk, 0, size);
+	}
+	
+	/**
+	 * Compares the given tags in time that does not depend on their content.
+	 * @return true if the tags are equal, false otherwise.
+	 */
+	public static boolean isEqual(byte[] tag, byte[] otherTag){
+		if (tag.length != otherTag.length){
+			return false;
+		}
+		int diff = 0;
+		for (int i = 0; i < tag.length; i++){
+			diff |= tag[i] ^ otherTag[i];
+		}
+		return diff == 0;
+	}
+	
+	/*
+	 * Returns the largest multiple of the mac size that is not larger than CHUNK_SIZE.
+	 */
+	private static int getChunkSize(Mac mac){
+		int macSize = mac.getMacSize();
+		return Math.max(macSize, (CHUNK_SIZE / macSize) * macSize);
+	}
+}
@@ -27,6 +27,7 @@
 package edu.biu.scapi.midLayer.symmetricCrypto.mac;
 
 import java.math.BigInteger;
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -307,7 +308,7 @@ public class ScCbcMacPrepending implements CbcMac {
 			// Xores the tag with the current block in the message.
 			// In order to avoid unnecessary allocation of memory, we put the xor-ed bytes into tag.
 			for (int j = 0; j < getMacSize(); j++) {
-				tag[j] = (byte) (tag[j] ^ msg[j + i * getMacSize()]);
+				tag[j] = (byte) (tag[j] ^ msg[offset + j + i * getMacSize()]);
 			}
 			try {
 				// Computes the tag of the current block. Puts the result into
@@ -390,6 +391,23 @@ public class ScCbcMacPrepending implements CbcMac {
 		return tag;
 	}
 
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to mac.
+	 * @param msg the message to add.
+	 */
+	public void update(ByteBuffer msg){
+		MacBufferUtil.update(this, msg);
+	}
+	
+	/**
+	 * Completes the mac computation with the remaining bytes of the given buffer and returns the tag.
+	 * @param msg the end of the message to mac.
+	 * @return the result tag from the mac operation.
+	 */
+	public byte[] doFinal(ByteBuffer msg){
+		return MacBufferUtil.doFinal(this, msg);
+	}
+
 	public int getBlockSize() {
 		return prp.getBlockSize();
 	}
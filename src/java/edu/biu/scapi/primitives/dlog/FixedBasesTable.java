@@ -0,0 +1,196 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.primitives.dlog;
+
+import java.math.BigInteger;
+
+/**
+ * FixedBasesTable holds precomputed exponentiations of a few bases that are fixed for a long time
+ * (for example, the generators g and h of a Pedersen commitment), and uses them to compute
+ * exponentiations and products of exponentiations of these bases without squarings.<p>
+ * 
+ * The exponent is split into windows of windowSize bits. For each base b, window j and digit d
+ * the table keeps b^(d*2^(j*windowSize)), so that b^e is the product of one table entry per non zero window of e
+ * and b1^e1*b2^e2 is the product of the entries of both bases. 
+ * Building the table costs about numOfWindows*2^windowSize group multiplications per base, 
+ * so it pays off only when the bases are used for many exponentiations.<p>
+ * 
+ * The table is read only once it is built, so it can be shared between threads as long as the underlying
+ * Dlog group is thread safe. Exponents that are negative or longer than the group order are computed with 
+ * the regular exponentiation of the group.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class FixedBasesTable {
+	
+	/**
+	 * The default window size. Six bits keep the table of each base small (a few thousands of elements for 
+	 * common group orders) while reducing an exponentiation to about |q|/6 multiplications.
+	 */
+	public static final int DEFAULT_WINDOW_SIZE = 6;
+	
+	private DlogGroup dlog;
+	private GroupElement[] bases;
+	private int windowSize;
+	private int numOfWindows;
+	//tables[i][j][d-1] = bases[i]^(d*2^(j*windowSize)).
+	private GroupElement[][][] tables;
+	
+	/**
+	 * Builds the tables of the given bases using the default window size.
+	 * @param dlog the Dlog group the bases belong to.
+	 * @param bases the fixed bases.
+	 */
+	public FixedBasesTable(DlogGroup dlog, GroupElement[] bases){
+		this(dlog, bases, DEFAULT_WINDOW_SIZE);
+	}
+	
+	/**
+	 * Builds the tables of the given bases.
+	 * @param dlog the Dlog group the bases belong to.
+	 * @param bases the fixed bases.
+	 * @param windowSize number of exponent bits covered by one table lookup.
+	 * @throws IllegalArgumentException if windowSize is not between 1 and 16 or no bases were given.
+	 */
+	public FixedBasesTable(DlogGroup dlog, GroupElement[] bases, int windowSize){
+		if (windowSize < 1 || windowSize > 16){
+			throw new IllegalArgumentException("window size should be between 1 and 16");
+		}
+		if (bases == null || bases.length == 0){
+			throw new IllegalArgumentException("at least one base should be given");
+		}
+		this.dlog = dlog;
+		this.bases = bases.clone();
+		this.windowSize = windowSize;
+		int bits = dlog.getOrder().bitLength();
+		numOfWindows = (bits + windowSize - 1) / windowSize;
+		
+		tables = new GroupElement[bases.length][][];
+		for (int i = 0; i < bases.length; i++){
+			tables[i] = buildTable(bases[i]);
+		}
+	}
+	
+	/**
+	 * Builds the table of one base.
+	 */
+	private GroupElement[][] buildTable(GroupElement base){
+		int numOfDigits = (1 << windowSize) - 1;
+		GroupElement[][] table = new GroupElement[numOfWindows][numOfDigits];
+		GroupElement windowBase = base;
+		for (int j = 0; j < numOfWindows; j++){
+			table[j][0] = windowBase;
+			for (int d = 1; d < numOfDigits; d++){
+				table[j][d] = dlog.multiplyGroupElements(table[j][d-1], windowBase);
+			}
+			//windowBase^(2^windowSize) is the largest digit multiplied once more by windowBase.
+			if (j < numOfWindows - 1){
+				windowBase = dlog.multiplyGroupElements(table[j][numOfDigits-1], windowBase);
+			}
+		}
+		return table;
+	}
+	
+	/**
+	 * @return the number of bases in this table.
+	 */
+	public int getNumOfBases(){
+		return bases.length;
+	}
+	
+	/**
+	 * @param index the index of the base.
+	 * @return the base in the given index.
+	 */
+	public GroupElement getBase(int index){
+		return bases[index];
+	}
+	
+	/**
+	 * Computes base^exponent for the base in the given index.
+	 * @param baseIndex the index of the base.
+	 * @param exponent
+	 * @return the exponentiation result.
+	 */
+	public GroupElement exponentiate(int baseIndex, BigInteger exponent){
+		if (!isInRange(exponent)){
+			return dlog.exponentiate(bases[baseIndex], exponent);
+		}
+		GroupElement result = multiplyWindows(tables[baseIndex], exponent, null);
+		return (result == null) ? dlog.getIdentity() : result;
+	}
+	
+	/**
+	 * Computes the product of bases[i]^exponents[i] over all the bases of this table.
+	 * @param exponents one exponent per base.
+	 * @return the product of the exponentiations.
+	 * @throws IllegalArgumentException if the number of exponents differs from the number of bases.
+	 */
+	public GroupElement exponentiate(BigInteger[] exponents){
+		if (exponents.length != bases.length){
+			throw new IllegalArgumentException("the number of exponents should be equal to the number of bases");
+		}
+		GroupElement result = null;
+		for (int i = 0; i < bases.length; i++){
+			if (isInRange(exponents[i])){
+				result = multiplyWindows(tables[i], exponents[i], result);
+			} else {
+				result = multiply(result, dlog.exponentiate(bases[i], exponents[i]));
+			}
+		}
+		return (result == null) ? dlog.getIdentity() : result;
+	}
+	
+	/**
+	 * Multiplies the given result by the table entry of each non zero window of the exponent.
+	 * @param result the accumulated product, or null if nothing was accumulated yet.
+	 * @return the new accumulated product, or null if it is still empty.
+	 */
+	private GroupElement multiplyWindows(GroupElement[][] table, BigInteger exponent, GroupElement result){
+		int bit = 0;
+		for (int j = 0; j < numOfWindows; j++){
+			int digit = 0;
+			for (int b = 0; b < windowSize; b++, bit++){
+				if (exponent.testBit(bit)){
+					digit |= 1 << b;
+				}
+			}
+			if (digit != 0){
+				result = multiply(result, table[j][digit-1]);
+			}
+		}
+		return result;
+	}
+	
+	private GroupElement multiply(GroupElement result, GroupElement element){
+		return (result == null) ? element : dlog.multiplyGroupElements(result, element);
+	}
+	
+	private boolean isInRange(BigInteger exponent){
+		return exponent.signum() >= 0 && exponent.bitLength() <= numOfWindows * windowSize;
+	}
+}
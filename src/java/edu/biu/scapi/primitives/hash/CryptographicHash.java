@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.hash;
 
+import java.nio.ByteBuffer;
 
 /**
  * General interface for CryptographicHash. Every concrete class should implement this interface. <p>
@@ -55,10 +56,25 @@ public interface CryptographicHash {
 	 * */
 	public void update(byte[] in, int inOffset, int inLen);
 
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash. 
+	 * The buffer may be a direct buffer; its position is advanced to its limit.
+	 * @param in the buffer that contains the bytes to add.
+	 */
+	public void update(ByteBuffer in);
+
 	/** 
 	 * Completes the hash computation and puts the result in the out array.
 	 * @param out the output in byte array
 	 * @param outOffset the offset which to put the result bytes from
 	 */
 	public void hashFinal(byte[] out, int outOffset);
+
+	/**
+	 * Returns a new hash object of the same algorithm that holds a copy of the current state of this hash.<p>
+	 * The two objects are independent from this point on. This way a common prefix can be hashed once and then 
+	 * completed with different suffixes, and a hash object that was not updated yet can be forked to get more objects for other threads.
+	 * @return a new hash object with the same intermediate state.
+	 */
+	public CryptographicHash fork();
 }
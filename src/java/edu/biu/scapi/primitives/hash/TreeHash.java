@@ -0,0 +1,325 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.hash;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.primitives.hash.bc.BcSHA256;
+import edu.biu.scapi.tools.BatchRangeRunner;
+import edu.biu.scapi.tools.Factories.CryptographicHashFactory;
+
+/**
+ * A tree hash mode over any {@link CryptographicHash}, built for hashing large inputs on several cores.<p>
+ * 
+ * The message is split into leaves of a fixed size (the last leaf may be shorter; an empty message has one empty leaf). 
+ * Each leaf is hashed as H(0x00 || leaf), and every two adjacent nodes of a level are hashed as H(0x01 || left || right), 
+ * where an odd node at the end of a level moves up as is. The output is the single node of the last level. 
+ * The different prefixes of leaves and inner nodes prevent a leaf from being interpreted as an inner node.<p>
+ * 
+ * Note that the output is not equal to the output of the underlying hash on the same message, but it does not depend on the 
+ * number of threads or on the way the message is split between calls to update. 
+ * Leaves are hashed as soon as they are complete; when a single update contains many leaves, they are split between the threads, 
+ * each with its own fork of the underlying hash.<p>
+ * 
+ * The factory name of this mode is Tree(hashName), for example Tree(SHA-256).
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class TreeHash implements CryptographicHash {
+	
+	/**
+	 * The default size of a leaf in bytes.
+	 */
+	public static final int DEFAULT_LEAF_SIZE = 1 << 16;
+	
+	private static final int MIN_LEAVES_PER_THREAD = 16;	//A thread is used only if it has at least this number of leaves to hash.
+	private static final byte[] LEAF_PREFIX = {0};
+	private static final byte[] NODE_PREFIX = {1};
+	
+	private CryptographicHash prototype;		//A hash that is never updated, used to create the other hash objects.
+	private CryptographicHash hash;				//Hashes the leaves and nodes in the calling thread.
+	private CryptographicHash[] threadHashes;	//Hash objects used by the other threads. Created on demand.
+	private boolean canFork = true;				//False if the underlying hash does not support fork.
+	private int numOfThreads;
+	private int leafSize;
+	private byte[] pending;						//The bytes of the current leaf, which is not complete yet.
+	private int pendingLength;
+	private List<byte[]> leaves = new ArrayList<byte[]>();	//The hashes of the complete leaves.
+	
+	/**
+	 * Default constructor. Uses BC's SHA-256 and the default leaf size.
+	 */
+	public TreeHash(){
+		this(new BcSHA256());
+	}
+	
+	/**
+	 * Constructor that creates the underlying hash using the CryptographicHashFactory, with the default leaf size.
+	 * @param hashName the name of the underlying hash, for example SHA-256.
+	 * @throws FactoriesException if the factory fails to create the hash.
+	 */
+	public TreeHash(String hashName) throws FactoriesException{
+		this(CryptographicHashFactory.getInstance().getObject(hashName));
+	}
+	
+	/**
+	 * Constructor that lets the user choose the underlying hash, with the default leaf size.
+	 * @param hash the underlying hash. It should not have been updated, and it should not be used by the caller after this call.
+	 */
+	public TreeHash(CryptographicHash hash){
+		this(hash, DEFAULT_LEAF_SIZE);
+	}
+	
+	/**
+	 * Constructor that lets the user choose the underlying hash and the leaf size.<p>
+	 * The leaves are hashed by several threads only if the underlying hash supports fork. Otherwise they are hashed in the calling thread.
+	 * @param hash the underlying hash. It should not have been updated, and it should not be used by the caller after this call.
+	 * @param leafSize the size of a leaf in bytes. Both sides of a protocol must use the same leaf size.
+	 */
+	public TreeHash(CryptographicHash hash, int leafSize){
+		if (leafSize <= 0){
+			throw new IllegalArgumentException("the leaf size should be positive");
+		}
+		this.prototype = hash;
+		this.leafSize = leafSize;
+		this.pending = new byte[leafSize];
+		this.numOfThreads = Runtime.getRuntime().availableProcessors();
+		try {
+			this.hash = prototype.fork();
+		} catch (UnsupportedOperationException e) {
+			//The prototype itself is used in the calling thread. 
+			this.hash = prototype;
+			canFork = false;
+		}
+	}
+	
+	/**
+	 * Sets the number of threads that hash the leaves of large updates.
+	 * @param numOfThreads number of threads. 1 means that all the leaves are hashed in the calling thread.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads <= 0){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+	
+	/** 
+	 * @return Tree({name of the underlying hash}).
+	 */
+	public String getAlgorithmName() {
+		return "Tree(" + prototype.getAlgorithmName() + ")";
+	}
+
+	/** 
+	 * @return the size of the hashed massage in bytes, which is the output size of the underlying hash.
+	 */
+	public int getHashedMsgSize() {
+		return prototype.getHashedMsgSize();
+	}
+
+	/**
+	 * Adds the byte array to the existing message to hash. 
+	 * @param in input byte array
+	 * @param inOffset the offset within the byte array
+	 * @param inLen the length. The number of bytes to take after the offset
+	 * */
+	public void update(byte[] in, int inOffset, int inLen) {
+		
+		//checks that the offset and length are correct
+		if ((inOffset > in.length) || (inOffset+inLen > in.length) || (inOffset<0)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		
+		if (inLen < 0){
+			throw new NegativeArraySizeException("wrong length for the given input buffer");
+		}
+		
+		update(ByteBuffer.wrap(in, inOffset, inLen));
+	}
+
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash. 
+	 * The buffer may be a direct buffer; complete leaves are hashed directly from it.
+	 * @param in the buffer that contains the bytes to add.
+	 */
+	public void update(ByteBuffer in) {
+		
+		//First, complete the current leaf.
+		if (pendingLength > 0){
+			int len = Math.min(in.remaining(), leafSize - pendingLength);
+			in.get(pending, pendingLength, len);
+			pendingLength += len;
+			if (pendingLength < leafSize){
+				return;
+			}
+			leaves.add(hashLeaf(hash, ByteBuffer.wrap(pending)));
+			pendingLength = 0;
+		}
+		
+		//Hash the complete leaves directly from the given buffer.
+		int numOfLeaves = in.remaining() / leafSize;
+		if (numOfLeaves > 0){
+			hashInParallel(in, numOfLeaves);
+		}
+		
+		//Keep the rest for the next leaf.
+		int len = in.remaining();
+		in.get(pending, 0, len);
+		pendingLength = len;
+	}
+
+	/** 
+	 * Completes the tree hash computation and puts the result in the out array. After this call the object can hash a new message.
+	 * @param out the output in byte array
+	 * @param outOffset the offset which to put the result bytes from
+	 */
+	public void hashFinal(byte[] out, int outOffset) {
+		
+		//checks that the offset and length are correct
+		if ((outOffset > out.length) || (outOffset+getHashedMsgSize() > out.length) || (outOffset<0)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+		
+		//The last leaf is hashed if it is not empty, or if the whole message is empty.
+		if (pendingLength > 0 || leaves.isEmpty()){
+			leaves.add(hashLeaf(hash, ByteBuffer.wrap(pending, 0, pendingLength)));
+		}
+		
+		//Compute the levels of the tree until a single node is left.
+		List<byte[]> level = leaves;
+		while (level.size() > 1){
+			List<byte[]> next = new ArrayList<byte[]>((level.size() + 1) / 2);
+			for (int i = 0; i + 1 < level.size(); i += 2){
+				byte[] node = new byte[getHashedMsgSize()];
+				hash.update(NODE_PREFIX, 0, 1);
+				hash.update(level.get(i), 0, node.length);
+				hash.update(level.get(i + 1), 0, node.length);
+				hash.hashFinal(node, 0);
+				next.add(node);
+			}
+			if (level.size() % 2 == 1){
+				next.add(level.get(level.size() - 1));
+			}
+			level = next;
+		}
+		System.arraycopy(level.get(0), 0, out, outOffset, getHashedMsgSize());
+		
+		leaves = new ArrayList<byte[]>();
+		pendingLength = 0;
+	}
+
+	/**
+	 * Returns a new tree hash with the same underlying hash, leaf size, number of threads and intermediate state.
+	 * @return the forked tree hash.
+	 * @throws UnsupportedOperationException if the underlying hash does not support fork.
+	 */
+	public CryptographicHash fork() {
+		
+		if (!canFork){
+			throw new UnsupportedOperationException("the underlying hash cannot be forked");
+		}
+		TreeHash copy = new TreeHash(prototype.fork(), leafSize);
+		copy.numOfThreads = numOfThreads;
+		System.arraycopy(pending, 0, copy.pending, 0, pendingLength);
+		copy.pendingLength = pendingLength;
+		//The hashes of the leaves are never changed, so they can be shared.
+		copy.leaves.addAll(leaves);
+		return copy;
+	}
+	
+	/*
+	 * Hashes the next numOfLeaves complete leaves of the given buffer and adds their hashes to the list, splitting them between the threads.
+	 */
+	private void hashInParallel(final ByteBuffer in, int numOfLeaves){
+		int numOfRanges = BatchRangeRunner.getNumOfRanges(numOfLeaves, numOfThreads, MIN_LEAVES_PER_THREAD);
+		final CryptographicHash[] hashes = (numOfRanges > 1) ? getThreadHashes(numOfRanges - 1) : null;
+		if (hashes == null){
+			numOfRanges = 1;
+		}
+		
+		final byte[][] results = new byte[numOfLeaves][];
+		final int start = in.position();
+		//Range 0 is hashed by the calling thread. Every other range uses its own fork of the underlying hash and its own view of the buffer.
+		BatchRangeRunner.runInRanges(numOfLeaves, numOfRanges, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				CryptographicHash rangeHash = (rangeIndex == 0) ? hash : hashes[rangeIndex - 1];
+				hashLeaves(rangeHash, in.duplicate(), start, leafSize, results, from, to - from);
+			}
+		});
+		
+		for (int i = 0; i < numOfLeaves; i++){
+			leaves.add(results[i]);
+		}
+		in.position(start + numOfLeaves * leafSize);
+	}
+	
+	/*
+	 * Returns at least num forks of the underlying hash, or null if the underlying hash does not support fork.
+	 */
+	private CryptographicHash[] getThreadHashes(int num){
+		if (!canFork){
+			return null;
+		}
+		if (threadHashes != null && threadHashes.length >= num){
+			return threadHashes;
+		}
+		CryptographicHash[] hashes = new CryptographicHash[num];
+		for (int i = 0; i < num; i++){
+			hashes[i] = prototype.fork();
+		}
+		threadHashes = hashes;
+		return threadHashes;
+	}
+	
+	/*
+	 * Hashes numOfLeaves leaves of the given buffer, starting at the leaf firstLeaf after the given position, into the results array.
+	 */
+	private static void hashLeaves(CryptographicHash hash, ByteBuffer in, int position, int leafSize, byte[][] results, int firstLeaf, int numOfLeaves){
+		for (int i = firstLeaf; i < firstLeaf + numOfLeaves; i++){
+			int leafStart = position + i * leafSize;
+			in.limit(leafStart + leafSize);
+			in.position(leafStart);
+			results[i] = hashLeaf(hash, in);
+		}
+	}
+	
+	/*
+	 * Returns H(0x00 || leaf), where the leaf is the remaining bytes of the given buffer.
+	 */
+	private static byte[] hashLeaf(CryptographicHash hash, ByteBuffer leaf){
+		byte[] result = new byte[hash.getHashedMsgSize()];
+		hash.update(LEAF_PREFIX, 0, 1);
+		if (leaf.hasRemaining()){
+			hash.update(leaf);
+		}
+		hash.hashFinal(result, 0);
+		return result;
+	}
+}
@@ -26,7 +26,11 @@
 
 package edu.biu.scapi.primitives.hash.bc;
 
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+
 import org.bouncycastle.crypto.Digest;
+import org.bouncycastle.util.Memoable;
 
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 
@@ -40,6 +44,7 @@ import edu.biu.scapi.primitives.hash.CryptographicHash;
  * 
  */
 public abstract class BcHash implements CryptographicHash {
+	private static final int CHUNK_SIZE = 4096;	//size of the temporary array used to hash direct buffers
 	private Digest digest; //the underlying digest
 	
 	 /**
@@ -95,6 +100,27 @@ public abstract class BcHash implements CryptographicHash {
 		digest.update(in, inOffset, inLen);
 	}
 
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash. 
+	 * Direct buffers are passed to the digest in chunks through a temporary array.
+	 * @param in the buffer that contains the bytes to add.
+	 */
+	public void update(ByteBuffer in) {
+		
+		if (in.hasArray()){
+			digest.update(in.array(), in.arrayOffset() + in.position(), in.remaining());
+			in.position(in.limit());
+			return;
+		}
+		
+		byte[] chunk = new byte[Math.min(in.remaining(), CHUNK_SIZE)];
+		while (in.hasRemaining()){
+			int len = Math.min(in.remaining(), chunk.length);
+			in.get(chunk, 0, len);
+			digest.update(chunk, 0, len);
+		}
+	}
+
 	/** 
 	 * Completes the hash computation and puts the result in the out array.
 	 * @param out the output in byte array
@@ -110,4 +136,32 @@ public abstract class BcHash implements CryptographicHash {
 		//will update the out array.
 		digest.doFinal(out, outOffset);
 	}
+
+	/**
+	 * Returns a new hash object of the same class that holds a copy of the current state of the underlying digest.
+	 * @return the forked hash.
+	 * @throws UnsupportedOperationException if the underlying digest cannot be copied.
+	 */
+	public CryptographicHash fork() {
+		
+		if (!(digest instanceof Memoable)){
+			throw new UnsupportedOperationException("the underlying digest cannot be copied");
+		}
+		
+		BcHash copy;
+		try {
+			copy = getClass().getConstructor().newInstance();
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getMessage());
+		} catch (InstantiationException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getMessage());
+		} catch (IllegalAccessException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getMessage());
+		} catch (InvocationTargetException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getCause());
+		}
+		//BC digests implement Memoable, which copies the whole intermediate state.
+		copy.digest = (Digest) ((Memoable) digest).copy();
+		return copy;
+	}
 }
@@ -26,6 +26,9 @@
 
 package edu.biu.scapi.primitives.hash.cryptopp;
 
+import java.lang.reflect.InvocationTargetException;
+import java.nio.ByteBuffer;
+
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 
 /**
@@ -41,6 +44,7 @@ import edu.biu.scapi.primitives.hash.CryptographicHash;
 public abstract class CryptoPpHash implements CryptographicHash {
 
 	protected long collHashPtr; //pointer to the native hash object
+	private static volatile boolean nativeBuffersSupported = true;	//false if the native library does not export updateHashBuffer
 	
 	//native functions. These functions are implemented in a c++ dll using JNI that we load. For secure coding always
 	//declare native functions as private and wrap them by a java function.
@@ -56,6 +60,12 @@ public abstract class CryptoPpHash implements CryptographicHash {
 	//updates the message to the hash
 	private native void updateHash(long ptr, byte[] input, long len);
 	
+	//updates the message to the hash with the bytes of a direct buffer
+	private native void updateHashBuffer(long ptr, ByteBuffer input, int offset, int len);
+	
+	//creates a new hash with a copy of the state of the given hash and returns its pointer
+	private native long copyHash(long ptr);
+	
 	//finishes the hash computation
 	private native void finalHash(long ptr, byte[] output);
 	
@@ -126,6 +136,36 @@ public abstract class CryptoPpHash implements CryptographicHash {
 		}
 	}
 
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to hash. 
+	 * Direct buffers are passed to the native hash without copying, unless the loaded native library does not support it.
+	 * @param in the buffer that contains the bytes to add.
+	 */
+	public void update(ByteBuffer in) {
+		
+		if (!in.hasRemaining()){
+			return;
+		}
+		if (in.isDirect() && nativeBuffersSupported){
+			try {
+				updateHashBuffer(collHashPtr, in, in.position(), in.remaining());
+				in.position(in.limit());
+				return;
+			} catch (LinkageError e){
+				//The loaded native library was built before updateHashBuffer was added. Copy direct buffers from now on.
+				nativeBuffersSupported = false;
+			}
+		}
+		if (in.hasArray()){
+			update(in.array(), in.arrayOffset() + in.position(), in.remaining());
+			in.position(in.limit());
+		} else {
+			byte[] input = new byte[in.remaining()];
+			in.get(input);
+			update(input, 0, input.length);
+		}
+	}
+
 	/** 
 	 * Completes the hash computation and puts the result in the out array.
 	 * @param out the output in byte array
@@ -165,6 +205,41 @@ public abstract class CryptoPpHash implements CryptographicHash {
 	}
 	
 	
+	/**
+	 * Returns a new hash object of the same class that holds a copy of the current state of the native hash.
+	 * @return the forked hash.
+	 * @throws UnsupportedOperationException if the native hash cannot be copied.
+	 */
+	public CryptographicHash fork() {
+		
+		CryptoPpHash copy;
+		try {
+			copy = getClass().getConstructor().newInstance();
+		} catch (NoSuchMethodException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getMessage());
+		} catch (InstantiationException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getMessage());
+		} catch (IllegalAccessException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getMessage());
+		} catch (InvocationTargetException e) {
+			throw new UnsupportedOperationException("the hash cannot be forked: " + e.getCause());
+		}
+		//Copy the native hash before releasing the native hash of the new object, so that a failed copy leaves it valid.
+		long copyPtr;
+		try {
+			copyPtr = copyHash(collHashPtr);
+		} catch (LinkageError e) {
+			//The loaded native library does not export copyHash.
+			throw new UnsupportedOperationException("the native hash cannot be copied: " + e.getMessage());
+		}
+		if (copyPtr == 0){
+			throw new UnsupportedOperationException("the native hash cannot be copied");
+		}
+		deleteHash(copy.collHashPtr);
+		copy.collHashPtr = copyPtr;
+		return copy;
+	}
+	
 	/**
 	 * Deletes the related collision resistant hash object
 	 */
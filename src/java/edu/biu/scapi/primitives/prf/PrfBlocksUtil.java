@@ -0,0 +1,126 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.prf;
+
+import java.nio.ByteBuffer;
+
+import javax.crypto.IllegalBlockSizeException;
+
+/**
+ * Static helpers for the computation of many blocks of a pseudorandom function.<p>
+ * The implementations of PrpFixed.computeBlocks use these functions to check their arguments and to share the 
+ * ByteBuffer handling, and the users of PRFs call computeBlocks(PseudorandomFunction, ...) to use the bulk 
+ * computation whenever the given PRF supports it.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class PrfBlocksUtil {
+	
+	private static final int MAX_BUFFERED_BLOCKS = 256;	//Number of blocks copied at once when a ByteBuffer has no accessible array.
+	
+	private PrfBlocksUtil(){}
+	
+	/**
+	 * Computes numOfBlocks contiguous blocks of the given PRF. 
+	 * If the PRF is a PrpFixed, all the blocks are computed by a single call to computeBlocks; 
+	 * otherwise computeBlock is called on each block.
+	 * @param prf the pseudorandom function to compute. Its key must be set.
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 */
+	public static void computeBlocks(PseudorandomFunction prf, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks){
+		if (prf instanceof PrpFixed){
+			((PrpFixed) prf).computeBlocks(inBytes, inOff, outBytes, outOff, numOfBlocks);
+		} else {
+			computeBlockByBlock(prf, inBytes, inOff, outBytes, outOff, numOfBlocks);
+		}
+	}
+	
+	/**
+	 * Computes numOfBlocks contiguous blocks of the given PRF by calling computeBlock on each one of them.
+	 * This is the implementation of PrpFixed.computeBlocks for PRPs that have no faster way to compute many blocks.
+	 */
+	public static void computeBlockByBlock(PseudorandomFunction prf, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks){
+		int blockSize = prf.getBlockSize();
+		checkBlocks(blockSize, inBytes, inOff, outBytes, outOff, numOfBlocks);
+		try {
+			for (int i = 0; i < numOfBlocks; i++){
+				prf.computeBlock(inBytes, inOff + i * blockSize, outBytes, outOff + i * blockSize);
+			}
+		} catch (IllegalBlockSizeException e) {
+			//Should not occur since the blocks are of the PRF's block size.
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+	
+	/**
+	 * Checks that the given arrays hold numOfBlocks blocks from the given offsets.
+	 * @throws ArrayIndexOutOfBoundsException if one of the arrays is too short.
+	 */
+	public static void checkBlocks(int blockSize, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks){
+		long length = (long) numOfBlocks * blockSize;
+		if (numOfBlocks < 0 || inOff < 0 || inOff + length > inBytes.length){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given input buffer");
+		}
+		if (outOff < 0 || outOff + length > outBytes.length){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+	}
+	
+	/**
+	 * Computes the given PRP on the remaining bytes of the input buffer, using its computeBlocks function on arrays.<p>
+	 * Buffers that are backed by arrays are processed in place. Other buffers (direct or read only) are copied through 
+	 * a temporary array of up to 256 blocks.
+	 */
+	public static void computeBlocks(PrpFixed prp, ByteBuffer in, ByteBuffer out){
+		int blockSize = prp.getBlockSize();
+		int length = in.remaining();
+		if (length % blockSize != 0){
+			throw new IllegalArgumentException("the remaining input should be aligned to the block size");
+		}
+		if (out.remaining() < length){
+			throw new IllegalArgumentException("the output buffer is too short");
+		}
+		
+		if (in.hasArray() && out.hasArray()){
+			prp.computeBlocks(in.array(), in.arrayOffset() + in.position(), out.array(), out.arrayOffset() + out.position(), length / blockSize);
+			in.position(in.position() + length);
+			out.position(out.position() + length);
+			return;
+		}
+		
+		byte[] buffer = new byte[Math.min(length, MAX_BUFFERED_BLOCKS * blockSize)];
+		while (in.hasRemaining()){
+			int size = Math.min(in.remaining(), buffer.length);
+			in.get(buffer, 0, size);
+			prp.computeBlocks(buffer, 0, buffer, 0, size / blockSize);
+			out.put(buffer, 0, size);
+		}
+	}
+}
@@ -26,6 +26,8 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.ByteBuffer;
+
 /** 
  * General interface for pseudorandom permutation with fixed input and output lengths.
  * A pseudorandom permutation with fixed lengths predefined input and output lengths, and there is no need to specify it for each function call. 
@@ -34,4 +36,28 @@ package edu.biu.scapi.primitives.prf;
  * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University (Meital Levy)
  */
 public interface PrpFixed extends PseudorandomPermutation, PrfFixed {
+	
+	/**
+	 * Computes the permutation on numOfBlocks contiguous blocks.<p>
+	 * This is equivalent to calling computeBlock on each block, but implementations that wrap native libraries 
+	 * process all the blocks in a single native call. The input and output may be the same array at the same offset.
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws ArrayIndexOutOfBoundsException if the given arrays are too short for the given offsets and number of blocks.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks);
+	
+	/**
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.<p>
+	 * The positions of both buffers are advanced by the number of processed bytes.
+	 * @param in input buffer. The number of remaining bytes must be a multiple of the block size.
+	 * @param out output buffer. Must have at least in.remaining() remaining bytes.
+	 * @throws IllegalStateException if no secret key was set.
+	 * @throws IllegalArgumentException if the remaining input is not aligned to the block size.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out);
 }
@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 
 import javax.crypto.IllegalBlockSizeException;
@@ -56,6 +57,20 @@ public abstract class PrpFromPrfFixed implements PrpFixed {
 		return prfFixed.isKeySet();
 	}
 	
+	/** 
+	 * Computes the permutation on numOfBlocks contiguous blocks by calling computeBlock on each block.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks) {
+		PrfBlocksUtil.computeBlockByBlock(this, inBytes, inOff, outBytes, outOff, numOfBlocks);
+	}
+	
+	/** 
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out) {
+		PrfBlocksUtil.computeBlocks(this, in, out);
+	}
+	
 
 	/** 
 	 * Computes the function using the secret key. <p>
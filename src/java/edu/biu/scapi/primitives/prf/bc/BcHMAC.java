@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf.bc;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -40,6 +41,7 @@ import org.bouncycastle.crypto.CipherParameters;
 import org.bouncycastle.crypto.macs.HMac;
 
 import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.midLayer.symmetricCrypto.mac.MacBufferUtil;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.prf.Hmac;
 import edu.biu.scapi.tools.Factories.BCFactory;
@@ -373,6 +375,23 @@ public final class BcHMAC implements Hmac {
 		//returns the tag
 		return tag;
 	}
+
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to mac.
+	 * @param msg the message to add.
+	 */
+	public void update(ByteBuffer msg){
+		MacBufferUtil.update(this, msg);
+	}
+	
+	/**
+	 * Completes the mac computation with the remaining bytes of the given buffer and returns the tag.
+	 * @param msg the end of the message to mac.
+	 * @return the result tag from the mac operation.
+	 */
+	public byte[] doFinal(ByteBuffer msg){
+		return MacBufferUtil.doFinal(this, msg);
+	}
 	
 	
 
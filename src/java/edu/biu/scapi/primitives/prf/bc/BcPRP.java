@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf.bc;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
@@ -39,6 +40,7 @@ import javax.crypto.spec.SecretKeySpec;
 import org.bouncycastle.crypto.BlockCipher;
 import org.bouncycastle.crypto.CipherParameters;
 
+import edu.biu.scapi.primitives.prf.PrfBlocksUtil;
 import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.tools.Translation.BCParametersTranslator;
 
@@ -209,6 +211,44 @@ public abstract class BcPRP implements PrpFixed{
 		bcBlockCipher.processBlock(inBytes, inOff, outBytes, outOff);
 	}
 	
+	/** 
+	 * Computes the permutation on numOfBlocks contiguous blocks. <p>
+	 * Bouncy Castle has no native calls to save, so the block cipher is initialized once and then processes the blocks one after the other.
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		int blockSize = getBlockSize();
+		PrfBlocksUtil.checkBlocks(blockSize, inBytes, inOff, outBytes, outOff, numOfBlocks);
+		//if the bc block cipher is not already in encryption mode initializes the block cipher with forEncryption=true
+		if(forEncryption==false){
+			forEncryption = true;
+			bcBlockCipher.init(forEncryption, bcParams);
+		}
+		for (int i = 0; i < numOfBlocks; i++){
+			bcBlockCipher.processBlock(inBytes, inOff + i * blockSize, outBytes, outOff + i * blockSize);
+		}
+	}
+	
+	/** 
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.
+	 * @param in input buffer. The number of remaining bytes must be a multiple of the block size.
+	 * @param out output buffer.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.computeBlocks(this, in, out);
+	}
+	
 	/**
 	 * This function is provided in the interface especially for the sub-family PrfVaryingInputLength, which may have variable input length.
 	 * Since this is a prp, the input length is fixed with the block size, so this function normally shouldn't be called. 
@@ -26,6 +26,7 @@
 
 package edu.biu.scapi.primitives.prf.cryptopp;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -37,6 +38,7 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 
 import edu.biu.scapi.primitives.prf.AES;
+import edu.biu.scapi.primitives.prf.PrfBlocksUtil;
 
 /**
  * Concrete class of prf family for AES. This class wraps the implementation of Crypto++.
@@ -51,12 +53,14 @@ public class CryptoPpAES implements AES{
 	private long aesInvert;			//native object used for invert blocks
 	private SecureRandom random;
 	private int blockSize;
+	private static volatile boolean nativeBlocksSupported = true;	//False if the native library does not export computeBlocks.
 	
 	private native long createAESCompute();
 	private native long createAESInvert();
 	private native void setNativeKey(long aesCompute, long aesInvert, byte[] key);
 	private native void computeBlock(long aesCompute, byte[] in, byte[] out, int outOffset, boolean forEncrypt);
 	private native void optimizedCompute(long aesCompute, byte[] in, byte[] out, boolean forEncrypt);
+	private native void computeBlocks(long aesCompute, byte[] in, int inOffset, byte[] out, int outOffset, int length);
 	private native String getName(long aes);
 	private native int getBlockSize(long aes);
 	private native void deleteAES(long aesCompute, long aesInvert);
@@ -192,14 +196,55 @@ public class CryptoPpAES implements AES{
 		// If the given offset is not 0 copy the msg to a new array. 
 		byte[] newIn = inBytes;
 		if (inOff > 0){
-			newIn = new byte[inBytes.length];
-			System.arraycopy(inBytes, inOff, newIn, 0, inBytes.length);
+			newIn = new byte[getBlockSize()];
+			System.arraycopy(inBytes, inOff, newIn, 0, getBlockSize());
 		}
 		
 		//Call the native code to perform computeBlock
 		computeBlock(aesCompute, newIn, outBytes, outOff, true);
 	}
 	
+	/** 
+	 * Computes the permutation on numOfBlocks contiguous blocks, in a single native call. <p>
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.checkBlocks(getBlockSize(), inBytes, inOff, outBytes, outOff, numOfBlocks);
+		if (numOfBlocks == 0){
+			return;
+		}
+		if (nativeBlocksSupported){
+			try {
+				computeBlocks(aesCompute, inBytes, inOff, outBytes, outOff, numOfBlocks * getBlockSize());
+				return;
+			} catch (LinkageError e){
+				//The loaded native library was built before computeBlocks was added. Compute the blocks one by one from now on.
+				nativeBlocksSupported = false;
+			}
+		}
+		PrfBlocksUtil.computeBlockByBlock(this, inBytes, inOff, outBytes, outOff, numOfBlocks);
+	}
+	
+	/** 
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.
+	 * @param in input buffer. The number of remaining bytes must be a multiple of the block size.
+	 * @param out output buffer.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.computeBlocks(this, in, out);
+	}
+	
 	/** 
 	 * Computes the AES permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
@@ -303,8 +348,8 @@ public class CryptoPpAES implements AES{
 		// If the given offset is not 0 copy the msg to a new array. 
 		byte[] newIn = inBytes;
 		if (inOff > 0){
-			newIn = new byte[inBytes.length];
-			System.arraycopy(inBytes, inOff, newIn, 0, inBytes.length);
+			newIn = new byte[getBlockSize()];
+			System.arraycopy(inBytes, inOff, newIn, 0, getBlockSize());
 		}
 		
 		//Call the native code to perform invert
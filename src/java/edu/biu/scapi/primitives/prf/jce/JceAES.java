@@ -0,0 +1,307 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.prf.jce;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.InvalidKeyException;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.InvalidParameterSpecException;
+
+import javax.crypto.Cipher;
+import javax.crypto.IllegalBlockSizeException;
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+import javax.crypto.ShortBufferException;
+import javax.crypto.spec.SecretKeySpec;
+
+import edu.biu.scapi.primitives.prf.AES;
+import edu.biu.scapi.primitives.prf.PrfBlocksUtil;
+
+/**
+ * Concrete class of prf family for AES. This class wraps the AES implementation of the JCE provider of the JVM.<p>
+ * 
+ * The JVM replaces the AES encryption of its default provider with the AES instructions of the processor (AES-NI), when they exist. 
+ * This gives a hardware AES without any native library. The underlying Cipher objects are created once, in ECB mode without padding, 
+ * and computeBlocks passes all the blocks to a single update call.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class JceAES implements AES{
+	
+	private static final String TRANSFORMATION = "AES/ECB/NoPadding";
+	private static final int BLOCK_SIZE = 16;	//AES works on 128 bit block.
+	
+	private Cipher computeCipher;	//Encrypts blocks with the current key.
+	private Cipher invertCipher;	//Decrypts blocks with the current key.
+	private SecureRandom random;
+	private boolean isKeySet = false;
+	
+	/**
+	 * Default constructor that creates the AES objects. Uses default implementation of SecureRandom.
+	 */
+	public JceAES(){
+		this(new SecureRandom());
+	}
+	
+	/**
+	 * Constructor that creates the AES objects and lets the user choose the source of randomness to use.
+	 * @param random source of randomness.
+	 */
+	public JceAES(SecureRandom random){
+		this.random = random;
+		try {
+			computeCipher = Cipher.getInstance(TRANSFORMATION);
+			invertCipher = Cipher.getInstance(TRANSFORMATION);
+		} catch (GeneralSecurityException e) {
+			//Every JVM is required to support AES/ECB/NoPadding.
+			throw new IllegalStateException("the JVM does not support " + TRANSFORMATION);
+		}
+	}
+	
+	/**
+	 * Constructor that creates the AES objects and lets the user choose the random algorithm to use.
+	 * @param randNumGenAlg random number generator algorithm.
+	 * @throws NoSuchAlgorithmException if the given algorithm is not valid.
+	 */
+	public JceAES(String randNumGenAlg) throws NoSuchAlgorithmException{
+		this(SecureRandom.getInstance(randNumGenAlg));
+	}
+
+	/** 
+	 * Initializes this AES objects with the given secret key.
+	 * @param secretKey secret key.
+	 * @throws InvalidKeyException if the key is not 128/192/256 bits long.
+	 */
+	public void setKey(SecretKey secretKey) throws InvalidKeyException {
+		byte[] keyBytes = secretKey.getEncoded();
+		int len = keyBytes.length;
+		//AES key size should be 128/192/256 bits long.
+		if(len!=16 && len!=24 && len!=32){
+			throw new InvalidKeyException("AES key size should be 128/192/256 bits long");
+		}
+		
+		//The JCE requires the algorithm name of the key to be AES.
+		SecretKey aesKey = new SecretKeySpec(keyBytes, "AES");
+		computeCipher.init(Cipher.ENCRYPT_MODE, aesKey);
+		invertCipher.init(Cipher.DECRYPT_MODE, aesKey);
+		
+		isKeySet = true;
+	}
+	
+	public boolean isKeySet(){
+		return isKeySet;
+	}
+
+	public String getAlgorithmName() {
+		return "AES";
+	}
+
+	public int getBlockSize(){
+		return BLOCK_SIZE;
+	}
+	
+	/**
+	 * This function should not be used to generate a key for AES and it throws UnsupportedOperationException
+	 * @param keyParams algorithmParameterSpec contains the required secret key size in bits 
+	 * @return the generated secret key
+	 * @throws UnsupportedOperationException 
+	 */
+	public SecretKey generateKey(AlgorithmParameterSpec keyParams) throws InvalidParameterSpecException{
+		throw new UnsupportedOperationException("To generate a key for this prf object use the generateKey(int keySize) function");
+	}
+	
+	/**
+	 * Generates a secret key to initialize this AES object.
+	 * @param keySize is the required secret key size in bits. If it is zero or less, the default key size of the provider is used.
+	 * @return the generated secret key 
+	 */
+	public SecretKey generateKey(int keySize){
+		try {
+			KeyGenerator keyGen = KeyGenerator.getInstance("AES");
+			//if the key size is zero or less - uses the default key size as implemented in the provider implementation
+			if(keySize <= 0){
+				keyGen.init(random);
+			} else {
+				keyGen.init(keySize, random);
+			}
+			return keyGen.generateKey();
+		} catch (NoSuchAlgorithmException e) {
+			//Every JVM is required to support AES key generation.
+			throw new IllegalStateException("the JVM does not support AES key generation");
+		}
+	}
+
+	/** 
+	 * Computes the AES permutation on the given block. <p>
+	 * 
+	 * @param inBytes input bytes to compute
+	 * @param inOff input offset in the inBytes array
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 */
+	public void computeBlock(byte[] inBytes, int inOff, byte[] outBytes, int outOff) {
+		computeBlocks(inBytes, inOff, outBytes, outOff, 1);
+	}
+	
+	/** 
+	 * Computes the permutation on numOfBlocks contiguous blocks, in a single call to the underlying Cipher. <p>
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.checkBlocks(BLOCK_SIZE, inBytes, inOff, outBytes, outOff, numOfBlocks);
+		update(computeCipher, inBytes, inOff, outBytes, outOff, numOfBlocks * BLOCK_SIZE);
+	}
+	
+	/** 
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.<p>
+	 * Direct buffers are passed to the underlying Cipher as is, without copying them to arrays.
+	 * @param in input buffer. The number of remaining bytes must be a multiple of the block size.
+	 * @param out output buffer.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		//The Cipher does not accept the same buffer as input and output.
+		if (in == out){
+			PrfBlocksUtil.computeBlocks(this, in, out);
+			return;
+		}
+		if (in.remaining() % BLOCK_SIZE != 0){
+			throw new IllegalArgumentException("the remaining input should be aligned to the block size");
+		}
+		if (out.remaining() < in.remaining()){
+			throw new IllegalArgumentException("the output buffer is too short");
+		}
+		try {
+			computeCipher.update(in, out);
+		} catch (ShortBufferException e) {
+			//Should not occur since the output length was checked.
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+
+	/**
+	 * This function is provided in the interface especially for the sub-family PrfVaryingInputLength, which may have variable input length.
+	 * Since this is a prp, the input length is fixed with the block size, so this function normally shouldn't be called. 
+	 * If the user still wants to use this function, the input length should be the same as the block size. Otherwise, throws an exception.
+	 * 
+	 * @param inBytes input bytes to compute
+	 * @param inOffset input offset in the inBytes array
+	 * @param inLen the length of the input array
+	 * @param outBytes output bytes. The resulted bytes of compute
+	 * @param outOffset output offset in the outBytes array to put the result from
+	 * @throws IllegalBlockSizeException if the input length is not the block size.
+	 */
+	public void computeBlock(byte[] inBytes, int inOffset, int inLen, byte[] outBytes, int outOffset) throws IllegalBlockSizeException{
+		if (inLen != BLOCK_SIZE){
+			throw new IllegalBlockSizeException("Wrong size");
+		}
+		computeBlock(inBytes, inOffset, outBytes, outOffset);
+	}
+	
+	/** 
+	 * This function is provided in the interface especially for the sub-family PrfVaryingIOLength, which may have variable input/output lengths.
+	 * Since both Input and output variables are fixed this function should not normally be called. 
+	 * If the user still wants to use this function, the input and output lengths should be the same as 
+	 * the result of <code>getBlockSize</code>, otherwise, throws an exception.
+	 * @param inBytes input bytes to compute
+	 * @param inOff input offset in the inBytes array
+	 * @param inLen input length
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 * @param outLen output length
+	 * @throws IllegalBlockSizeException if the lengths are not the block size.
+	 */
+	public void computeBlock(byte[] inBytes, int inOff, int inLen, byte[] outBytes, int outOff, int outLen) throws IllegalBlockSizeException{
+		if (inLen != BLOCK_SIZE || outLen != BLOCK_SIZE){
+			throw new IllegalBlockSizeException("Wrong size");
+		}
+		computeBlock(inBytes, inOff, outBytes, outOff);
+	}
+	
+	/** 
+	 * Inverts the AES permutation on the given block.
+	 * 
+	 * @param inBytes input bytes to invert
+	 * @param inOff input offset in the inBytes array
+	 * @param outBytes output bytes. The resulted bytes of invert
+	 * @param outOff output offset in the outBytes array to put the result from
+	 */
+	public void invertBlock(byte[] inBytes, int inOff, byte[] outBytes, int outOff) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.checkBlocks(BLOCK_SIZE, inBytes, inOff, outBytes, outOff, 1);
+		update(invertCipher, inBytes, inOff, outBytes, outOff, BLOCK_SIZE);
+	}
+	
+	/**
+	 * This function is provided in the interface especially for the sub-family PrpVarying, which may have variable input/output lengths.
+	 * Since in this case, both input and output variables are fixed this function should not normally be called. 
+	 * If the user still wants to use this function, the specified argument <code>len</code> should be the same as 
+	 * the result of <code>getBlockSize</code>, otherwise, throws an exception. 
+	 * @param inBytes input bytes to invert
+	 * @param inOff input offset in the inBytes array
+	 * @param outBytes output bytes. The resulted bytes of invert.
+	 * @param outOff output offset in the outBytes array to put the result from
+	 * @param len the length of the input and the output.
+	 * @throws IllegalBlockSizeException if the length is not the block size.
+	 */
+	public void invertBlock(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int len) throws IllegalBlockSizeException{
+		if (len != BLOCK_SIZE){
+			throw new IllegalBlockSizeException("Wrong size");
+		}
+		invertBlock(inBytes, inOff, outBytes, outOff);
+	}
+	
+	/*
+	 * Passes length bytes to the given cipher. Since the cipher works in ECB mode without padding and length is a multiple 
+	 * of the block size, the cipher keeps no state between calls and writes exactly length bytes.
+	 */
+	private void update(Cipher cipher, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int length){
+		if (length == 0){
+			return;
+		}
+		try {
+			cipher.update(inBytes, inOff, length, outBytes, outOff);
+		} catch (ShortBufferException e) {
+			//Should not occur since the output length was checked.
+			throw new IllegalStateException(e.getMessage());
+		}
+	}
+}
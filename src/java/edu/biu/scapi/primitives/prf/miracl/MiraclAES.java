@@ -24,6 +24,7 @@
 */
 package edu.biu.scapi.primitives.prf.miracl;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -35,6 +36,7 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 
 import edu.biu.scapi.primitives.prf.AES;
+import edu.biu.scapi.primitives.prf.PrfBlocksUtil;
 
 public class MiraclAES implements AES{
 
@@ -174,6 +176,40 @@ public class MiraclAES implements AES{
 		computeBlock(aes, inBytes, inOff, outBytes, outOff);
 	}
 	
+	/** 
+	 * Computes the permutation on numOfBlocks contiguous blocks. <p>
+	 * If the blocks fill both arrays, they are computed by a single native call. Otherwise each block is computed separately.
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		int length = numOfBlocks * getBlockSize();
+		if (inOff == 0 && outOff == 0 && inBytes.length == length && outBytes.length == length){
+			optimizedCompute(aes, inBytes, outBytes);
+		} else {
+			PrfBlocksUtil.computeBlockByBlock(this, inBytes, inOff, outBytes, outOff, numOfBlocks);
+		}
+	}
+	
+	/** 
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.
+	 * @param in input buffer. The number of remaining bytes must be a multiple of the block size.
+	 * @param out output buffer.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.computeBlocks(this, in, out);
+	}
+	
 	/** 
 	 * Computes the AES permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
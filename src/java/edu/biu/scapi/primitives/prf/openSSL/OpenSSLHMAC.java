@@ -24,6 +24,7 @@
 */
 package edu.biu.scapi.primitives.prf.openSSL;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -35,6 +36,7 @@ import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
 import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.midLayer.symmetricCrypto.mac.MacBufferUtil;
 import edu.biu.scapi.primitives.hash.CryptographicHash;
 import edu.biu.scapi.primitives.prf.Hmac;
 
@@ -377,6 +379,23 @@ public class OpenSSLHMAC implements Hmac {
 		//Returns the tag.
 		return tag;
 	}
+
+	/**
+	 * Adds the remaining bytes of the given buffer to the existing message to mac.
+	 * @param msg the message to add.
+	 */
+	public void update(ByteBuffer msg){
+		MacBufferUtil.update(this, msg);
+	}
+	
+	/**
+	 * Completes the mac computation with the remaining bytes of the given buffer and returns the tag.
+	 * @param msg the end of the message to mac.
+	 * @return the result tag from the mac operation.
+	 */
+	public byte[] doFinal(ByteBuffer msg){
+		return MacBufferUtil.doFinal(this, msg);
+	}
 	
 	/**
 	 * Deletes the native object.
@@ -24,6 +24,7 @@
 */
 package edu.biu.scapi.primitives.prf.openSSL;
 
+import java.nio.ByteBuffer;
 import java.security.InvalidParameterException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
@@ -35,6 +36,7 @@ import javax.crypto.KeyGenerator;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 
+import edu.biu.scapi.primitives.prf.PrfBlocksUtil;
 import edu.biu.scapi.primitives.prf.PrpFixed;
 
 public abstract class OpenSSLPRP implements PrpFixed{
@@ -43,11 +45,13 @@ public abstract class OpenSSLPRP implements PrpFixed{
 	
 	protected boolean isKeySet; 
 	private SecureRandom random;
+	private static volatile boolean nativeBlocksSupported = true;	//False if the native library does not export computeBlocks.
 	
 	//Native functions that call OpenSSL functionalities.
 	private native void computeBlock(long computeP, byte[] in, byte[] out, int outOffset, int blockSize); 	//Computes the PRP on the given in block.
 	private native void invertBlock(long invertP, byte[] in, byte[] out, int outOffset, int blockSize);		//Inverts the PRP on the given in block.
 	private native void doOptimizedCompute(long computeP, byte[] inBytes, byte[] outBytes, int blockSize);	//Computes the PRP on the given in array.
+	private native void computeBlocks(long computeP, byte[] inBytes, int inOff, byte[] outBytes, int outOff, int length);	//Computes the PRP on length bytes of the given in array.
 	private native void doOptimizedInvert(long invertP, byte[] inBytes, byte[] outBytes, int blockSize);	//Inverts the PRP on the given in array.
 	private native void deleteNative(long computeP, long invertP);											//Deleted the native objects.
 	
@@ -170,6 +174,47 @@ public abstract class OpenSSLPRP implements PrpFixed{
 		computeBlock(computeP, newIn, outBytes, outOff, getBlockSize());
 	}
 	
+	/** 
+	 * Computes the permutation on numOfBlocks contiguous blocks, in a single native call. <p>
+	 * 
+	 * @param inBytes input bytes to compute.
+	 * @param inOff offset of the first block in the inBytes array.
+	 * @param outBytes output bytes. The resulted bytes of compute.
+	 * @param outOff offset in the outBytes array to put the result from.
+	 * @param numOfBlocks number of blocks to compute.
+	 */
+	public void computeBlocks(byte[] inBytes, int inOff, byte[] outBytes, int outOff, int numOfBlocks) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.checkBlocks(getBlockSize(), inBytes, inOff, outBytes, outOff, numOfBlocks);
+		if (numOfBlocks == 0){
+			return;
+		}
+		if (nativeBlocksSupported){
+			try {
+				computeBlocks(computeP, inBytes, inOff, outBytes, outOff, numOfBlocks * getBlockSize());
+				return;
+			} catch (LinkageError e){
+				//The loaded native library was built before computeBlocks was added. Compute the blocks one by one from now on.
+				nativeBlocksSupported = false;
+			}
+		}
+		PrfBlocksUtil.computeBlockByBlock(this, inBytes, inOff, outBytes, outOff, numOfBlocks);
+	}
+	
+	/** 
+	 * Computes the permutation on the remaining bytes of the input buffer and writes the result to the output buffer.
+	 * @param in input buffer. The number of remaining bytes must be a multiple of the block size.
+	 * @param out output buffer.
+	 */
+	public void computeBlocks(ByteBuffer in, ByteBuffer out) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		PrfBlocksUtil.computeBlocks(this, in, out);
+	}
+	
 	/** 
 	 * Computes the permutation on the given array. 
 	 * The given array length does not have to be the size of the block but a MUST be aligned to the block size.
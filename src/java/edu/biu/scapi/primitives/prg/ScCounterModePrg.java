@@ -0,0 +1,348 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.primitives.prg;
+
+import java.security.InvalidKeyException;
+import java.security.spec.AlgorithmParameterSpec;
+import java.security.spec.InvalidParameterSpecException;
+
+import javax.crypto.SecretKey;
+
+import edu.biu.scapi.exceptions.FactoriesException;
+import edu.biu.scapi.primitives.prf.PrpFixed;
+import edu.biu.scapi.primitives.prf.PseudorandomFunction;
+import edu.biu.scapi.primitives.prf.jce.JceAES;
+import edu.biu.scapi.tools.BatchRangeRunner;
+import edu.biu.scapi.tools.Factories.ObjectCreator;
+import edu.biu.scapi.tools.Factories.PrfFactory;
+
+/**
+ * A pseudorandom generator that encrypts a counter with a pseudorandom permutation, built for generating large amounts of output.<p>
+ * 
+ * The output is the stream PRP(1) || PRP(2) || PRP(3) || ..., where the counter is written as a big-endian number of the PRP's block size. 
+ * Unlike {@link ScPrgFromPrf}, no output bytes are dropped when a request does not end on a block boundary: the rest of the block 
+ * is kept in an internal buffer and returned by the next call. Requests of whole blocks return the same bytes as ScPrgFromPrf 
+ * over the same PRP.<p>
+ * 
+ * Small requests are served from a buffer of many blocks that is computed by a single computeBlocks call. 
+ * Large requests are computed directly into the output array; if more than one thread is used, the counter range is split between 
+ * the threads, each with its own PRP object. Since every block depends only on its counter, the output is identical to the sequential output.
+ * The PRP objects of the other threads are created by the creator or the PRP name given to the constructor.<p>
+ * 
+ * The {@link #seek(long)} function moves the stream to any block, so that parts of the stream can be regenerated or generated independently.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class ScCounterModePrg implements PseudorandomGenerator{
+	
+	private static final int BUFFER_BLOCKS = 1024;			//Number of blocks computed at once for small requests.
+	private static final int MIN_BLOCKS_PER_THREAD = 4096;	//A thread is used only if it has at least this number of blocks to compute.
+	
+	private PrpFixed prp;					// Underlying PRP.
+	private ObjectCreator<PseudorandomFunction> prpCreator;	// Creates the PRP objects of the other threads. Null if only the calling thread is used.
+	private PrpFixed[] threadPrps;			// PRP objects used by the other threads. Created on demand.
+	private int numOfThreads;
+	private SecretKey key;
+	private boolean isKeySet = false;
+	
+	private int blockSize;
+	private long nextBlock;					// Index of the next block of the stream to compute.
+	private byte[] buffer;					// Computed blocks that were not returned yet.
+	private int bufferPos;					// Position of the next byte to return in the buffer.
+	private int bufferLen;					// Number of computed bytes in the buffer.
+	
+	/**
+	 * Default constructor. Uses the JCE AES and the number of available processors as the number of threads.
+	 */
+	public ScCounterModePrg(){
+		this(new JceAES());
+		prpCreator = new ObjectCreator<PseudorandomFunction>(){
+			public PseudorandomFunction create(){
+				return new JceAES();
+			}
+		};
+	}
+	
+	/**
+	 * Constructor that lets the user choose the underlying PRP.<p>
+	 * Since there is no way to create more objects of the given PRP, the output is computed in the calling thread.
+	 * Use one of the other constructors to compute large requests by several threads.
+	 * @param prp underlying pseudorandom permutation. Its block size must be at least 8 bytes.
+	 */
+	public ScCounterModePrg(PrpFixed prp){
+		init(prp);
+	}
+	
+	/**
+	 * Constructor that lets the user choose the underlying PRP by a creator of PRP objects.<p>
+	 * The underlying PRP and the PRPs of the other threads are created by the given creator.
+	 * @param prpCreator creates the underlying pseudorandom permutations. Their block size must be at least 8 bytes.
+	 * @throws FactoriesException if the creator failed.
+	 */
+	public ScCounterModePrg(ObjectCreator<PseudorandomFunction> prpCreator) throws FactoriesException{
+		init(toPrp(prpCreator.create()));
+		this.prpCreator = prpCreator;
+	}
+	
+	/**
+	 * Constructor that lets the user choose the underlying PRP algorithm.
+	 * @param prpName PseudorandomFunction algorithm name. It should be a pseudorandom permutation.
+	 * @throws FactoriesException if the factory does not support the given name.
+	 */
+	public ScCounterModePrg(String prpName) throws FactoriesException{
+		this(PrfFactory.getInstance().getCreator(prpName));
+	}
+	
+	/*
+	 * Checks that the given PRF is a PRP that can be used by this PRG.
+	 */
+	private static PrpFixed toPrp(PseudorandomFunction prf){
+		if (!(prf instanceof PrpFixed)){
+			throw new IllegalArgumentException("the underlying prf should be a PrpFixed");
+		}
+		return (PrpFixed) prf;
+	}
+	
+	/*
+	 * Sets the underlying PRP and the default number of threads.
+	 */
+	private void init(PrpFixed prp){
+		if (prp.getBlockSize() < 8){
+			throw new IllegalArgumentException("the block size of the prp should be at least 8 bytes");
+		}
+		this.prp = prp;
+		this.blockSize = prp.getBlockSize();
+		this.numOfThreads = Runtime.getRuntime().availableProcessors();
+	}
+	
+	/**
+	 * Sets the number of threads that compute large requests.
+	 * @param numOfThreads number of threads. 1 means that all the output is computed in the calling thread.
+	 */
+	public void setNumOfThreads(int numOfThreads){
+		if (numOfThreads <= 0){
+			throw new IllegalArgumentException("the number of threads should be positive");
+		}
+		this.numOfThreads = numOfThreads;
+	}
+
+	/**
+	 * Initializes this PRG with the given key and moves the stream to its beginning.
+	 * @param secretKey key for the underlying PRP.
+	 * @throws InvalidKeyException if the key is not valid for the underlying PRP.
+	 */
+	public void setKey(SecretKey secretKey) throws InvalidKeyException {
+		prp.setKey(secretKey);
+		key = secretKey;
+		//The PRP objects of the other threads get the new key when they are used.
+		threadPrps = null;
+		
+		buffer = new byte[BUFFER_BLOCKS * blockSize];
+		isKeySet = true;
+		seek(0);
+	}
+
+	public boolean isKeySet() {
+		return isKeySet;
+	}
+
+	/** 
+	 * Returns the name of the algorithm - CTR PRG with {name of the underlying prp}.
+	 * @return - the algorithm name.
+	 */
+	public String getAlgorithmName() {
+		return "CTR_PRG_from_" + prp.getAlgorithmName();
+	}
+
+	/**
+	 * Generates a secret key to initialize this prg object.
+	 * @param keyParams parameters for the key generation of the underlying PRP.
+	 * @return the generated secret key
+	 * @throws InvalidParameterSpecException if the given params are not valid for the underlying PRP.
+	 */
+	public SecretKey generateKey(AlgorithmParameterSpec keyParams) throws InvalidParameterSpecException {
+		return prp.generateKey(keyParams);
+	}
+
+	/**
+	 * Generates a secret key to initialize this prg object.
+	 * @param keySize the required secret key size in bits.
+	 * @return the generated secret key
+	 */
+	public SecretKey generateKey(int keySize) {
+		return prp.generateKey(keySize);
+	}
+	
+	/**
+	 * Moves the stream to the given block. The next generated bytes are the output of the PRP on the counter blockIndex + 1.
+	 * @param blockIndex index of a block of the stream, starting from 0.
+	 * @throws IllegalArgumentException if blockIndex is negative.
+	 */
+	public void seek(long blockIndex){
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		if (blockIndex < 0){
+			throw new IllegalArgumentException("the block index should not be negative");
+		}
+		nextBlock = blockIndex;
+		bufferPos = 0;
+		bufferLen = 0;
+	}
+	
+	/**
+	 * Returns the position of the stream in bytes, which is the number of bytes generated since the last call to setKey, 
+	 * plus the bytes that were skipped by seek.
+	 */
+	public long getPosition(){
+		return nextBlock * blockSize - (bufferLen - bufferPos);
+	}
+
+	/**
+	 * Generates the next outLen bytes of the stream.
+	 * @param outBytes - output bytes. The result of streaming the bytes.
+	 * @param outOffset - output offset
+	 * @param outLen - the required output length
+	 */
+	public void getPRGBytes(byte[] outBytes, int outOffset, int outLen) {
+		if (!isKeySet()){
+			throw new IllegalStateException("secret key isn't set");
+		}
+		//checks that the offset and the length are correct
+		if ((outOffset < 0) || (outLen < 0) || ((long) outOffset + outLen > outBytes.length)){
+			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
+		}
+		
+		//First, return the bytes that are left in the buffer.
+		int copied = copyFromBuffer(outBytes, outOffset, outLen);
+		outOffset += copied;
+		outLen -= copied;
+		
+		//Large requests are computed directly into the output array.
+		if (outLen >= buffer.length){
+			int numOfBlocks = outLen / blockSize;
+			generateInParallel(outBytes, outOffset, numOfBlocks);
+			outOffset += numOfBlocks * blockSize;
+			outLen -= numOfBlocks * blockSize;
+		}
+		
+		//Small requests and the last part of large requests are served from the buffer.
+		while (outLen > 0){
+			fillBuffer();
+			copied = copyFromBuffer(outBytes, outOffset, outLen);
+			outOffset += copied;
+			outLen -= copied;
+		}
+	}
+	
+	/*
+	 * Copies up to len bytes that were not returned yet from the buffer. Returns the number of copied bytes.
+	 */
+	private int copyFromBuffer(byte[] outBytes, int outOffset, int len){
+		int size = Math.min(len, bufferLen - bufferPos);
+		System.arraycopy(buffer, bufferPos, outBytes, outOffset, size);
+		bufferPos += size;
+		return size;
+	}
+	
+	/*
+	 * Computes the next BUFFER_BLOCKS blocks of the stream into the buffer.
+	 */
+	private void fillBuffer(){
+		generateBlocks(prp, buffer, 0, nextBlock, BUFFER_BLOCKS);
+		nextBlock += BUFFER_BLOCKS;
+		bufferPos = 0;
+		bufferLen = buffer.length;
+	}
+	
+	/*
+	 * Computes the next numOfBlocks blocks of the stream into the given array, splitting them between the threads.
+	 */
+	private void generateInParallel(final byte[] outBytes, final int outOffset, int numOfBlocks){
+		int numOfRanges = BatchRangeRunner.getNumOfRanges(numOfBlocks, numOfThreads, MIN_BLOCKS_PER_THREAD);
+		final PrpFixed[] prps = (numOfRanges > 1) ? getThreadPrps(numOfRanges - 1) : null;
+		if (prps == null){
+			numOfRanges = 1;
+		}
+		final long firstBlock = nextBlock;
+		
+		//Range 0 is computed by the calling thread using the underlying PRP. Every other range uses its own PRP object.
+		BatchRangeRunner.runInRanges(numOfBlocks, numOfRanges, new BatchRangeRunner.RangeTask(){
+			public void compute(int rangeIndex, int from, int to){
+				PrpFixed rangePrp = (rangeIndex == 0) ? prp : prps[rangeIndex - 1];
+				generateBlocks(rangePrp, outBytes, outOffset + from * blockSize, firstBlock + from, to - from);
+			}
+		});
+		nextBlock += numOfBlocks;
+	}
+	
+	/*
+	 * Returns at least num PRP objects created by the PRP creator, initialized with the current key, 
+	 * or null if such objects cannot be created.
+	 */
+	private PrpFixed[] getThreadPrps(int num){
+		if (threadPrps != null && threadPrps.length >= num){
+			return threadPrps;
+		}
+		if (prpCreator == null){
+			return null;
+		}
+		PrpFixed[] prps = new PrpFixed[num];
+		try {
+			for (int i = 0; i < num; i++){
+				prps[i] = toPrp(prpCreator.create());
+				prps[i].setKey(key);
+			}
+		} catch (FactoriesException e) {
+			return null;
+		} catch (InvalidKeyException e) {
+			//Should not occur since the key was accepted by the underlying PRP.
+			return null;
+		}
+		threadPrps = prps;
+		return threadPrps;
+	}
+	
+	/*
+	 * Writes the counters of numOfBlocks blocks starting at the given block into the output array and computes the PRP on them in place.
+	 */
+	private static void generateBlocks(PrpFixed prp, byte[] outBytes, int outOffset, long firstBlock, int numOfBlocks){
+		int blockSize = prp.getBlockSize();
+		for (int i = 0; i < numOfBlocks; i++){
+			int offset = outOffset + i * blockSize;
+			//The counter of block i is i + 1, as a big-endian number of the block size.
+			long ctr = firstBlock + i + 1;
+			for (int j = 0; j < blockSize - 8; j++){
+				outBytes[offset + j] = 0;
+			}
+			for (int j = blockSize - 1; j >= blockSize - 8; j--){
+				outBytes[offset + j] = (byte) ctr;
+				ctr >>>= 8;
+			}
+		}
+		prp.computeBlocks(outBytes, outOffset, outBytes, outOffset, numOfBlocks);
+	}
+}
@@ -35,8 +35,9 @@ import javax.crypto.SecretKey;
 
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.exceptions.NoMaxException;
+import edu.biu.scapi.primitives.prf.PrpFixed;
 import edu.biu.scapi.primitives.prf.PseudorandomFunction;
-import edu.biu.scapi.primitives.prf.bc.BcAES;
+import edu.biu.scapi.primitives.prf.jce.JceAES;
 import edu.biu.scapi.tools.Factories.PrfFactory;
 
 /**
@@ -52,10 +53,11 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 	private boolean isKeySet;
 
 	/**
-	 * Default constructor. Uses default implementation PRF.
+	 * Default constructor. Uses default implementation PRF, which is the JCE AES. 
+	 * The JVM computes it with the AES instructions of the processor when they exist.
 	 */
 	public ScPrgFromPrf(){
-		prf = new BcAES();
+		prf = new JceAES();
 	}
 
 	/**
@@ -146,6 +148,12 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 			throw new ArrayIndexOutOfBoundsException("wrong offset for the given output buffer");
 		}
 
+		//If the prf is a fixed length permutation (for example, AES), compute all the blocks with a single call.
+		if (prf instanceof PrpFixed){
+			getPRPBytes((PrpFixed) prf, outBytes, outOffset, outLen);
+			return;
+		}
+
 		int numGeneratedBytes = 0;	//Number of current generated bytes.
 		byte [] generatedBytes = new byte[ctr.length];
 
@@ -192,6 +200,31 @@ public class ScPrgFromPrf implements PseudorandomGenerator{
 
 	}
 
+	/**
+	 * Generates outLen bytes using the given prp.<p>
+	 * The counters of all the full blocks are written to the output array and the prp computes them in place by a single call to computeBlocks.
+	 * The output is the same as the one of the general algorithm: the counter is increased once for each block, including the last partial block.
+	 */
+	private void getPRPBytes(PrpFixed prp, byte[] outBytes, int outOffset, int outLen){
+		int blockSize = ctr.length;
+		int numOfFullBlocks = outLen / blockSize;
+		
+		for (int i = 0; i < numOfFullBlocks; i++){
+			System.arraycopy(ctr, 0, outBytes, outOffset + i * blockSize, blockSize);
+			increaseCtr();
+		}
+		prp.computeBlocks(outBytes, outOffset, outBytes, outOffset, numOfFullBlocks);
+		
+		int remainder = outLen % blockSize;
+		if (remainder > 0){
+			//The output is written to a new array because the output array is not long enough to hold the last block.
+			byte [] generatedBytes = new byte[blockSize];
+			prp.computeBlocks(ctr, 0, generatedBytes, 0, 1);
+			System.arraycopy(generatedBytes, 0, outBytes, outOffset + numOfFullBlocks * blockSize, remainder);
+			increaseCtr();
+		}
+	}
+
 	/**
 	 * Increases the ctr byte array by 1 bit.
 	 */
@@ -0,0 +1,178 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+
+package edu.biu.scapi.tools;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+
+import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.tools.Factories.DlogGroupFactory;
+
+/**
+ * Splits the indices of a batch operation (batch OT, batch commitments, batch homomorphic operations, a large PRG request, ...) 
+ * into ranges that are computed in parallel.<p>
+ * 
+ * The first range is computed by the calling thread and the others by the threads of a pool that is shared by all the batch operations, 
+ * so no thread is created per call. The pool grows as needed, so a range may start a batch operation of its own. 
+ * An exception thrown in one of the ranges is rethrown in the calling thread.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public final class BatchRangeRunner {
+	
+	//The idle threads of the pool are kept for a minute and then removed.
+	private static final ExecutorService pool = Executors.newCachedThreadPool(new ThreadFactory() {
+		public Thread newThread(Runnable r) {
+			Thread thread = new Thread(r, "SCAPI batch worker");
+			thread.setDaemon(true);
+			return thread;
+		}
+	});
+	
+	private BatchRangeRunner(){}
+	
+	/**
+	 * A computation over a range of indices of the batch.
+	 */
+	public interface RangeTask {
+		/**
+		 * Computes the indices [from, to).
+		 * @param rangeIndex the index of the range, between 0 and the number of ranges - 1. Range 0 is computed by the calling thread.
+		 */
+		void compute(int rangeIndex, int from, int to);
+	}
+	
+	/**
+	 * Returns the number of ranges a batch of the given size is split into, so that each range has at least minPerRange indices.
+	 * @param size the number of indices.
+	 * @param numOfThreads the maximal number of ranges.
+	 * @param minPerRange the minimal number of indices that is worth a thread.
+	 */
+	public static int getNumOfRanges(int size, int numOfThreads, int minPerRange){
+		return Math.max(1, Math.min(numOfThreads, size / minPerRange));
+	}
+	
+	/**
+	 * Returns the number of threads that a batch on the given group can use: numOfThreads if the group can be copied 
+	 * (see {@link DlogGroupFactory#canCopy(DlogGroup)}), and 1 otherwise.
+	 */
+	public static int getNumOfThreads(DlogGroup group, int numOfThreads){
+		return DlogGroupFactory.getInstance().canCopy(group) ? numOfThreads : 1;
+	}
+	
+	/**
+	 * Returns the DlogGroup that the given range of a batch on the given group should compute with.<p>
+	 * A DlogGroup and its elements may not be used by several threads at the same time. Therefore, only range 0, which is 
+	 * computed by the calling thread, uses the given group. The other ranges use the copies of the group of their threads 
+	 * (see {@link DlogGroupFactory#getThreadCopy(DlogGroup)}), and move elements from and to the given group using their sendable data.
+	 * @param group the group of the batch.
+	 * @param rangeIndex the index of the range.
+	 */
+	public static DlogGroup getGroup(DlogGroup group, int rangeIndex){
+		return (rangeIndex == 0) ? group : DlogGroupFactory.getInstance().getThreadCopy(group);
+	}
+	
+	/**
+	 * Computes the given task on the indices [0, size), using up to numOfThreads threads. 
+	 * Each range has at least minPerRange indices.
+	 */
+	public static void run(int size, int numOfThreads, int minPerRange, RangeTask task){
+		runInRanges(size, getNumOfRanges(size, numOfThreads, minPerRange), task);
+	}
+	
+	/**
+	 * Splits the indices [0, size) into the given number of ranges of equal size (the last range gets the remainder) 
+	 * and computes the given task on each range.
+	 */
+	public static void runInRanges(int size, int numOfRanges, final RangeTask task){
+		if (numOfRanges <= 0){
+			throw new IllegalArgumentException("the number of ranges should be positive");
+		}
+		if (numOfRanges == 1){
+			task.compute(0, 0, size);
+			return;
+		}
+		int rangeSize = size / numOfRanges;
+		
+		List<Future<?>> futures = new ArrayList<Future<?>>(numOfRanges - 1);
+		for (int i = 1; i < numOfRanges; i++){
+			final int rangeIndex = i;
+			final int from = i * rangeSize;
+			final int to = (i == numOfRanges - 1) ? size : (i + 1) * rangeSize;
+			futures.add(pool.submit(new Runnable() {
+				public void run() {
+					task.compute(rangeIndex, from, to);
+				}
+			}, null));
+		}
+		
+		Throwable failure = null;
+		try {
+			task.compute(0, 0, rangeSize);
+		} catch (RuntimeException e) {
+			failure = e;
+		} catch (Error e) {
+			failure = e;
+		}
+		
+		//Wait for all the ranges, also after a failure, so that no range uses the batch after this function returns.
+		boolean interrupted = false;
+		for (int i = 0; i < futures.size(); i++){
+			while (true){
+				try {
+					futures.get(i).get();
+					break;
+				} catch (InterruptedException e) {
+					interrupted = true;
+				} catch (ExecutionException e) {
+					if (failure == null){
+						failure = e.getCause();
+					}
+					break;
+				}
+			}
+		}
+		if (interrupted){
+			Thread.currentThread().interrupt();
+		}
+		
+		if (failure instanceof Error){
+			throw (Error) failure;
+		}
+		if (failure instanceof RuntimeException){
+			throw (RuntimeException) failure;
+		}
+		if (failure != null){
+			throw new IllegalStateException(failure);
+		}
+	}
+}
@@ -74,6 +74,32 @@ public final class CryptographicHashFactory {
 		return (CryptographicHash) factoriesUtility.getObject(algName);
 	}
 
+	/** 
+	 * Returns a creator of CryptographicHash objects from a specified provider.<p>
+	 * The algorithm name is parsed and the constructor of the implementing class is resolved by this call, 
+	 * so creating each object costs only the constructor call.
+	 * @param algName the required algorithm name
+	 * @param provider the required provider name
+	 * @return a creator of objects of type CryptographicHash class that are determined by the algName + provider
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<CryptographicHash> getCreator(String algName, String provider) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(provider, algName, CryptographicHash.class);
+	}
+	
+	/** 
+	 * Returns a creator of CryptographicHash objects from the default provider of the algorithm.<p>
+	 * See {@link #getCreator(String, String)}.
+	 * @param algName the required algorithm name
+	 * @return a creator of objects of type CryptographicHash class that are determined by the algName + the default provider for that algorithm
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<CryptographicHash> getCreator(String algName) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(null, algName, CryptographicHash.class);
+	}
+	
 	/** 
 	 * @return the singleton instance.
 	 */
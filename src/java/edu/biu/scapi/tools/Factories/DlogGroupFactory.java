@@ -33,8 +33,15 @@
 
 package edu.biu.scapi.tools.Factories;
 
+import java.lang.reflect.InvocationTargetException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+
 import edu.biu.scapi.exceptions.FactoriesException;
 import edu.biu.scapi.primitives.dlog.DlogGroup;
+import edu.biu.scapi.primitives.dlog.DlogGroupEC;
+import edu.biu.scapi.primitives.dlog.groupParams.ZpGroupParams;
 
 /**
  * DlogGroupFactory is in charge of creating instances of different Dlog groups. Its implemented as a singleton.
@@ -46,6 +53,15 @@ public final class DlogGroupFactory {
 	
 	private FactoriesUtility factoriesUtility;
 	private static DlogGroupFactory instance = new DlogGroupFactory();
+	
+	//The shared groups of each thread. A group may not be used by several threads at the same time, so it is shared only by the calls of the same thread.
+	private volatile ThreadLocal<Map<String, DlogGroup>> threadGroups = newThreadGroups();
+	//Copies of groups that were created for other threads, for each thread. The keys are weak so that the copies are removed with their groups.
+	private ThreadLocal<Map<DlogGroup, DlogGroup>> threadCopies = new ThreadLocal<Map<DlogGroup, DlogGroup>>(){
+		protected Map<DlogGroup, DlogGroup> initialValue(){
+			return new WeakHashMap<DlogGroup, DlogGroup>();
+		}
+	};
 
 	
 	/*
@@ -90,6 +106,154 @@ public final class DlogGroupFactory {
 		return (DlogGroup) factoriesUtility.getObject(algName);
 	}
 
+	/**
+	 * This function returns a DlogGroup object from a specified provider that may be shared with other callers.<p>
+	 * Creating a group loads the group parameters and, for native groups, initializes the native library, 
+	 * so applications that use the same group in many places should use this function instead of getObject.<p>
+	 * A DlogGroup may not be used by several threads at the same time, so one instance is created for each thread, 
+	 * and it is returned to all the calls of that thread. Code that splits a computation on a group between threads 
+	 * should use {@link #getThreadCopy(DlogGroup)} in the other threads.<p>
+	 * The returned group is shared, so the caller should not release it or assume that it is the only user of its 
+	 * pre-computed values. 
+	 * @param algName is the name of a specific DlogGroup, as in getObject.
+	 * @param provider the required provider name
+	 * @return a shared object of type DlogGroup class that was determined by the algName + provider
+	 * @throws FactoriesException 
+	 */
+	public DlogGroup getSharedObject(String algName, String provider) throws FactoriesException {
+		
+		return getSharedObject(provider + ":" + algName, algName, provider);
+	}
+	
+	/**
+	 * This function returns a DlogGroup object from a default provider chosen by SCAPI that may be shared with other callers.<p>
+	 * See {@link #getSharedObject(String, String)} for the sharing policy.
+	 * @param algName is the name of a specific DlogGroup, as in getObject.
+	 * @return a shared object of type DlogGroup class that was determined by the algName + the default provider for that algorithm
+	 * @throws FactoriesException 
+	 */
+	public DlogGroup getSharedObject(String algName) throws FactoriesException {
+		
+		return getSharedObject(algName, algName, null);
+	}
+	
+	/**
+	 * Removes all the shared groups of all the threads from the cache, so that the next calls to getSharedObject create new groups.<p>
+	 * Groups that were already returned can still be used by their holders.
+	 */
+	public void clearSharedObjects() {
+		threadGroups = newThreadGroups();
+	}
+	
+	private static ThreadLocal<Map<String, DlogGroup>> newThreadGroups() {
+		return new ThreadLocal<Map<String, DlogGroup>>(){
+			protected Map<String, DlogGroup> initialValue(){
+				return new HashMap<String, DlogGroup>();
+			}
+		};
+	}
+	
+	private DlogGroup getSharedObject(String key, String algName, String provider) throws FactoriesException {
+		//Checks if this thread already created the group.
+		Map<String, DlogGroup> localGroups = threadGroups.get();
+		DlogGroup group = localGroups.get(key);
+		if (group == null){
+			group = (provider == null) ? getObject(algName) : getObject(algName, provider);
+			localGroups.put(key, group);
+		}
+		return group;
+	}
+
+	/**
+	 * Checks if {@link #getThreadCopy(DlogGroup)} can copy the given group.<p>
+	 * The elliptic curve groups of SCAPI are copied by their curve, and the Zp groups by their parameters.
+	 * @param group the group to check.
+	 * @return true if the group can be copied; false, otherwise.
+	 */
+	public boolean canCopy(DlogGroup group) {
+		try {
+			if (group instanceof DlogGroupEC){
+				group.getClass().getConstructor(String.class, String.class);
+				return true;
+			}
+			if (group.getGroupParams() instanceof ZpGroupParams){
+				group.getClass().getConstructor(ZpGroupParams.class);
+				return true;
+			}
+		} catch (NoSuchMethodException e) {
+			//The group has no public constructor that gets its parameters.
+		}
+		return false;
+	}
+	
+	/**
+	 * Returns a DlogGroup with the same parameters and generator as the given group, to be used by the calling thread.<p>
+	 * DlogGroup objects and their elements may not be used by several threads at the same time. Code that splits a computation 
+	 * on a group between threads should compute in each additional thread with a copy of the group, and move elements between 
+	 * the groups using their sendable data (see {@link DlogGroup#reconstructElement(boolean, edu.biu.scapi.primitives.dlog.GroupElementSendableData)}).<p>
+	 * The copy is created once for each thread and group, and it is returned to all the calls of that thread with that group.
+	 * @param group the group to copy.
+	 * @return the copy of the group of the calling thread.
+	 * @throws IllegalArgumentException if the group cannot be copied (see {@link #canCopy(DlogGroup)}).
+	 * @throws IllegalStateException if the creation of the copy failed.
+	 */
+	public DlogGroup getThreadCopy(DlogGroup group) {
+		Map<DlogGroup, DlogGroup> copies = threadCopies.get();
+		DlogGroup copy = copies.get(group);
+		if (copy == null){
+			copy = createCopy(group);
+			copies.put(group, copy);
+		}
+		return copy;
+	}
+	
+	private DlogGroup createCopy(DlogGroup group) {
+		if (!canCopy(group)){
+			throw new IllegalArgumentException("the given group cannot be copied");
+		}
+		try {
+			if (group instanceof DlogGroupEC){
+				DlogGroupEC ec = (DlogGroupEC) group;
+				return group.getClass().getConstructor(String.class, String.class).newInstance(ec.getFileName(), ec.getCurveName());
+			}
+			return group.getClass().getConstructor(ZpGroupParams.class).newInstance(group.getGroupParams());
+		} catch (NoSuchMethodException e) {
+			throw new IllegalStateException("failed to copy the group. The thrown message is: " + e.getMessage());
+		} catch (InstantiationException e) {
+			throw new IllegalStateException("failed to copy the group. The thrown message is: " + e.getMessage());
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException("failed to copy the group. The thrown message is: " + e.getMessage());
+		} catch (InvocationTargetException e) {
+			throw new IllegalStateException("failed to copy the group. The thrown message is: " + e.getCause());
+		}
+	}
+
+	/** 
+	 * Returns a creator of DlogGroup objects from a specified provider.<p>
+	 * The algorithm name is parsed and the constructor of the implementing class is resolved by this call, 
+	 * so creating each object costs only the constructor call.
+	 * @param algName the required algorithm name
+	 * @param provider the required provider name
+	 * @return a creator of objects of type DlogGroup class that are determined by the algName + provider
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<DlogGroup> getCreator(String algName, String provider) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(provider, algName, DlogGroup.class);
+	}
+	
+	/** 
+	 * Returns a creator of DlogGroup objects from the default provider of the algorithm.<p>
+	 * See {@link #getCreator(String, String)}.
+	 * @param algName the required algorithm name
+	 * @return a creator of objects of type DlogGroup class that are determined by the algName + the default provider for that algorithm
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<DlogGroup> getCreator(String algName) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(null, algName, DlogGroup.class);
+	}
+	
 	/** 
 	 * This function creates (if needed) and returns an instance of this factory.
 	 * @return the singleton instance.
@@ -34,6 +34,8 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.Properties;
 import java.util.Set;
 import java.util.Vector;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.logging.Level;
 
 
@@ -52,6 +54,10 @@ import edu.biu.scapi.generals.Logging;
 class FactoriesUtility {
 	private Properties defaultProviderMap;
 	private Properties algsInType;
+	//Constructors that were already resolved. The key is the provider, algorithm and parameter types.
+	private ConcurrentMap<String, Constructor<?>> constructors = new ConcurrentHashMap<String, Constructor<?>>();
+	//Creators of algorithm names that were already parsed. The key is the provider (empty for the default provider) and the full algorithm name.
+	private ConcurrentMap<String, Creator> creators = new ConcurrentHashMap<String, Creator>();
 	
 	private static final String PROPERTIES_FILES_PATH = "/propertiesFiles/";
 
@@ -241,6 +247,35 @@ class FactoriesUtility {
 	 */
 	public Object getObject(String provider, String algName, Object[] params) throws FactoriesException	{
 		
+		//fill the classes of the parameters. This will ensure that we get the right/relevant constructor
+		int size = params.length;
+		Class<?>[] classes = new Class<?>[size]; 
+		for(int i=0;i<size;i++){
+			classes[i] = params[i].getClass();
+		}
+		
+		//get the constructor that has <code>classes.length</code> number of arguments of the given types
+		Constructor<?> constructor = resolveConstructor(provider, algName, classes);
+		
+		//create an instance of type algClass by calling the obtained constructor
+		return newInstance(constructor, params);
+	}
+	
+	/*
+	 * Returns the constructor of the class that implements algName by the given provider and accepts the given parameter types.
+	 * The constructors are resolved once, and later calls with the same provider, algorithm and types get them from the cache 
+	 * without checking the properties or loading the class again.
+	 */
+	private Constructor<?> resolveConstructor(String provider, String algName, Class<?>[] classes) throws FactoriesException {
+		StringBuilder key = new StringBuilder().append(provider).append(':').append(algName);
+		for (int i = 0; i < classes.length; i++){
+			key.append(':').append(classes[i].getName());
+		}
+		Constructor<?> constructor = constructors.get(key.toString());
+		if (constructor != null){
+			return constructor;
+		}
+		
 		//check that the algorithm requested belongs to the cryptographic type for which the object is being created
 		boolean valid = checkAlgorithmsValidityForType(algName);
 		//if invalid throw IllegalArgumentException exception
@@ -260,41 +295,33 @@ class FactoriesUtility {
 		
 		//get the related algorithm class name
 		String className = algsInType.getProperty(keyToMap);
-		Class algClass  = null;			//will hold an Object of type Class representing our alg class
-		Object newObj = null;			//will the final create algorithm object
 		try {
-			
 			//get the class object thru the name of the algorithm class
-			algClass = Class.forName(className);
-	
-			//fill the classes of strings with the length of the vector. This will ensure that we get the right/relevant
-			//constructor
-			int size = params.length;
-			Class[] classes = new Class[size]; 
-			//fill the array with String classes
-			for(int i=0;i<size;i++){
-				classes[i] = params[i].getClass();
-			}
-			//get the constructor that has <code>classes.length</code> number of arguments of string type  
-			Constructor constructor = algClass.getConstructor(classes);
-			
-			
-			//prepare parameters for constructor:
-			//get the vector of parameters from the algorithm details object.
-			//create an instance of type algClass by calling the obtained constructor:
-			//NOTE (Secure coding) : The command newInstance with a parameter contains a potential security risk of creating undesired objects
-			//however, the parameters passed to the newInstance function are only those of algorithms we allow. That is, the classes that 
-			//can be created here are limited and controlled.
-			 newObj = constructor.newInstance(params);
-		//When JAVA SE7 will be available to use with the Eclipse IDE we can change the following ugly block of catches to the
-		//new, more elegant form  : catch ( SecurityException | NoSuchMethodException | ClassNotFoundException | IllegalArgumentException | 
-		//								    InstantiationException | IllegalAccessException | InvocationTargetException e)
+			Class<?> algClass = Class.forName(className);
+			constructor = algClass.getConstructor(classes);
 		} catch (SecurityException e) {
 			throw new FactoriesException(e);
 		} catch (NoSuchMethodException e) {
 			throw new FactoriesException(e);
 		} catch (ClassNotFoundException e) {
 			throw new FactoriesException(e);
+		}
+		
+		constructors.put(key.toString(), constructor);
+		return constructor;
+	}
+	
+	/*
+	 * Creates an instance by calling the given constructor with the given parameters.
+	 */
+	private Object newInstance(Constructor<?> constructor, Object[] params) throws FactoriesException {
+		try {
+			//NOTE (Secure coding) : The command newInstance with a parameter contains a potential security risk of creating undesired objects
+			//however, the parameters passed to the newInstance function are only those of algorithms we allow. That is, the classes that 
+			//can be created here are limited and controlled.
+			return constructor.newInstance(params);
+		//When JAVA SE7 will be available to use with the Eclipse IDE we can change the following ugly block of catches to the
+		//new, more elegant form  : catch ( IllegalArgumentException | InstantiationException | IllegalAccessException | InvocationTargetException e)
 		} catch (IllegalArgumentException e) {
 			throw new FactoriesException(e);
 		} catch (InstantiationException e) {
@@ -304,13 +331,7 @@ class FactoriesUtility {
 		} catch (InvocationTargetException e) {
 			throw new FactoriesException(e);
 		}
-		
-		//Finally, if we got to this, return the newly created object!!
-		return  newObj;
-		
-	}	
-	
-	
+	}
 
 	/* 
 	 * @param provider - the required provider name
@@ -318,12 +339,8 @@ class FactoriesUtility {
 	 * @return an object of the class that was determined by the algName + the provider for that algorithm.
 	 */
 	public Object getObject(String provider, String algName) throws FactoriesException {
-	
-		//get the parsed algorithm details to have name and params
-		AlgDetails algDetails = parseAlgNames(algName);
-		
 		
-		return getObject(provider, algDetails.name, algDetails.params.toArray());
+		return getCreator(provider, algName).create();
 	}
 	
 	/* 
@@ -331,14 +348,9 @@ class FactoriesUtility {
 	 * @param algName the required algorithm name
 	 * @return an object of the class that was determined by the algName + the default provider for that algorithm
 	 */
-	public Object getObject(String algName) throws FactoriesException /*throws IllegalArgumentException, SecurityException, ClassNotFoundException, 
-												   NoSuchMethodException, InstantiationException, IllegalAccessException, 
-												   InvocationTargetException*/{
+	public Object getObject(String algName) throws FactoriesException {
 
-		//no provider has been supplied. Get the provider name from the default implementation properties.
-		String provider = getDefaultImplProvider(algName);
-		
-		return getObject(provider, algName);
+		return getCreator(null, algName).create();
 	}
 	
 	/* 
@@ -347,9 +359,7 @@ class FactoriesUtility {
 	 * @param params - the required parameters to the algorithm
 	 * @return an object of the class that was determined by the algName + the default provider for that algorithm.
 	 */
-	public Object getObject(String algName, Object[] params) throws FactoriesException /*throws IllegalArgumentException, SecurityException, ClassNotFoundException,
-																	NoSuchMethodException, InstantiationException, IllegalAccessException, 
-																	InvocationTargetException */{
+	public Object getObject(String algName, Object[] params) throws FactoriesException {
 
 		//no provider has been supplied. Get the provider name from the default implementation properties.
 		String provider = getDefaultImplProvider(algName);
@@ -357,6 +367,72 @@ class FactoriesUtility {
 		return getObject(provider, algName, params);
 	}
 	
+	/*
+	 * Returns a creator of the objects determined by the given provider and algorithm name, which may contain parameters 
+	 * such as "HMac(SHA-256)". The name is parsed and the constructor is resolved only the first time a name is requested.
+	 * @param provider the required provider name, or null to use the default provider of the algorithm.
+	 * @param algName the required algorithm name.
+	 */
+	private Creator getCreator(String provider, String algName) throws FactoriesException {
+		String key = (provider == null) ? ":" + algName : provider + ":" + algName;
+		Creator creator = creators.get(key);
+		if (creator != null){
+			return creator;
+		}
+		
+		//no provider has been supplied. Get the provider name from the default implementation properties.
+		if (provider == null){
+			provider = getDefaultImplProvider(algName);
+		}
+		//get the parsed algorithm details to have name and params
+		AlgDetails algDetails = parseAlgNames(algName);
+		Object[] params = algDetails.params.toArray();
+		Class<?>[] classes = new Class<?>[params.length];
+		for (int i = 0; i < params.length; i++){
+			classes[i] = String.class;
+		}
+		
+		creator = new Creator(resolveConstructor(provider, algDetails.name, classes), params);
+		creators.put(key, creator);
+		return creator;
+	}
+	
+	/*
+	 * Returns a creator of objects of the given type that are determined by the given provider and algorithm name.
+	 * The constructor is resolved by this call, so errors in the name are reported here and not when creating the objects.
+	 * @param provider the required provider name, or null to use the default provider of the algorithm.
+	 * @param algName the required algorithm name.
+	 * @param type the type of the created objects.
+	 */
+	public <T> ObjectCreator<T> getCreator(String provider, String algName, final Class<T> type) throws FactoriesException {
+		final Creator creator = getCreator(provider, algName);
+		if (!type.isAssignableFrom(creator.constructor.getDeclaringClass())){
+			throw new FactoriesException(new ClassCastException(creator.constructor.getDeclaringClass().getName() + " is not a " + type.getName()));
+		}
+		return new ObjectCreator<T>(){
+			public T create() throws FactoriesException {
+				return type.cast(creator.create());
+			}
+		};
+	}
+	
+	/*
+	 * Holds a resolved constructor together with the parameters parsed from the algorithm name.
+	 */
+	private class Creator {
+		private Constructor<?> constructor;
+		private Object[] params;
+		
+		Creator(Constructor<?> constructor, Object[] params){
+			this.constructor = constructor;
+			this.params = params;
+		}
+		
+		Object create() throws FactoriesException {
+			return newInstance(constructor, params);
+		}
+	}
+	
 	//nested class:
 	class AlgDetails{
 		public String name;					//the name  of the main algorithm
@@ -80,6 +80,32 @@ public final class PrgFactory {
 		return (PseudorandomGenerator) factoriesUtility.getObject(algName);
 	}
 
+	/** 
+	 * Returns a creator of PseudorandomGenerator objects from a specified provider.<p>
+	 * The algorithm name is parsed and the constructor of the implementing class is resolved by this call, 
+	 * so creating each object costs only the constructor call.
+	 * @param algName the required algorithm name
+	 * @param provider the required provider name
+	 * @return a creator of objects of type PseudorandomGenerator class that are determined by the algName + provider
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<PseudorandomGenerator> getCreator(String algName, String provider) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(provider, algName, PseudorandomGenerator.class);
+	}
+	
+	/** 
+	 * Returns a creator of PseudorandomGenerator objects from the default provider of the algorithm.<p>
+	 * See {@link #getCreator(String, String)}.
+	 * @param algName the required algorithm name
+	 * @return a creator of objects of type PseudorandomGenerator class that are determined by the algName + the default provider for that algorithm
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<PseudorandomGenerator> getCreator(String algName) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(null, algName, PseudorandomGenerator.class);
+	}
+	
 	/** 
 	 * @return the singleton instance.
 	 */
@@ -75,6 +75,32 @@ public class RandomOracleFactory {
 		return (RandomOracle) factoriesUtility.getObject(algName);
 	}
 
+	/** 
+	 * Returns a creator of RandomOracle objects from a specified provider.<p>
+	 * The algorithm name is parsed and the constructor of the implementing class is resolved by this call, 
+	 * so creating each object costs only the constructor call.
+	 * @param algName the required algorithm name
+	 * @param provider the required provider name
+	 * @return a creator of objects of type RandomOracle class that are determined by the algName + provider
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<RandomOracle> getCreator(String algName, String provider) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(provider, algName, RandomOracle.class);
+	}
+	
+	/** 
+	 * Returns a creator of RandomOracle objects from the default provider of the algorithm.<p>
+	 * See {@link #getCreator(String, String)}.
+	 * @param algName the required algorithm name
+	 * @return a creator of objects of type RandomOracle class that are determined by the algName + the default provider for that algorithm
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<RandomOracle> getCreator(String algName) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(null, algName, RandomOracle.class);
+	}
+	
 	/** 
 	 * @return the singleton instance.
 	 */
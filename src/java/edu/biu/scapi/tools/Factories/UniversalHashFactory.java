@@ -78,6 +78,32 @@ public final class UniversalHashFactory {
 		return (UniversalHash) factoriesUtility.getObject(algName);
 	}
 
+	/** 
+	 * Returns a creator of UniversalHash objects from a specified provider.<p>
+	 * The algorithm name is parsed and the constructor of the implementing class is resolved by this call, 
+	 * so creating each object costs only the constructor call.
+	 * @param algName the required algorithm name
+	 * @param provider the required provider name
+	 * @return a creator of objects of type UniversalHash class that are determined by the algName + provider
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<UniversalHash> getCreator(String algName, String provider) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(provider, algName, UniversalHash.class);
+	}
+	
+	/** 
+	 * Returns a creator of UniversalHash objects from the default provider of the algorithm.<p>
+	 * See {@link #getCreator(String, String)}.
+	 * @param algName the required algorithm name
+	 * @return a creator of objects of type UniversalHash class that are determined by the algName + the default provider for that algorithm
+	 * @throws FactoriesException 
+	 */
+	public ObjectCreator<UniversalHash> getCreator(String algName) throws FactoriesException {
+		
+		return factoriesUtility.getCreator(null, algName, UniversalHash.class);
+	}
+	
 	/** 
 	 * @return the singleton instance.
 	 */
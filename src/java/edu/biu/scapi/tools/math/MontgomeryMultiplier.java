@@ -0,0 +1,130 @@
+/**
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+* Copyright (c) 2012 - SCAPI (http://crypto.biu.ac.il/scapi)
+* This file is part of the SCAPI project.
+* DO NOT ALTER OR REMOVE COPYRIGHT NOTICES OR THIS FILE HEADER.
+* 
+* Permission is hereby granted, free of charge, to any person obtaining a copy of this software and associated documentation files (the "Software"),
+* to deal in the Software without restriction, including without limitation the rights to use, copy, modify, merge, publish, distribute, sublicense, 
+* and/or sell copies of the Software, and to permit persons to whom the Software is furnished to do so, subject to the following conditions:
+* 
+* The above copyright notice and this permission notice shall be included in all copies or substantial portions of the Software.
+* 
+* THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY, FITNESS
+* FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+* WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE SOFTWARE.
+* 
+* We request that any publication and/or code referring to and/or based on SCAPI contain an appropriate citation to SCAPI, including a reference to
+* http://crypto.biu.ac.il/SCAPI.
+* 
+* SCAPI uses Crypto++, Miracl, NTL and Bouncy Castle. Please see these projects for any further licensing issues.
+* %%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%%
+* 
+*/
+package edu.biu.scapi.tools.math;
+
+import java.math.BigInteger;
+
+/**
+ * This class multiplies numbers modulo an odd modulus N using Montgomery reduction.<p>
+ * 
+ * Let R = 2^k where k is the bit length of N. The Montgomery product of a and b is a*b*R^(-1) mod N. 
+ * It is computed using multiplications, masks and shifts only, without the long division that BigInteger.mod performs, 
+ * which makes it faster for long chains of modular multiplications such as the product of many ciphertexts.<p>
+ * 
+ * A product of m values that are not in Montgomery form is computed by chaining m-1 Montgomery products, 
+ * which gives the product multiplied by R^(-(m-1)), and fixing the result with a single multiplication by R^(m-1) mod N. 
+ * Therefore, there is no need to convert each value into Montgomery form.<p>
+ * 
+ * This class is immutable and thread safe.
+ * 
+ * @author Cryptography and Computer Security Research Group Department of Computer Science Bar-Ilan University
+ *
+ */
+public class MontgomeryMultiplier {
+	
+	private BigInteger modulus;	//N
+	private int k;					//R = 2^k
+	private BigInteger mask;		//R - 1
+	private BigInteger nPrime;		//-N^(-1) mod R
+	private BigInteger rModN;		//R mod N
+	
+	/**
+	 * Constructor that sets the modulus.
+	 * @param modulus odd modulus N, greater than 1.
+	 * @throws IllegalArgumentException if the modulus is even or smaller than 3.
+	 */
+	public MontgomeryMultiplier(BigInteger modulus){
+		if (!modulus.testBit(0) || modulus.compareTo(BigInteger.valueOf(3)) < 0){
+			throw new IllegalArgumentException("the modulus should be an odd number greater than 1");
+		}
+		this.modulus = modulus;
+		k = modulus.bitLength();
+		BigInteger r = BigInteger.ONE.shiftLeft(k);
+		mask = r.subtract(BigInteger.ONE);
+		nPrime = modulus.modInverse(r).negate().mod(r);
+		rModN = r.mod(modulus);
+	}
+	
+	/**
+	 * Returns the modulus N.
+	 */
+	public BigInteger getModulus(){
+		return modulus;
+	}
+	
+	/**
+	 * Computes the Montgomery product a*b*R^(-1) mod N.
+	 * @param a a number in [0, N).
+	 * @param b a number in [0, N).
+	 * @return a*b*R^(-1) mod N
+	 */
+	public BigInteger multiply(BigInteger a, BigInteger b){
+		return reduce(a.multiply(b));
+	}
+	
+	/**
+	 * Computes the product of values[from], ..., values[to-1] modulo N.<p>
+	 * The values are reduced modulo N if needed.
+	 * @param values the numbers to multiply.
+	 * @param from index of the first value (inclusive).
+	 * @param to index of the last value (exclusive).
+	 * @return the product modulo N. If the range is empty, returns 1.
+	 */
+	public BigInteger product(BigInteger[] values, int from, int to){
+		if (to <= from){
+			return BigInteger.ONE;
+		}
+		BigInteger acc = reduceInput(values[from]);
+		for (int i = from + 1; i < to; i++){
+			acc = reduce(acc.multiply(reduceInput(values[i])));
+		}
+		//acc = product * R^(-(m-1)). Multiply by R^(m-1) in order to get the product.
+		int m = to - from;
+		if (m == 1){
+			return acc;
+		}
+		BigInteger fix = rModN.modPow(BigInteger.valueOf(m - 1), modulus);
+		return acc.multiply(fix).mod(modulus);
+	}
+	
+	/**
+	 * Montgomery reduction: given 0 <= t < N*R, returns t*R^(-1) mod N.
+	 */
+	private BigInteger reduce(BigInteger t){
+		BigInteger m = t.and(mask).multiply(nPrime).and(mask);
+		BigInteger u = t.add(m.multiply(modulus)).shiftRight(k);
+		if (u.compareTo(modulus) >= 0){
+			u = u.subtract(modulus);
+		}
+		return u;
+	}
+	
+	private BigInteger reduceInput(BigInteger value){
+		if (value.signum() < 0 || value.compareTo(modulus) >= 0){
+			return value.mod(modulus);
+		}
+		return value;
+	}
+}
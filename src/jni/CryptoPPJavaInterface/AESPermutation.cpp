@@ -116,6 +116,31 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_op
 	  env->ReleaseByteArrayElements(inBytes,in,0);
 }
 
+/*
+ * function computeBlocks		: Computes the AES permutation on length bytes of the input array, starting at the given offsets.
+ *								  All the blocks are processed by one call to AdvancedProcessBlocks, which uses the pipelined 
+ *								  (and AES-NI, when available) implementation of Crypto++. The input and output can be the same array.
+ * param aes					: pointer to the AESEncryption object.
+ * param inBytes				: The input array.
+ * param inOffset				: The offset of the first block in the input array.
+ * param outBytes				: The output array.
+ * param outOffset				: The offset within the output array to put the result from.
+ * param length					: The number of bytes to compute. Must be a multiple of the block size.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_computeBlocks
+  (JNIEnv *env, jobject, jlong aes, jbyteArray inBytes, jint inOffset, jbyteArray outBytes, jint outOffset, jint length){
+
+	  //Get direct access to the java arrays. No JNI calls are made until they are released.
+	  jbyte *in = (jbyte*) env->GetPrimitiveArrayCritical(inBytes, 0);
+	  jbyte *out = (jbyte*) env->GetPrimitiveArrayCritical(outBytes, 0);
+
+	  ((AESEncryption*)aes)->AdvancedProcessBlocks((byte*)(in + inOffset), NULL, (byte*)(out + outOffset), length, 0);
+
+	  //Release the arrays. The input is not copied back since it was not changed (unless it is also the output).
+	  env->ReleasePrimitiveArrayCritical(outBytes, out, 0);
+	  env->ReleasePrimitiveArrayCritical(inBytes, in, JNI_ABORT);
+}
+
 JNIEXPORT jstring JNICALL Java_edu_biu_scapi_primitives_prf_cryptopp_CryptoPpAES_getName
   (JNIEnv *env, jobject, jlong aes){
 	  string name = ((AESEncryption*)aes)->AlgorithmName();
@@ -148,6 +148,36 @@ JNIEXPORT jint JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_
 
 
 
+/* function updateHashBuffer : This function updates the hash function with the bytes of a direct buffer, without copying them
+ * param hashPtr	   : The actual hash object pointer to update
+ * param buffer		   : the direct buffer that contains the data
+ * param offset		   : the offset of the data within the buffer
+ * param len		   : the length of the data
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_updateHashBuffer
+(JNIEnv *env, jobject, jlong hashPtr, jobject buffer, jint offset, jint len){
+
+	//get the address of the buffer's memory
+	byte *data = (byte *) env->GetDirectBufferAddress(buffer);
+
+	((HashTransformation *)hashPtr)->Update(data + offset, len);
+}
+
+/* function copyHash : This function creates a new hash with a copy of the state of the given hash
+ * param hashPtr	 : The actual hash object pointer to copy
+ * return			 : A pointer to the created hash.
+ */
+JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_copyHash
+(JNIEnv *, jobject, jlong hashPtr){
+
+	//all the SHA hashes are clonable. The clone holds the same intermediate state.
+	Clonable *clonable = dynamic_cast<Clonable *>((HashTransformation *)hashPtr);
+	if (clonable == NULL)
+		return 0;
+
+	return (jlong) dynamic_cast<HashTransformation *>(clonable->Clone());
+}
+
 /* function deleteHash : This function deletes the hash dynamically allocated pointer that was created in c++. This
  *						 memory allocation will not be deleted by the JVM.
  * param hashPtr	   : The actual hash object pointer 
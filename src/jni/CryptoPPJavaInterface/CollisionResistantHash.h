@@ -76,6 +76,22 @@ JNIEXPORT jint JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_
   (JNIEnv *, jobject, jlong);
 
 
+/*
+ * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
+ * Method:    updateHashBuffer
+ * Signature: (JLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_updateHashBuffer
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
+ * Method:    copyHash
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash_copyHash
+  (JNIEnv *, jobject, jlong);
+
 /*
  * Class:     edu_biu_scapi_primitives_hash_cryptopp_CryptoPpHash
  * Method:    deleteHash
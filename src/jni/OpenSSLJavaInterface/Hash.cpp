@@ -130,10 +130,42 @@ JNIEXPORT jint JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_ge
 	  return EVP_MD_CTX_size((EVP_MD_CTX *)hash);
 }
 
+/* 
+ * function updateHashBuffer	: Update the hash function with the bytes of a direct buffer, without copying them.
+ * param hash					: Pointer to the native hash.
+ * param buffer					: The direct buffer that contains the message.
+ * param offset					: The offset of the message within the buffer.
+ * param len					: The length of the message.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_updateHashBuffer
+  (JNIEnv *env, jobject, jlong hash, jobject buffer, jint offset, jint len){
+	  //Get the address of the buffer's memory.
+	  char* msg = (char*) env->GetDirectBufferAddress(buffer);
+
+	  //Update the hash with the message.
+	  EVP_DigestUpdate((EVP_MD_CTX *) hash, msg + offset, len);
+}
+
+/* 
+ * function copyHash	: Creates a new hash structure with a copy of the state of the given hash.
+ * param hash			: Pointer to the native hash to copy.
+ * return				: Pointer to the created hash.
+ */
+JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_copyHash
+  (JNIEnv *, jobject, jlong hash){
+	  EVP_MD_CTX* mdctx = EVP_MD_CTX_create();
+	  if (0 == (EVP_MD_CTX_copy_ex(mdctx, (EVP_MD_CTX *) hash))) {
+		  EVP_MD_CTX_destroy(mdctx);
+		  return 0;
+	  }
+
+	  return (long) mdctx;
+}
+
 /* 
  * function deleteHash	: Deletes the hash structure.
  */
 JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_deleteHash
   (JNIEnv *, jobject, jlong hash){
 	  EVP_MD_CTX_destroy((EVP_MD_CTX *)hash);
-}
\ No newline at end of file
+}
\ No newline at end of file
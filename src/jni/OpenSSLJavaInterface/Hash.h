@@ -72,6 +72,22 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_fi
 JNIEXPORT jint JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_getDigestSize
   (JNIEnv *, jobject, jlong);
 
+/*
+ * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
+ * Method:    updateHashBuffer
+ * Signature: (JLjava/nio/ByteBuffer;II)V
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_updateHashBuffer
+  (JNIEnv *, jobject, jlong, jobject, jint, jint);
+
+/*
+ * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
+ * Method:    copyHash
+ * Signature: (J)J
+ */
+JNIEXPORT jlong JNICALL Java_edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash_copyHash
+  (JNIEnv *, jobject, jlong);
+
 /*
  * Class:     edu_biu_scapi_primitives_hash_openSSL_OpenSSLHash
  * Method:    deleteHash
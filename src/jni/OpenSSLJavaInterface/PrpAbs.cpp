@@ -114,6 +114,32 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_doOp
 	  delete (outBlock);
 }
 
+/* 
+ * function computeBlocks			: Compute the PRP on length bytes of the input array, starting at the given offsets.
+ *									  All the blocks are computed by one call to EVP_EncryptUpdate, directly into the output array.
+ *									  The input and output can be the same array.
+ * param prp						: pointer to the PRP object.
+ * param inBytes					: The input array to cumpute the permutation on.
+ * param inOffset					: The offset of the first block in the input array.
+ * param outBytes					: The output array to hold the permutation result.
+ * param outOffset					: The offset within the output array to put the result from.
+ * param length						: The number of bytes to compute. Must be a multiple of the block size.
+ */
+JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_computeBlocks
+  (JNIEnv *env, jobject, jlong prp, jbyteArray inBytes, jint inOffset, jbyteArray outBytes, jint outOffset, jint length){
+	  //Get direct access to the java arrays. No JNI calls are made until they are released.
+	  jbyte *in = (jbyte*) env->GetPrimitiveArrayCritical(inBytes, 0);
+	  jbyte *out = (jbyte*) env->GetPrimitiveArrayCritical(outBytes, 0);
+	  int size;
+
+	  //Compute the prp on all the blocks. ECB mode without padding writes exactly length bytes.
+	  EVP_EncryptUpdate ((EVP_CIPHER_CTX*)prp, (unsigned char*)(out + outOffset), &size, (unsigned char*)(in + inOffset), length);
+
+	  //Release the arrays. The input is not copied back since it was not changed (unless it is also the output).
+	  env->ReleasePrimitiveArrayCritical(outBytes, out, 0);
+	  env->ReleasePrimitiveArrayCritical(inBytes, in, JNI_ABORT);
+}
+
 /* 
  * function doOptimizedInvert		: Inverts the PRP on the given input array. The array can be longer than one block.
  * param prp						: pointer to the PRP object.
@@ -153,4 +179,4 @@ JNIEXPORT void JNICALL Java_edu_biu_scapi_primitives_prf_openSSL_OpenSSLPRP_dele
 	  EVP_CIPHER_CTX_cleanup((EVP_CIPHER_CTX*)invertP);
 	  EVP_CIPHER_CTX_free((EVP_CIPHER_CTX*)computeP);
 	  EVP_CIPHER_CTX_free((EVP_CIPHER_CTX*)invertP);
-}
\ No newline at end of file
+}
\ No newline at end of file